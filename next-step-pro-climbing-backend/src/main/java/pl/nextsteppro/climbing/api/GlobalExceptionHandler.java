@@ -4,6 +4,7 @@ import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -17,6 +18,7 @@ import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 import pl.nextsteppro.climbing.api.auth.EmailNotVerifiedException;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingBusyException;
 
 import java.time.Instant;
 import java.util.stream.Collectors;
@@ -111,6 +113,19 @@ public class GlobalExceptionHandler {
             .body(new ErrorResponse("PAYLOAD_TOO_LARGE", messageService.get("file.too.large"), Instant.now()));
     }
 
+    /**
+     * Every image decode slot stayed taken for the whole wait — a burst of uploads, not a bad one.
+     * A 503 with {@code Retry-After} says exactly that, and nothing was stored, so sending the same
+     * file again is safe.
+     */
+    @ExceptionHandler(ImageProcessingBusyException.class)
+    public ResponseEntity<ErrorResponse> handleImageProcessingBusy(ImageProcessingBusyException ex) {
+        log.warn("Image processing busy: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "10")
+            .body(new ErrorResponse("SERVICE_UNAVAILABLE", messageService.get("file.processing.busy"), Instant.now()));
+    }
+
     /**
      * A path variable or query parameter that will not convert — {@code /ascents/nie-uuid},
      * {@code ?terrain=SPACE}, {@code ?date=wczoraj}. The client sent nonsense, so this is a 400.
@@ -31,8 +31,9 @@ import pl.nextsteppro.climbing.domain.user.UserRole;
 
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.MailService;
-import pl.nextsteppro.climbing.infrastructure.security.JwtAuthenticationFilter;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.api.reservation.EventWaitlistService;
 import pl.nextsteppro.climbing.api.reservation.UserSeatReleaseService;
 import pl.nextsteppro.climbing.api.trainingcalendar.CommentFileSupport;
@@ -78,7 +79,7 @@ public class AdminService {
     private final AuthTokenRepository authTokenRepository;
     private final MailService mailService;
     private final ActivityLogService activityLogService;
-    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final UserCacheEvictions userCacheEvictions;
     private final MessageService msg;
     private final WaitlistRepository waitlistRepository;
     private final EventWaitlistRepository eventWaitlistRepository;
@@ -90,6 +91,7 @@ public class AdminService {
     private final ReservedSeatRepository reservedSeatRepository;
     private final TrainingRequestRepository trainingRequestRepository;
     private final pl.nextsteppro.climbing.api.trainingcalendar.TrainingCalendarService trainingCalendarService;
+    private final CalendarCacheInvalidator calendarCache;
 
     public AdminService(TimeSlotRepository timeSlotRepository,
                        EventRepository eventRepository,
@@ -100,7 +102,7 @@ public class AdminService {
                        AuthTokenRepository authTokenRepository,
                        MailService mailService,
                        ActivityLogService activityLogService,
-                       JwtAuthenticationFilter jwtAuthenticationFilter,
+                       UserCacheEvictions userCacheEvictions,
                        MessageService msg,
                        WaitlistRepository waitlistRepository,
                        EventWaitlistRepository eventWaitlistRepository,
@@ -111,7 +113,8 @@ public class AdminService {
                        CommentFileSupport commentFileSupport,
                        ReservedSeatRepository reservedSeatRepository,
                        TrainingRequestRepository trainingRequestRepository,
-                       pl.nextsteppro.climbing.api.trainingcalendar.TrainingCalendarService trainingCalendarService) {
+                       pl.nextsteppro.climbing.api.trainingcalendar.TrainingCalendarService trainingCalendarService,
+                       CalendarCacheInvalidator calendarCache) {
         this.timeSlotRepository = timeSlotRepository;
         this.eventRepository = eventRepository;
         this.courseRepository = courseRepository;
@@ -121,7 +124,7 @@ public class AdminService {
         this.authTokenRepository = authTokenRepository;
         this.mailService = mailService;
         this.activityLogService = activityLogService;
-        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.userCacheEvictions = userCacheEvictions;
         this.msg = msg;
         this.waitlistRepository = waitlistRepository;
         this.eventWaitlistRepository = eventWaitlistRepository;
@@ -133,13 +136,9 @@ public class AdminService {
         this.reservedSeatRepository = reservedSeatRepository;
         this.trainingRequestRepository = trainingRequestRepository;
         this.trainingCalendarService = trainingCalendarService;
+        this.calendarCache = calendarCache;
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public TimeSlotAdminDto createTimeSlot(UUID adminId, CreateTimeSlotRequest request) {
         if (!request.endTime().isAfter(request.startTime())) {
             throw new IllegalArgumentException(msg.get("admin.slot.end.after.start"));
@@ -169,6 +168,7 @@ public class AdminService {
         slot.setUnavailable(request.isUnavailable());
 
         slot = timeSlotRepository.save(slot);
+        calendarCache.evictSlot(slot);
 
         // Nobody is invited to an absence — the picker is hidden, and this makes the API agree.
         if (request.invitedUserIds() != null && !slot.isUnavailable()) {
@@ -185,14 +185,11 @@ public class AdminService {
         return toTimeSlotAdminDto(slot);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public SlotUpdateResultDto updateTimeSlot(UUID adminId, UUID slotId, UpdateTimeSlotRequest request) {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        // Evicts the slot's current date; the save below evicts wherever it moves to.
+        calendarCache.evictSlot(slot);
 
         LocalDate oldDate = slot.getDate();
         LocalTime oldStart = slot.getStartTime();
@@ -235,6 +232,7 @@ public class AdminService {
         }
 
         slot = timeSlotRepository.save(slot);
+        calendarCache.evictSlot(slot);
 
         // An absence keeps no held seats; anything the admin had invited is released here.
         if (slot.isUnavailable()) {
@@ -286,8 +284,8 @@ public class AdminService {
                 ));
             }
             if (!changes.isEmpty()) {
-                // JOIN FETCH variant, as in blockTimeSlot: the mail is @Async and touches the user
-                // on the mail thread, where a lazy proxy has no session left to initialise.
+                // JOIN FETCH variant, as in blockTimeSlot: every mail reads the user, so one query
+                // instead of a lazy load per participant.
                 List<Reservation> confirmed = reservationRepository.findConfirmedByTimeSlotIds(List.of(slot.getId()));
                 String displayTitle = slot.getDisplayTitle();
                 for (Reservation reservation : confirmed) {
@@ -309,24 +307,17 @@ public class AdminService {
             toTimeSlotAdminDto(slot, confirmedSeats + guestSeats), notifiedCount, confirmedSeats > 0);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void blockTimeSlot(UUID adminId, UUID slotId, @Nullable String reason) {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         // Blocking an archived slot is tidying up, not a cancellation anyone needs to hear about.
         boolean slotIsOver = BookingTimeValidator.isPast(slot.getDate(), slot.getEndTime());
-        // Multi-slot variant (has JOIN FETCH user), exactly as deleteTimeSlot does: the mail is
-        // @Async and dereferences reservation.getUser() on the mail thread, where open-in-view=false
-        // leaves no session to initialise a lazy proxy. The resulting LazyInitializationException is
-        // swallowed by the async decorator, so the cancellation mails vanished without a trace.
+        // Multi-slot variant (has JOIN FETCH user), exactly as deleteTimeSlot does: every
+        // cancellation mail reads the user, so one query instead of a lazy load per participant.
         List<Reservation> confirmed = reservationRepository.findConfirmedByTimeSlotIds(List.of(slotId));
         for (Reservation reservation : confirmed) {
-            reservation.getUser();     // force-load user proxy while still managed
             reservation.cancelByAdmin();
             reservationRepository.save(reservation);
             activityLogService.logCancelledByAdmin(reservation.getUser(), slot, reservation.getParticipants());
@@ -346,14 +337,10 @@ public class AdminService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void unblockTimeSlot(UUID adminId, UUID slotId) {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         slot.unblock();
         timeSlotRepository.save(slot);
@@ -370,14 +357,10 @@ public class AdminService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void deleteTimeSlot(UUID adminId, UUID slotId) {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         // "Past" = slot fully ended (same definition as the archive query findPastOrdered):
         // a slot that already ended earlier *today* is archived, so deleting it must NOT notify.
@@ -622,11 +605,6 @@ public class AdminService {
         return new AdminWaitlistsDto(List.copyOf(slotGroups.values()), List.copyOf(eventGroups.values()));
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public EventAdminDto createEvent(UUID adminId, CreateEventRequest request) {
         Event event = new Event(
             request.title(),
@@ -648,6 +626,7 @@ public class AdminService {
         }
 
         event = eventRepository.save(event);
+        calendarCache.evictEvent(event);
 
         if (request.invitedUserIds() != null) {
             syncEventInvites(event, request.invitedUserIds());
@@ -663,14 +642,11 @@ public class AdminService {
         return toEventAdminDto(event);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public EventUpdateResultDto updateEvent(UUID adminId, UUID eventId, UpdateEventRequest request) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        // The range before the edit; the save below evicts the range after it.
+        calendarCache.evictEvent(event);
 
         String oldTitle = event.getTitle();
         String oldLocation = event.getLocation();
@@ -722,6 +698,7 @@ public class AdminService {
         }
 
         event = eventRepository.save(event);
+        calendarCache.evictEvent(event);
 
         if (request.invitedUserIds() != null) {
             syncEventInvites(event, request.invitedUserIds());
@@ -796,14 +773,10 @@ public class AdminService {
         return new EventUpdateResultDto(toEventAdminDto(event), notifiedCount, hadParticipants);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void deleteEvent(UUID adminId, UUID eventId) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
 
         // An event ending TODAY is not over yet — cancelling it is exactly the mail people need.
         boolean isPast = BookingTimeValidator.dayHasPassed(event.getEndDate());
@@ -992,7 +965,7 @@ public class AdminService {
 
         user.setRole(UserRole.ADMIN);
         userRepository.save(user);
-        jwtAuthenticationFilter.evictUser(userId);
+        userCacheEvictions.evict(userId);
 
         User admin = userRepository.findById(adminId).orElseThrow();
         activityLogService.logAdminUserMakeAdmin(admin, user.getFullName() + " (" + user.getEmail() + ")");
@@ -1008,7 +981,7 @@ public class AdminService {
 
         user.setRole(UserRole.USER);
         userRepository.save(user);
-        jwtAuthenticationFilter.evictUser(userId);
+        userCacheEvictions.evict(userId);
 
         User admin = userRepository.findById(adminId).orElseThrow();
         activityLogService.logAdminUserAdminRemoved(admin, user.getFullName() + " (" + user.getEmail() + ")");
@@ -1026,6 +999,8 @@ public class AdminService {
 
         user.setAthlete(isAthlete);
         userRepository.save(user);
+        // The flag is part of the cached principal, and a live session should see it change.
+        userCacheEvictions.evict(userId);
 
         User admin = userRepository.findById(adminId).orElseThrow();
         activityLogService.logAdminUserAthleteToggled(admin,
@@ -1066,7 +1041,7 @@ public class AdminService {
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         authTokenRepository.deleteByUserIdAndTokenType(userId, TokenType.REFRESH_TOKEN);
-        jwtAuthenticationFilter.evictUser(userId);
+        userCacheEvictions.evict(userId);
 
         User admin = userRepository.findById(adminId).orElseThrow();
         activityLogService.logAdminUserForceLogout(admin, user.getFullName() + " (" + user.getEmail() + ")");
@@ -1101,7 +1076,7 @@ public class AdminService {
         commentFileSupport.purgeForUser(userId);
         authTokenRepository.deleteAllByUserId(userId);
         userRepository.delete(user);
-        jwtAuthenticationFilter.evictUser(userId);
+        userCacheEvictions.evict(userId);
 
         User admin = userRepository.findById(adminId).orElseThrow();
         activityLogService.logAdminUserDeleted(admin, userDesc);
@@ -1396,11 +1371,6 @@ public class AdminService {
         return new EventParticipantsDto(eventId, event.getMaxParticipants(), participants, guestParticipants);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void cancelReservationByAdmin(UUID reservationId) {
         Reservation reservation = reservationRepository.findById(reservationId)
             .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
@@ -1409,6 +1379,7 @@ public class AdminService {
         }
         User user = reservation.getUser();
         TimeSlot slot = reservation.getTimeSlot();
+        calendarCache.evictSlot(slot);
         int participants = reservation.getParticipants();
         reservation.cancelByAdmin();
         reservationRepository.save(reservation);
@@ -1430,11 +1401,6 @@ public class AdminService {
      * and does not log a cancellation — this is tidying up past entries, not cancelling.
      * Allowed only for past slots (the UI exposes the action only in the archive).
      */
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void deleteReservationPermanently(UUID reservationId) {
         Reservation reservation = reservationRepository.findById(reservationId)
             .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
@@ -1442,6 +1408,7 @@ public class AdminService {
         if (!BookingTimeValidator.isPast(slot.getDate(), slot.getEndTime())) {
             throw new IllegalStateException("Only past reservations can be permanently deleted");
         }
+        calendarCache.evictSlot(slot);
         reservationRepository.delete(reservation);
     }
 
@@ -1450,14 +1417,10 @@ public class AdminService {
      * The event itself remains — only registrations on its slots are deleted. Allowed only
      * once the event has finished.
      */
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void deletePastEventReservations(UUID eventId) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
         if (!BookingTimeValidator.dayHasPassed(event.getEndDate())) {
             throw new IllegalStateException("Only past events can have their reservations permanently deleted");
         }
@@ -1467,14 +1430,10 @@ public class AdminService {
         reservationRepository.deleteByTimeSlotIds(slotIds);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void cancelEventParticipantByAdmin(UUID eventId, UUID userId) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
         List<TimeSlot> slots = timeSlotRepository.findByEventId(eventId);
         if (slots.isEmpty()) return;
         List<UUID> slotIds = slots.stream().map(TimeSlot::getId).toList();
@@ -1497,11 +1456,6 @@ public class AdminService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void updateReservationParticipants(UUID reservationId, int newParticipants) {
         Reservation reservation = reservationRepository.findById(reservationId)
             .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
@@ -1509,6 +1463,7 @@ public class AdminService {
             throw new IllegalStateException("Reservation is not confirmed");
         }
         TimeSlot slot = reservation.getTimeSlot();
+        calendarCache.evictSlot(slot);
         int oldParticipants = reservation.getParticipants();
         int currentTotal = reservationRepository.countConfirmedByTimeSlotId(slot.getId())
             + guestReservationRepository.sumParticipantsByTimeSlotId(slot.getId());
@@ -1531,15 +1486,11 @@ public class AdminService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void updateEventReservationParticipants(UUID eventId, UUID userId, int newParticipants) {
         // Locked like the slot twin — a raise read against an unlocked capacity can overshoot.
         Event event = eventRepository.findByIdForUpdate(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
         List<TimeSlot> slots = timeSlotRepository.findByEventId(eventId);
         if (slots.isEmpty()) throw new IllegalStateException("Event has no slots");
 
@@ -1616,14 +1567,10 @@ public class AdminService {
 
     // ==================== Admin Add/Remove Participants ====================
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void addRegisteredParticipantToSlot(UUID slotId, AddRegisteredParticipantRequest request) {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         if (slot.isBlocked()) {
             throw new IllegalStateException(msg.get("admin.slot.blocked"));
@@ -1668,14 +1615,10 @@ public class AdminService {
         activityLogService.logReservationCreated(user, slot, request.participants());
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public GuestParticipantDto addGuestParticipantToSlot(UUID slotId, AddGuestParticipantRequest request) {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         if (slot.isBlocked()) {
             throw new IllegalStateException(msg.get("admin.slot.blocked"));
@@ -1693,17 +1636,13 @@ public class AdminService {
         return new GuestParticipantDto(guest.getId(), guest.getNote(), guest.getParticipants(), guest.getCreatedAt());
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void deleteGuestParticipantFromSlot(UUID slotId, UUID guestId) {
         GuestReservation guest = guestReservationRepository.findById(guestId)
             .orElseThrow(() -> new IllegalArgumentException("Guest reservation not found"));
         if (guest.getTimeSlot() == null || !guest.getTimeSlot().getId().equals(slotId)) {
             throw new IllegalArgumentException("Guest reservation does not belong to this slot");
         }
+        calendarCache.evictSlot(guest.getTimeSlot());
         guestReservationRepository.delete(guest);
         waitlistService.notifyAll(slotId);
         timeSlotRepository.findById(slotId).ifPresent(slot -> {
@@ -1713,14 +1652,10 @@ public class AdminService {
         });
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void addRegisteredParticipantToEvent(UUID eventId, AddRegisteredParticipantRequest request) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
 
         User user = userRepository.findById(request.userId())
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
@@ -1862,8 +1797,8 @@ public class AdminService {
         timeSlotRepository.deleteAllByIdInBatch(surplusIds);
     }
 
-    /* No @CacheEvict here: this is private, so proxy-based AOP never sees the call.
-     * Its only caller (addRegisteredParticipantToEvent) evicts for it. */
+    /* No cache eviction here: the new slots lie inside the event's range, and the only caller
+     * (addRegisteredParticipantToEvent) has already evicted that range for the whole write. */
     private List<TimeSlot> createDefaultSlotsForEvent(Event event) {
         List<TimeSlot> slots = new ArrayList<>();
         LocalTime slotStart = event.getStartTime() != null ? event.getStartTime() : LocalTime.of(0, 0);
@@ -1877,14 +1812,10 @@ public class AdminService {
         return slots;
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public GuestParticipantDto addGuestParticipantToEvent(UUID eventId, AddGuestParticipantRequest request) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
 
         int guestCount = guestReservationRepository.sumParticipantsByEventId(eventId);
         List<TimeSlot> slots = timeSlotRepository.findByEventId(eventId);
@@ -1904,17 +1835,13 @@ public class AdminService {
         return new GuestParticipantDto(guest.getId(), guest.getNote(), guest.getParticipants(), guest.getCreatedAt());
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void deleteGuestParticipantFromEvent(UUID eventId, UUID guestId) {
         GuestReservation guest = guestReservationRepository.findById(guestId)
             .orElseThrow(() -> new IllegalArgumentException("Guest reservation not found"));
         if (guest.getEvent() == null || !guest.getEvent().getId().equals(eventId)) {
             throw new IllegalArgumentException("Guest reservation does not belong to this event");
         }
+        calendarCache.evictEvent(guest.getEvent());
         guestReservationRepository.delete(guest);
         eventWaitlistService.notifyAll(eventId);
         timeSlotRepository.findByEventId(eventId).forEach(slot -> waitlistService.notifyAll(slot.getId()));
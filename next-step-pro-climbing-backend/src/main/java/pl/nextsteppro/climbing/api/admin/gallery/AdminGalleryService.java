@@ -14,6 +14,7 @@ import pl.nextsteppro.climbing.domain.gallery.AlbumSummaryProjection;
 import pl.nextsteppro.climbing.domain.gallery.Photo;
 import pl.nextsteppro.climbing.domain.gallery.PhotoRepository;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -31,15 +32,18 @@ public class AdminGalleryService {
     private final AlbumRepository albumRepository;
     private final PhotoRepository photoRepository;
     private final FileStorageService fileStorageService;
+    private final ImageProcessingQueue imageProcessingQueue;
     private final String baseUrl;
 
     public AdminGalleryService(AlbumRepository albumRepository,
                                PhotoRepository photoRepository,
                                FileStorageService fileStorageService,
+                               ImageProcessingQueue imageProcessingQueue,
                                @Value("${app.base-url}") String baseUrl) {
         this.albumRepository = albumRepository;
         this.photoRepository = photoRepository;
         this.fileStorageService = fileStorageService;
+        this.imageProcessingQueue = imageProcessingQueue;
         this.baseUrl = baseUrl;
     }
 
@@ -183,12 +187,15 @@ public class AdminGalleryService {
         Album album = albumRepository.findById(albumId)
                 .orElseThrow(() -> new IllegalArgumentException("Album not found"));
 
-        String filename = fileStorageService.store(file, "gallery");
+        // Stored as uploaded and resized in the background — an album is uploaded a dozen
+        // photos at a time, and each resize would otherwise hold this request and its connection
+        String filename = fileStorageService.storeUnprocessed(file, "gallery");
 
         Photo photo = new Photo(album, filename);
         photo.setCaption(caption);
 
         photo = photoRepository.save(photo);
+        imageProcessingQueue.enqueue("gallery", filename);
 
         return new UploadPhotoResponse(
                 photo.getId(),
@@ -17,6 +17,7 @@ import pl.nextsteppro.climbing.domain.user.UserRepository;
 import pl.nextsteppro.climbing.infrastructure.mail.NewsletterMailService;
 import pl.nextsteppro.climbing.infrastructure.media.VideoEmbedUrls;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -32,6 +33,7 @@ public class AdminNewsService {
     private final NewsRepository newsRepository;
     private final NewsContentBlockRepository blockRepository;
     private final FileStorageService fileStorageService;
+    private final ImageProcessingQueue imageProcessingQueue;
     private final UserRepository userRepository;
     private final NewsletterMailService newsletterMailService;
     private final String baseUrl;
@@ -39,12 +41,14 @@ public class AdminNewsService {
     public AdminNewsService(NewsRepository newsRepository,
                             NewsContentBlockRepository blockRepository,
                             FileStorageService fileStorageService,
+                            ImageProcessingQueue imageProcessingQueue,
                             UserRepository userRepository,
                             NewsletterMailService newsletterMailService,
                             @Value("${app.base-url}") String baseUrl) {
         this.newsRepository = newsRepository;
         this.blockRepository = blockRepository;
         this.fileStorageService = fileStorageService;
+        this.imageProcessingQueue = imageProcessingQueue;
         this.userRepository = userRepository;
         this.newsletterMailService = newsletterMailService;
         this.baseUrl = baseUrl;
@@ -276,7 +280,8 @@ public class AdminNewsService {
         News news = findNews(newsId);
         int order = blockRepository.findMaxDisplayOrder(newsId) + 1;
 
-        String filename = fileStorageService.store(file, "news");
+        // Resized in the background, like gallery photos (ImageProcessingQueue)
+        String filename = fileStorageService.storeUnprocessed(file, "news");
 
         NewsContentBlock block = new NewsContentBlock(news, BlockType.IMAGE);
         block.setImageFilename(filename);
@@ -284,6 +289,7 @@ public class AdminNewsService {
         block.setDisplayOrder(order);
 
         block = blockRepository.save(block);
+        imageProcessingQueue.enqueue("news", filename);
 
         return new UploadBlockImageResponse(
                 block.getId(),
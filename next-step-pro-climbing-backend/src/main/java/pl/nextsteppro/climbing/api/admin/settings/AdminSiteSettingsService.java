@@ -22,6 +22,7 @@ import pl.nextsteppro.climbing.api.settings.SiteSettingsDtos.SlotTemplateDto;
 import pl.nextsteppro.climbing.domain.settings.SiteSetting;
 import pl.nextsteppro.climbing.domain.settings.SiteSettingsRepository;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -56,13 +57,16 @@ public class AdminSiteSettingsService {
 
     private final SiteSettingsRepository siteSettingsRepository;
     private final FileStorageService fileStorageService;
+    private final ImageProcessingQueue imageProcessingQueue;
     private final String baseUrl;
 
     public AdminSiteSettingsService(SiteSettingsRepository siteSettingsRepository,
                                     FileStorageService fileStorageService,
+                                    ImageProcessingQueue imageProcessingQueue,
                                     @Value("${app.base-url}") String baseUrl) {
         this.siteSettingsRepository = siteSettingsRepository;
         this.fileStorageService = fileStorageService;
+        this.imageProcessingQueue = imageProcessingQueue;
         this.baseUrl = baseUrl;
     }
 
@@ -144,12 +148,14 @@ public class AdminSiteSettingsService {
                                     String urlKey, String filenameKey, String focalXKey, String focalYKey) throws IOException {
         deleteExistingFileIfPresent(filenameKey);
 
-        String filename = fileStorageService.store(file, FOLDER);
+        // The biggest image on the site, and the slowest resize — done in the background
+        String filename = fileStorageService.storeUnprocessed(file, FOLDER);
         String imageUrl = baseUrl + "/api/files/" + FOLDER + "/" + filename;
 
         save(urlKey, imageUrl);
         save(filenameKey, filename);
         saveFocalPoint(focalPointX, focalPointY, focalXKey, focalYKey);
+        imageProcessingQueue.enqueue(FOLDER, filename);
 
         return new HeroImageDto(imageUrl, focalPointX, focalPointY);
     }
@@ -10,13 +10,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import pl.nextsteppro.climbing.api.admin.storage.AdminStorageDtos.DeleteOrphanedResult;
+import pl.nextsteppro.climbing.api.admin.storage.AdminStorageDtos.ImageProcessingStatusDto;
 import pl.nextsteppro.climbing.api.admin.storage.AdminStorageDtos.StorageAuditDto;
 
-import java.io.IOException;
-
 @RestController
 @RequestMapping("/api/admin/storage")
 @PreAuthorize("hasRole('ADMIN')")
@@ -32,15 +32,14 @@ public class AdminStorageController {
     @DeleteMapping("/orphaned")
     @Operation(
             summary = "Delete orphaned files",
-            description = "Runs an audit and deletes all files on disk that have no database record."
+            description = "Deletes all stored files that no database record references, as the audit finds them."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Number of deleted files",
                     content = @Content(schema = @Schema(implementation = DeleteOrphanedResult.class))),
-            @ApiResponse(responseCode = "403", description = "Admin privileges required"),
-            @ApiResponse(responseCode = "500", description = "Disk read/write error")
+            @ApiResponse(responseCode = "403", description = "Admin privileges required")
     })
-    public ResponseEntity<DeleteOrphanedResult> deleteOrphaned() throws IOException {
+    public ResponseEntity<DeleteOrphanedResult> deleteOrphaned() {
         int deleted = adminStorageService.deleteOrphanedFiles();
         return ResponseEntity.ok(new DeleteOrphanedResult(deleted));
     }
@@ -48,16 +47,32 @@ public class AdminStorageController {
     @GetMapping("/audit")
     @Operation(
             summary = "Storage audit",
-            description = "Compares files on disk with database records. " +
-                    "Returns orphaned files (on disk, missing in DB) and missing files (in DB, missing on disk)."
+            description = "Compares the stored-file index with database records, without reading the disk. " +
+                    "Returns orphaned files (stored, referenced by nothing) and missing files (referenced, not stored)."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Audit result",
                     content = @Content(schema = @Schema(implementation = StorageAuditDto.class))),
-            @ApiResponse(responseCode = "403", description = "Admin privileges required"),
-            @ApiResponse(responseCode = "500", description = "Disk read error")
+            @ApiResponse(responseCode = "403", description = "Admin privileges required")
     })
-    public ResponseEntity<StorageAuditDto> audit() throws IOException {
+    public ResponseEntity<StorageAuditDto> audit() {
         return ResponseEntity.ok(adminStorageService.runAudit());
     }
+
+    @GetMapping("/processing/{folder}/{filename}")
+    @Operation(
+            summary = "Image processing status",
+            description = "Where a gallery, news-block or hero upload is in the background resize queue. " +
+                    "The file is served as uploaded until the status is DONE."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job status",
+                    content = @Content(schema = @Schema(implementation = ImageProcessingStatusDto.class))),
+            @ApiResponse(responseCode = "403", description = "Admin privileges required"),
+            @ApiResponse(responseCode = "404", description = "No job for this file (never queued, or purged after 7 days)")
+    })
+    public ResponseEntity<ImageProcessingStatusDto> processingStatus(@PathVariable String folder,
+                                                                     @PathVariable String filename) {
+        return ResponseEntity.of(adminStorageService.getProcessingStatus(folder, filename));
+    }
 }
@@ -1,5 +1,8 @@
 package pl.nextsteppro.climbing.api.admin.storage;
 
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
 import java.util.List;
 
 public class AdminStorageDtos {
@@ -24,4 +27,13 @@ public class AdminStorageDtos {
     ) {}
 
     public record DeleteOrphanedResult(int deletedCount) {}
+
+    /** Where a deferred image upload is: PENDING, DONE or FAILED (then served as uploaded). */
+    public record ImageProcessingStatusDto(
+            String status,
+            int attempts,
+            @Nullable String error,
+            Instant queuedAt,
+            @Nullable Instant finishedAt
+    ) {}
 }
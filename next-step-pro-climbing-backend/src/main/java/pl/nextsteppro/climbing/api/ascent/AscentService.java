@@ -72,13 +72,16 @@ public class AscentService {
     private final ClimbingAscentRepository ascentRepository;
     private final UserRepository userRepository;
     private final MessageService msg;
+    private final AscentStatsCache statsCache;
 
     public AscentService(ClimbingAscentRepository ascentRepository,
                          UserRepository userRepository,
-                         MessageService msg) {
+                         MessageService msg,
+                         AscentStatsCache statsCache) {
         this.ascentRepository = ascentRepository;
         this.userRepository = userRepository;
         this.msg = msg;
+        this.statsCache = statsCache;
     }
 
     /**
@@ -115,7 +118,8 @@ public class AscentService {
 
     /**
      * Every write drops the public feed's cache. Without it a fresh send would sit invisible for
-     * the TTL — and the whole point of the list is that it looks alive.
+     * the TTL — and the whole point of the list is that it looks alive. The author's own statistics
+     * are dropped too, once the write commits — see {@link AscentStatsCache}.
      */
     @CacheEvict(value = PublicAscentService.CACHE, allEntries = true)
     public AscentDto createMyAscent(UUID userId, SaveAscentRequest request) {
@@ -132,6 +136,7 @@ public class AscentService {
                         request.area(), request.crag(), request.routeName());
         applyOptionalFields(ascent, request);
 
+        statsCache.evict(userId);
         return toDto(ascentRepository.save(ascent));
     }
 
@@ -164,12 +169,14 @@ public class AscentService {
         ascent.setRouteName(request.routeName());
         applyOptionalFields(ascent, request);
 
+        statsCache.evict(userId);
         return toDto(ascent);
     }
 
     @CacheEvict(value = PublicAscentService.CACHE, allEntries = true)
     public void deleteMyAscent(UUID userId, UUID ascentId) {
         ascentRepository.delete(requireOwnAscent(ascentId, userId));
+        statsCache.evict(userId);
     }
 
     /**
@@ -0,0 +1,74 @@
+package pl.nextsteppro.climbing.api.ascent;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentTerrain;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Built statistics per athlete, one entry for every (terrain, year) somebody has opened.
+ *
+ * <p>Keyed by athlete first so that a write can drop the whole logbook's worth in one step: a
+ * corrected date moves an ascent between two years, and any edit moves the all-time progression
+ * every year shows. The Spring cache abstraction cannot evict "every key of this athlete" without
+ * clearing everyone's, which is why this is a Caffeine cache of its own — the same choice as the
+ * principal cache in {@code JwtAuthenticationFilter}.
+ *
+ * <p><b>Evicted after commit, never before.</b> Dropping the entry inside the writing transaction
+ * would let a read racing the commit put the old numbers straight back. And a read racing the
+ * eviction cannot re-insert them either: {@link #get} takes the athlete's map <i>before</i> the
+ * query runs, so a read that still saw the old rows writes into the map the eviction has just
+ * detached, and the next request starts from a fresh one.
+ *
+ * <p>The expiry is a backstop for writes that do not go through {@link AscentService} (an account
+ * deleted with its logbook), not a freshness guarantee. Eviction is per node, like the public
+ * feed's: every write path that matters already evicts.
+ */
+@Component
+class AscentStatsCache {
+
+    private final Cache<UUID, ConcurrentMap<Key, AscentStatsDto>> byAthlete = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+
+    AscentStatsDto get(UUID athleteId, AscentTerrain terrain, @Nullable String year,
+                       Supplier<AscentStatsDto> build) {
+        ConcurrentMap<Key, AscentStatsDto> entries = byAthlete.get(athleteId, id -> new ConcurrentHashMap<>());
+        Key key = new Key(terrain, year);
+        AscentStatsDto cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Not computeIfAbsent: that would hold the map's lock across a database query
+        AscentStatsDto built = build.get();
+        AscentStatsDto raced = entries.putIfAbsent(key, built);
+        return raced != null ? raced : built;
+    }
+
+    /** Call inside the writing transaction; nothing is dropped unless it commits. */
+    void evict(UUID athleteId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            byAthlete.invalidate(athleteId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                byAthlete.invalidate(athleteId);
+            }
+        });
+    }
+
+    /** The raw year parameter, not the resolved one — "no year" means "the latest", whatever that is. */
+    private record Key(AscentTerrain terrain, @Nullable String year) {}
+}
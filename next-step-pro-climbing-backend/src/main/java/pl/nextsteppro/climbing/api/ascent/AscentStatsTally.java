@@ -0,0 +1,367 @@
+package pl.nextsteppro.climbing.api.ascent;
+
+import org.jspecify.annotations.Nullable;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentDiscipline;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentStatsRow;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentStyle;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentTerrain;
+import pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade;
+import pl.nextsteppro.climbing.domain.climbingascent.GradeHistogram;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Every figure of {@link AscentStatsDto}, folded from the logbook in one pass.
+ *
+ * <p>It used to be a dozen passes: a stream per filter, a distinct count per key, a pyramid per
+ * discipline re-filtered out of the whole list, and the all-time list filtered again for each
+ * progression. On a long logbook that is the same rows walked over and over for one render. Here
+ * each row is visited once and lands in every accumulator it belongs to — the selected year's and
+ * the all-time progression alike.
+ *
+ * <p>The pyramids are {@link GradeHistogram}s — flat {@code int} tables, so counting an ascent
+ * needs no boxing and no hashing. Every pyramid holds a single scale (a discipline picks one, the
+ * mountains use the route scale), which is what lets the histogram order its rungs at all.
+ *
+ * <p>Ties keep the first row seen, as the stream version did: "hardest" only moves on a strictly
+ * higher rank, and areas with equal counts keep the order they were met in.
+ *
+ * <p>Single use and not thread-safe — one tally per request, then {@link #toDto()}.
+ */
+final class AscentStatsTally {
+
+    private static final int TOP_AREAS = 5;
+
+    private static final AscentDiscipline[] DISCIPLINES = AscentDiscipline.values();
+    private static final AscentStyle[] STYLES = AscentStyle.values();
+
+    /** Cleanest style first, so the card reads OS, FLASH, RP... like the form does. */
+    private static final AscentStyle[] CLEANEST_FIRST = Arrays.stream(STYLES)
+            .sorted(Comparator.comparingInt(AscentStyle::purity).reversed())
+            .toArray(AscentStyle[]::new);
+
+    private final AscentTerrain terrain;
+    private final @Nullable Integer selectedYear;
+
+    // ---- the selected year, shared across disciplines ----
+    private int total;
+    private @Nullable LocalDate firstAscent;
+    private final Map<String, AreaTally> areas = new LinkedHashMap<>();
+    private final Set<String> cragKeys = new HashSet<>();
+    private int redpointAttempts;
+    private int redpointsWithAttempts;
+    private int starSum;
+    private int starCount;
+
+    // ---- per discipline: the selected year, and all time for the progression ----
+    private final GradeTally[] disciplines = new GradeTally[DISCIPLINES.length];
+    private final ProgressionTally[] progressions = new ProgressionTally[DISCIPLINES.length];
+
+    // ---- mountains only ----
+    private final GradeTally routes = new GradeTally();
+    private final GradeTally led = new GradeTally();
+    private @Nullable AscentStatsRow hardestLed;
+    private int summerCount;
+    private int winterCount;
+    private int meters;
+    private int entriesWithLength;
+    private int pitches;
+    private int entriesWithPitches;
+    private int minutes;
+    private int entriesWithDuration;
+    private int ledPitches;
+
+    AscentStatsTally(AscentTerrain terrain, @Nullable Integer selectedYear) {
+        this.terrain = terrain;
+        this.selectedYear = selectedYear;
+        for (int i = 0; i < DISCIPLINES.length; i++) {
+            disciplines[i] = new GradeTally();
+            progressions[i] = new ProgressionTally();
+        }
+    }
+
+    /** Feed the WHOLE logbook, not the selected year — the progression is all-time. */
+    AscentStatsTally add(AscentStatsRow row) {
+        // Mountains have no discipline, so the per-discipline blocks stay empty on purpose and
+        // the terrain gets its own set of figures instead — metres, pitches, time and what was led
+        boolean mountain = terrain == AscentTerrain.MOUNTAIN;
+        if (!mountain) {
+            progressions[row.discipline().ordinal()].add(row);
+        }
+        if (selectedYear != null && row.climbedOn().getYear() != selectedYear) {
+            return this;
+        }
+
+        total++;
+        if (firstAscent == null || row.climbedOn().isBefore(firstAscent)) {
+            firstAscent = row.climbedOn();
+        }
+        areas.computeIfAbsent(row.areaKey(), key -> new AreaTally()).add(row);
+        cragKeys.add(row.cragKey());
+        // Worked sends across every dialect — RP on bolts, GU and HP on gear. Pinning this to RP
+        // alone would leave a trad-only logbook with a permanent dash next to a field its owner
+        // fills in on every entry
+        if (row.style().isWorkedSend() && row.attempts() != null) {
+            redpointAttempts += row.attempts();
+            redpointsWithAttempts++;
+        }
+        if (row.qualityStars() != null) {
+            starSum += row.qualityStars();
+            starCount++;
+        }
+
+        if (mountain) {
+            addMountain(row);
+        } else {
+            disciplines[row.discipline().ordinal()].add(row.grade(), row.style(), row);
+        }
+        return this;
+    }
+
+    private void addMountain(AscentStatsRow row) {
+        // The routes themselves. Mountains get no discipline block, so this pyramid is the only
+        // place the level being climbed is visible at all
+        routes.add(row.grade(), row.style(), row);
+        if (Boolean.FALSE.equals(row.winter())) summerCount++;
+        if (Boolean.TRUE.equals(row.winter())) winterCount++;
+        if (row.lengthMeters() != null) {
+            meters += row.lengthMeters();
+            entriesWithLength++;
+        }
+        if (row.pitches() != null) {
+            pitches += row.pitches();
+            entriesWithPitches++;
+        }
+        if (row.durationMinutes() != null) {
+            minutes += row.durationMinutes();
+            entriesWithDuration++;
+        }
+        if (row.ledPitches() != null) {
+            ledPitches += row.ledPitches();
+        }
+        ClimbingGrade ledGrade = row.ledGrade();
+        if (ledGrade != null) {
+            led.add(ledGrade, row.style(), row);
+            if (hardestLed == null || ledGrade.rank() > Objects.requireNonNull(hardestLed.ledGrade()).rank()) {
+                hardestLed = row;
+            }
+        }
+    }
+
+    AscentStatsDto toDto() {
+        List<AscentDisciplineStatsDto> blocks = new ArrayList<>();
+        for (AscentDiscipline discipline : DISCIPLINES) {
+            GradeTally block = disciplines[discipline.ordinal()];
+            if (!block.histogram.isEmpty()) {
+                blocks.add(disciplineStats(discipline, block, progressions[discipline.ordinal()]));
+            }
+        }
+        // Busiest first: a boulderer opening the panel should not have to scroll past two
+        // near-empty blocks to reach their own
+        blocks.sort(Comparator.comparingInt(AscentDisciplineStatsDto::ascentCount).reversed());
+
+        return new AscentStatsDto(
+                selectedYear,
+                total,
+                firstAscent,
+                areas.size(),
+                cragKeys.size(),
+                redpointsWithAttempts == 0 ? null : round1((double) redpointAttempts / redpointsWithAttempts),
+                redpointsWithAttempts,
+                starCount == 0 ? null : round1((double) starSum / starCount),
+                topAreas(),
+                blocks,
+                terrain == AscentTerrain.MOUNTAIN ? mountainStats() : null);
+    }
+
+    /**
+     * The mountain half. Every total ships with the number of entries it was built from: length,
+     * pitches and duration are all optional, so "4200 m" alone would not say whether that is the
+     * whole season or the two entries somebody bothered to measure.
+     */
+    private MountainStatsDto mountainStats() {
+        return new MountainStatsDto(
+                summerCount,
+                winterCount,
+                meters,
+                entriesWithLength,
+                pitches,
+                entriesWithPitches,
+                minutes,
+                entriesWithDuration,
+                cragKeys.size(),
+                routes.pyramid(),
+                routes.hardestByStyle(),
+                led.pyramid(),
+                hardestLed == null ? null : toBest(hardestLed, Objects.requireNonNull(hardestLed.ledGrade())),
+                ledPitches);
+    }
+
+    private static AscentDisciplineStatsDto disciplineStats(AscentDiscipline discipline, GradeTally block,
+                                                            ProgressionTally progression) {
+        // The block is never empty here (the caller skips empty disciplines), so a zero rate is a
+        // real answer — "no onsights this year" — rather than a missing one
+        // Counted through isOnsight() rather than off the OS key: trad logs its onsights as
+        // OS GU, and a block that always reported 0% would read as "never onsighted anything"
+        int onsights = 0;
+        for (AscentStyle style : STYLES) {
+            if (style.isOnsight()) {
+                onsights += block.histogram.count(style);
+            }
+        }
+
+        return new AscentDisciplineStatsDto(
+                discipline.name(),
+                discipline.scale().name(),
+                block.histogram.total(),
+                block.pyramid(),
+                block.hardestByStyle(),
+                block.styleCounts(),
+                round1(100.0 * onsights / block.histogram.total()),
+                progression.toPoints());
+    }
+
+    /**
+     * Areas by ascent count, grouped on the normalized key so one crag spelled two ways stays
+     * one crag. The label shown is the most recent spelling — the grouping already happened.
+     */
+    private List<AreaCountDto> topAreas() {
+        return areas.values().stream()
+                .sorted(Comparator.comparingInt((AreaTally area) -> area.count).reversed())
+                .limit(TOP_AREAS)
+                .map(area -> new AreaCountDto(area.label, area.count))
+                .toList();
+    }
+
+    private static BestAscentDto toBest(AscentStatsRow row, ClimbingGrade grade) {
+        return new BestAscentDto(grade.name(), grade.label(), grade.rank(),
+                row.routeName(), row.crag(), row.climbedOn());
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    /**
+     * A pyramid and the hardest ascent per style. The grade is passed separately from the row
+     * because the lead pyramid counts the led grade, not the route's.
+     */
+    private static final class GradeTally {
+
+        private final GradeHistogram histogram = new GradeHistogram();
+        private final @Nullable AscentStatsRow[] hardest = new AscentStatsRow[STYLES.length];
+        private final @Nullable ClimbingGrade[] hardestGrade = new ClimbingGrade[STYLES.length];
+
+        void add(ClimbingGrade grade, AscentStyle style, AscentStatsRow row) {
+            histogram.add(grade, style);
+            int s = style.ordinal();
+            ClimbingGrade best = hardestGrade[s];
+            if (best == null || grade.rank() > best.rank()) {
+                hardestGrade[s] = grade;
+                hardest[s] = row;
+            }
+        }
+
+        List<PyramidRowDto> pyramid() {
+            List<PyramidRowDto> rungs = new ArrayList<>();
+            for (ClimbingGrade grade : histogram.grades()) {
+                Map<String, Integer> byStyle = new LinkedHashMap<>();
+                for (AscentStyle style : STYLES) {
+                    int count = histogram.count(grade, style);
+                    if (count > 0) {
+                        byStyle.put(style.name(), count);
+                    }
+                }
+                rungs.add(new PyramidRowDto(grade.name(), grade.label(), grade.rank(), byStyle,
+                        histogram.count(grade)));
+            }
+            return rungs;
+        }
+
+        /** Style name -> count, in declaration order, styles never used left out. */
+        Map<String, Integer> styleCounts() {
+            Map<String, Integer> named = new LinkedHashMap<>();
+            for (AscentStyle style : STYLES) {
+                int count = histogram.count(style);
+                if (count > 0) {
+                    named.put(style.name(), count);
+                }
+            }
+            return named;
+        }
+
+        Map<String, BestAscentDto> hardestByStyle() {
+            Map<String, BestAscentDto> result = new LinkedHashMap<>();
+            for (AscentStyle style : CLEANEST_FIRST) {
+                AscentStatsRow row = hardest[style.ordinal()];
+                ClimbingGrade grade = hardestGrade[style.ordinal()];
+                if (row != null && grade != null) {
+                    result.put(style.name(), toBest(row, grade));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Best grade per calendar year, oldest first — fed the discipline's whole history regardless
+     * of the selected year, because a progression cropped to one year is a single point pretending
+     * to be a trend. One histogram per year, keyed in a map: a logbook spans a handful of years.
+     */
+    private static final class ProgressionTally {
+
+        private final Map<Integer, GradeHistogram> byYear = new TreeMap<>();
+
+        void add(AscentStatsRow row) {
+            byYear.computeIfAbsent(row.climbedOn().getYear(), year -> new GradeHistogram())
+                    .add(row.grade(), row.style());
+        }
+
+        List<GradeProgressPointDto> toPoints() {
+            List<GradeProgressPointDto> points = new ArrayList<>(byYear.size());
+            byYear.forEach((year, histogram) -> {
+                ClimbingGrade best = histogram.top(1).getFirst();
+                ClimbingGrade onsight = null;
+                for (AscentStyle style : STYLES) {
+                    ClimbingGrade hardest = style.isOnsight() ? histogram.hardest(style) : null;
+                    if (hardest != null && (onsight == null || hardest.rank() > onsight.rank())) {
+                        onsight = hardest;
+                    }
+                }
+                points.add(new GradeProgressPointDto(
+                        year,
+                        best.label(),
+                        best.rank(),
+                        onsight != null ? onsight.label() : null,
+                        onsight != null ? onsight.rank() : null));
+            });
+            return points;
+        }
+    }
+
+    /** One area's count and the spelling it was last logged under. */
+    private static final class AreaTally {
+
+        private int count;
+        private @Nullable LocalDate latest;
+        private String label = "";
+
+        void add(AscentStatsRow row) {
+            count++;
+            if (latest == null || row.climbedOn().isAfter(latest)) {
+                latest = row.climbedOn();
+                label = row.area();
+            }
+        }
+    }
+}
@@ -17,9 +17,10 @@ import java.util.List;
  * are not logged in at all. Keeping it apart means the personal-logbook service never has a
  * method that skips the owner check.
  *
- * <p>Cached, unlike the personal statistics: this one is hit by anonymous traffic on a public
- * page, and a two-minute-old list of last week's sends is not wrong in any way that matters. The
- * cache is evicted whenever a logbook entry changes, so a fresh send still shows up promptly.
+ * <p>Cached on a timer, unlike the personal statistics (dropped only by a write): this one is hit
+ * by anonymous traffic on a public page, and a two-minute-old list of last week's sends is not
+ * wrong in any way that matters. The cache is evicted whenever a logbook entry changes, so a
+ * fresh send still shows up promptly.
  */
 @Service
 @Transactional(readOnly = true)
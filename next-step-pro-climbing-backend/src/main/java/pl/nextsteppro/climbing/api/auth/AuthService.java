@@ -19,6 +19,8 @@ import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
 import pl.nextsteppro.climbing.infrastructure.security.JwtService;
 import pl.nextsteppro.climbing.infrastructure.security.PasswordPolicyValidator;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
+import pl.nextsteppro.climbing.infrastructure.security.VerifiedToken;
 
 import org.springframework.context.i18n.LocaleContextHolder;
 
@@ -52,6 +54,7 @@ public class AuthService {
     private final PasswordPolicyValidator passwordPolicy;
     private final VerificationLinkIssuer verificationLinkIssuer;
     private final AccountConfirmation accountConfirmation;
+    private final UserCacheEvictions userCacheEvictions;
 
     /**
      * Pre-computed BCrypt hash used to equalize login response time when an account does not
@@ -72,7 +75,8 @@ public class AuthService {
             NewsletterConsentLogRepository consentLogRepository,
             PasswordPolicyValidator passwordPolicy,
             VerificationLinkIssuer verificationLinkIssuer,
-            AccountConfirmation accountConfirmation) {
+            AccountConfirmation accountConfirmation,
+            UserCacheEvictions userCacheEvictions) {
         this.userRepository = userRepository;
         this.authTokenRepository = authTokenRepository;
         this.passwordEncoder = passwordEncoder;
@@ -84,6 +88,7 @@ public class AuthService {
         this.passwordPolicy = passwordPolicy;
         this.verificationLinkIssuer = verificationLinkIssuer;
         this.accountConfirmation = accountConfirmation;
+        this.userCacheEvictions = userCacheEvictions;
         this.dummyHash = passwordEncoder.encode("timing-attack-mitigation-dummy");
     }
 
@@ -177,6 +182,8 @@ public class AuthService {
         if (!user.isAdmin() && adminEmailConfig.isAdminEmail(user.getEmail())) {
             user.setRole(UserRole.ADMIN);
             userRepository.save(user);
+            // Tokens issued before this login are still cached as a USER principal, on every node
+            userCacheEvictions.evict(user.getId());
             log.info("AUTO-ADMIN-PROMOTION: {} promoted to ADMIN during login", user.getEmail());
         }
 
@@ -323,11 +330,10 @@ public class AuthService {
     public AuthTokensResponse refreshTokens(RefreshTokenRequest request) {
         String refreshToken = request.refreshToken();
 
-        if (!jwtService.validateToken(refreshToken)) {
-            throw new IllegalArgumentException(msg.get("auth.refresh.invalid"));
-        }
+        VerifiedToken verified = jwtService.verify(refreshToken)
+            .orElseThrow(() -> new IllegalArgumentException(msg.get("auth.refresh.invalid")));
 
-        if (!jwtService.isRefreshToken(refreshToken)) {
+        if (!verified.isRefreshToken()) {
             throw new IllegalArgumentException(msg.get("auth.refresh.invalid.type"));
         }
 
@@ -0,0 +1,55 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.nextsteppro.climbing.domain.timeslot.AvailabilityDriftProjection;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlotRepository;
+
+import java.util.List;
+
+/**
+ * Checks the seat-count projection the calendar reads against the tables it is derived from, and
+ * repairs whatever disagrees.
+ *
+ * <p>The projection is kept by database triggers (V91), so in a healthy system this finds nothing.
+ * Anything it does find means a write reached the counts by a path the triggers do not cover — a
+ * manual fix in psql, a restored dump, a new table nobody wired in — and the warning names the rows
+ * so that path can be found. The repair recomputes under the same row lock the triggers take, so it
+ * cannot overwrite a booking committing alongside it.
+ *
+ * <p>A bean of its own for the reason {@link
+ * pl.nextsteppro.climbing.api.trainingcalendar.CommentFileRetentionService} is: the scheduler has
+ * to reach the {@code @Transactional} method through the proxy.
+ */
+@Service
+public class AvailabilityProjectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityProjectionService.class);
+
+    private final TimeSlotRepository timeSlotRepository;
+    private final CalendarCacheInvalidator calendarCache;
+
+    public AvailabilityProjectionService(TimeSlotRepository timeSlotRepository,
+                                         CalendarCacheInvalidator calendarCache) {
+        this.timeSlotRepository = timeSlotRepository;
+        this.calendarCache = calendarCache;
+    }
+
+    /**
+     * @return how many slot and event rows had drifted and were recomputed
+     */
+    @Transactional
+    public int repairDrift() {
+        List<AvailabilityDriftProjection> repaired = timeSlotRepository.repairAvailabilityDrift();
+        if (repaired.isEmpty()) return 0;
+
+        log.warn("Availability projection had drifted on {} row(s), recomputed: {}", repaired.size(),
+            repaired.stream().map(r -> r.getKind() + " " + r.getTargetId()).toList());
+        // The cached calendar views were built from the wrong numbers. Drift is rare enough that
+        // working out which dates they cover is not worth it.
+        calendarCache.evictAll();
+        return repaired.size();
+    }
+}
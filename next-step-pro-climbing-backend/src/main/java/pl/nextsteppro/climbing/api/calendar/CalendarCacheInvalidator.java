@@ -0,0 +1,146 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.nextsteppro.climbing.domain.event.Event;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Evicts exactly the calendar cache entries a write can have changed, instead of the whole
+ * {@code calendarMonth/Week/Day} caches.
+ *
+ * <p>The blanket {@code @CacheEvict(allEntries = true)} this replaces meant one booking for next
+ * Tuesday threw away every cached month — including the neighbours the frontend prefetches — so
+ * during a busy signup the hit ratio sat at zero. A change on a set of dates can only show up in:
+ * <ul>
+ *   <li>the months those dates fall in,</li>
+ *   <li>any week whose start is up to six days before one of them — the week key is whatever
+ *       date the client asks for, normally a Monday, but nothing enforces that,</li>
+ *   <li>the days themselves.</li>
+ * </ul>
+ * An event slot also changes the event's seat count, and the event is listed on every day it
+ * spans, so a slot belonging to an event invalidates the event's whole range.
+ *
+ * <p>Keys are worked out when the write happens (the entity is still managed then — deletes run
+ * with {@code clearAutomatically}), but the eviction itself waits for the commit. Evicting inside
+ * the transaction lets a concurrent reader refill the entry from the not-yet-committed state,
+ * which is the stale window the old annotation had whenever it ran before the commit.
+ */
+@Component
+public class CalendarCacheInvalidator {
+
+    static final String MONTH = "calendarMonth";
+    static final String WEEK = "calendarWeek";
+    static final String DAY = "calendarDay";
+
+    /** Past a year of dates, per-key eviction costs more than it saves — clear instead. */
+    private static final long MAX_TARGETED_DAYS = 366;
+
+    private final CacheManager cacheManager;
+
+    public CalendarCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /** A slot's seats, times or flags changed. Call before a delete, while the slot is managed. */
+    public void evictSlot(TimeSlot slot) {
+        if (slot.belongsToEvent()) {
+            Event event = slot.getEvent();
+            evictDates(min(slot.getDate(), event.getStartDate()), max(slot.getDate(), event.getEndDate()));
+        } else {
+            evictDates(slot.getDate(), slot.getDate());
+        }
+    }
+
+    /** An event or its seat count changed. Covers its day-slots too — they lie within its range. */
+    public void evictEvent(Event event) {
+        evictDates(event.getStartDate(), event.getEndDate());
+    }
+
+    public void evictDates(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            evictDates(to, from);
+            return;
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_TARGETED_DAYS) {
+            evictAll();
+            return;
+        }
+        CalendarCacheKeys keys = CalendarCacheKeys.covering(from, to);
+        afterCommit(() -> {
+            evict(MONTH, keys.months());
+            evict(WEEK, keys.weekStarts());
+            evict(DAY, keys.days());
+        });
+    }
+
+    /** For writes with no bounded date range — account deletion, course-wide renames. */
+    public void evictAll() {
+        afterCommit(() -> {
+            clear(MONTH);
+            clear(WEEK);
+            clear(DAY);
+        });
+    }
+
+    private void evict(String cacheName, Set<?> keys) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) return;
+        keys.forEach(cache::evict);
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) cache.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /** The cache keys {@link CalendarSnapshots} may have stored for anything on {@code from..to}. */
+    record CalendarCacheKeys(Set<YearMonth> months, Set<LocalDate> weekStarts, Set<LocalDate> days) {
+
+        static CalendarCacheKeys covering(LocalDate from, LocalDate to) {
+            Set<YearMonth> months = new LinkedHashSet<>();
+            for (YearMonth m = YearMonth.from(from); !m.isAfter(YearMonth.from(to)); m = m.plusMonths(1)) {
+                months.add(m);
+            }
+            Set<LocalDate> weekStarts = new LinkedHashSet<>();
+            for (LocalDate d = from.minusDays(6); !d.isAfter(to); d = d.plusDays(1)) {
+                weekStarts.add(d);
+            }
+            Set<LocalDate> days = new LinkedHashSet<>();
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                days.add(d);
+            }
+            return new CalendarCacheKeys(months, weekStarts, days);
+        }
+    }
+}
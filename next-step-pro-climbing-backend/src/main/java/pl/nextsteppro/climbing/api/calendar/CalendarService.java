@@ -1,20 +1,15 @@
 package pl.nextsteppro.climbing.api.calendar;
 
 import org.jspecify.annotations.Nullable;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import pl.nextsteppro.climbing.domain.course.Course;
 import pl.nextsteppro.climbing.domain.event.Event;
 import pl.nextsteppro.climbing.domain.event.EventRepository;
-import pl.nextsteppro.climbing.domain.event.EventType;
-import pl.nextsteppro.climbing.domain.reservation.GuestReservationRepository;
 import pl.nextsteppro.climbing.domain.reservation.Reservation;
 import pl.nextsteppro.climbing.domain.reservation.ReservationRepository;
 import pl.nextsteppro.climbing.domain.reservation.ReservationStatus;
-import pl.nextsteppro.climbing.domain.reservation.SlotParticipantCount;
-import pl.nextsteppro.climbing.domain.reservedseat.ReservedSeatCount;
 import pl.nextsteppro.climbing.domain.reservedseat.ReservedSeatRepository;
+import pl.nextsteppro.climbing.domain.timeslot.SlotAvailabilityProjection;
 import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
 import pl.nextsteppro.climbing.domain.timeslot.TimeSlotRepository;
 import pl.nextsteppro.climbing.domain.waitlist.EventWaitlist;
@@ -35,159 +30,84 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class CalendarService {
 
+    private final CalendarSnapshots snapshots;
     private final TimeSlotRepository timeSlotRepository;
     private final ReservationRepository reservationRepository;
-    private final GuestReservationRepository guestReservationRepository;
     private final EventRepository eventRepository;
     private final WaitlistRepository waitlistRepository;
     private final EventWaitlistRepository eventWaitlistRepository;
     private final ReservedSeatRepository reservedSeatRepository;
 
-    public CalendarService(TimeSlotRepository timeSlotRepository,
-                          ReservationRepository reservationRepository,
-                          GuestReservationRepository guestReservationRepository,
-                          EventRepository eventRepository,
-                          WaitlistRepository waitlistRepository,
-                          EventWaitlistRepository eventWaitlistRepository,
-                          ReservedSeatRepository reservedSeatRepository) {
+    public CalendarService(CalendarSnapshots snapshots,
+                           TimeSlotRepository timeSlotRepository,
+                           ReservationRepository reservationRepository,
+                           EventRepository eventRepository,
+                           WaitlistRepository waitlistRepository,
+                           EventWaitlistRepository eventWaitlistRepository,
+                           ReservedSeatRepository reservedSeatRepository) {
+        this.snapshots = snapshots;
         this.timeSlotRepository = timeSlotRepository;
         this.reservationRepository = reservationRepository;
-        this.guestReservationRepository = guestReservationRepository;
         this.eventRepository = eventRepository;
         this.waitlistRepository = waitlistRepository;
         this.eventWaitlistRepository = eventWaitlistRepository;
         this.reservedSeatRepository = reservedSeatRepository;
     }
 
-    @Cacheable(value = "calendarMonth", key = "#yearMonth", condition = "#userId == null")
+    // The three views share one read path: the cached, viewer-independent snapshot of the range,
+    // plus — for a signed-in viewer — a single query for their own bookings and held seats.
+
     public MonthViewDto getMonthView(YearMonth yearMonth, @Nullable UUID userId) {
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
+        CalendarSnapshot snapshot = snapshots.month(yearMonth);
+        ViewerMarks viewer = viewerMarks(userId, startDate, endDate);
 
-        List<TimeSlot> slots = timeSlotRepository.findByDateRangeOrdered(startDate, endDate);
-        List<Event> events = eventRepository.findActiveEventsBetween(startDate, endDate);
-
-        // Batch: load all confirmed counts at once
-        List<UUID> allSlotIds = slots.stream().map(TimeSlot::getId).toList();
-        Map<UUID, Integer> countMap = buildCountMap(allSlotIds);
-        Map<UUID, Integer> inviteMap = buildSlotInviteMap(allSlotIds);
-
-        // Batch: load user's confirmed slot IDs at once
-        Set<UUID> userConfirmedSlotIds = userId != null && !allSlotIds.isEmpty()
-            ? new HashSet<>(reservationRepository.findUserConfirmedSlotIds(userId, allSlotIds))
-            : Set.of();
-        Set<UUID> userInvitedSlotIds = userId != null && !allSlotIds.isEmpty()
-            ? new HashSet<>(reservedSeatRepository.findUserPendingSlotInviteIds(userId, allSlotIds))
-            : Set.of();
-
-        Map<LocalDate, List<TimeSlot>> slotsByDate = slots.stream()
-            .collect(Collectors.groupingBy(TimeSlot::getDate));
+        Map<LocalDate, List<SlotSnapshot>> slotsByDate = snapshot.slots().stream()
+            .collect(Collectors.groupingBy(SlotSnapshot::date));
 
         List<DaySummaryDto> days = new ArrayList<>();
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<TimeSlot> daySlots = slotsByDate.getOrDefault(date, List.of());
-            days.add(createDaySummary(date, daySlots, countMap, userConfirmedSlotIds, inviteMap, userInvitedSlotIds));
+            List<SlotSnapshot> daySlots = slotsByDate.getOrDefault(date, List.of());
+            days.add(createDaySummary(date, daySlots, viewer));
         }
 
-        EventData eventData = computeEventData(events, userId);
-
-        List<EventSummaryDto> eventSummaries = events.stream()
-            .map(event -> toEventSummary(event, eventData.participantsMap().getOrDefault(event.getId(), 0),
-                                         eventData.userRegisteredEventIds().contains(event.getId()),
-                                         eventData.inviteMap().getOrDefault(event.getId(), 0),
-                                         eventData.userInvitedEventIds().contains(event.getId())))
-            .toList();
-
-        return new MonthViewDto(yearMonth.toString(), days, eventSummaries);
+        return new MonthViewDto(yearMonth.toString(), days, toEventSummaries(snapshot, viewer));
     }
 
-    @Cacheable(value = "calendarWeek", key = "#weekStart", condition = "#userId == null")
     public WeekViewDto getWeekView(LocalDate weekStart, @Nullable UUID userId) {
         LocalDate startDate = weekStart;
         LocalDate endDate = weekStart.plusDays(6);
+        CalendarSnapshot snapshot = snapshots.week(weekStart);
+        ViewerMarks viewer = viewerMarks(userId, startDate, endDate);
 
-        List<TimeSlot> slots = timeSlotRepository.findByDateRangeOrdered(startDate, endDate);
-        List<Event> events = eventRepository.findActiveEventsBetween(startDate, endDate);
-
-        List<UUID> allSlotIds = slots.stream().map(TimeSlot::getId).toList();
-        Map<UUID, Integer> countMap = buildCountMap(allSlotIds);
-        Map<UUID, Integer> inviteMap = buildSlotInviteMap(allSlotIds);
-        Set<UUID> userConfirmedSlotIds = userId != null && !allSlotIds.isEmpty()
-            ? new HashSet<>(reservationRepository.findUserConfirmedSlotIds(userId, allSlotIds))
-            : Set.of();
-        Set<UUID> userInvitedSlotIds = userId != null && !allSlotIds.isEmpty()
-            ? new HashSet<>(reservedSeatRepository.findUserPendingSlotInviteIds(userId, allSlotIds))
-            : Set.of();
-
-        Map<LocalDate, List<TimeSlot>> slotsByDate = slots.stream()
-            .collect(Collectors.groupingBy(TimeSlot::getDate));
+        Map<LocalDate, List<SlotSnapshot>> slotsByDate = snapshot.slots().stream()
+            .collect(Collectors.groupingBy(SlotSnapshot::date));
 
         List<WeekDayDto> days = new ArrayList<>();
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<TimeSlot> daySlots = slotsByDate.getOrDefault(date, List.of());
-            List<TimeSlotDto> slotDtos = daySlots.stream()
-                .filter(slot -> !slot.belongsToEvent())
-                .map(slot -> toTimeSlotDto(slot, countMap.getOrDefault(slot.getId(), 0),
-                                           userConfirmedSlotIds.contains(slot.getId()),
-                                           inviteMap.getOrDefault(slot.getId(), 0),
-                                           userInvitedSlotIds.contains(slot.getId())))
-                .toList();
+            List<TimeSlotDto> slotDtos = toTimeSlotDtos(slotsByDate.getOrDefault(date, List.of()), viewer);
             days.add(new WeekDayDto(date, slotDtos));
         }
 
-        EventData eventData = computeEventData(events, userId);
-        List<EventSummaryDto> eventSummaries = events.stream()
-            .map(event -> toEventSummary(event, eventData.participantsMap().getOrDefault(event.getId(), 0),
-                                         eventData.userRegisteredEventIds().contains(event.getId()),
-                                         eventData.inviteMap().getOrDefault(event.getId(), 0),
-                                         eventData.userInvitedEventIds().contains(event.getId())))
-            .toList();
-
-        return new WeekViewDto(startDate, endDate, days, eventSummaries);
+        return new WeekViewDto(startDate, endDate, days, toEventSummaries(snapshot, viewer));
     }
 
-    @Cacheable(value = "calendarDay", key = "#date", condition = "#userId == null")
     public DayViewDto getDayView(LocalDate date, @Nullable UUID userId) {
-        List<TimeSlot> slots = timeSlotRepository.findByDateSorted(date);
-        List<Event> events = eventRepository.findActiveEventsOnDate(date);
-
-        List<UUID> slotIds = slots.stream().map(TimeSlot::getId).toList();
-        Map<UUID, Integer> countMap = buildCountMap(slotIds);
-        Map<UUID, Integer> inviteMap = buildSlotInviteMap(slotIds);
-        Set<UUID> userConfirmedSlotIds = userId != null && !slotIds.isEmpty()
-            ? new HashSet<>(reservationRepository.findUserConfirmedSlotIds(userId, slotIds))
-            : Set.of();
-        Set<UUID> userInvitedSlotIds = userId != null && !slotIds.isEmpty()
-            ? new HashSet<>(reservedSeatRepository.findUserPendingSlotInviteIds(userId, slotIds))
-            : Set.of();
-
-        List<TimeSlotDto> slotDtos = slots.stream()
-            .filter(slot -> !slot.belongsToEvent())
-            .map(slot -> toTimeSlotDto(slot, countMap.getOrDefault(slot.getId(), 0),
-                                       userConfirmedSlotIds.contains(slot.getId()),
-                                       inviteMap.getOrDefault(slot.getId(), 0),
-                                       userInvitedSlotIds.contains(slot.getId())))
-            .toList();
+        CalendarSnapshot snapshot = snapshots.day(date);
+        ViewerMarks viewer = viewerMarks(userId, date, date);
 
-        EventData eventData = computeEventData(events, userId);
-
-        List<EventSummaryDto> eventSummaries = events.stream()
-            .map(event -> toEventSummary(event, eventData.participantsMap().getOrDefault(event.getId(), 0),
-                                         eventData.userRegisteredEventIds().contains(event.getId()),
-                                         eventData.inviteMap().getOrDefault(event.getId(), 0),
-                                         eventData.userInvitedEventIds().contains(event.getId())))
-            .toList();
-
-        return new DayViewDto(date, slotDtos, eventSummaries);
+        return new DayViewDto(date, toTimeSlotDtos(snapshot.slots(), viewer), toEventSummaries(snapshot, viewer));
     }
 
     public EventSummaryDto getEventSummary(UUID eventId, @Nullable UUID userId) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
 
-        EventData eventData = computeEventData(List.of(event), userId);
-        int currentParticipants = eventData.participantsMap().getOrDefault(event.getId(), 0);
-        boolean isUserRegistered = eventData.userRegisteredEventIds().contains(event.getId());
+        EventSnapshot snapshot = snapshots.describeEvents(List.of(event)).getFirst();
+        ViewerMarks viewer = viewerMarks(userId, event.getStartDate(), event.getEndDate());
+        boolean isUserRegistered = viewer.registeredEventIds().contains(eventId);
+        boolean isReservedForUser = viewer.invitedEventIds().contains(eventId);
 
         // Waitlist status for the logged-in user
         @Nullable WaitlistStatus userWaitlistStatus = null;
@@ -206,21 +126,6 @@ public class CalendarService {
             }
         }
 
-        boolean isReservedForUser = eventData.userInvitedEventIds().contains(event.getId());
-
-        LocalDateTime eventStart = LocalDateTime.of(
-            event.getStartDate(),
-            event.getStartTime() != null ? event.getStartTime() : LocalTime.of(0, 0)
-        );
-        // The 12 h window does NOT apply to invitees — they can confirm their seat until the last moment.
-        boolean enrollmentOpen = !event.getEventType().blocksEnrollment()
-            && (isReservedForUser || eventStart.isAfter(LocalDateTime.now(WARSAW).plusHours(BOOKING_CUTOFF_HOURS)));
-
-        Course course = event.getCourse();
-        String title = course != null ? course.getTitle() : event.getTitle();
-        UUID courseId = course != null ? course.getId() : null;
-        boolean coursePublished = course != null && course.isPublished();
-
         int userParticipants = 0;
         if (userId != null && isUserRegistered) {
             List<Integer> participants = reservationRepository.findUserParticipantsForEvent(userId, eventId);
@@ -229,18 +134,8 @@ public class CalendarService {
             }
         }
 
-        int reservedSeats = eventData.inviteMap().getOrDefault(event.getId(), 0);
-
-        return new EventSummaryDto(
-            event.getId(), title, event.getDescription(), event.getLocation(),
-            event.getEventType().name(), event.getStartDate(), event.getEndDate(),
-            event.getStartTime(), event.getEndTime(), event.isMultiDay(),
-            event.getMaxParticipants(), currentParticipants, isUserRegistered, enrollmentOpen,
-            courseId, coursePublished,
-            userWaitlistStatus, waitlistEntryId, confirmationDeadline, userWaitlistPosition,
-            userParticipants,
-            reservedSeats, isReservedForUser
-        );
+        return toEventSummary(snapshot, isUserRegistered, isReservedForUser,
+            userWaitlistStatus, waitlistEntryId, confirmationDeadline, userWaitlistPosition, userParticipants);
     }
 
     /** Lightweight projection for OG link previews (no auth/waitlist context). */
@@ -256,13 +151,15 @@ public class CalendarService {
         TimeSlot slot = timeSlotRepository.findById(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found: " + slotId));
 
-        int confirmedCount = reservationRepository.countConfirmedByTimeSlotId(slotId)
-            + guestReservationRepository.sumParticipantsByTimeSlotId(slotId);
-        int pendingWaitlistCount = waitlistRepository.countPendingConfirmationBySlotId(slotId);
+        // One projection row instead of four aggregates. No row only while the nightly repair has
+        // yet to add one — an empty slot is the honest reading of that.
+        SlotAvailabilityProjection availability = timeSlotRepository.findAvailabilityBySlotId(slotId).orElse(null);
+        int confirmedCount = availability != null ? availability.getTaken() : 0;
+        int pendingWaitlistCount = availability != null ? availability.getPending() : 0;
         // The effective taken-seat count includes PENDING_CONFIRMATION from the waitlist
         int effectiveCount = confirmedCount + pendingWaitlistCount;
 
-        int reservedSeats = reservedSeatRepository.countPendingBySlotId(slotId);
+        int reservedSeats = availability != null ? availability.getHeld() : 0;
 
         boolean isUserRegistered = false;
         boolean isReservedForUser = false;
@@ -290,7 +187,7 @@ public class CalendarService {
             }
         }
 
-        SlotStatus status = determineSlotStatus(slot, effectiveCount, reservedSeats, isReservedForUser);
+        SlotStatus status = determineSlotStatus(SlotSnapshot.of(slot, effectiveCount, reservedSeats), isReservedForUser);
 
         return new TimeSlotDetailDto(
             slot.getId(),
@@ -321,22 +218,20 @@ public class CalendarService {
         List<Event> events = eventRepository.findUpcomingByCourseId(courseId, LocalDate.now(WARSAW));
         if (events.isEmpty()) return List.of();
 
-        EventData eventData = computeEventData(events, null);
-
-        return events.stream()
+        return snapshots.describeEvents(events).stream()
             .map(event -> {
-                int participants = eventData.participantsMap().getOrDefault(event.getId(), 0);
-                int availableSpots = Math.max(0, event.getMaxParticipants() - participants);
+                int participants = event.currentParticipants();
+                int availableSpots = Math.max(0, event.maxParticipants() - participants);
 
                 LocalDateTime eventStart = LocalDateTime.of(
-                    event.getStartDate(),
-                    event.getStartTime() != null ? event.getStartTime() : LocalTime.of(0, 0)
+                    event.startDate(),
+                    event.startTime() != null ? event.startTime() : LocalTime.of(0, 0)
                 );
                 LocalDateTime now = LocalDateTime.now(WARSAW);
                 SlotStatus status;
                 if (eventStart.isBefore(now)) {
                     status = SlotStatus.PAST;
-                } else if (participants >= event.getMaxParticipants()) {
+                } else if (participants >= event.maxParticipants()) {
                     status = SlotStatus.FULL;
                 } else if (eventStart.isBefore(now.plusHours(BOOKING_CUTOFF_HOURS))) {
                     status = SlotStatus.BOOKING_CLOSED;
@@ -345,11 +240,11 @@ public class CalendarService {
                 }
 
                 return new CourseEventDto(
-                    event.getId(),
-                    event.getStartDate(),
-                    event.getEndDate(),
-                    event.getStartTime(),
-                    event.getEndTime(),
+                    event.id(),
+                    event.startDate(),
+                    event.endDate(),
+                    event.startTime(),
+                    event.endTime(),
                     status,
                     availableSpots
                 );
@@ -361,22 +256,20 @@ public class CalendarService {
         List<Event> events = eventRepository.findUpcomingByTranslationGroupId(translationGroupId, LocalDate.now(WARSAW));
         if (events.isEmpty()) return List.of();
 
-        EventData eventData = computeEventData(events, null);
-
-        return events.stream()
+        return snapshots.describeEvents(events).stream()
             .map(event -> {
-                int participants = eventData.participantsMap().getOrDefault(event.getId(), 0);
-                int availableSpots = Math.max(0, event.getMaxParticipants() - participants);
+                int participants = event.currentParticipants();
+                int availableSpots = Math.max(0, event.maxParticipants() - participants);
 
                 LocalDateTime eventStart = LocalDateTime.of(
-                    event.getStartDate(),
-                    event.getStartTime() != null ? event.getStartTime() : LocalTime.of(0, 0)
+                    event.startDate(),
+                    event.startTime() != null ? event.startTime() : LocalTime.of(0, 0)
                 );
                 LocalDateTime now = LocalDateTime.now(WARSAW);
                 SlotStatus status;
                 if (eventStart.isBefore(now)) {
                     status = SlotStatus.PAST;
-                } else if (participants >= event.getMaxParticipants()) {
+                } else if (participants >= event.maxParticipants()) {
                     status = SlotStatus.FULL;
                 } else if (eventStart.isBefore(now.plusHours(BOOKING_CUTOFF_HOURS))) {
                     status = SlotStatus.BOOKING_CLOSED;
@@ -385,11 +278,11 @@ public class CalendarService {
                 }
 
                 return new CourseEventDto(
-                    event.getId(),
-                    event.getStartDate(),
-                    event.getEndDate(),
-                    event.getStartTime(),
-                    event.getEndTime(),
+                    event.id(),
+                    event.startDate(),
+                    event.endDate(),
+                    event.startTime(),
+                    event.endTime(),
                     status,
                     availableSpots
                 );
@@ -397,27 +290,30 @@ public class CalendarService {
             .toList();
     }
 
-    private DaySummaryDto createDaySummary(LocalDate date, List<TimeSlot> slots,
-                                          Map<UUID, Integer> countMap, Set<UUID> userConfirmedSlotIds,
-                                          Map<UUID, Integer> inviteMap, Set<UUID> userInvitedSlotIds) {
-        List<TimeSlot> standaloneSlots = slots.stream()
+    private ViewerMarks viewerMarks(@Nullable UUID userId, LocalDate from, LocalDate to) {
+        if (userId == null) return ViewerMarks.ANONYMOUS;
+        return ViewerMarks.of(reservationRepository.findCalendarMarks(userId, from, to));
+    }
+
+    private DaySummaryDto createDaySummary(LocalDate date, List<SlotSnapshot> slots, ViewerMarks viewer) {
+        List<SlotSnapshot> standaloneSlots = slots.stream()
             .filter(slot -> !slot.belongsToEvent())
             .toList();
 
         boolean hasAvailabilityWindow = standaloneSlots.stream()
-            .anyMatch(TimeSlot::isAvailabilityWindow);
+            .anyMatch(SlotSnapshot::availabilityWindow);
 
         List<UnavailableRangeDto> unavailableRanges = standaloneSlots.stream()
-            .filter(TimeSlot::isUnavailable)
-            .sorted(Comparator.comparing(TimeSlot::getStartTime))
-            .map(slot -> new UnavailableRangeDto(slot.getStartTime(), slot.getEndTime()))
+            .filter(SlotSnapshot::unavailable)
+            .sorted(Comparator.comparing(SlotSnapshot::startTime))
+            .map(slot -> new UnavailableRangeDto(slot.startTime(), slot.endTime()))
             .toList();
 
         // Unavailable slots are not "0 of N free" — counting them would report a day off
         // as a day of full slots. They are announced by their own flag instead.
-        List<TimeSlot> bookableSlots = standaloneSlots.stream()
-            .filter(slot -> !slot.isAvailabilityWindow())
-            .filter(slot -> !slot.isUnavailable())
+        List<SlotSnapshot> bookableSlots = standaloneSlots.stream()
+            .filter(slot -> !slot.availabilityWindow())
+            .filter(slot -> !slot.unavailable())
             .toList();
 
         int totalSlots = bookableSlots.size();
@@ -426,14 +322,13 @@ public class CalendarService {
         boolean hasReservedSeats = false;
 
         LocalDateTime cutoff = LocalDateTime.now(WARSAW).plusHours(BOOKING_CUTOFF_HOURS);
-        for (TimeSlot slot : bookableSlots) {
-            LocalDateTime slotDateTime = LocalDateTime.of(slot.getDate(), slot.getStartTime());
-            if (!slot.isBlocked() && slotDateTime.isAfter(cutoff)) {
-                int confirmed = countMap.getOrDefault(slot.getId(), 0);
+        for (SlotSnapshot slot : bookableSlots) {
+            LocalDateTime slotDateTime = LocalDateTime.of(slot.date(), slot.startTime());
+            if (!slot.blocked() && slotDateTime.isAfter(cutoff)) {
                 // Seats held for invitees count as taken; the viewer's own invitation does not.
-                int reservedForOthers = inviteMap.getOrDefault(slot.getId(), 0)
-                    - (userInvitedSlotIds.contains(slot.getId()) ? 1 : 0);
-                if (confirmed + reservedForOthers < slot.getMaxParticipants()) {
+                int reservedForOthers = slot.reservedSeats()
+                    - (viewer.invitedSlotIds().contains(slot.id()) ? 1 : 0);
+                if (slot.confirmedCount() + reservedForOthers < slot.maxParticipants()) {
                     availableSlots++;
                 } else if (reservedForOthers > 0) {
                     // Full for this viewer, but only due to invitation-held seats —
@@ -441,7 +336,7 @@ public class CalendarService {
                     hasReservedSeats = true;
                 }
             }
-            if (userConfirmedSlotIds.contains(slot.getId())) {
+            if (viewer.bookedSlotIds().contains(slot.id())) {
                 hasUserReservation = true;
             }
         }
@@ -450,22 +345,30 @@ public class CalendarService {
             hasReservedSeats, unavailableRanges);
     }
 
-    private TimeSlotDto toTimeSlotDto(TimeSlot slot, int confirmedCount, boolean isUserRegistered,
-                                      int reservedSeats, boolean isReservedForUser) {
-        SlotStatus status = determineSlotStatus(slot, confirmedCount, reservedSeats, isReservedForUser);
+    private List<TimeSlotDto> toTimeSlotDtos(List<SlotSnapshot> slots, ViewerMarks viewer) {
+        return slots.stream()
+            .filter(slot -> !slot.belongsToEvent())
+            .map(slot -> toTimeSlotDto(slot,
+                viewer.bookedSlotIds().contains(slot.id()),
+                viewer.invitedSlotIds().contains(slot.id())))
+            .toList();
+    }
+
+    private TimeSlotDto toTimeSlotDto(SlotSnapshot slot, boolean isUserRegistered, boolean isReservedForUser) {
+        SlotStatus status = determineSlotStatus(slot, isReservedForUser);
 
         return new TimeSlotDto(
-            slot.getId(),
-            slot.getStartTime(),
-            slot.getEndTime(),
-            slot.getMaxParticipants(),
-            confirmedCount,
+            slot.id(),
+            slot.startTime(),
+            slot.endTime(),
+            slot.maxParticipants(),
+            slot.confirmedCount(),
             status,
             isUserRegistered,
-            slot.getDisplayTitle(),
-            slot.isAvailabilityWindow(),
-            slot.isUnavailable(),
-            reservedSeats,
+            slot.displayTitle(),
+            slot.availabilityWindow(),
+            slot.unavailable(),
+            slot.reservedSeats(),
             isReservedForUser
         );
     }
@@ -474,28 +377,28 @@ public class CalendarService {
     // Polish local time (prod container = UTC). See BookingTimeValidator — same correction for calendar views.
     private static final java.time.ZoneId WARSAW = java.time.ZoneId.of("Europe/Warsaw");
 
-    private SlotStatus determineSlotStatus(TimeSlot slot, int confirmedCount, int reservedSeats, boolean isReservedForUser) {
-        LocalDateTime slotDateTime = LocalDateTime.of(slot.getDate(), slot.getStartTime());
+    private SlotStatus determineSlotStatus(SlotSnapshot slot, boolean isReservedForUser) {
+        LocalDateTime slotDateTime = LocalDateTime.of(slot.date(), slot.startTime());
         LocalDateTime now = LocalDateTime.now(WARSAW);
-        if (slot.isAvailabilityWindow()) {
+        if (slot.availabilityWindow()) {
             // The window lives until its END time (not start): an ongoing 9-15 window at 10:00 still
             // accepts training requests for the remaining hours — a PAST status would hide the request button.
-            LocalDateTime windowEnd = LocalDateTime.of(slot.getDate(), slot.getEndTime());
+            LocalDateTime windowEnd = LocalDateTime.of(slot.date(), slot.endTime());
             return windowEnd.isBefore(now) ? SlotStatus.PAST : SlotStatus.AVAILABILITY_WINDOW;
         }
         if (slotDateTime.isBefore(now)) {
             return SlotStatus.PAST;
         }
-        if (slot.isUnavailable()) {
+        if (slot.unavailable()) {
             return SlotStatus.UNAVAILABLE;
         }
-        if (slot.isBlocked()) {
+        if (slot.blocked()) {
             return SlotStatus.BLOCKED;
         }
         // Seats held for other invitees are unavailable to this viewer (FULL with reservedSeats>0 →
         // the frontend shows "reserved for invitees"). The viewer's own invitation does not block.
-        int reservedForOthers = reservedSeats - (isReservedForUser ? 1 : 0);
-        if (confirmedCount + reservedForOthers >= slot.getMaxParticipants()) {
+        int reservedForOthers = slot.reservedSeats() - (isReservedForUser ? 1 : 0);
+        if (slot.confirmedCount() + reservedForOthers >= slot.maxParticipants()) {
             return SlotStatus.FULL;
         }
         // The 12 h window does NOT apply to invitees — their held seat can be taken until the last moment.
@@ -505,89 +408,35 @@ public class CalendarService {
         return SlotStatus.AVAILABLE;
     }
 
-    private EventSummaryDto toEventSummary(Event event, int currentParticipants, boolean isUserRegistered,
-                                           int reservedSeats, boolean isReservedForUser) {
+    private List<EventSummaryDto> toEventSummaries(CalendarSnapshot snapshot, ViewerMarks viewer) {
+        return snapshot.events().stream()
+            .map(event -> toEventSummary(event,
+                viewer.registeredEventIds().contains(event.id()),
+                viewer.invitedEventIds().contains(event.id()),
+                null, null, null, 0, 0))
+            .toList();
+    }
+
+    private EventSummaryDto toEventSummary(EventSnapshot event, boolean isUserRegistered, boolean isReservedForUser,
+                                           @Nullable WaitlistStatus userWaitlistStatus, @Nullable UUID waitlistEntryId,
+                                           @Nullable Instant confirmationDeadline, int userWaitlistPosition,
+                                           int userParticipants) {
         LocalDateTime eventStart = LocalDateTime.of(
-            event.getStartDate(),
-            event.getStartTime() != null ? event.getStartTime() : LocalTime.of(0, 0)
+            event.startDate(),
+            event.startTime() != null ? event.startTime() : LocalTime.of(0, 0)
         );
         // The 12 h window does NOT apply to invitees — they can confirm their seat until the last moment.
-        boolean enrollmentOpen = !event.getEventType().blocksEnrollment()
+        boolean enrollmentOpen = !event.blocksEnrollment()
             && (isReservedForUser || eventStart.isAfter(LocalDateTime.now(WARSAW).plusHours(BOOKING_CUTOFF_HOURS)));
-        Course course = event.getCourse();
-        String title = course != null ? course.getTitle() : event.getTitle();
-        UUID courseId = course != null ? course.getId() : null;
-        boolean coursePublished = course != null && course.isPublished();
         return new EventSummaryDto(
-            event.getId(), title, event.getDescription(), event.getLocation(),
-            event.getEventType().name(), event.getStartDate(), event.getEndDate(),
-            event.getStartTime(), event.getEndTime(), event.isMultiDay(),
-            event.getMaxParticipants(), currentParticipants, isUserRegistered, enrollmentOpen,
-            courseId, coursePublished,
-            null, null, null, 0, 0,
-            reservedSeats, isReservedForUser
-        );
-    }
-
-    private record EventData(Map<UUID, Integer> participantsMap, Set<UUID> userRegisteredEventIds,
-                             Map<UUID, Integer> inviteMap, Set<UUID> userInvitedEventIds) {}
-
-    private EventData computeEventData(List<Event> events, @Nullable UUID userId) {
-        if (events.isEmpty()) {
-            return new EventData(Map.of(), Set.of(), Map.of(), Set.of());
-        }
-
-        List<UUID> eventIds = events.stream().map(Event::getId).toList();
-        List<TimeSlot> allEventSlots = timeSlotRepository.findByEventIdIn(eventIds);
-        List<UUID> allEventSlotIds = allEventSlots.stream().map(TimeSlot::getId).toList();
-        Map<UUID, Integer> countMap = buildCountMap(allEventSlotIds);
-
-        Map<UUID, Integer> participantsMap = new HashMap<>();
-        for (TimeSlot slot : allEventSlots) {
-            if (slot.belongsToEvent()) {
-                UUID eventId = slot.getEvent().getId();
-                int confirmed = countMap.getOrDefault(slot.getId(), 0);
-                participantsMap.merge(eventId, confirmed, Math::max);
-            }
-        }
-        // Add guests registered directly on the event (not on a slot)
-        guestReservationRepository.sumParticipantsByEventIds(eventIds)
-            .forEach(g -> participantsMap.merge(g.slotId(), g.countAsInt(), Integer::sum));
-
-        Set<UUID> userRegisteredEventIds = new HashSet<>();
-        if (userId != null && !allEventSlotIds.isEmpty()) {
-            Set<UUID> userConfirmedSlotIds = new HashSet<>(
-                reservationRepository.findUserConfirmedSlotIds(userId, allEventSlotIds));
-            for (TimeSlot slot : allEventSlots) {
-                if (slot.belongsToEvent() && userConfirmedSlotIds.contains(slot.getId())) {
-                    userRegisteredEventIds.add(slot.getEvent().getId());
-                }
-            }
-        }
-
-        Map<UUID, Integer> inviteMap = reservedSeatRepository.countPendingByEventIds(eventIds).stream()
-            .collect(Collectors.toMap(ReservedSeatCount::targetId, ReservedSeatCount::countAsInt));
-        Set<UUID> userInvitedEventIds = userId != null
-            ? new HashSet<>(reservedSeatRepository.findUserPendingEventInviteIds(userId, eventIds))
-            : Set.of();
-
-        return new EventData(participantsMap, userRegisteredEventIds, inviteMap, userInvitedEventIds);
-    }
-
-    private Map<UUID, Integer> buildCountMap(List<UUID> slotIds) {
-        if (slotIds.isEmpty()) return Map.of();
-        Map<UUID, Integer> countMap = new HashMap<>(
-            reservationRepository.countConfirmedByTimeSlotIds(slotIds).stream()
-                .collect(Collectors.toMap(SlotParticipantCount::slotId, SlotParticipantCount::countAsInt))
+            event.id(), event.title(), event.description(), event.location(),
+            event.eventType(), event.startDate(), event.endDate(),
+            event.startTime(), event.endTime(), event.multiDay(),
+            event.maxParticipants(), event.currentParticipants(), isUserRegistered, enrollmentOpen,
+            event.courseId(), event.coursePublished(),
+            userWaitlistStatus, waitlistEntryId, confirmationDeadline, userWaitlistPosition,
+            userParticipants,
+            event.reservedSeats(), isReservedForUser
         );
-        guestReservationRepository.sumParticipantsByTimeSlotIds(slotIds)
-            .forEach(g -> countMap.merge(g.slotId(), g.countAsInt(), Integer::sum));
-        return countMap;
-    }
-
-    private Map<UUID, Integer> buildSlotInviteMap(List<UUID> slotIds) {
-        if (slotIds.isEmpty()) return Map.of();
-        return reservedSeatRepository.countPendingBySlotIds(slotIds).stream()
-            .collect(Collectors.toMap(ReservedSeatCount::targetId, ReservedSeatCount::countAsInt));
     }
 }
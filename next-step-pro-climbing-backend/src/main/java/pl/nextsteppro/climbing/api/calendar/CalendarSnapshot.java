@@ -0,0 +1,86 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import org.jspecify.annotations.Nullable;
+import pl.nextsteppro.climbing.domain.course.Course;
+import pl.nextsteppro.climbing.domain.event.Event;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Viewer-independent calendar data for one month, week or day: every slot and event in range with
+ * its seat counts, and nothing about who is looking. This — not a rendered view — is what the
+ * {@code calendarMonth/Week/Day} caches hold, so one cached entry serves anonymous and signed-in
+ * visitors alike and only {@link ViewerMarks} is fetched per user.
+ *
+ * <p>Plain values rather than entities: the snapshot outlives the session that loaded it, and a
+ * detached {@code TimeSlot} answers {@code getEvent()} with a proxy that throws on first touch.
+ * Statuses are not stored either — they depend on the clock and on the viewer, so they are worked
+ * out on every read from the counts here.
+ */
+record CalendarSnapshot(
+    List<SlotSnapshot> slots,
+    List<EventSnapshot> events
+) {}
+
+record SlotSnapshot(
+    UUID id,
+    LocalDate date,
+    LocalTime startTime,
+    LocalTime endTime,
+    int maxParticipants,
+    boolean belongsToEvent,
+    boolean availabilityWindow,
+    boolean unavailable,
+    boolean blocked,
+    @Nullable String displayTitle,
+    // confirmed reservations + guests (+ pending waitlist offers where the caller counts them)
+    int confirmedCount,
+    // pending invitations, including the viewer's own if they have one
+    int reservedSeats
+) {
+    static SlotSnapshot of(TimeSlot slot, int confirmedCount, int reservedSeats) {
+        return new SlotSnapshot(
+            slot.getId(), slot.getDate(), slot.getStartTime(), slot.getEndTime(), slot.getMaxParticipants(),
+            slot.belongsToEvent(), slot.isAvailabilityWindow(), slot.isUnavailable(), slot.isBlocked(),
+            slot.getDisplayTitle(), confirmedCount, reservedSeats
+        );
+    }
+}
+
+record EventSnapshot(
+    UUID id,
+    String title,
+    @Nullable String description,
+    @Nullable String location,
+    String eventType,
+    boolean blocksEnrollment,
+    LocalDate startDate,
+    LocalDate endDate,
+    @Nullable LocalTime startTime,
+    @Nullable LocalTime endTime,
+    boolean multiDay,
+    int maxParticipants,
+    @Nullable UUID courseId,
+    boolean coursePublished,
+    int currentParticipants,
+    int reservedSeats
+) {
+    static EventSnapshot of(Event event, int currentParticipants, int reservedSeats) {
+        Course course = event.getCourse();
+        return new EventSnapshot(
+            event.getId(),
+            course != null ? course.getTitle() : event.getTitle(),
+            event.getDescription(), event.getLocation(),
+            event.getEventType().name(), event.getEventType().blocksEnrollment(),
+            event.getStartDate(), event.getEndDate(), event.getStartTime(), event.getEndTime(),
+            event.isMultiDay(), event.getMaxParticipants(),
+            course != null ? course.getId() : null,
+            course != null && course.isPublished(),
+            currentParticipants, reservedSeats
+        );
+    }
+}
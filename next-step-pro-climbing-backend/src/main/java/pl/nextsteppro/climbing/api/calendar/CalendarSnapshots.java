@@ -0,0 +1,98 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.nextsteppro.climbing.domain.event.Event;
+import pl.nextsteppro.climbing.domain.event.EventAvailabilityProjection;
+import pl.nextsteppro.climbing.domain.event.EventRepository;
+import pl.nextsteppro.climbing.domain.timeslot.SlotAvailabilityProjection;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlotRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Loads and caches the shared layer of the calendar views. A separate bean from
+ * {@link CalendarService} so the cache annotations go through the proxy — a self-call from the
+ * service would skip them silently.
+ *
+ * <p>Before this split the views were cached only for anonymous visitors ({@code userId == null}),
+ * so every signed-in navigation — most of the real traffic — recounted reservations, guests and
+ * held seats for the whole range. The counts do not depend on the viewer; only the marks do.
+ *
+ * <p>A cold load reads the counts from the trigger-maintained availability projection (V91) — one
+ * row per slot and per event — instead of aggregating four tables.
+ */
+@Component
+@Transactional(readOnly = true)
+class CalendarSnapshots {
+
+    private final TimeSlotRepository timeSlotRepository;
+    private final EventRepository eventRepository;
+
+    CalendarSnapshots(TimeSlotRepository timeSlotRepository, EventRepository eventRepository) {
+        this.timeSlotRepository = timeSlotRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    @Cacheable(value = "calendarMonth", key = "#yearMonth")
+    public CalendarSnapshot month(YearMonth yearMonth) {
+        LocalDate startDate = yearMonth.atDay(1);
+        LocalDate endDate = yearMonth.atEndOfMonth();
+        return load(timeSlotRepository.findByDateRangeOrdered(startDate, endDate),
+                    eventRepository.findActiveEventsBetween(startDate, endDate));
+    }
+
+    @Cacheable(value = "calendarWeek", key = "#weekStart")
+    public CalendarSnapshot week(LocalDate weekStart) {
+        LocalDate endDate = weekStart.plusDays(6);
+        return load(timeSlotRepository.findByDateRangeOrdered(weekStart, endDate),
+                    eventRepository.findActiveEventsBetween(weekStart, endDate));
+    }
+
+    @Cacheable(value = "calendarDay", key = "#date")
+    public CalendarSnapshot day(LocalDate date) {
+        return load(timeSlotRepository.findByDateSorted(date),
+                    eventRepository.findActiveEventsOnDate(date));
+    }
+
+    /**
+     * Seat counts for the given events. An event's participants are the busiest of its day-slots
+     * (one booking covers every day) plus guests registered on the event itself — the projection
+     * stores exactly that.
+     */
+    public List<EventSnapshot> describeEvents(List<Event> events) {
+        if (events.isEmpty()) return List.of();
+
+        Map<UUID, EventAvailabilityProjection> availability = eventRepository
+            .findAvailabilityByEventIds(events.stream().map(Event::getId).toList()).stream()
+            .collect(Collectors.toMap(EventAvailabilityProjection::getEventId, a -> a));
+
+        return events.stream()
+            .map(event -> {
+                EventAvailabilityProjection a = availability.get(event.getId());
+                return EventSnapshot.of(event, a != null ? a.getTaken() : 0, a != null ? a.getHeld() : 0);
+            })
+            .toList();
+    }
+
+    private CalendarSnapshot load(List<TimeSlot> slots, List<Event> events) {
+        Map<UUID, SlotAvailabilityProjection> availability = slots.isEmpty() ? Map.of()
+            : timeSlotRepository.findAvailabilityBySlotIds(slots.stream().map(TimeSlot::getId).toList()).stream()
+                .collect(Collectors.toMap(SlotAvailabilityProjection::getTimeSlotId, a -> a));
+
+        List<SlotSnapshot> slotSnapshots = slots.stream()
+            .map(slot -> {
+                SlotAvailabilityProjection a = availability.get(slot.getId());
+                return SlotSnapshot.of(slot, a != null ? a.getTaken() : 0, a != null ? a.getHeld() : 0);
+            })
+            .toList();
+        return new CalendarSnapshot(slotSnapshots, describeEvents(events));
+    }
+}
@@ -0,0 +1,40 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import pl.nextsteppro.climbing.domain.reservation.CalendarMarkProjection;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The per-user layer laid over a shared {@link CalendarSnapshot}: what this viewer booked and which
+ * held seats are theirs. Everything else on a calendar view is the same for every visitor.
+ */
+record ViewerMarks(
+    Set<UUID> bookedSlotIds,
+    Set<UUID> registeredEventIds,
+    Set<UUID> invitedSlotIds,
+    Set<UUID> invitedEventIds
+) {
+
+    static final ViewerMarks ANONYMOUS = new ViewerMarks(Set.of(), Set.of(), Set.of(), Set.of());
+
+    static ViewerMarks of(List<CalendarMarkProjection> rows) {
+        if (rows.isEmpty()) return ANONYMOUS;
+        Set<UUID> bookedSlotIds = new HashSet<>();
+        Set<UUID> registeredEventIds = new HashSet<>();
+        Set<UUID> invitedSlotIds = new HashSet<>();
+        Set<UUID> invitedEventIds = new HashSet<>();
+        for (CalendarMarkProjection row : rows) {
+            switch (row.getKind()) {
+                case "SLOT_BOOKED" -> bookedSlotIds.add(row.getTargetId());
+                case "EVENT_BOOKED" -> registeredEventIds.add(row.getTargetId());
+                case "SLOT_INVITE" -> invitedSlotIds.add(row.getTargetId());
+                case "EVENT_INVITE" -> invitedEventIds.add(row.getTargetId());
+                default -> throw new IllegalStateException("Unknown calendar mark: " + row.getKind());
+            }
+        }
+        return new ViewerMarks(bookedSlotIds, registeredEventIds, invitedSlotIds, invitedEventIds);
+    }
+}
@@ -16,6 +16,8 @@ public class CourseDtos {
             String title,
             @Nullable String price,
             @Nullable String thumbnailUrl,
+            @Nullable String thumbnailSrcset,
+            @Nullable String thumbnailWebpSrcset,
             @Nullable Float thumbnailFocalPointX,
             @Nullable Float thumbnailFocalPointY,
             String language,
@@ -28,6 +30,8 @@ public class CourseDtos {
             String title,
             @Nullable String price,
             @Nullable String thumbnailUrl,
+            @Nullable String thumbnailSrcset,
+            @Nullable String thumbnailWebpSrcset,
             @Nullable Float thumbnailFocalPointX,
             @Nullable Float thumbnailFocalPointY,
             String language,
@@ -41,6 +45,8 @@ public class CourseDtos {
             String blockType,
             @Nullable String content,
             @Nullable String imageUrl,
+            @Nullable String imageSrcset,
+            @Nullable String imageWebpSrcset,
             @Nullable String caption,
             int displayOrder
     ) {}
@@ -1,5 +1,6 @@
 package pl.nextsteppro.climbing.api.course;
 
+import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -9,31 +10,45 @@ import pl.nextsteppro.climbing.domain.course.CourseContentBlock;
 import pl.nextsteppro.climbing.domain.course.CourseContentBlockRepository;
 import pl.nextsteppro.climbing.domain.course.CourseRepository;
 import pl.nextsteppro.climbing.domain.course.CourseSummaryProjection;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.ImageVariant;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 @Transactional(readOnly = true)
 public class CourseService {
 
+    private static final String FOLDER = "courses";
+
     private final CourseRepository courseRepository;
     private final CourseContentBlockRepository blockRepository;
+    private final FileStorageService fileStorageService;
     private final String baseUrl;
 
     public CourseService(CourseRepository courseRepository,
                          CourseContentBlockRepository blockRepository,
+                         FileStorageService fileStorageService,
                          @Value("${app.base-url}") String baseUrl) {
         this.courseRepository = courseRepository;
         this.blockRepository = blockRepository;
+        this.fileStorageService = fileStorageService;
         this.baseUrl = baseUrl;
     }
 
     @Cacheable(value = "courseList", key = "#language")
     public List<CourseSummaryDto> getAllPublished(String language) {
-        return courseRepository.findAllPublishedSummariesByLanguage(language)
-                .stream()
-                .map(this::toSummaryDto)
+        List<CourseSummaryProjection> summaries = courseRepository.findAllPublishedSummariesByLanguage(language);
+        Map<String, List<ImageVariant>> variants = fileStorageService.findVariants(FOLDER, summaries.stream()
+                .map(CourseSummaryProjection::getThumbnailFilename)
+                .filter(Objects::nonNull)
+                .toList());
+        return summaries.stream()
+                .map(p -> toSummaryDto(p, variants))
                 .toList();
     }
 
@@ -47,17 +62,24 @@ public class CourseService {
         }
 
         List<CourseContentBlock> blocks = blockRepository.findByCourseIdOrderByDisplayOrderAsc(id);
+        // Thumbnail and every block image in one lookup
+        List<String> filenames = new ArrayList<>();
+        if (course.getThumbnailFilename() != null) filenames.add(course.getThumbnailFilename());
+        blocks.stream().map(CourseContentBlock::getImageFilename).filter(Objects::nonNull).forEach(filenames::add);
+        Map<String, List<ImageVariant>> variants = fileStorageService.findVariants(FOLDER, filenames);
 
         return new CourseDetailDto(
                 course.getId(),
                 course.getTitle(),
                 course.getPrice(),
                 buildThumbnailUrl(course.getThumbnailUrl(), course.getThumbnailFilename()),
+                buildSrcset(course.getThumbnailUrl(), course.getThumbnailFilename(), variants),
+                buildWebpSrcset(course.getThumbnailUrl(), course.getThumbnailFilename(), variants),
                 course.getThumbnailFocalPointX(),
                 course.getThumbnailFocalPointY(),
                 course.getLanguage(),
                 course.getTranslationGroupId(),
-                blocks.stream().map(this::toBlockDto).toList(),
+                blocks.stream().map(b -> toBlockDto(b, variants)).toList(),
                 course.getPublishedAt()
         );
     }
@@ -69,12 +91,14 @@ public class CourseService {
                 .toList();
     }
 
-    private CourseSummaryDto toSummaryDto(CourseSummaryProjection projection) {
+    private CourseSummaryDto toSummaryDto(CourseSummaryProjection projection, Map<String, List<ImageVariant>> variants) {
         return new CourseSummaryDto(
                 projection.getId(),
                 projection.getTitle(),
                 projection.getPrice(),
                 buildThumbnailUrl(projection.getThumbnailUrl(), projection.getThumbnailFilename()),
+                buildSrcset(projection.getThumbnailUrl(), projection.getThumbnailFilename(), variants),
+                buildWebpSrcset(projection.getThumbnailUrl(), projection.getThumbnailFilename(), variants),
                 projection.getThumbnailFocalPointX(),
                 projection.getThumbnailFocalPointY(),
                 projection.getLanguage(),
@@ -83,7 +107,7 @@ public class CourseService {
         );
     }
 
-    private ContentBlockDto toBlockDto(CourseContentBlock block) {
+    private ContentBlockDto toBlockDto(CourseContentBlock block, Map<String, List<ImageVariant>> variants) {
         String imageUrl = block.getImageUrl() != null
                 ? block.getImageUrl()
                 : (block.getImageFilename() != null ? buildFileUrl(block.getImageFilename()) : null);
@@ -92,6 +116,8 @@ public class CourseService {
                 block.getBlockType().name(),
                 block.getContent(),
                 imageUrl,
+                buildSrcset(block.getImageUrl(), block.getImageFilename(), variants),
+                buildWebpSrcset(block.getImageUrl(), block.getImageFilename(), variants),
                 block.getCaption(),
                 block.getDisplayOrder()
         );
@@ -103,7 +129,21 @@ public class CourseService {
         return null;
     }
 
+    /** Only for our own files — an external url has no variants to choose between. */
+    private @Nullable String buildSrcset(@Nullable String externalUrl, @Nullable String filename,
+                                         Map<String, List<ImageVariant>> variants) {
+        if (externalUrl != null || filename == null) return null;
+        return ImageVariant.srcset(buildFileUrl(filename), variants.get(filename));
+    }
+
+    /** The same file in WebP, for the {@code <picture>} source; null for an external url or where none is written. */
+    private @Nullable String buildWebpSrcset(@Nullable String externalUrl, @Nullable String filename,
+                                             Map<String, List<ImageVariant>> variants) {
+        if (externalUrl != null || filename == null) return null;
+        return fileStorageService.renditionSrcset(buildFileUrl(filename), variants.get(filename), FileStorageService.WEBP);
+    }
+
     private String buildFileUrl(String filename) {
-        return baseUrl + "/api/files/courses/" + filename;
+        return baseUrl + "/api/files/" + FOLDER + "/" + filename;
     }
 }
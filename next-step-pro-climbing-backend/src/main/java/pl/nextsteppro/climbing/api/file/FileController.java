@@ -5,7 +5,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.core.io.InputStreamResource;
+import org.jspecify.annotations.Nullable;
 import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
@@ -15,7 +15,8 @@ import org.springframework.web.bind.annotation.*;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,6 +38,18 @@ public class FileController {
 
     private static final int FILE_CACHE_DAYS = 7;
 
+    private static final String WIDTH_DESCRIPTION =
+            "Preferred width in px, as listed in the DTO's srcset; omitted = full size";
+
+    private static final String FORMAT_DESCRIPTION =
+            "Rendition format (\"webp\"), as listed in the DTO's WebP srcset; omitted = the stored format";
+
+    /**
+     * How long a {@code fmt} URL answered with the stored file may be cached: the rendition is
+     * written by the queue shortly after the upload, and this URL should pick it up once it is.
+     */
+    private static final int MISSING_RENDITION_CACHE_HOURS = 1;
+
     private final FileStorageService fileStorageService;
 
     public FileController(FileStorageService fileStorageService) {
@@ -50,8 +63,11 @@ public class FileController {
     })
     @GetMapping("/instructors/{filename}")
     public ResponseEntity<Resource> getInstructorPhoto(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "instructors");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "instructors", width, format);
     }
 
     @Operation(summary = "Get gallery photo")
@@ -61,8 +77,11 @@ public class FileController {
     })
     @GetMapping("/gallery/{filename}")
     public ResponseEntity<Resource> getGalleryPhoto(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "gallery");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "gallery", width, format);
     }
 
     @Operation(summary = "Get a news file (thumbnail or in-content image)")
@@ -72,8 +91,11 @@ public class FileController {
     })
     @GetMapping("/news/{filename}")
     public ResponseEntity<Resource> getNewsFile(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "news");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "news", width, format);
     }
 
     @Operation(summary = "Get a course file (thumbnail or in-content image)")
@@ -83,8 +105,11 @@ public class FileController {
     })
     @GetMapping("/courses/{filename}")
     public ResponseEntity<Resource> getCourseFile(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "courses");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "courses", width, format);
     }
 
     @Operation(summary = "Get a file from the media library (shared assets)")
@@ -94,8 +119,11 @@ public class FileController {
     })
     @GetMapping("/assets/{filename}")
     public ResponseEntity<Resource> getAssetFile(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "assets");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "assets", width, format);
     }
 
     @Operation(summary = "Get a site settings file (e.g. homepage hero image)")
@@ -105,8 +133,11 @@ public class FileController {
     })
     @GetMapping("/site/{filename}")
     public ResponseEntity<Resource> getSiteFile(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "site");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "site", width, format);
     }
 
     @Operation(summary = "Get user avatar")
@@ -116,28 +147,100 @@ public class FileController {
     })
     @GetMapping("/avatars/{filename}")
     public ResponseEntity<Resource> getAvatarFile(
-            @Parameter(description = "File name") @PathVariable String filename) throws IOException {
-        return serveFile(filename, "avatars");
+            @Parameter(description = "File name") @PathVariable String filename,
+            @Parameter(description = WIDTH_DESCRIPTION) @RequestParam(name = "w", required = false) @Nullable Integer width,
+            @Parameter(description = FORMAT_DESCRIPTION) @RequestParam(name = "fmt", required = false) @Nullable String format)
+            throws IOException {
+        return serveFile(filename, "avatars", width, format);
     }
 
-    private ResponseEntity<Resource> serveFile(String filename, String folder) throws IOException {
+    /**
+     * With {@code w}, serves the narrowest stored variant at least that wide — the urls in a
+     * {@code srcset} name exact widths — and the full-size file when there is none: older uploads
+     * have no variants, and nothing is ever scaled up.
+     *
+     * <p>The body is the file itself, not a stream over it, and the rest is Spring's: the resource
+     * converter takes Content-Length from the filesystem and copies through the file channel, a
+     * {@code Range} header gets a 206 with just those bytes, and the validators set here turn a
+     * matching {@code If-None-Match}/{@code If-Modified-Since} into a bodiless 304. The edge cache
+     * revalidates every object once its week is up; before this, each of those was a full
+     * re-download of a photo that had not changed.
+     *
+     * <p>With {@code fmt}, serves that {@link pl.nextsteppro.climbing.infrastructure.storage.ImageEncoder
+     * rendition} of the same width. The format is in the URL rather than negotiated from
+     * {@code Accept}, so every URL has exactly one body and the edge caches it under its own key
+     * with no {@code Vary} — which Cloudflare ignores. The client picks: the DTOs list these URLs
+     * as a separate srcset for a {@code <picture>} {@code <source type="image/webp">}. Where no
+     * rendition was written the stored file is the answer, cached only briefly.
+     */
+    private ResponseEntity<Resource> serveFile(String filename, String folder, @Nullable Integer width,
+                                               @Nullable String format) throws IOException {
         if (!fileStorageService.exists(filename, folder)) {
             return ResponseEntity.notFound().build();
         }
 
-        InputStream inputStream = fileStorageService.getInputStream(filename, folder);
-        long fileSize = fileStorageService.getFileSize(filename, folder);
+        OptionalInt variant = width != null && width > 0
+                ? fileStorageService.findVariantWidth(filename, folder, width)
+                : OptionalInt.empty();
+        Optional<Resource> rendition = Optional.empty();
+        MediaType contentType = getMediaType(filename);
+        boolean renditionAsked = format != null && !format.isBlank();
+        if (renditionAsked) {
+            for (String candidate : fileStorageService.renditionContentTypes()) {
+                MediaType type = MediaType.parseMediaType(candidate);
+                if (type.getSubtype().equalsIgnoreCase(format)) {
+                    rendition = fileStorageService.findRendition(filename, folder, variant, candidate);
+                    if (rendition.isPresent()) {
+                        contentType = type;
+                    }
+                    break;
+                }
+            }
+        }
+        Resource file = rendition.isPresent() ? rendition.get()
+                : variant.isPresent()
+                ? fileStorageService.getVariantResource(filename, folder, variant.getAsInt())
+                : fileStorageService.getResource(filename, folder);
+        long lastModified = file.lastModified();
+        String downloadName = rendition.isPresent()
+                ? filename.substring(0, filename.lastIndexOf('.') + 1) + contentType.getSubtype()
+                : filename;
 
         return ResponseEntity.ok()
-                .contentType(getMediaType(filename))
-                .contentLength(fileSize)
-                .cacheControl(cacheControlFor(folder))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .body(new InputStreamResource(inputStream));
+                .contentType(contentType)
+                .cacheControl(cacheControlFor(filename, folder, renditionAsked && rendition.isEmpty()))
+                .eTag(eTag(file.contentLength(), lastModified))
+                .lastModified(lastModified)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + downloadName + "\"")
+                .body(file);
     }
 
-    /** Everything reachable here is public media, safe to sit in shared caches/CDN for a week. */
-    private CacheControl cacheControlFor(String folder) {
+    /**
+     * Size and mtime, nginx-style — no hashing on the read path. Stored files are never rewritten
+     * under the same name except by the image queue's in-place optimize, which changes both.
+     */
+    static String eTag(long size, long lastModified) {
+        return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * Everything reachable here is public media, safe to sit in shared caches/CDN for a week — once
+     * it is final. A file the image queue has yet to optimize is the raw upload, about to be
+     * replaced under the same name, so until then every cache has to come back and ask: the
+     * validators make that a 304 while nothing changed, and the optimized file the first answer
+     * after it did. Asking is one stat, not a query: this runs on every request, Range requests
+     * and revalidations included.
+     *
+     * <p>A rendition URL answered with the stored file is final too, but only until the queue
+     * writes the rendition: an hour, not a week of serving the larger format under it.
+     */
+    private CacheControl cacheControlFor(String filename, String folder, boolean renditionMissing) {
+        if (fileStorageService.isPending(filename, folder)) {
+            return CacheControl.noCache();
+        }
+        if (renditionMissing) {
+            return CacheControl.maxAge(MISSING_RENDITION_CACHE_HOURS, TimeUnit.HOURS).cachePublic();
+        }
         return CacheControl.maxAge(FILE_CACHE_DAYS, TimeUnit.DAYS).cachePublic();
     }
 
@@ -16,6 +16,8 @@ public class GalleryDtos {
             String name,
             @Nullable String description,
             @Nullable String thumbnailUrl,
+            @Nullable String thumbnailSrcset,
+            @Nullable String thumbnailWebpSrcset,
             @Nullable Float thumbnailFocalPointX,
             @Nullable Float thumbnailFocalPointY,
             long photoCount,
@@ -34,6 +36,8 @@ public class GalleryDtos {
     public record PhotoDto(
             UUID id,
             String url,
+            @Nullable String srcset,
+            @Nullable String webpSrcset,
             @Nullable String caption,
             @Nullable Float focalPointX,
             @Nullable Float focalPointY,
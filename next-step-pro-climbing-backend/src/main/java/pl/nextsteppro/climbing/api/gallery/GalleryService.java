@@ -6,25 +6,35 @@ import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.gallery.GalleryDtos.*;
 import pl.nextsteppro.climbing.domain.gallery.Album;
 import pl.nextsteppro.climbing.domain.gallery.AlbumRepository;
+import pl.nextsteppro.climbing.domain.gallery.AlbumSummaryProjection;
 import pl.nextsteppro.climbing.domain.gallery.Photo;
 import pl.nextsteppro.climbing.domain.gallery.PhotoRepository;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.ImageVariant;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 @Transactional(readOnly = true)
 public class GalleryService {
 
+    private static final String FOLDER = "gallery";
+
     private final AlbumRepository albumRepository;
     private final PhotoRepository photoRepository;
+    private final FileStorageService fileStorageService;
     private final String baseUrl;
 
     public GalleryService(AlbumRepository albumRepository,
                           PhotoRepository photoRepository,
+                          FileStorageService fileStorageService,
                           @Value("${app.base-url}") String baseUrl) {
         this.albumRepository = albumRepository;
         this.photoRepository = photoRepository;
+        this.fileStorageService = fileStorageService;
         this.baseUrl = baseUrl;
     }
 
@@ -34,9 +44,14 @@ public class GalleryService {
         // Use optimized query with projection to avoid N+1 problem
         // (1 query instead of 1+2N queries)
         // Only published albums are visible publicly
-        return albumRepository.findAllPublishedAlbumSummaries()
-                .stream()
-                .map(this::toSummaryDto)
+        var summaries = albumRepository.findAllPublishedAlbumSummaries();
+        // One lookup for every thumbnail's srcset, not one per album
+        Map<String, List<ImageVariant>> variants = fileStorageService.findVariants(FOLDER, summaries.stream()
+                .map(AlbumSummaryProjection::getFirstPhotoFilename)
+                .filter(Objects::nonNull)
+                .toList());
+        return summaries.stream()
+                .map(p -> toSummaryDto(p, variants))
                 .toList();
     }
 
@@ -49,23 +64,32 @@ public class GalleryService {
         }
 
         List<Photo> photos = photoRepository.findByAlbumIdOrderByDisplayOrderAscCreatedAtAsc(id);
+        Map<String, List<ImageVariant>> variants =
+                fileStorageService.findVariants(FOLDER, photos.stream().map(Photo::getFilename).toList());
 
         return new AlbumDetailDto(
                 album.getId(),
                 album.getName(),
                 album.getDescription(),
-                photos.stream().map(this::toPhotoDto).toList(),
+                photos.stream().map(p -> toPhotoDto(p, variants)).toList(),
                 album.getCreatedAt(),
                 album.getUpdatedAt()
         );
     }
 
-    private AlbumSummaryDto toSummaryDto(pl.nextsteppro.climbing.domain.gallery.AlbumSummaryProjection projection) {
+    private AlbumSummaryDto toSummaryDto(AlbumSummaryProjection projection,
+                                         Map<String, List<ImageVariant>> variants) {
+        String thumbnail = projection.getFirstPhotoFilename();
         return new AlbumSummaryDto(
                 projection.getId(),
                 projection.getName(),
                 projection.getDescription(),
-                projection.getFirstPhotoFilename() != null ? buildPhotoUrl(projection.getFirstPhotoFilename()) : null,
+                thumbnail != null ? buildPhotoUrl(thumbnail) : null,
+                thumbnail != null ? ImageVariant.srcset(buildPhotoUrl(thumbnail), variants.get(thumbnail)) : null,
+                thumbnail != null
+                        ? fileStorageService.renditionSrcset(buildPhotoUrl(thumbnail), variants.get(thumbnail),
+                                FileStorageService.WEBP)
+                        : null,
                 projection.getThumbnailFocalPointX(),
                 projection.getThumbnailFocalPointY(),
                 projection.getPhotoCount(),
@@ -73,10 +97,13 @@ public class GalleryService {
         );
     }
 
-    private PhotoDto toPhotoDto(Photo photo) {
+    private PhotoDto toPhotoDto(Photo photo, Map<String, List<ImageVariant>> variants) {
+        String url = buildPhotoUrl(photo.getFilename());
         return new PhotoDto(
                 photo.getId(),
-                buildPhotoUrl(photo.getFilename()),
+                url,
+                ImageVariant.srcset(url, variants.get(photo.getFilename())),
+                fileStorageService.renditionSrcset(url, variants.get(photo.getFilename()), FileStorageService.WEBP),
                 photo.getCaption(),
                 photo.getFocalPointX(),
                 photo.getFocalPointY(),
@@ -85,6 +112,6 @@ public class GalleryService {
     }
 
     private String buildPhotoUrl(String filename) {
-        return baseUrl + "/api/files/gallery/" + filename;
+        return baseUrl + "/api/files/" + FOLDER + "/" + filename;
     }
 }
@@ -13,6 +13,8 @@ public class InstructorDtos {
             String firstName,
             String lastName,
             @Nullable String photoUrl,
+            @Nullable String photoSrcset,
+            @Nullable String photoWebpSrcset,
             @Nullable Float focalPointX,
             @Nullable Float focalPointY,
             @Nullable String bio,
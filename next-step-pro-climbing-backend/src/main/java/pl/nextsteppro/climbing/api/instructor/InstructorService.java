@@ -8,28 +8,42 @@ import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.instructor.InstructorDtos.InstructorPublicDto;
 import pl.nextsteppro.climbing.domain.instructor.Instructor;
 import pl.nextsteppro.climbing.domain.instructor.InstructorRepository;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.ImageVariant;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 @Transactional(readOnly = true)
 public class InstructorService {
 
+    private static final String FOLDER = "instructors";
+
     private final InstructorRepository instructorRepository;
+    private final FileStorageService fileStorageService;
     private final String baseUrl;
 
     public InstructorService(InstructorRepository instructorRepository,
+                             FileStorageService fileStorageService,
                              @Value("${app.base-url}") String baseUrl) {
         this.instructorRepository = instructorRepository;
+        this.fileStorageService = fileStorageService;
         this.baseUrl = baseUrl;
     }
 
     @Cacheable(value = "instructorList", key = "#language")
     public List<InstructorPublicDto> getAllActiveInstructors(String language) {
-        return instructorRepository.findByActiveTrueAndLanguageOrderByDisplayOrderAscCreatedAtAsc(language)
-                .stream()
-                .map(this::toPublicDto)
+        List<Instructor> instructors =
+                instructorRepository.findByActiveTrueAndLanguageOrderByDisplayOrderAscCreatedAtAsc(language);
+        Map<String, List<ImageVariant>> variants = fileStorageService.findVariants(FOLDER, instructors.stream()
+                .map(Instructor::getPhotoFilename)
+                .filter(Objects::nonNull)
+                .toList());
+        return instructors.stream()
+                .map(i -> toPublicDto(i, variants))
                 .toList();
     }
 
@@ -41,15 +55,28 @@ public class InstructorService {
             throw new IllegalArgumentException("Instructor not found");
         }
 
-        return toPublicDto(instructor);
+        List<String> photo = instructor.getPhotoFilename() != null ? List.of(instructor.getPhotoFilename()) : List.of();
+        return toPublicDto(instructor, fileStorageService.findVariants(FOLDER, photo));
     }
 
-    private InstructorPublicDto toPublicDto(Instructor instructor) {
+    private InstructorPublicDto toPublicDto(Instructor instructor, Map<String, List<ImageVariant>> variants) {
+        String photoUrl = buildPhotoUrl(instructor);
+        // An external photo has no variants to choose between
+        boolean ownPhoto = photoUrl != null && instructor.getPhotoExternalUrl() == null;
+        String photoSrcset = ownPhoto
+                ? ImageVariant.srcset(photoUrl, variants.get(instructor.getPhotoFilename()))
+                : null;
+        String photoWebpSrcset = ownPhoto
+                ? fileStorageService.renditionSrcset(photoUrl, variants.get(instructor.getPhotoFilename()),
+                        FileStorageService.WEBP)
+                : null;
         return new InstructorPublicDto(
                 instructor.getId(),
                 instructor.getFirstName(),
                 instructor.getLastName(),
-                buildPhotoUrl(instructor),
+                photoUrl,
+                photoSrcset,
+                photoWebpSrcset,
                 instructor.getFocalPointX(),
                 instructor.getFocalPointY(),
                 instructor.getBio(),
@@ -71,6 +98,6 @@ public class InstructorService {
         if (instructor.getPhotoFilename() == null) {
             return null;
         }
-        return baseUrl + "/api/files/instructors/" + instructor.getPhotoFilename();
+        return baseUrl + "/api/files/" + FOLDER + "/" + instructor.getPhotoFilename();
     }
 }
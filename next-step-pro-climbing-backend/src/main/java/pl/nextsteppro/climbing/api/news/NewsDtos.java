@@ -16,6 +16,8 @@ public class NewsDtos {
             String title,
             @Nullable String excerpt,
             @Nullable String thumbnailUrl,
+            @Nullable String thumbnailSrcset,
+            @Nullable String thumbnailWebpSrcset,
             @Nullable Float thumbnailFocalPointX,
             @Nullable Float thumbnailFocalPointY,
             Instant publishedAt,
@@ -29,6 +31,8 @@ public class NewsDtos {
             String title,
             @Nullable String excerpt,
             @Nullable String thumbnailUrl,
+            @Nullable String thumbnailSrcset,
+            @Nullable String thumbnailWebpSrcset,
             @Nullable Float thumbnailFocalPointX,
             @Nullable Float thumbnailFocalPointY,
             List<ContentBlockDto> blocks,
@@ -43,6 +47,8 @@ public class NewsDtos {
             String blockType,
             @Nullable String content,
             @Nullable String imageUrl,
+            @Nullable String imageSrcset,
+            @Nullable String imageWebpSrcset,
             @Nullable String caption,
             int displayOrder
     ) {}
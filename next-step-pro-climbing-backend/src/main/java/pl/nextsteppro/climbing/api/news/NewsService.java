@@ -9,8 +9,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.news.NewsDtos.*;
 import pl.nextsteppro.climbing.domain.news.*;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.ImageVariant;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
@@ -18,18 +23,23 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class NewsService {
 
+    private static final String FOLDER = "news";
+
     private final NewsRepository newsRepository;
     private final NewsContentBlockRepository blockRepository;
     private final NewsStarRepository newsStarRepository;
+    private final FileStorageService fileStorageService;
     private final String baseUrl;
 
     public NewsService(NewsRepository newsRepository,
                        NewsContentBlockRepository blockRepository,
                        NewsStarRepository newsStarRepository,
+                       FileStorageService fileStorageService,
                        @Value("${app.base-url}") String baseUrl) {
         this.newsRepository = newsRepository;
         this.blockRepository = blockRepository;
         this.newsStarRepository = newsStarRepository;
+        this.fileStorageService = fileStorageService;
         this.baseUrl = baseUrl;
     }
 
@@ -66,9 +76,14 @@ public class NewsService {
                 ? (starred ? starredIds : newsStarRepository.findNewsIdsByIdUserId(userId))
                 : Set.of();
 
+        Map<String, List<ImageVariant>> variants = fileStorageService.findVariants(FOLDER, result.getContent().stream()
+                .map(NewsSummaryProjection::getThumbnailFilename)
+                .filter(Objects::nonNull)
+                .toList());
+
         List<NewsSummaryDto> content = result.getContent()
                 .stream()
-                .map(p -> toSummaryDto(p, userId != null ? userStarred.contains(p.getId()) : null))
+                .map(p -> toSummaryDto(p, userId != null ? userStarred.contains(p.getId()) : null, variants))
                 .toList();
 
         return new NewsPageDto(content, page, size, result.getTotalElements(), result.hasNext());
@@ -84,6 +99,11 @@ public class NewsService {
         }
 
         List<NewsContentBlock> blocks = blockRepository.findByNewsIdOrderByDisplayOrderAsc(id);
+        // Thumbnail and every block image in one lookup
+        List<String> filenames = new ArrayList<>();
+        if (news.getThumbnailFilename() != null) filenames.add(news.getThumbnailFilename());
+        blocks.stream().map(NewsContentBlock::getImageFilename).filter(Objects::nonNull).forEach(filenames::add);
+        Map<String, List<ImageVariant>> variants = fileStorageService.findVariants(FOLDER, filenames);
 
         Boolean starred = userId != null
                 ? newsStarRepository.existsByIdUserIdAndIdNewsId(userId, id)
@@ -94,9 +114,11 @@ public class NewsService {
                 news.getTitle(),
                 news.getExcerpt(),
                 buildThumbnailUrl(news.getThumbnailUrl(), news.getThumbnailFilename()),
+                buildSrcset(news.getThumbnailUrl(), news.getThumbnailFilename(), variants),
+                buildWebpSrcset(news.getThumbnailUrl(), news.getThumbnailFilename(), variants),
                 news.getThumbnailFocalPointX(),
                 news.getThumbnailFocalPointY(),
-                blocks.stream().map(this::toBlockDto).toList(),
+                blocks.stream().map(b -> toBlockDto(b, variants)).toList(),
                 news.getPublishedAt(),
                 starred,
                 news.getLanguage(),
@@ -128,12 +150,15 @@ public class NewsService {
         newsStarRepository.deleteByIdUserIdAndIdNewsId(userId, newsId);
     }
 
-    private NewsSummaryDto toSummaryDto(NewsSummaryProjection projection, @Nullable Boolean starred) {
+    private NewsSummaryDto toSummaryDto(NewsSummaryProjection projection, @Nullable Boolean starred,
+                                        Map<String, List<ImageVariant>> variants) {
         return new NewsSummaryDto(
                 projection.getId(),
                 projection.getTitle(),
                 projection.getExcerpt(),
                 buildThumbnailUrl(projection.getThumbnailUrl(), projection.getThumbnailFilename()),
+                buildSrcset(projection.getThumbnailUrl(), projection.getThumbnailFilename(), variants),
+                buildWebpSrcset(projection.getThumbnailUrl(), projection.getThumbnailFilename(), variants),
                 projection.getThumbnailFocalPointX(),
                 projection.getThumbnailFocalPointY(),
                 projection.getPublishedAt(),
@@ -143,7 +168,7 @@ public class NewsService {
         );
     }
 
-    private ContentBlockDto toBlockDto(NewsContentBlock block) {
+    private ContentBlockDto toBlockDto(NewsContentBlock block, Map<String, List<ImageVariant>> variants) {
         String imageUrl = block.getImageUrl() != null
                 ? block.getImageUrl()
                 : (block.getImageFilename() != null ? buildFileUrl(block.getImageFilename()) : null);
@@ -152,6 +177,8 @@ public class NewsService {
                 block.getBlockType().name(),
                 block.getContent(),
                 imageUrl,
+                buildSrcset(block.getImageUrl(), block.getImageFilename(), variants),
+                buildWebpSrcset(block.getImageUrl(), block.getImageFilename(), variants),
                 block.getCaption(),
                 block.getDisplayOrder()
         );
@@ -163,7 +190,21 @@ public class NewsService {
         return null;
     }
 
+    /** Only for our own files — an external url has no variants to choose between. */
+    private @Nullable String buildSrcset(@Nullable String externalUrl, @Nullable String filename,
+                                         Map<String, List<ImageVariant>> variants) {
+        if (externalUrl != null || filename == null) return null;
+        return ImageVariant.srcset(buildFileUrl(filename), variants.get(filename));
+    }
+
+    /** The same file in WebP, for the {@code <picture>} source; null for an external url or where none is written. */
+    private @Nullable String buildWebpSrcset(@Nullable String externalUrl, @Nullable String filename,
+                                             Map<String, List<ImageVariant>> variants) {
+        if (externalUrl != null || filename == null) return null;
+        return fileStorageService.renditionSrcset(buildFileUrl(filename), variants.get(filename), FileStorageService.WEBP);
+    }
+
     private String buildFileUrl(String filename) {
-        return baseUrl + "/api/files/news/" + filename;
+        return baseUrl + "/api/files/" + FOLDER + "/" + filename;
     }
 }
@@ -2,11 +2,10 @@ package pl.nextsteppro.climbing.api.reservation;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.domain.event.Event;
 import pl.nextsteppro.climbing.domain.event.EventRepository;
 import pl.nextsteppro.climbing.domain.reservation.GuestReservationRepository;
@@ -52,6 +51,7 @@ public class EventWaitlistService {
     private final WaitlistMailService waitlistMailService;
     private final ActivityLogService activityLogService;
     private final MessageService msg;
+    private final CalendarCacheInvalidator calendarCache;
 
     public EventWaitlistService(EventWaitlistRepository eventWaitlistRepository,
                                 EventRepository eventRepository,
@@ -62,7 +62,8 @@ public class EventWaitlistService {
                                 UserRepository userRepository,
                                 WaitlistMailService waitlistMailService,
                                 ActivityLogService activityLogService,
-                                MessageService msg) {
+                                MessageService msg,
+                                CalendarCacheInvalidator calendarCache) {
         this.eventWaitlistRepository = eventWaitlistRepository;
         this.eventRepository = eventRepository;
         this.timeSlotRepository = timeSlotRepository;
@@ -73,6 +74,7 @@ public class EventWaitlistService {
         this.waitlistMailService = waitlistMailService;
         this.activityLogService = activityLogService;
         this.msg = msg;
+        this.calendarCache = calendarCache;
     }
 
     public WaitlistResultDto joinEventWaitlist(UUID eventId, UUID userId) {
@@ -167,11 +169,6 @@ public class EventWaitlistService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public EventReservationResultDto confirmEventOffer(UUID waitlistId, UUID userId) {
         EventWaitlist entry = eventWaitlistRepository.findById(waitlistId)
             .orElseThrow(() -> new IllegalArgumentException(msg.get("waitlist.not.found")));
@@ -191,6 +188,7 @@ public class EventWaitlistService {
         // Two people confirming at once would otherwise both pass the guard below.
         Event event = eventRepository.findByIdForUpdate(eventId)
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        calendarCache.evictEvent(event);
 
         // An offer outlives the event state it was made under: updateEvent can deactivate or
         // reclassify an event without purging the queue (only deleteEvent purges it). joinEventWaitlist
@@ -1,8 +1,6 @@
 package pl.nextsteppro.climbing.api.reservation;
 
 import org.jspecify.annotations.Nullable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +22,7 @@ import pl.nextsteppro.climbing.domain.user.UserRepository;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.MailService;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -50,6 +49,7 @@ public class ReservationService {
     private final WaitlistService waitlistService;
     private final EventWaitlistService eventWaitlistService;
     private final ReservedSeatRepository reservedSeatRepository;
+    private final CalendarCacheInvalidator calendarCache;
 
     public ReservationService(ReservationRepository reservationRepository,
                              GuestReservationRepository guestReservationRepository,
@@ -61,7 +61,8 @@ public class ReservationService {
                              MessageService msg,
                              WaitlistService waitlistService,
                              EventWaitlistService eventWaitlistService,
-                             ReservedSeatRepository reservedSeatRepository) {
+                             ReservedSeatRepository reservedSeatRepository,
+                             CalendarCacheInvalidator calendarCache) {
         this.reservationRepository = reservationRepository;
         this.guestReservationRepository = guestReservationRepository;
         this.timeSlotRepository = timeSlotRepository;
@@ -73,13 +74,9 @@ public class ReservationService {
         this.waitlistService = waitlistService;
         this.eventWaitlistService = eventWaitlistService;
         this.reservedSeatRepository = reservedSeatRepository;
+        this.calendarCache = calendarCache;
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public ReservationResultDto createReservation(UUID slotId, UUID userId, @Nullable String comment, int participants) {
         if (participants < 1) {
             throw new IllegalArgumentException(msg.get("reservation.min.participants"));
@@ -87,6 +84,7 @@ public class ReservationService {
 
         TimeSlot slot = timeSlotRepository.findByIdForUpdate(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         if (BookingTimeValidator.isPast(slot.getDate(), slot.getStartTime())) {
             throw new IllegalArgumentException(msg.get("reservation.slot.past"));
@@ -159,12 +157,6 @@ public class ReservationService {
         reservation = reservationRepository.save(reservation);
 
         String displayTitle = slot.getDisplayTitle();
-        // The mail methods are @Async and read reservation.getUser()/getTimeSlot() on the mail
-        // thread, where open-in-view=false leaves no session to initialise a lazy proxy. On the
-        // reactivation path `existing` came from a finder with no JOIN FETCH, so its user proxy is
-        // still uninitialised here — same shape as the LazyInitializationException that silently
-        // ate blockTimeSlot's cancellation mails. Force-load while still managed.
-        touchForAsyncMail(reservation);
         mailService.sendReservationConfirmation(reservation, displayTitle);
         mailService.sendAdminNotification(reservation, displayTitle);
 
@@ -181,11 +173,6 @@ public class ReservationService {
         );
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void cancelReservation(UUID reservationId, UUID userId) {
         Reservation reservation = reservationRepository.findById(reservationId)
             .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
@@ -202,13 +189,11 @@ public class ReservationService {
         if (!BookingTimeValidator.isWithinBookingWindow(slot.getDate(), slot.getStartTime())) {
             throw new IllegalStateException(msg.get("reservation.cancel.window"));
         }
+        calendarCache.evictSlot(slot);
 
         reservation.cancel();
         reservationRepository.save(reservation);
 
-        // See touchForAsyncMail: findById gives lazy user/timeSlot proxies, and getUser().getId()
-        // above does NOT initialise one (Hibernate serves the identifier straight off the proxy).
-        touchForAsyncMail(reservation);
         mailService.sendCancellationConfirmation(reservation);
         mailService.sendUserCancellationAdminNotification(reservation);
 
@@ -397,11 +382,6 @@ public class ReservationService {
         return new MyReservationsDto(standaloneSlots, eventDtos);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public EventReservationResultDto createEventReservation(UUID eventId, UUID userId, @Nullable String comment, int participants) {
         if (participants < 1) {
             throw new IllegalArgumentException(msg.get("reservation.min.participants"));
@@ -411,6 +391,7 @@ public class ReservationService {
         // last seat both read the same count before either writes and the event ends up oversold.
         Event event = eventRepository.findByIdForUpdate(eventId)
             .orElseThrow(() -> new IllegalArgumentException(msg.get("reservation.event.not.found")));
+        calendarCache.evictEvent(event);
 
         if (!event.isActive()) {
             throw new IllegalStateException(msg.get("reservation.event.inactive"));
@@ -503,11 +484,6 @@ public class ReservationService {
         return new EventReservationResultDto(eventId, true, msg.get("reservation.event.confirmed"), slotsReserved);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public void cancelEventReservation(UUID eventId, UUID userId) {
         List<TimeSlot> slots = timeSlotRepository.findByEventId(eventId);
         if (slots.isEmpty()) {
@@ -542,6 +518,7 @@ public class ReservationService {
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
 
         mailService.sendEventCancellationConfirmation(user, event);
+        calendarCache.evictEvent(event);
         mailService.sendUserEventCancellationAdminNotification(user, event);
 
         activityLogService.logEventReservationCancelled(user, event);
@@ -553,11 +530,6 @@ public class ReservationService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public ReservationResultDto updateSlotParticipants(UUID reservationId, UUID userId, int participants) {
         if (participants < 1) {
             throw new IllegalArgumentException(msg.get("reservation.min.participants"));
@@ -576,6 +548,7 @@ public class ReservationService {
 
         TimeSlot slot = timeSlotRepository.findByIdForUpdate(reservation.getTimeSlot().getId())
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         if (!BookingTimeValidator.isWithinBookingWindow(slot.getDate(), slot.getStartTime())) {
             throw new IllegalStateException(msg.get("reservation.cancel.window"));
@@ -609,11 +582,6 @@ public class ReservationService {
         return new ReservationResultDto(reservation.getId(), true, msg.get("reservation.updated"));
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public EventReservationResultDto updateEventParticipants(UUID eventId, UUID userId, int participants) {
         if (participants < 1) {
             throw new IllegalArgumentException(msg.get("reservation.min.participants"));
@@ -623,6 +591,7 @@ public class ReservationService {
         // the same capacity otherwise and both commit, overshooting maxParticipants.
         Event event = eventRepository.findByIdForUpdate(eventId)
             .orElseThrow(() -> new IllegalArgumentException(msg.get("reservation.event.not.found")));
+        calendarCache.evictEvent(event);
 
         List<TimeSlot> slots = timeSlotRepository.findByEventId(eventId);
         if (slots.isEmpty()) {
@@ -681,22 +650,6 @@ public class ReservationService {
         return new EventReservationResultDto(eventId, true, msg.get("reservation.updated"), userReservations.size());
     }
 
-    /**
-     * Initialises the lazy associations the {@code @Async} mail methods will read.
-     *
-     * <p>{@code MailService.send*(Reservation)} runs on the mail executor and dereferences
-     * {@code getUser()} and {@code getTimeSlot()} there. With {@code open-in-view: false} the
-     * request's persistence context is gone by then, so an uninitialised proxy throws
-     * {@code LazyInitializationException} — which {@code AsyncConfig}'s decorator swallows, so the
-     * mail simply never arrives and nothing is logged. Touching a non-identifier getter forces the
-     * load while the entity is still managed ({@code getId()} would not: Hibernate answers that
-     * from the proxy without hitting the database).
-     */
-    private static void touchForAsyncMail(Reservation reservation) {
-        reservation.getUser().getEmail();
-        reservation.getTimeSlot().getDate();
-    }
-
     private List<TimeSlot> createDefaultSlotsForEvent(Event event) {
         List<TimeSlot> slots = new ArrayList<>();
         LocalTime slotStart = event.getStartTime() != null ? event.getStartTime() : LocalTime.of(0, 0);
@@ -2,11 +2,10 @@ package pl.nextsteppro.climbing.api.reservation;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.domain.BookingTimeValidator;
 import pl.nextsteppro.climbing.domain.reservation.GuestReservationRepository;
 import pl.nextsteppro.climbing.domain.reservation.Reservation;
@@ -47,6 +46,7 @@ public class WaitlistService {
     private final WaitlistMailService waitlistMailService;
     private final ActivityLogService activityLogService;
     private final MessageService msg;
+    private final CalendarCacheInvalidator calendarCache;
 
     public WaitlistService(WaitlistRepository waitlistRepository,
                            TimeSlotRepository timeSlotRepository,
@@ -56,7 +56,8 @@ public class WaitlistService {
                            UserRepository userRepository,
                            WaitlistMailService waitlistMailService,
                            ActivityLogService activityLogService,
-                           MessageService msg) {
+                           MessageService msg,
+                           CalendarCacheInvalidator calendarCache) {
         this.waitlistRepository = waitlistRepository;
         this.timeSlotRepository = timeSlotRepository;
         this.reservationRepository = reservationRepository;
@@ -66,6 +67,7 @@ public class WaitlistService {
         this.waitlistMailService = waitlistMailService;
         this.activityLogService = activityLogService;
         this.msg = msg;
+        this.calendarCache = calendarCache;
     }
 
     public WaitlistResultDto joinWaitlist(UUID slotId, UUID userId) {
@@ -169,11 +171,6 @@ public class WaitlistService {
         }
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "calendarMonth", allEntries = true),
-        @CacheEvict(value = "calendarWeek", allEntries = true),
-        @CacheEvict(value = "calendarDay", allEntries = true)
-    })
     public ReservationResultDto confirmOffer(UUID waitlistId, UUID userId) {
         Waitlist entry = waitlistRepository.findById(waitlistId)
             .orElseThrow(() -> new IllegalArgumentException(msg.get("waitlist.not.found")));
@@ -193,6 +190,7 @@ public class WaitlistService {
         // Pessimistic lock on the slot — prevents race conditions on concurrent confirmations
         TimeSlot slot = timeSlotRepository.findByIdForUpdate(slotId)
             .orElseThrow(() -> new IllegalArgumentException("Time slot not found"));
+        calendarCache.evictSlot(slot);
 
         // An offer outlives the slot state it was made under. blockTimeSlot cancels the confirmed
         // reservations but leaves PENDING_CONFIRMATION offers alive, so the seats it frees make the
@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -46,6 +47,22 @@ public class AdminTrainingCalendarController {
         return ResponseEntity.ok(adminTrainingCalendarService.getAthleteSummaries(adminId));
     }
 
+    @Operation(summary = "Coach overview",
+        description = "Last activity, streak, weekly load, weight trend and open goals for every flagged athlete, "
+            + "in roster order. A fixed number of queries however long the roster is.")
+    @GetMapping("/dashboard")
+    public ResponseEntity<List<AthleteDashboardDto>> getDashboard() {
+        return ResponseEntity.ok(adminTrainingCalendarService.getDashboard());
+    }
+
+    @Operation(summary = "Roster grades",
+        description = "The flagged athletes' rock ascents of the last year, one block per discipline: the group's "
+            + "pyramid and median, and each athlete's hardest and median grade. One query for the whole roster.")
+    @GetMapping("/dashboard/grades")
+    public ResponseEntity<List<RosterGradesDto>> getRosterGrades() {
+        return ResponseEntity.ok(adminTrainingCalendarService.getRosterGrades());
+    }
+
     @Operation(summary = "Athlete's calendar range", description = "Same shape as the athlete's own range endpoint.")
     @GetMapping("/athletes/{athleteId}")
     public ResponseEntity<CalendarRangeDto> getRange(
@@ -56,6 +73,20 @@ public class AdminTrainingCalendarController {
         return ResponseEntity.ok(adminTrainingCalendarService.getRangeForAthlete(adminId, athleteId, from, to));
     }
 
+    @Operation(summary = "Athlete's calendar range changes",
+        description = "Same contract as the athlete's own changes endpoint: 304 when nothing changed since the cursor.")
+    @GetMapping("/athletes/{athleteId}/changes")
+    public ResponseEntity<CalendarChangesDto> getChanges(
+            @Parameter(hidden = true) @CurrentUserId UUID adminId,
+            @PathVariable UUID athleteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @org.jspecify.annotations.Nullable String since) {
+        return adminTrainingCalendarService.getChangesForAthlete(adminId, athleteId, from, to, since)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
     @Operation(summary = "Athlete statistics", description = "Same live-derived stats the athlete sees under their own calendar.")
     @GetMapping("/athletes/{athleteId}/stats")
     public ResponseEntity<AthleteStatsDto> getStats(
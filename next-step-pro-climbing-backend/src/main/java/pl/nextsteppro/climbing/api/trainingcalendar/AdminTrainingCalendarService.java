@@ -1,5 +1,6 @@
 package pl.nextsteppro.climbing.api.trainingcalendar;
 
+import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
@@ -9,6 +10,7 @@ import pl.nextsteppro.climbing.domain.user.UserRepository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -22,6 +24,7 @@ public class AdminTrainingCalendarService {
 
     private final TrainingCalendarService core;
     private final TrainingStatsService statsService;
+    private final CoachDashboardService dashboardService;
     private final AthleteGoalService goalService;
     private final AttachmentSupport attachments;
     private final ActivityLogService activityLogService;
@@ -29,12 +32,14 @@ public class AdminTrainingCalendarService {
 
     public AdminTrainingCalendarService(TrainingCalendarService core,
                                         TrainingStatsService statsService,
+                                        CoachDashboardService dashboardService,
                                         AthleteGoalService goalService,
                                         AttachmentSupport attachments,
                                         ActivityLogService activityLogService,
                                         UserRepository userRepository) {
         this.core = core;
         this.statsService = statsService;
+        this.dashboardService = dashboardService;
         this.goalService = goalService;
         this.attachments = attachments;
         this.activityLogService = activityLogService;
@@ -57,11 +62,27 @@ public class AdminTrainingCalendarService {
         return core.getAthleteSummaries(adminId);
     }
 
+    @Transactional(readOnly = true)
+    public List<AthleteDashboardDto> getDashboard() {
+        return dashboardService.getDashboard();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RosterGradesDto> getRosterGrades() {
+        return dashboardService.getRosterGrades();
+    }
+
     @Transactional(readOnly = true)
     public CalendarRangeDto getRangeForAthlete(UUID adminId, UUID athleteId, LocalDate from, LocalDate to) {
         return core.getRangeForAthlete(adminId, athleteId, from, to);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<CalendarChangesDto> getChangesForAthlete(UUID adminId, UUID athleteId, LocalDate from,
+                                                             LocalDate to, @Nullable String since) {
+        return core.getChangesForAthlete(adminId, athleteId, from, to, since);
+    }
+
     @Transactional(readOnly = true)
     public AthleteStatsDto getStatsForAthlete(UUID athleteId) {
         return statsService.getStatsForAthlete(athleteId);
@@ -0,0 +1,155 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The per-month aggregates {@link TrainingStatsService} reads an athlete's older history from, one
+ * row per month with any activity ({@code athlete_stats_months}, V98).
+ *
+ * <p>Database triggers keep the rows current, recomputing one athlete-month from the source tables
+ * on every write that can change it — completing, uncompleting and re-rating a training, rating a
+ * reservation, cancelling one, a slot moved with its event. Nothing here writes them in the normal
+ * course of things. The nightly {@link #repairDrift()} is the same safety net the seat-count
+ * projection has: empty in a healthy system, and a warning naming the rows when a write reached
+ * the sources by a path the triggers do not cover.
+ *
+ * <p>A bean of its own for the reason {@code AvailabilityProjectionService} is: the scheduler has
+ * to reach the {@code @Transactional} method through the proxy.
+ */
+@Component
+public class AthleteStatsSnapshots {
+
+    private static final Logger log = LoggerFactory.getLogger(AthleteStatsSnapshots.class);
+
+    private static final String FIND_BEFORE = """
+        SELECT month_start, day_counts, personal, individual_slot, course, training, workshop,
+               rpe_sum, rpe_count, unrated_reservations, recent_rpes
+          FROM athlete_stats_months
+         WHERE athlete_id = ? AND month_start < ?
+         ORDER BY month_start
+        """;
+
+    // Both read newest first, so the LIMIT stops a backward walk of the (athlete_id, month_start)
+    // key after that many rows; the outer ORDER BY puts them back oldest first.
+    private static final String FIND_LATEST_BEFORE = """
+        SELECT month_start, day_counts, personal, individual_slot, course, training, workshop,
+               rpe_sum, rpe_count, unrated_reservations, recent_rpes
+          FROM (SELECT * FROM athlete_stats_months
+                 WHERE athlete_id = ? AND month_start < ?
+                 ORDER BY month_start DESC
+                 LIMIT ?) latest
+         ORDER BY month_start
+        """;
+
+    private static final String FIND_LATEST_BEFORE_FOR_FLAGGED = """
+        SELECT u.id AS athlete_id, m.month_start, m.day_counts, m.personal, m.individual_slot, m.course,
+               m.training, m.workshop, m.rpe_sum, m.rpe_count, m.unrated_reservations, m.recent_rpes
+          FROM users u
+         CROSS JOIN LATERAL (SELECT * FROM athlete_stats_months
+                              WHERE athlete_id = u.id AND month_start < ?
+                              ORDER BY month_start DESC
+                              LIMIT ?) m
+         WHERE u.is_athlete
+         ORDER BY m.month_start
+        """;
+
+    /** Writes despite being a SELECT — runs in the read-write transaction of {@link #repairDrift}. */
+    private static final String REPAIR_DRIFT =
+        "SELECT drifted_athlete, drifted_month FROM repair_athlete_stats_drift()";
+
+    private static final RowMapper<Month> MONTH = (rs, row) -> new Month(
+        YearMonth.from(rs.getObject("month_start", LocalDate.class)),
+        ints(rs, "day_counts"),
+        rs.getInt("personal"),
+        rs.getInt("individual_slot"),
+        rs.getInt("course"),
+        rs.getInt("training"),
+        rs.getInt("workshop"),
+        rs.getInt("rpe_sum"),
+        rs.getInt("rpe_count"),
+        rs.getInt("unrated_reservations"),
+        ints(rs, "recent_rpes"));
+
+    private final JdbcTemplate jdbc;
+
+    public AthleteStatsSnapshots(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Every month with activity that starts before {@code before}, oldest first. */
+    List<Month> findBefore(UUID athleteId, LocalDate before) {
+        return jdbc.query(FIND_BEFORE, MONTH, athleteId, before);
+    }
+
+    /**
+     * Only the {@code months} latest months of {@link #findBefore}, oldest first — for a reader that
+     * needs the recent end of the history and can tell when it has to go further back.
+     */
+    List<Month> findLatestBefore(UUID athleteId, LocalDate before, int months) {
+        return jdbc.query(FIND_LATEST_BEFORE, MONTH, athleteId, before, months);
+    }
+
+    /** {@link #findLatestBefore} for every flagged athlete in one query, for the coach's dashboard. */
+    Map<UUID, List<Month>> findLatestBeforeForFlaggedAthletes(LocalDate before, int months) {
+        Map<UUID, List<Month>> byAthlete = new HashMap<>();
+        jdbc.query(FIND_LATEST_BEFORE_FOR_FLAGGED, rs -> {
+            byAthlete.computeIfAbsent(rs.getObject("athlete_id", UUID.class), id -> new ArrayList<>())
+                .add(MONTH.mapRow(rs, rs.getRow()));
+        }, before, months);
+        return byAthlete;
+    }
+
+    /**
+     * @return how many athlete-months had drifted and were recomputed
+     */
+    @Transactional
+    public int repairDrift() {
+        List<String> repaired = jdbc.query(REPAIR_DRIFT,
+            (rs, row) -> rs.getObject("drifted_athlete", UUID.class) + " "
+                + YearMonth.from(rs.getObject("drifted_month", LocalDate.class)));
+        if (repaired.isEmpty()) return 0;
+
+        log.warn("Athlete stats snapshots had drifted on {} month(s), recomputed: {}", repaired.size(), repaired);
+        return repaired.size();
+    }
+
+    private static int[] ints(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        try {
+            Integer[] values = (Integer[]) array.getArray();
+            int[] result = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = values[i];
+            }
+            return result;
+        } finally {
+            array.free();
+        }
+    }
+
+    /**
+     * One closed month of one athlete, with exactly the meaning the service gives its live rows.
+     *
+     * @param dayCounts  activities on each day of the month, index 0 = the 1st
+     * @param recentRpes the month's latest ratings, at most five, newest first
+     */
+    record Month(YearMonth month, int[] dayCounts, int personal, int individualSlot, int course,
+                 int training, int workshop, int rpeSum, int rpeCount, int unratedReservations,
+                 int[] recentRpes) {}
+}
@@ -3,6 +3,7 @@ package pl.nextsteppro.climbing.api.trainingcalendar;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.HtmlUtils;
@@ -36,13 +37,16 @@ public class AttachmentSupport {
 
     private final TrainingAttachmentRepository attachmentRepository;
     private final FileStorageService fileStorageService;
+    private final PrivateFileUrls privateFileUrls;
     private final MessageService msg;
 
     AttachmentSupport(TrainingAttachmentRepository attachmentRepository,
                       FileStorageService fileStorageService,
+                      PrivateFileUrls privateFileUrls,
                       MessageService msg) {
         this.attachmentRepository = attachmentRepository;
         this.fileStorageService = fileStorageService;
+        this.privateFileUrls = privateFileUrls;
         this.msg = msg;
     }
 
@@ -129,7 +133,7 @@ public class AttachmentSupport {
      * from the UUID filename; it is HTML-escaped and length-capped, display-only).
      */
     @Nullable
-    private static String mimeTypeForFilename(@Nullable String filename) {
+    static String mimeTypeForFilename(@Nullable String filename) {
         if (filename == null) return null;
         String lower = filename.toLowerCase();
         if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
@@ -163,17 +167,21 @@ public class AttachmentSupport {
 
     // ---------- reads ----------
 
-    List<TrainingAttachmentDto> dtosForTraining(UUID trainingId) {
+    /**
+     * @param viewerId who the training was just checked for, to sign file URLs for; null where the
+     *   caller does not know (admin write responses), which falls back to the by-id route
+     */
+    List<TrainingAttachmentDto> dtosForTraining(UUID trainingId, @Nullable UUID viewerId) {
         return attachmentRepository.findByTrainingIdOrderByPositionAsc(trainingId).stream()
-            .map(AttachmentSupport::toDto).toList();
+            .map(a -> toDto(a, viewerId)).toList();
     }
 
     /** Batch DTO map for the calendar range (avoids N+1 across many trainings). */
-    java.util.Map<UUID, List<TrainingAttachmentDto>> dtosForTrainings(List<UUID> trainingIds) {
+    java.util.Map<UUID, List<TrainingAttachmentDto>> dtosForTrainings(List<UUID> trainingIds, UUID viewerId) {
         java.util.Map<UUID, List<TrainingAttachmentDto>> map = new java.util.HashMap<>();
         if (trainingIds.isEmpty()) return map;
         for (TrainingAttachment a : attachmentRepository.findByTrainingIdInOrderByPositionAsc(trainingIds)) {
-            map.computeIfAbsent(a.trainingId(), k -> new java.util.ArrayList<>()).add(toDto(a));
+            map.computeIfAbsent(a.trainingId(), k -> new java.util.ArrayList<>()).add(toDto(a, viewerId));
         }
         return map;
     }
@@ -190,8 +198,23 @@ public class AttachmentSupport {
      * through the row lets the request be checked against who owns the training.
      */
     static TrainingAttachmentDto toDto(TrainingAttachment a) {
+        return toDto(a, serveUrl(a.getId()));
+    }
+
+    /**
+     * Same, with the file's URL signed for {@code viewerId} (see {@link PrivateFileUrls}), so the
+     * viewer's reads of it skip the row lookup and the guards.
+     */
+    TrainingAttachmentDto toDto(TrainingAttachment a, @Nullable UUID viewerId) {
+        String filename = a.getFilename();
+        if (viewerId == null || filename == null) {
+            return toDto(a);
+        }
+        return toDto(a, privateFileUrls.sign(PrivateFileUrls.Kind.MATERIALS, filename, a.getOriginalName(), viewerId));
+    }
+
+    private static TrainingAttachmentDto toDto(TrainingAttachment a, String serveUrl) {
         if (a.getKind() == pl.nextsteppro.climbing.domain.personaltraining.AttachmentKind.FILE) {
-            String serveUrl = serveUrl(a.getId());
             return new TrainingAttachmentDto(a.getId(), "FILE", serveUrl, a.getLabel(),
                 null, a.getFilename(), a.getOriginalName(), a.getMimeType(), a.getSizeBytes());
         }
@@ -219,12 +242,8 @@ public class AttachmentSupport {
         }
     }
 
-    java.io.InputStream open(String filename) throws IOException {
-        return fileStorageService.getInputStream(filename, FOLDER);
-    }
-
-    long sizeOf(String filename) {
-        return fileStorageService.getFileSize(filename, FOLDER);
+    Resource open(String filename) throws IOException {
+        return fileStorageService.getResource(filename, FOLDER);
     }
 
     // ---------- admin materials management (central cleanup view) ----------
@@ -302,20 +321,32 @@ public class AttachmentSupport {
      * Sweep abandoned uploads: files in the training folder that no attachment references and that
      * are older than {@code olderThan}. The grace window protects an upload that was stored but not
      * yet saved onto a training/template (two-phase upload). Returns how many files were deleted.
+     *
+     * <p>The folder is read as a stream, a page of names at a time, with one reference query per
+     * page and a {@code stat} only for the names nothing references. Deliberately not one
+     * transaction: each page's query is its own short read, so a folder of tens of thousands of
+     * files never holds a connection for the whole walk.
      */
     public int sweepOrphanUploads(java.time.Duration olderThan) {
         java.time.Instant cutoff = java.time.Instant.now().minus(olderThan);
         int deleted = 0;
-        for (String filename : fileStorageService.listFilenames(FOLDER)) {
-            try {
-                if (attachmentRepository.countByFilename(filename) > 0) continue;
-                long modified = fileStorageService.getLastModifiedMillis(filename, FOLDER);
-                if (modified < 0 || java.time.Instant.ofEpochMilli(modified).isAfter(cutoff)) continue;
-                fileStorageService.delete(filename, FOLDER);
-                deleted++;
-            } catch (Exception e) {
-                // Malformed name or IO error — skip this file, keep sweeping
-                logger.warn("Skipping orphan-sweep of {}: {}", filename, e.getMessage());
+        try (var filenames = fileStorageService.streamFilenames(FOLDER)) {
+            var pages = filenames.gather(java.util.stream.Gatherers.windowFixed(FileStorageService.SWEEP_PAGE_SIZE)).iterator();
+            while (pages.hasNext()) {
+                List<String> page = pages.next();
+                java.util.Set<String> referenced = attachmentRepository.findReferencedFilenames(page);
+                for (String filename : page) {
+                    if (referenced.contains(filename)) continue;
+                    try {
+                        long modified = fileStorageService.getLastModifiedMillis(filename, FOLDER);
+                        if (modified < 0 || java.time.Instant.ofEpochMilli(modified).isAfter(cutoff)) continue;
+                        fileStorageService.delete(filename, FOLDER);
+                        deleted++;
+                    } catch (Exception e) {
+                        // IO error — skip this file, keep sweeping
+                        logger.warn("Skipping orphan-sweep of {}: {}", filename, e.getMessage());
+                    }
+                }
             }
         }
         return deleted;
@@ -323,9 +354,11 @@ public class AttachmentSupport {
 
     /** Delete each file from disk only if NO attachment (any owner) still references it. */
     void deleteFilesIfUnreferenced(List<String> filenames) {
-        for (String filename : filenames) {
-            if (filename == null) continue;
-            if (attachmentRepository.countByFilename(filename) > 0) continue;
+        List<String> candidates = filenames.stream().filter(java.util.Objects::nonNull).distinct().toList();
+        if (candidates.isEmpty()) return;
+        java.util.Set<String> referenced = attachmentRepository.findReferencedFilenames(candidates);
+        for (String filename : candidates) {
+            if (referenced.contains(filename)) continue;
             try {
                 fileStorageService.delete(filename, FOLDER);
             } catch (Exception e) {
@@ -0,0 +1,70 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * What a calendar client already holds, handed back with every changes response and returned on
+ * the next poll. Opaque to the client; dot-separated numbers on the wire.
+ *
+ * <p>The change counter alone does not say enough. The response also depends on the viewed range,
+ * on the viewer's read marker (every unread dot moves with it) and on the clock (a plan turns
+ * MISSED at its end without anybody writing). So the cursor carries all four, and only a cursor
+ * that still matches the request in all of them can be answered with a delta or a 304. Anything
+ * else — another range, a marker that moved, a deadline that passed, a string that does not parse
+ * — is answered with the whole range, which is never wrong.
+ *
+ * @param version    the athlete's change counter when the response was built (V99)
+ * @param validUntil the first moment the clock alone changes something in the range
+ * @param seenAt     the viewer's read marker the unread dots were computed against
+ */
+record CalendarCursor(long version, Instant validUntil, Instant seenAt, LocalDate from, LocalDate to) {
+
+    CalendarCursor {
+        // Only what the wire keeps: whole seconds for the deadline (rounding down can only end a
+        // cursor early), microseconds for the marker, which is all the database stores of it
+        validUntil = validUntil.truncatedTo(ChronoUnit.SECONDS);
+        seenAt = seenAt.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /** Whether a delta against this cursor is the complete answer to the request. */
+    boolean answers(LocalDate from, LocalDate to, Instant seenAt, Instant now) {
+        return this.from.equals(from) && this.to.equals(to)
+            && this.seenAt.equals(seenAt.truncatedTo(ChronoUnit.MICROS))
+            && now.isBefore(validUntil);
+    }
+
+    String encode() {
+        return version + "." + validUntil.getEpochSecond() + "." + ChronoUnit.MICROS.between(Instant.EPOCH, seenAt)
+            + "." + from.toEpochDay() + "." + to.toEpochDay();
+    }
+
+    /** Null for anything this class did not write. */
+    static @Nullable CalendarCursor parse(@Nullable String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String[] parts = raw.split("\\.", -1);
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            long version = Long.parseLong(parts[0]);
+            if (version < 0) {
+                return null;
+            }
+            return new CalendarCursor(
+                version,
+                Instant.ofEpochSecond(Long.parseLong(parts[1])),
+                Instant.EPOCH.plus(Long.parseLong(parts[2]), ChronoUnit.MICROS),
+                LocalDate.ofEpochDay(Long.parseLong(parts[3])),
+                LocalDate.ofEpochDay(Long.parseLong(parts[4])));
+        } catch (NumberFormatException | DateTimeException | ArithmeticException e) {
+            return null;
+        }
+    }
+}
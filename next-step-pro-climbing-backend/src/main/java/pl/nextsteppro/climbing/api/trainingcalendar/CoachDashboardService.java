@@ -0,0 +1,276 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.nextsteppro.climbing.domain.athletegoal.AthleteGoalRepository;
+import pl.nextsteppro.climbing.domain.athletegoal.OpenGoalSummary;
+import pl.nextsteppro.climbing.domain.athleteweight.AthleteWeight;
+import pl.nextsteppro.climbing.domain.athleteweight.AthleteWeightRepository;
+import pl.nextsteppro.climbing.domain.athleteweight.WeightTrendCalculator;
+import pl.nextsteppro.climbing.domain.athleteweight.WeightTrendCalculator.TrendPoint;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentDiscipline;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentTerrain;
+import pl.nextsteppro.climbing.domain.climbingascent.AthleteGradeRow;
+import pl.nextsteppro.climbing.domain.climbingascent.ClimbingAscentRepository;
+import pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade;
+import pl.nextsteppro.climbing.domain.climbingascent.GradeHistogram;
+import pl.nextsteppro.climbing.domain.personaltraining.AthleteActivityDay;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTrainingRepository;
+import pl.nextsteppro.climbing.domain.reservation.ReservationRepository;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The coach's overview: one compact row per flagged athlete — last activity, streak, this week's
+ * load, weight trend and open goals — for the whole roster in one request.
+ *
+ * <p>Opening the overview used to mean opening each athlete: the range, the statistics, the weight
+ * series and the goals, one request and several queries each, so the page cost grew with every
+ * athlete on the roster. Here every source is read <b>once for the whole roster</b> and grouped in
+ * Java — six queries however many athletes there are. The per-athlete endpoints stay for the
+ * detail view; this one only answers what the list shows, and reads only what that needs: of the
+ * older months just the latest few, since the list shows a streak and a last activity and neither
+ * reaches further back unless the streak does.
+ *
+ * <p>The numbers are the ones the detail view shows, not look-alikes. Activities use the same
+ * sources as {@link TrainingStatsService} (older months from {@link AthleteStatsSnapshots}, the
+ * live months from rows, tasks left out) and the streak is the very same method; the weight trend
+ * and the weekly change come from {@link WeightTrendCalculator}. A coach who sees "5 weeks" on the
+ * list and "4 weeks" on the card stops trusting both.
+ *
+ * <p>The roster's grades are the one place the overview sums athletes rather than listing them:
+ * each athlete's year of rock ascents is a {@link GradeHistogram}, and the group's pyramid is those
+ * histograms merged, table into table — the same cost whether the group is two athletes or forty.
+ * A designated athlete's logbook is readable to the coach whatever its visibility switch says
+ * (see {@code AscentService.requireReadableLogbook}), so the flag is the only filter here too.
+ *
+ * <p>Like the other coach paths it needs the athlete flag and nothing else — see
+ * {@link TrainingCalendarService#requireFlaggedAthlete}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CoachDashboardService {
+
+    // Slot times are stored as local Poland time while the container runs UTC
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+    // "What the group climbs now": a year, so a season away from the crag does not empty it
+    private static final int GRADE_WINDOW_DAYS = 365;
+    // Snapshot months read per athlete up front; only a streak older than these reads further back
+    private static final int HISTORY_MONTHS = 2;
+
+    private final UserRepository userRepository;
+    private final PersonalTrainingRepository trainingRepository;
+    private final ReservationRepository reservationRepository;
+    private final AthleteWeightRepository weightRepository;
+    private final AthleteGoalRepository goalRepository;
+    private final AthleteStatsSnapshots snapshots;
+    private final ClimbingAscentRepository ascentRepository;
+
+    public CoachDashboardService(UserRepository userRepository,
+                                 PersonalTrainingRepository trainingRepository,
+                                 ReservationRepository reservationRepository,
+                                 AthleteWeightRepository weightRepository,
+                                 AthleteGoalRepository goalRepository,
+                                 AthleteStatsSnapshots snapshots,
+                                 ClimbingAscentRepository ascentRepository) {
+        this.userRepository = userRepository;
+        this.trainingRepository = trainingRepository;
+        this.reservationRepository = reservationRepository;
+        this.weightRepository = weightRepository;
+        this.goalRepository = goalRepository;
+        this.snapshots = snapshots;
+        this.ascentRepository = ascentRepository;
+    }
+
+    /** In roster order (first name, last name), one row per flagged athlete. */
+    public List<AthleteDashboardDto> getDashboard() {
+        return buildDashboard(LocalDateTime.now(WARSAW));
+    }
+
+    // Package-private with "now" as a parameter so tests are deterministic.
+    List<AthleteDashboardDto> buildDashboard(LocalDateTime nowWarsaw) {
+        LocalDate today = nowWarsaw.toLocalDate();
+        LocalDate liveFrom = TrainingStatsService.liveFrom(today);
+        // The weekly change compares today's trend with the one a week ago, each over its own window
+        LocalDate weightsFrom = today.minusDays(2L * WeightTrendCalculator.WINDOW_DAYS - 1);
+
+        List<User> roster = userRepository.findAllByAthleteTrueOrderByFirstNameAscLastNameAsc();
+        Map<UUID, List<AthleteStatsSnapshots.Month>> history =
+            snapshots.findLatestBeforeForFlaggedAthletes(liveFrom, HISTORY_MONTHS);
+        Map<UUID, List<AthleteActivityDay>> activity = new HashMap<>();
+        for (AthleteActivityDay day : trainingRepository.findCompletedTrainingDaysOfFlaggedAthletes(liveFrom)) {
+            activity.computeIfAbsent(day.athleteId(), id -> new ArrayList<>()).add(day);
+        }
+        for (AthleteActivityDay day : reservationRepository.findAttendedDaysOfFlaggedAthletes(
+                liveFrom, today, nowWarsaw.toLocalTime())) {
+            activity.computeIfAbsent(day.athleteId(), id -> new ArrayList<>()).add(day);
+        }
+        Map<UUID, List<AthleteWeight>> weights = new HashMap<>();
+        for (AthleteWeight weight : weightRepository.findRangeOfFlaggedAthletes(weightsFrom, today)) {
+            weights.computeIfAbsent(weight.getAthlete().getId(), id -> new ArrayList<>()).add(weight);
+        }
+        Map<UUID, OpenGoalSummary> goals = new HashMap<>();
+        for (OpenGoalSummary summary : goalRepository.summarizeOpenGoalsOfFlaggedAthletes()) {
+            goals.put(summary.athleteId(), summary);
+        }
+
+        return roster.stream()
+            .map(athlete -> summarize(athlete.getId(), today,
+                countsByDate(athlete.getId(), history.getOrDefault(athlete.getId(), List.of()),
+                    activity.getOrDefault(athlete.getId(), List.of()), liveFrom, today),
+                activity.getOrDefault(athlete.getId(), List.of()),
+                WeightTrendCalculator.index(weights.getOrDefault(athlete.getId(), List.of())),
+                goals.get(athlete.getId())))
+            .toList();
+    }
+
+    /** One block per discipline the roster climbed in over the last year, in declaration order. */
+    public List<RosterGradesDto> getRosterGrades() {
+        return buildRosterGrades(LocalDate.now(WARSAW));
+    }
+
+    // Package-private with "today" as a parameter so tests are deterministic.
+    List<RosterGradesDto> buildRosterGrades(LocalDate today) {
+        List<User> roster = userRepository.findAllByAthleteTrueOrderByFirstNameAscLastNameAsc();
+        Map<AscentDiscipline, Map<UUID, GradeHistogram>> byDiscipline = new EnumMap<>(AscentDiscipline.class);
+        for (AthleteGradeRow row : ascentRepository.findGradesOfFlaggedAthletes(
+                AscentTerrain.ROCK, today.minusDays(GRADE_WINDOW_DAYS - 1L))) {
+            byDiscipline.computeIfAbsent(row.discipline(), d -> new HashMap<>())
+                .computeIfAbsent(row.athleteId(), id -> new GradeHistogram())
+                .add(row.grade(), row.style());
+        }
+
+        List<RosterGradesDto> blocks = new ArrayList<>();
+        byDiscipline.forEach((discipline, perAthlete) -> {
+            GradeHistogram group = new GradeHistogram();
+            List<AthleteGradesDto> athletes = new ArrayList<>();
+            for (User athlete : roster) {
+                GradeHistogram own = perAthlete.get(athlete.getId());
+                if (own == null) continue;
+                group.merge(own);
+                ClimbingGrade hardest = own.top(1).getFirst();
+                ClimbingGrade median = requireGrade(own.percentile(50));
+                athletes.add(new AthleteGradesDto(athlete.getId(), own.total(),
+                    hardest.label(), hardest.rank(), median.label(), median.rank()));
+            }
+            // Flag taken away between the two reads: nobody left to sum
+            if (group.isEmpty()) return;
+            List<RosterGradeRungDto> pyramid = new ArrayList<>();
+            for (ClimbingGrade grade : group.grades()) {
+                pyramid.add(new RosterGradeRungDto(grade.name(), grade.label(), grade.rank(), group.count(grade)));
+            }
+            ClimbingGrade median = requireGrade(group.percentile(50));
+            blocks.add(new RosterGradesDto(discipline.name(), group.total(), pyramid,
+                median.label(), median.rank(), athletes));
+        });
+        return blocks;
+    }
+
+    private static ClimbingGrade requireGrade(@Nullable ClimbingGrade grade) {
+        // percentile() is null only for an empty histogram, and empty ones never get this far
+        if (grade == null) throw new IllegalStateException("Empty histogram");
+        return grade;
+    }
+
+    /**
+     * Activities per day, snapshot months and live rows together. The dashboard shows only the last
+     * activity and the current streak, so the batch read holds each athlete's latest
+     * {@value #HISTORY_MONTHS} snapshot months and nothing older. A streak still unbroken at the
+     * oldest of them — one that runs through the whole live window and beyond — is the rare case
+     * that reads further back, twice as deep each time, until it breaks or the history ends.
+     */
+    private TreeMap<LocalDate, Integer> countsByDate(UUID athleteId, List<AthleteStatsSnapshots.Month> history,
+                                                     List<AthleteActivityDay> activity,
+                                                     LocalDate liveFrom, LocalDate today) {
+        int depth = HISTORY_MONTHS;
+        TreeMap<LocalDate, Integer> countsByDate = countsByDate(history, activity);
+        // Fewer months than asked for is the whole history
+        while (history.size() == depth && streakReachesBefore(countsByDate, history.getFirst().month(), today)) {
+            depth *= 2;
+            history = snapshots.findLatestBefore(athleteId, liveFrom, depth);
+            countsByDate = countsByDate(history, activity);
+        }
+        return countsByDate;
+    }
+
+    private static TreeMap<LocalDate, Integer> countsByDate(List<AthleteStatsSnapshots.Month> history,
+                                                            List<AthleteActivityDay> activity) {
+        TreeMap<LocalDate, Integer> countsByDate = new TreeMap<>();
+        for (AthleteStatsSnapshots.Month m : history) {
+            int[] days = m.dayCounts();
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] > 0) countsByDate.put(m.month().atDay(i + 1), days[i]);
+            }
+        }
+        for (AthleteActivityDay day : activity) {
+            countsByDate.merge(day.date(), 1, Integer::sum);
+        }
+        return countsByDate;
+    }
+
+    /**
+     * Whether the current streak might go on before {@code oldest}: the week before its first week
+     * is only known to be empty when it lies wholly inside the months read.
+     */
+    private static boolean streakReachesBefore(TreeMap<LocalDate, Integer> countsByDate, YearMonth oldest, LocalDate today) {
+        int current = TrainingStatsService.computeStreaks(countsByDate, today)[0];
+        if (current == 0) return false;
+        // computeStreaks' grace rule: the streak ends this week if it has an activity, else last week
+        LocalDate thisWeek = today.with(DayOfWeek.MONDAY);
+        LocalDate lastWeek = countsByDate.ceilingKey(thisWeek) != null ? thisWeek : thisWeek.minusWeeks(1);
+        return lastWeek.minusWeeks(current).isBefore(oldest.atDay(1));
+    }
+
+    private static AthleteDashboardDto summarize(UUID athleteId, LocalDate today,
+                                                 TreeMap<LocalDate, Integer> countsByDate,
+                                                 List<AthleteActivityDay> activity,
+                                                 NavigableMap<LocalDate, BigDecimal> weights,
+                                                 @Nullable OpenGoalSummary goals) {
+        LocalDate thisWeek = today.with(DayOfWeek.MONDAY);
+        int rpeSum = 0;
+        int rpeCount = 0;
+        for (AthleteActivityDay day : activity) {
+            if (day.rpe() != null && !day.date().isBefore(thisWeek)) {
+                rpeSum += day.rpe();
+                rpeCount++;
+            }
+        }
+
+        int[] streaks = TrainingStatsService.computeStreaks(countsByDate, today);
+        TrendPoint trend = WeightTrendCalculator.trendOn(weights, today);
+        BigDecimal weeklyChange = WeightTrendCalculator.weeklyChangePercent(weights, today);
+
+        return new AthleteDashboardDto(
+            athleteId,
+            countsByDate.isEmpty() ? null : countsByDate.lastKey(),
+            streaks[0],
+            countBetween(countsByDate, thisWeek, today),
+            countBetween(countsByDate, thisWeek.minusWeeks(1), thisWeek.minusDays(1)),
+            rpeCount == 0 ? null : Math.round(10.0 * rpeSum / rpeCount) / 10.0,
+            trend != null ? trend.average() : null,
+            weeklyChange,
+            WeightTrendCalculator.isRapidLoss(weeklyChange),
+            goals != null ? (int) goals.count() : 0,
+            goals != null ? goals.nearestTargetDate() : null);
+    }
+
+    private static int countBetween(TreeMap<LocalDate, Integer> countsByDate, LocalDate from, LocalDate to) {
+        return countsByDate.subMap(from, true, to, true).values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -20,9 +20,9 @@ import java.util.List;
 public class CommentFileRetentionService {
 
     /**
-     * A file younger than this is left alone by the orphan pass. The known filenames are read
-     * before the folder is listed, so an upload landing between the two looks orphaned — and
-     * deleting a file somebody just sent is far worse than sweeping it a day later.
+     * A file younger than this is left alone by the orphan pass. A page of the folder is listed
+     * before its names are looked up, so an upload whose row commits between the two looks
+     * orphaned — and deleting a file somebody just sent is far worse than sweeping it a day later.
      */
     static final Duration ORPHAN_GRACE = Duration.ofHours(6);
 
@@ -52,9 +52,11 @@ public class CommentFileRetentionService {
      * something we can stand behind: every explicit unlink elsewhere sits inside a transaction that
      * can still roll back, and the storage layer logs its failures rather than raising them.
      *
+     * <p>Not {@code @Transactional}, unlike {@link #deleteExpired}: the sweep looks names up a page at
+     * a time, each lookup a short read of its own, so walking the folder never holds a connection.
+     *
      * @return how many files were removed
      */
-    @Transactional(readOnly = true)
     public int deleteOrphans() {
         return commentFiles.sweepOrphans(ORPHAN_GRACE);
     }
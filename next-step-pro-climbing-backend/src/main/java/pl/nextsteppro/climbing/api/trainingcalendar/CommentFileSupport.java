@@ -3,6 +3,7 @@ package pl.nextsteppro.climbing.api.trainingcalendar;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import pl.nextsteppro.climbing.domain.personaltraining.TrainingComment;
@@ -22,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Gatherers;
+import java.util.stream.Stream;
 
 /**
  * Mechanics of the files attached to thread messages: validation, storage, DTOs and every path that
@@ -61,15 +64,18 @@ public class CommentFileSupport {
     private final TrainingCommentFileRepository fileRepository;
     private final TrainingCommentRepository commentRepository;
     private final FileStorageService fileStorageService;
+    private final PrivateFileUrls privateFileUrls;
     private final MessageService msg;
 
     public CommentFileSupport(TrainingCommentFileRepository fileRepository,
                        TrainingCommentRepository commentRepository,
                        FileStorageService fileStorageService,
+                       PrivateFileUrls privateFileUrls,
                        MessageService msg) {
         this.fileRepository = fileRepository;
         this.commentRepository = commentRepository;
         this.fileStorageService = fileStorageService;
+        this.privateFileUrls = privateFileUrls;
         this.msg = msg;
     }
 
@@ -119,7 +125,11 @@ public class CommentFileSupport {
 
     // ---------- reading ----------
 
-    /** Batch map for a whole thread — a per-comment lookup would be N+1 on every training opened. */
+    /**
+     * Batch map for a whole thread — a per-comment lookup would be N+1 on every training opened.
+     * The thread has just passed the guards for {@code viewerId}, so each file's URL is signed for
+     * them and its reads skip the per-file lookup.
+     */
     Map<UUID, List<TrainingCommentFileDto>> dtosForComments(Collection<UUID> commentIds,
                                                             UUID viewerId, boolean viewerIsAdmin) {
         Map<UUID, List<TrainingCommentFileDto>> byComment = new HashMap<>();
@@ -128,15 +138,17 @@ public class CommentFileSupport {
         }
         for (TrainingCommentFile f : fileRepository.findByCommentIdInOrderByPositionAsc(commentIds)) {
             byComment.computeIfAbsent(f.getComment().getId(), k -> new ArrayList<>())
-                .add(toDto(f, canDelete(f.getComment(), viewerId, viewerIsAdmin)));
+                .add(toDto(f,
+                    privateFileUrls.sign(PrivateFileUrls.Kind.COMMENTS, f.getFilename(), f.getOriginalName(), viewerId),
+                    canDelete(f.getComment(), viewerId, viewerIsAdmin)));
         }
         return byComment;
     }
 
-    static TrainingCommentFileDto toDto(TrainingCommentFile f, boolean canDelete) {
+    private static TrainingCommentFileDto toDto(TrainingCommentFile f, String url, boolean canDelete) {
         return new TrainingCommentFileDto(
             f.getId(),
-            "/api/training-calendar/comment-files/" + f.getId(),
+            url,
             f.getMimeType(),
             f.getOriginalName(),
             f.getSizeBytes(),
@@ -211,24 +223,31 @@ public class CommentFileSupport {
      * than raising them. Without it one silent failure is a permanent leak of somebody's data;
      * with it the file survives at most one more night.
      *
-     * <p>The grace window protects an upload that landed on disk between reading the known names
-     * and listing the folder — deleting a file somebody just sent is far worse than sweeping it a
-     * day later.
+     * <p>The folder is streamed a page at a time and each page's names are looked up in one query,
+     * so neither the listing nor the set of known names is ever held whole. The grace window
+     * protects an upload whose file is listed before its row commits — deleting a file somebody
+     * just sent is far worse than sweeping it a day later.
      */
     int sweepOrphans(Duration grace) {
-        Set<String> known = fileRepository.findAllFilenames();
         Instant cutoff = Instant.now().minus(grace);
         int deleted = 0;
-        for (String filename : fileStorageService.listFilenames(FOLDER)) {
-            try {
-                if (known.contains(filename)) continue;
-                long modified = fileStorageService.getLastModifiedMillis(filename, FOLDER);
-                if (modified < 0 || Instant.ofEpochMilli(modified).isAfter(cutoff)) continue;
-                fileStorageService.delete(filename, FOLDER);
-                deleted++;
-            } catch (Exception e) {
-                // Malformed name or IO error — skip this file, keep sweeping
-                logger.warn("Skipping orphan sweep of comment file {}: {}", filename, e.getMessage());
+        try (Stream<String> filenames = fileStorageService.streamFilenames(FOLDER)) {
+            var pages = filenames.gather(Gatherers.windowFixed(FileStorageService.SWEEP_PAGE_SIZE)).iterator();
+            while (pages.hasNext()) {
+                List<String> page = pages.next();
+                Set<String> known = fileRepository.findReferencedFilenames(page);
+                for (String filename : page) {
+                    if (known.contains(filename)) continue;
+                    try {
+                        long modified = fileStorageService.getLastModifiedMillis(filename, FOLDER);
+                        if (modified < 0 || Instant.ofEpochMilli(modified).isAfter(cutoff)) continue;
+                        fileStorageService.delete(filename, FOLDER);
+                        deleted++;
+                    } catch (Exception e) {
+                        // IO error — skip this file, keep sweeping
+                        logger.warn("Skipping orphan sweep of comment file {}: {}", filename, e.getMessage());
+                    }
+                }
             }
         }
         return deleted;
@@ -249,12 +268,8 @@ public class CommentFileSupport {
         }
     }
 
-    java.io.InputStream open(String filename) throws IOException {
-        return fileStorageService.getInputStream(filename, FOLDER);
-    }
-
-    long sizeOf(String filename) {
-        return fileStorageService.getFileSize(filename, FOLDER);
+    Resource open(String filename) throws IOException {
+        return fileStorageService.getResource(filename, FOLDER);
     }
 
     private void unlinkAll(List<String> filenames) {
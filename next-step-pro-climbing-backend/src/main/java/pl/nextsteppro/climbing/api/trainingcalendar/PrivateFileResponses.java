@@ -1,14 +1,11 @@
 package pl.nextsteppro.climbing.api.trainingcalendar;
 
 import org.jspecify.annotations.Nullable;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
-import java.io.InputStream;
-
 /**
  * The one place that builds a response for a training file. Both streams — the coach's materials
  * and the attachments people send in a thread — go through here so their headers cannot drift
@@ -23,14 +20,18 @@ final class PrivateFileResponses {
 
     private PrivateFileResponses() {}
 
-    static ResponseEntity<Resource> stream(InputStream body, long size, String mimeType,
-                                           @Nullable String downloadName) {
+    /**
+     * The body is the stored file, not a stream over it, so Spring answers a {@code Range} header
+     * with a 206 — a PDF viewer fetches the pages on screen instead of a 10 MB document, and a
+     * dropped phone download resumes — and takes Content-Length from the filesystem. No validators:
+     * with {@code no-store} there is no copy for a client to revalidate.
+     */
+    static ResponseEntity<Resource> stream(Resource file, String mimeType, @Nullable String downloadName) {
         MediaType contentType = MediaType.parseMediaType(mimeType);
         boolean isImage = "image".equalsIgnoreCase(contentType.getType());
 
         return ResponseEntity.ok()
             .contentType(contentType)
-            .contentLength(size)
             .header(HttpHeaders.CACHE_CONTROL, "private, no-store")
             // The type is what the bytes are (checked on upload, images re-encoded by us), so
             // sniffing can only make it wrong.
@@ -41,7 +42,7 @@ final class PrivateFileResponses {
             // Images render in place; everything else is offered as a download rather than run
             // inside our own origin.
             .header(HttpHeaders.CONTENT_DISPOSITION, disposition(isImage, downloadName))
-            .body(new InputStreamResource(body));
+            .body(file);
     }
 
     private static String disposition(boolean isImage, @Nullable String downloadName) {
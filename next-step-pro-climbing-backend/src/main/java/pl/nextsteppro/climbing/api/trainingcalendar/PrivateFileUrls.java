@@ -0,0 +1,127 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
+import pl.nextsteppro.climbing.infrastructure.security.UrlSigner;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Short-lived signed URLs for training files, so that reading one costs no database query.
+ *
+ * <p>The by-id routes ({@code /files/{attachmentId}}, {@code /comment-files/{fileId}}) load the
+ * row and run the calendar's access guards on every request — forty queries and more for a thread
+ * with forty photos, all asking a question already answered when the thread itself was loaded. A
+ * signed URL carries that answer: it is issued with the DTO, after the same guards, and binds the
+ * stored file, its download name, an expiry and the viewer it was issued to. The handler checks
+ * the HMAC against the signed-in user's id and streams; a URL copied into another account, or
+ * altered in any part, fails the check.
+ *
+ * <p>Expiries are rounded to half the lifetime, so reloading a thread within the same window hands
+ * out the same URLs and the client's cache of them (keyed by URL) keeps its hits. A URL is thus
+ * valid for between half and all of {@code app.training-calendar.file-url-ttl}. The trade-off is
+ * stated rather than hidden: access withdrawn in the meantime (un-flagging, consent withdrawn)
+ * reaches already-issued URLs only when they expire, while a deleted file is gone at once.
+ */
+@Component
+class PrivateFileUrls {
+
+    static final String PATH = "/api/training-calendar/signed-files/";
+
+    /** The two private folders, under the path segment that names them in a URL. */
+    enum Kind {
+        MATERIALS("materials", AttachmentSupport.FOLDER),
+        COMMENTS("comments", CommentFileSupport.FOLDER);
+
+        final String segment;
+        final String folder;
+
+        Kind(String segment, String folder) {
+            this.segment = segment;
+            this.folder = folder;
+        }
+
+        static Optional<Kind> fromSegment(String segment) {
+            return Arrays.stream(values()).filter(k -> k.segment.equals(segment)).findFirst();
+        }
+    }
+
+    private final UrlSigner signer;
+    private final FileStorageService fileStorageService;
+    private final MessageService msg;
+    private final long windowSeconds;
+    private final Clock clock;
+
+    @Autowired
+    PrivateFileUrls(UrlSigner signer, FileStorageService fileStorageService, MessageService msg,
+                    @Value("${app.training-calendar.file-url-ttl:PT1H}") Duration ttl) {
+        this(signer, fileStorageService, msg, ttl, Clock.systemUTC());
+    }
+
+    /** Tests pin the clock to cross an expiry without sleeping. */
+    PrivateFileUrls(UrlSigner signer, FileStorageService fileStorageService, MessageService msg,
+                    Duration ttl, Clock clock) {
+        this.signer = signer;
+        this.fileStorageService = fileStorageService;
+        this.msg = msg;
+        this.windowSeconds = Math.max(1, ttl.toSeconds() / 2);
+        this.clock = clock;
+    }
+
+    /** Call only once {@code viewerId} has passed the guards for the row this file belongs to. */
+    String sign(Kind kind, String filename, @Nullable String downloadName, UUID viewerId) {
+        long now = clock.instant().getEpochSecond();
+        long expires = (now / windowSeconds + 2) * windowSeconds;
+        StringBuilder url = new StringBuilder(PATH).append(kind.segment).append('/').append(filename)
+            .append("?exp=").append(expires);
+        if (downloadName != null) {
+            url.append("&name=").append(URLEncoder.encode(downloadName, StandardCharsets.UTF_8));
+        }
+        return url.append("&sig=").append(signer.sign(payload(kind, filename, downloadName, viewerId, expires)))
+            .toString();
+    }
+
+    /**
+     * Verifies and opens, touching nothing but the disk. Every failure of the signature — expired,
+     * altered, someone else's — gets the same 403, so a caller learns nothing about which.
+     */
+    CommentFileStream open(String kindSegment, String filename, long expires, @Nullable String downloadName,
+                           String signature, UUID viewerId) {
+        Kind kind = Kind.fromSegment(kindSegment).orElse(null);
+        if (kind == null
+                || expires < clock.instant().getEpochSecond()
+                || !signer.verify(payload(kind, filename, downloadName, viewerId, expires), signature)) {
+            throw new AccessDeniedException(msg.get("training.file.link.expired"));
+        }
+        String notFound = kind == Kind.MATERIALS ? "training.attachment.not.found" : "training.comment.file.not.found";
+        try {
+            // The type stored on either row is derived from the extension the same way (upload allowlist)
+            return new CommentFileStream(fileStorageService.getResource(filename, kind.folder),
+                Objects.requireNonNullElse(AttachmentSupport.mimeTypeForFilename(filename), "application/octet-stream"),
+                downloadName);
+        } catch (IOException e) {
+            // Deleted or swept since the URL was issued
+            throw new IllegalArgumentException(msg.get(notFound));
+        }
+    }
+
+    /** Line-separated; the name goes last, so nothing it contains can shift another field. */
+    private static String payload(Kind kind, String filename, @Nullable String downloadName, UUID viewerId,
+                                  long expires) {
+        return String.join("\n", kind.segment, filename, viewerId.toString(), Long.toString(expires),
+            downloadName != null ? downloadName : "");
+    }
+}
@@ -12,6 +12,7 @@ import jakarta.validation.Valid;
 import org.jspecify.annotations.Nullable;
 import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -36,15 +37,18 @@ public class TrainingCalendarController {
     private final TrainingStatsService trainingStatsService;
     private final AthleteGoalService athleteGoalService;
     private final AthleteWeightService athleteWeightService;
+    private final PrivateFileUrls privateFileUrls;
 
     public TrainingCalendarController(TrainingCalendarService trainingCalendarService,
                                       TrainingStatsService trainingStatsService,
                                       AthleteGoalService athleteGoalService,
-                                      AthleteWeightService athleteWeightService) {
+                                      AthleteWeightService athleteWeightService,
+                                      PrivateFileUrls privateFileUrls) {
         this.trainingCalendarService = trainingCalendarService;
         this.trainingStatsService = trainingStatsService;
         this.athleteGoalService = athleteGoalService;
         this.athleteWeightService = athleteWeightService;
+        this.privateFileUrls = privateFileUrls;
     }
 
     @Operation(summary = "Calendar range", description = "Trainings + read-only reservation overlay for a date range (max 62 days).")
@@ -63,6 +67,29 @@ public class TrainingCalendarController {
         return ResponseEntity.ok(trainingCalendarService.getMyRange(userId, from, to));
     }
 
+    @Operation(summary = "Calendar range changes",
+        description = "For polling an open calendar. Without since, or with a cursor that no longer applies, the whole range (full = true). "
+            + "Otherwise only the trainings written since the cursor plus the ids that left the range, or 304 when nothing changed. "
+            + "Send the returned cursor as since on the next poll of the same range.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Changes, or the whole range",
+            content = @Content(schema = @Schema(implementation = CalendarChangesDto.class))),
+        @ApiResponse(responseCode = "304", description = "Nothing changed since the cursor"),
+        @ApiResponse(responseCode = "400", description = "Invalid range"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "409", description = "User is not a designated athlete")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<CalendarChangesDto> getChanges(
+            @Parameter(hidden = true) @CurrentUserId UUID userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @Nullable String since) {
+        return trainingCalendarService.getMyChanges(userId, from, to, since)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
     @Operation(summary = "Athlete statistics", description = "Live-derived stats (totals, streaks, heatmap, RPE...) over completed trainings + attended reservations.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Statistics",
@@ -230,7 +257,7 @@ public class TrainingCalendarController {
             Authentication authentication,
             @PathVariable UUID fileId) {
         CommentFileStream file = trainingCalendarService.openCommentFile(userId, isAdmin(authentication), fileId);
-        return PrivateFileResponses.stream(file.inputStream(), file.size(), file.mimeType(), file.fileName());
+        return PrivateFileResponses.stream(file.file(), file.mimeType(), file.fileName());
     }
 
     @Operation(summary = "Delete a comment attachment",
@@ -253,7 +280,28 @@ public class TrainingCalendarController {
             Authentication authentication,
             @PathVariable UUID attachmentId) {
         CommentFileStream file = trainingCalendarService.openMaterial(userId, isAdmin(authentication), attachmentId);
-        return PrivateFileResponses.stream(file.inputStream(), file.size(), file.mimeType(), file.fileName());
+        return PrivateFileResponses.stream(file.file(), file.mimeType(), file.fileName());
+    }
+
+    @Operation(summary = "Download a training file by signed URL",
+        description = "The URL a calendar or thread response hands out for a material or comment attachment. "
+            + "Valid only for the user it was issued to and until exp; checked without a database query.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "File stream"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Expired, altered or issued to another user"),
+        @ApiResponse(responseCode = "400", description = "File deleted since the URL was issued")
+    })
+    @GetMapping("/signed-files/{kind}/{filename}")
+    public ResponseEntity<Resource> getSignedFile(
+            @Parameter(hidden = true) @CurrentUserId UUID userId,
+            @PathVariable String kind,
+            @PathVariable String filename,
+            @RequestParam long exp,
+            @RequestParam(required = false) @Nullable String name,
+            @RequestParam String sig) {
+        CommentFileStream file = privateFileUrls.open(kind, filename, exp, name, sig, userId);
+        return PrivateFileResponses.stream(file.file(), file.mimeType(), file.fileName());
     }
 
     /**
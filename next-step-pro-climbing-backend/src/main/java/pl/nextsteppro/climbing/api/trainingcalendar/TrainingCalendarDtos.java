@@ -9,6 +9,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.jspecify.annotations.Nullable;
+import org.springframework.core.io.Resource;
 import pl.nextsteppro.climbing.domain.athletegoal.AthleteGoal;
 import pl.nextsteppro.climbing.domain.athletegoal.GoalHorizon;
 import pl.nextsteppro.climbing.domain.athletegoal.GoalKind;
@@ -261,6 +262,20 @@ record CalendarRangeDto(
     List<TrainingDeletionDto> deletions
 ) {}
 
+record CalendarChangesDto(
+    // Opaque; sent back as ?since= on the next poll of the same range
+    String cursor,
+    // true = the whole range, replacing what the client holds; false = trainings to upsert
+    boolean full,
+    List<PersonalTrainingDto> trainings,
+    // Deleted, or moved to a date outside the range, since the cursor. Always empty when full
+    List<UUID> removedTrainingIds,
+    // The remaining sections are complete whenever anything changed: small, and fed by many tables
+    List<ReservationOverlayDto> reservations,
+    List<InvitationOverlayDto> invitations,
+    List<TrainingDeletionDto> deletions
+) {}
+
 record TrainingCommentDto(
     UUID id,
     // Null when the message is nothing but attachments
@@ -295,10 +310,11 @@ record TrainingCommentFileDto(
 ) {}
 
 /**
- * Not a JSON payload — what the streaming endpoint needs to hand the bytes back: the open stream
- * plus the facts (type, size, name) taken from the stored file rather than from the request.
+ * Not a JSON payload — what the streaming endpoint needs to hand the bytes back: the stored file
+ * plus the facts (type, name) taken from it rather than from the request. The size comes with the
+ * file.
  */
-record CommentFileStream(java.io.InputStream inputStream, long size, String mimeType,
+record CommentFileStream(Resource file, String mimeType,
                          @Nullable String fileName) {}
 
 record TrainingNotificationsDto(long newCount) {}
@@ -314,6 +330,57 @@ record AthleteSummaryDto(
     @Nullable Instant lastActivityAt
 ) {}
 
+/**
+ * One athlete's row on the coach's overview, built for the whole roster at once. Every figure
+ * means exactly what it means in {@link AthleteStatsDto} and {@link AthleteWeightSeriesDto}.
+ */
+record AthleteDashboardDto(
+    UUID athleteId,
+    // Last day with a completed training or an attended booking — not the last edit, which is
+    // what the roster's lastActivityAt reports
+    @Nullable LocalDate lastActivityDate,
+    int currentStreakWeeks,
+    // Activities in the current ISO week so far, and in the whole previous one
+    int thisWeekCount,
+    int prevWeekCount,
+    // Mean RPE of this week's rated activities; null until one is rated
+    @Nullable Double thisWeekAvgRpe,
+    @Nullable BigDecimal weightTrendKg,
+    @Nullable BigDecimal weeklyChangePercent,
+    boolean rapidLoss,
+    int openGoalCount,
+    // Nearest target date among the open goals
+    @Nullable LocalDate nextGoalTargetDate
+) {}
+
+/**
+ * The roster's grades in one discipline over the last year: the group's pyramid, summed from the
+ * athletes' own, and one line per athlete who climbed in it. Grades are only compared inside a
+ * block — a boulderer's 7A and a sport climber's 7a never share one.
+ */
+record RosterGradesDto(
+    String discipline,
+    int ascentCount,
+    // Hardest first, like the athlete's own pyramid
+    List<RosterGradeRungDto> pyramid,
+    // Nearest-rank median of the whole group: always a grade somebody climbed
+    String medianGradeLabel,
+    int medianRank,
+    // Roster order; athletes with no ascent in this discipline are left out
+    List<AthleteGradesDto> athletes
+) {}
+
+record RosterGradeRungDto(String grade, String gradeLabel, int rank, int total) {}
+
+record AthleteGradesDto(
+    UUID athleteId,
+    int ascentCount,
+    String hardestGradeLabel,
+    int hardestRank,
+    String medianGradeLabel,
+    int medianRank
+) {}
+
 /**
  * Live-derived athlete statistics — never cached, never stored: every request recomputes
  * from the current DB state, so uncompleting/cancelling/deleting past entries is reflected
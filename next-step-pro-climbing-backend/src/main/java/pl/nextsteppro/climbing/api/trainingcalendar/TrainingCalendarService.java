@@ -44,6 +44,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -69,6 +70,9 @@ public class TrainingCalendarService {
     // Deletion log only survives until read; prune anything older on the next write
     private static final Duration DELETION_LOG_RETENTION = Duration.ofDays(60);
 
+    /** Longest a changes cursor is trusted after the whole range it started from (see buildChanges). */
+    static final Duration MAX_CURSOR_AGE = Duration.ofMinutes(15);
+
     private final PersonalTrainingRepository trainingRepository;
     private final TrainingCommentRepository commentRepository;
     private final TrainingCalendarReadRepository readRepository;
@@ -77,6 +81,7 @@ public class TrainingCalendarService {
     private final ReservationRpeRepository reservationRpeRepository;
     private final ReservedSeatRepository reservedSeatRepository;
     private final UserRepository userRepository;
+    private final TrainingCalendarVersions versions;
     private final AttachmentSupport attachments;
     private final CommentFileSupport commentFiles;
     private final MessageService msg;
@@ -89,6 +94,7 @@ public class TrainingCalendarService {
                                    ReservationRpeRepository reservationRpeRepository,
                                    ReservedSeatRepository reservedSeatRepository,
                                    UserRepository userRepository,
+                                   TrainingCalendarVersions versions,
                                    AttachmentSupport attachments,
                                    CommentFileSupport commentFiles,
                                    MessageService msg) {
@@ -100,6 +106,7 @@ public class TrainingCalendarService {
         this.reservationRpeRepository = reservationRpeRepository;
         this.reservedSeatRepository = reservedSeatRepository;
         this.userRepository = userRepository;
+        this.versions = versions;
         this.attachments = attachments;
         this.commentFiles = commentFiles;
         this.msg = msg;
@@ -113,16 +120,24 @@ public class TrainingCalendarService {
         return buildRange(athlete.getId(), userId, false, from, to);
     }
 
+    /** Empty when nothing changed since {@code since} — see {@link #buildChanges}. */
+    @Transactional(readOnly = true)
+    public Optional<CalendarChangesDto> getMyChanges(UUID userId, LocalDate from, LocalDate to,
+                                                     @Nullable String since) {
+        User athlete = requireAthlete(userId);
+        return buildChanges(athlete.getId(), userId, false, from, to, since);
+    }
+
     public PersonalTrainingDto createMy(UUID userId, CreatePersonalTrainingRequest request) {
         User athlete = requireAthlete(userId);
-        return toDtoWithAttachments(createTraining(athlete, false, request), false, nowWarsaw());
+        return toDtoWithAttachments(createTraining(athlete, false, request), false, nowWarsaw(), userId);
     }
 
     public PersonalTrainingDto updateMy(UUID userId, UUID trainingId, CreatePersonalTrainingRequest request) {
         requireAthlete(userId);
         PersonalTraining training = requireOwnTraining(trainingId, userId);
         applyUpdate(training, false, request);
-        return toDtoWithAttachments(training, false, nowWarsaw());
+        return toDtoWithAttachments(training, false, nowWarsaw(), userId);
     }
 
     public void deleteMy(UUID userId, UUID trainingId) {
@@ -168,14 +183,14 @@ public class TrainingCalendarService {
         training.complete(
             PersonalTraining.sanitizeText(request.feedback(), PersonalTraining.MAX_FEEDBACK_LENGTH),
             request.rpe());
-        return toDtoWithAttachments(training, false, nowWarsaw());
+        return toDtoWithAttachments(training, false, nowWarsaw(), userId);
     }
 
     public PersonalTrainingDto uncomplete(UUID userId, UUID trainingId) {
         requireAthlete(userId);
         PersonalTraining training = requireOwnTraining(trainingId, userId);
         training.uncomplete();
-        return toDtoWithAttachments(training, false, nowWarsaw());
+        return toDtoWithAttachments(training, false, nowWarsaw(), userId);
     }
 
     /**
@@ -297,15 +312,22 @@ public class TrainingCalendarService {
         return buildRange(athlete.getId(), adminId, true, from, to);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<CalendarChangesDto> getChangesForAthlete(UUID adminId, UUID athleteId, LocalDate from,
+                                                             LocalDate to, @Nullable String since) {
+        User athlete = requireFlaggedAthlete(athleteId);
+        return buildChanges(athlete.getId(), adminId, true, from, to, since);
+    }
+
     public PersonalTrainingDto createForAthlete(UUID athleteId, CreatePersonalTrainingRequest request) {
         User athlete = requireFlaggedAthlete(athleteId);
-        return toDtoWithAttachments(createTraining(athlete, true, request), false, nowWarsaw());
+        return toDtoWithAttachments(createTraining(athlete, true, request), false, nowWarsaw(), null);
     }
 
     public PersonalTrainingDto updateAsAdmin(UUID trainingId, CreatePersonalTrainingRequest request) {
         PersonalTraining training = requireTrainingOfFlaggedAthlete(trainingId);
         applyUpdate(training, true, request);
-        return toDtoWithAttachments(training, false, nowWarsaw());
+        return toDtoWithAttachments(training, false, nowWarsaw(), null);
     }
 
     public void deleteAsAdmin(UUID trainingId) {
@@ -366,7 +388,7 @@ public class TrainingCalendarService {
         }
         try {
             return new CommentFileStream(commentFiles.open(file.getFilename()),
-                commentFiles.sizeOf(file.getFilename()), file.getMimeType(), file.getOriginalName());
+                file.getMimeType(), file.getOriginalName());
         } catch (java.io.IOException e) {
             throw new IllegalArgumentException(msg.get("training.comment.file.not.found"));
         }
@@ -449,7 +471,7 @@ public class TrainingCalendarService {
             throw new IllegalArgumentException(msg.get("training.attachment.not.found"));
         }
         try {
-            return new CommentFileStream(attachments.open(filename), attachments.sizeOf(filename),
+            return new CommentFileStream(attachments.open(filename),
                 mimeTypeOf(attachment, filename), attachment.getOriginalName());
         } catch (java.io.IOException e) {
             throw new IllegalArgumentException(msg.get("training.attachment.not.found"));
@@ -591,27 +613,111 @@ public class TrainingCalendarService {
 
     private CalendarRangeDto buildRange(UUID athleteId, UUID viewerId, boolean viewerIsAdmin,
                                         LocalDate from, LocalDate to) {
-        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
-            throw new IllegalArgumentException(msg.get("training.calendar.range.invalid"));
-        }
+        requireValidRange(from, to);
         List<PersonalTraining> trainings =
             trainingRepository.findByAthleteIdAndTrainingDateBetweenOrderByTrainingDateAscStartTimeAsc(athleteId, from, to);
+        Instant seen = seenAt(viewerId, athleteId);
+        LocalDateTime nowWarsaw = nowWarsaw();
+        List<Reservation> confirmed = reservationRepository.findConfirmedByUserIdInRange(athleteId, from, to);
 
+        return new CalendarRangeDto(
+            toTrainingDtos(trainings, athleteId, viewerId, viewerIsAdmin, seen, nowWarsaw),
+            toOverlayDtos(confirmed, viewerIsAdmin, seen, nowWarsaw),
+            buildInvitationOverlay(athleteId, from, to),
+            buildDeletionStrip(athleteId, viewerIsAdmin, seen));
+    }
+
+    /**
+     * The range again, only what changed in it since {@code since}, or nothing at all — which the
+     * controllers answer with 304. A calendar left open is polled, and between two polls almost
+     * always nothing has happened: that answer now costs the change counter and the read marker,
+     * two primary-key lookups, instead of the whole range.
+     *
+     * <p>A delta carries the trainings written since the cursor ({@link TrainingCalendarVersions}
+     * has how the database stamps them) and the ids of those that left the range. The overlay,
+     * invitations and deletion strip come whole whenever anything moved: they are a handful of
+     * rows, and they are fed by bookings, ratings, held seats, slots and events — tracking each
+     * of those as its own delta would be most of the work for very little of the payload.
+     *
+     * <p>Whatever {@link CalendarCursor#answers} does not vouch for gets the whole range, and so
+     * does every cursor once {@link #MAX_CURSOR_AGE} has passed since the last whole answer: a
+     * backstop for a write the triggers do not see, as the cache expiries are elsewhere.
+     */
+    private Optional<CalendarChangesDto> buildChanges(UUID athleteId, UUID viewerId, boolean viewerIsAdmin,
+                                                      LocalDate from, LocalDate to, @Nullable String since) {
+        requireValidRange(from, to);
+        // Counter first: every row read after it is at least this new, so nothing can be missed —
+        // a row newer than the cursor handed out is only sent once more on the next poll.
+        long head = versions.head(athleteId);
         Instant seen = seenAt(viewerId, athleteId);
+        LocalDateTime nowWarsaw = nowWarsaw();
+        CalendarCursor cursor = CalendarCursor.parse(since);
+        boolean delta = cursor != null && cursor.version() <= head
+            && cursor.answers(from, to, seen, nowWarsaw.atZone(WARSAW).toInstant());
+        if (delta && cursor.version() == head) {
+            return Optional.empty();
+        }
+
+        List<PersonalTraining> trainings;
+        List<UUID> removed = new ArrayList<>();
+        LocalDateTime limit;
+        if (delta) {
+            trainings = new ArrayList<>();
+            for (PersonalTraining t : trainingRepository
+                    .findByAthleteIdAndChangeVersionGreaterThanOrderByTrainingDateAscStartTimeAsc(athleteId, cursor.version())) {
+                if (t.getTrainingDate().isBefore(from) || t.getTrainingDate().isAfter(to)) {
+                    removed.add(t.getId());
+                } else {
+                    trainings.add(t);
+                }
+            }
+            removed.addAll(versions.removedSince(athleteId, cursor.version()));
+            // The trainings not sent again may still be the ones whose end is nearest
+            limit = LocalDateTime.ofInstant(cursor.validUntil(), WARSAW);
+        } else {
+            trainings = trainingRepository
+                .findByAthleteIdAndTrainingDateBetweenOrderByTrainingDateAscStartTimeAsc(athleteId, from, to);
+            limit = nowWarsaw.plus(MAX_CURSOR_AGE);
+        }
+        List<Reservation> confirmed = reservationRepository.findConfirmedByUserIdInRange(athleteId, from, to);
+        List<InvitationOverlayDto> invitations = buildInvitationOverlay(athleteId, from, to);
+
+        LocalDateTime validUntil = validUntil(limit, nowWarsaw, trainings, confirmed, invitations);
+        return Optional.of(new CalendarChangesDto(
+            new CalendarCursor(head, validUntil.atZone(WARSAW).toInstant(), seen, from, to).encode(),
+            !delta,
+            delta && trainings.isEmpty()
+                ? List.of()
+                : toTrainingDtos(trainings, athleteId, viewerId, viewerIsAdmin, seen, nowWarsaw),
+            removed,
+            toOverlayDtos(confirmed, viewerIsAdmin, seen, nowWarsaw),
+            invitations,
+            buildDeletionStrip(athleteId, viewerIsAdmin, seen)));
+    }
+
+    private void requireValidRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException(msg.get("training.calendar.range.invalid"));
+        }
+    }
+
+    private List<PersonalTrainingDto> toTrainingDtos(List<PersonalTraining> trainings, UUID athleteId,
+                                                     UUID viewerId, boolean viewerIsAdmin, Instant seen,
+                                                     LocalDateTime nowWarsaw) {
         // Unread dot: new messages written by the OTHER side after the viewer's marker
         Set<UUID> withNewComments = new HashSet<>(
             commentRepository.findTrainingIdsWithNewComments(athleteId, !viewerIsAdmin, seen));
-
-        LocalDateTime nowWarsaw = nowWarsaw();
         // Batch-load attachments for all trainings in range (no N+1), grouped by training id
         Map<UUID, List<TrainingAttachmentDto>> attachmentsByTraining =
-            attachments.dtosForTrainings(trainings.stream().map(PersonalTraining::getId).toList());
-        List<PersonalTrainingDto> trainingDtos = trainings.stream()
+            attachments.dtosForTrainings(trainings.stream().map(PersonalTraining::getId).toList(), viewerId);
+        return trainings.stream()
             .map(t -> toDto(t, hasUnread(t, viewerIsAdmin, seen, withNewComments), nowWarsaw,
                 attachmentsByTraining.getOrDefault(t.getId(), List.of())))
             .toList();
+    }
 
-        List<Reservation> confirmed = reservationRepository.findConfirmedByUserIdInRange(athleteId, from, to);
+    private List<ReservationOverlayDto> toOverlayDtos(List<Reservation> confirmed, boolean viewerIsAdmin,
+                                                      Instant seen, LocalDateTime nowWarsaw) {
         // Batch-load RPE ratings for the overlaid bookings (no N+1)
         Map<UUID, ReservationRpe> rpeByReservation = new HashMap<>();
         List<UUID> reservationIds = confirmed.stream().map(Reservation::getId).toList();
@@ -620,25 +726,57 @@ public class TrainingCalendarService {
                 rpeByReservation.put(rr.reservationId(), rr);
             }
         }
-        List<ReservationOverlayDto> overlay = confirmed.stream()
+        return confirmed.stream()
             .map(r -> toOverlayDto(r, viewerIsAdmin && isNewForCoach(r, seen),
                 rpeByReservation.get(r.getId()), nowWarsaw))
             .toList();
+    }
 
-        List<InvitationOverlayDto> invitations = buildInvitationOverlay(athleteId, from, to);
-
-        // "Deleted trainings" strip: unseen future-training deletions by the OTHER side.
-        // Deliberately NOT limited to the viewed date range — the entry may belong to a
-        // week the viewer is not looking at right now.
-        List<TrainingDeletionDto> deletions = deletionRepository
+    /**
+     * "Deleted trainings" strip: unseen future-training deletions by the OTHER side.
+     * Deliberately NOT limited to the viewed date range — the entry may belong to a
+     * week the viewer is not looking at right now.
+     */
+    private List<TrainingDeletionDto> buildDeletionStrip(UUID athleteId, boolean viewerIsAdmin, Instant seen) {
+        return deletionRepository
             .findUnseen(athleteId, !viewerIsAdmin, seen).stream()
             .limit(10)
             .map(d -> new TrainingDeletionDto(
                 d.getTrainingDate(), d.getStartTime(), d.getEndTime(),
                 d.getTitle(), d.isDeletedByAdmin(), d.getCreatedAt()))
             .toList();
+    }
 
-        return new CalendarRangeDto(trainingDtos, overlay, invitations, deletions);
+    /**
+     * The first moment after {@code nowWarsaw} at which the clock alone changes the range, capped
+     * at {@code limit}: a plan turns MISSED at its end, a booking becomes ratable at its end, a
+     * slot invitation lapses at its start. A whole-event invitation is taken at the end of each of
+     * its days rather than of the event — early, which costs one whole answer, never a stale one.
+     */
+    static LocalDateTime validUntil(LocalDateTime limit, LocalDateTime nowWarsaw, List<PersonalTraining> trainings,
+                                    List<Reservation> confirmed, List<InvitationOverlayDto> invitations) {
+        List<LocalDateTime> moments = new ArrayList<>();
+        for (PersonalTraining t : trainings) {
+            if (!t.isCompleted()) {
+                moments.add(trainingEnd(t.getTrainingDate(), t.getEndTime()));
+            }
+        }
+        for (Reservation r : confirmed) {
+            TimeSlot slot = r.getTimeSlot();
+            moments.add(LocalDateTime.of(slot.getDate(), slot.getEndTime()));
+        }
+        for (InvitationOverlayDto invitation : invitations) {
+            moments.add(invitation.slotId() != null && invitation.startTime() != null
+                ? LocalDateTime.of(invitation.date(), invitation.startTime())
+                : invitation.date().plusDays(1).atStartOfDay());
+        }
+        LocalDateTime until = limit;
+        for (LocalDateTime moment : moments) {
+            if (moment.isAfter(nowWarsaw) && moment.isBefore(until)) {
+                until = moment;
+            }
+        }
+        return until;
     }
 
     /**
@@ -828,9 +966,15 @@ public class TrainingCalendarService {
         );
     }
 
-    /** Single-training DTO with its attachments loaded (create/update/complete paths). */
-    private PersonalTrainingDto toDtoWithAttachments(PersonalTraining t, boolean hasUnreadActivity, LocalDateTime nowWarsaw) {
-        return toDto(t, hasUnreadActivity, nowWarsaw, attachments.dtosForTraining(t.getId()));
+    /**
+     * Single-training DTO with its attachments loaded (create/update/complete paths).
+     *
+     * @param viewerId who file URLs are signed for; null on the admin write paths, which do not carry
+     *   the admin's id and so hand out the by-id URLs
+     */
+    private PersonalTrainingDto toDtoWithAttachments(PersonalTraining t, boolean hasUnreadActivity, LocalDateTime nowWarsaw,
+                                                     @Nullable UUID viewerId) {
+        return toDto(t, hasUnreadActivity, nowWarsaw, attachments.dtosForTraining(t.getId(), viewerId));
     }
 
     static PersonalTrainingDto toDto(PersonalTraining t, boolean hasUnreadActivity, LocalDateTime nowWarsaw,
@@ -0,0 +1,47 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read side of the calendar's change counter (V99): the athlete's current version, and the
+ * trainings deleted since a given one.
+ *
+ * <p>Database triggers do all the writing — a training, its comments and materials, the
+ * athlete's confirmed bookings and their ratings, held seats, and the slots and events behind
+ * them. The counter lives in one row per athlete rather than in a sequence so that the versions
+ * of one calendar become visible in order: having seen version N, a reader can be sure every
+ * change up to N is visible too. The migration explains why a sequence cannot promise that.
+ *
+ * <p>Both queries are primary-key lookups; the second only runs once the first has moved.
+ */
+@Component
+class TrainingCalendarVersions {
+
+    private static final String HEAD =
+        "SELECT version FROM training_calendar_heads WHERE athlete_id = ?";
+
+    private static final String REMOVED_SINCE = """
+        SELECT training_id FROM training_calendar_removals
+         WHERE athlete_id = ? AND version > ?
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    TrainingCalendarVersions(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** 0 for a calendar nothing has been written to since V99. */
+    long head(UUID athleteId) {
+        List<Long> version = jdbc.queryForList(HEAD, Long.class, athleteId);
+        return version.isEmpty() ? 0 : version.getFirst();
+    }
+
+    List<UUID> removedSince(UUID athleteId, long version) {
+        return jdbc.queryForList(REMOVED_SINCE, UUID.class, athleteId, version);
+    }
+}
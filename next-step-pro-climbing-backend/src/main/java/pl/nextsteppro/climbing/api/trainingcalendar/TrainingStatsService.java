@@ -31,8 +31,11 @@ import java.util.UUID;
  * reservation (confirmed, slot already over — same predicate as the "past" reservation list).
  *
  * <p>No caching on purpose: the hard requirement is that uncompleting a training, cancelling
- * a booking or deleting a past entry changes the numbers immediately. The cost is two indexed
- * per-athlete queries plus one in-memory pass over a few hundred tiny rows.
+ * a booking or deleting a past entry changes the numbers immediately. Rows are read only for the
+ * months the rolling windows reach into; older history comes from {@link AthleteStatsSnapshots},
+ * one row per month, which database triggers recompute in the same transaction as the write — so
+ * that requirement holds for last year's entries too. Of the cost, all that still grows with how
+ * long somebody has been training is one small row a month.
  */
 @Service
 @Transactional(readOnly = true)
@@ -54,17 +57,25 @@ public class TrainingStatsService {
     private static final int TASK_WINDOW_DAYS = 30;
     private static final int SUSTAINED_HIGH_SAMPLE = 5;
     private static final int SUSTAINED_HIGH_THRESHOLD = 9;
+    // The widest rolling window; rows are read from the start of the month it begins in. Every
+    // count from a window, this month and the previous one then comes from rows, and the snapshots
+    // hold only whole months that are over — every booking in them already happened.
+    private static final int LIVE_WINDOW_DAYS = Math.max(Math.max(ATTENDANCE_WINDOW_DAYS, RPE_DISTRIBUTION_DAYS),
+        Math.max(RPE_WINDOW_DAYS, TASK_WINDOW_DAYS));
 
     private final PersonalTrainingRepository trainingRepository;
     private final ReservationRepository reservationRepository;
     private final TrainingCalendarService calendarService;
+    private final AthleteStatsSnapshots snapshots;
 
     public TrainingStatsService(PersonalTrainingRepository trainingRepository,
                                 ReservationRepository reservationRepository,
-                                TrainingCalendarService calendarService) {
+                                TrainingCalendarService calendarService,
+                                AthleteStatsSnapshots snapshots) {
         this.trainingRepository = trainingRepository;
         this.reservationRepository = reservationRepository;
         this.calendarService = calendarService;
+        this.snapshots = snapshots;
     }
 
     public AthleteStatsDto getMyStats(UUID userId) {
@@ -85,7 +96,9 @@ public class TrainingStatsService {
     // Package-private with "now" as a parameter so tests are deterministic.
     AthleteStatsDto buildStats(UUID athleteId, LocalDateTime nowWarsaw) {
         LocalDate today = nowWarsaw.toLocalDate();
-        List<TrainingStatsRow> planEntries = trainingRepository.findStatsRowsByAthleteId(athleteId);
+        LocalDate liveFrom = liveFrom(today);
+        List<AthleteStatsSnapshots.Month> history = snapshots.findBefore(athleteId, liveFrom);
+        List<TrainingStatsRow> planEntries = trainingRepository.findStatsRowsByAthleteId(athleteId, liveFrom);
         // Tasks are counted apart from every training number below. Letting them in would mix
         // "held the calorie ceiling" into attendance, streaks, the heatmap and the RPE bands —
         // and a month of held ceilings would read as a month of training.
@@ -96,10 +109,16 @@ public class TrainingStatsService {
             .filter(r -> r.kind() == TrainingKind.TASK)
             .toList();
         List<ReservationStatsRow> reservations =
-            reservationRepository.findPastConfirmedStatsRows(athleteId, today, nowWarsaw.toLocalTime());
+            reservationRepository.findPastConfirmedStatsRows(athleteId, liveFrom, today, nowWarsaw.toLocalTime());
 
         // Activity dates from both sources; TreeMap keeps them sorted for streaks/first-activity
         TreeMap<LocalDate, Integer> countsByDate = new TreeMap<>();
+        for (AthleteStatsSnapshots.Month m : history) {
+            int[] days = m.dayCounts();
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] > 0) countsByDate.put(m.month().atDay(i + 1), days[i]);
+            }
+        }
         for (TrainingStatsRow t : trainings) {
             if (t.isCompleted()) countsByDate.merge(t.date(), 1, Integer::sum);
         }
@@ -127,7 +146,8 @@ public class TrainingStatsService {
         }
         // Past attended reservations the athlete hasn't rated yet (personal trainings are handled
         // by the required-RPE completion flow, so they're excluded from the nudge)
-        int unratedReservations = (int) reservations.stream().filter(r -> r.rpe() == null).count();
+        int unratedReservations = (int) reservations.stream().filter(r -> r.rpe() == null).count()
+            + history.stream().mapToInt(AthleteStatsSnapshots.Month::unratedReservations).sum();
 
         return new AthleteStatsDto(
             thisMonthCount,
@@ -138,12 +158,12 @@ public class TrainingStatsService {
             streaks[1],
             computeAvgPerMonth(countsByDate, firstActivityDate, thisMonth),
             heatmap(countsByDate, today),
-            typeBreakdown(trainings, reservations),
+            typeBreakdown(trainings, reservations, history),
             attendanceRate(trainings, nowWarsaw),
-            avgRpe(rated, null),
+            avgRpeOverall(rated, history),
             avgRpe(rated, today.minusDays(RPE_WINDOW_DAYS - 1)),
             rpeDistribution(rated, today.minusDays(RPE_DISTRIBUTION_DAYS - 1)),
-            sustainedHigh(rated),
+            sustainedHigh(rated, history),
             unratedReservations,
             taskStats(tasks, nowWarsaw)
         );
@@ -184,6 +204,11 @@ public class TrainingStatsService {
         return new TaskStatsDto(monthDone, monthDue, windowDone, windowDue, percent);
     }
 
+    /** First day of the month the widest rolling window starts in; rows are read from here on. */
+    static LocalDate liveFrom(LocalDate today) {
+        return today.minusDays(LIVE_WINDOW_DAYS - 1L).withDayOfMonth(1);
+    }
+
     /** A single RPE rating with its activity date; source-agnostic. */
     private record RatedActivity(LocalDate date, int rpe) {}
 
@@ -197,7 +222,7 @@ public class TrainingStatsService {
      * this week if it has an activity, otherwise at last week (grace period: an empty week
      * in progress does not break the streak; once it ends empty, the streak resets).
      */
-    private static int[] computeStreaks(TreeMap<LocalDate, Integer> countsByDate, LocalDate today) {
+    static int[] computeStreaks(TreeMap<LocalDate, Integer> countsByDate, LocalDate today) {
         TreeSet<LocalDate> weeks = new TreeSet<>();
         for (LocalDate date : countsByDate.keySet()) {
             weeks.add(date.with(DayOfWeek.MONDAY));
@@ -248,12 +273,20 @@ public class TrainingStatsService {
     }
 
     private static TypeBreakdownDto typeBreakdown(List<TrainingStatsRow> trainings,
-                                                  List<ReservationStatsRow> reservations) {
+                                                  List<ReservationStatsRow> reservations,
+                                                  List<AthleteStatsSnapshots.Month> history) {
         long personal = trainings.stream().filter(TrainingStatsRow::isCompleted).count();
         long individualSlot = 0;
         long course = 0;
         long training = 0;
         long workshop = 0;
+        for (AthleteStatsSnapshots.Month m : history) {
+            personal += m.personal();
+            individualSlot += m.individualSlot();
+            course += m.course();
+            training += m.training();
+            workshop += m.workshop();
+        }
         for (ReservationStatsRow r : reservations) {
             EventType type = r.eventType();
             if (type == EventType.COURSE) course++;
@@ -286,13 +319,29 @@ public class TrainingStatsService {
         return ended == 0 ? null : (int) Math.round(100.0 * completed / ended);
     }
 
-    /** Mean RPE across both sources (completed trainings + rated reservations); {@code from} null = all-time. */
+    /** Mean RPE across both sources (completed trainings + rated reservations) since {@code from}. */
+    @Nullable
+    private static Double avgRpe(List<RatedActivity> rated, LocalDate from) {
+        double sum = 0;
+        int count = 0;
+        for (RatedActivity a : rated) {
+            if (a.date().isBefore(from)) continue;
+            sum += a.rpe();
+            count++;
+        }
+        return count == 0 ? null : Math.round(10.0 * sum / count) / 10.0;
+    }
+
+    /** All-time mean RPE: the live months' ratings plus each older month's sum and count. */
     @Nullable
-    private static Double avgRpe(List<RatedActivity> rated, @Nullable LocalDate from) {
+    private static Double avgRpeOverall(List<RatedActivity> rated, List<AthleteStatsSnapshots.Month> history) {
         double sum = 0;
         int count = 0;
+        for (AthleteStatsSnapshots.Month m : history) {
+            sum += m.rpeSum();
+            count += m.rpeCount();
+        }
         for (RatedActivity a : rated) {
-            if (from != null && a.date().isBefore(from)) continue;
             sum += a.rpe();
             count++;
         }
@@ -319,15 +368,23 @@ public class TrainingStatsService {
     /**
      * True when the last {@value SUSTAINED_HIGH_SAMPLE} ratings (both sources, newest first) are all
      * >= {@value SUSTAINED_HIGH_THRESHOLD} — a hint of overtraining or inflated scoring. Fewer than
-     * the sample size of ratings never flags.
+     * the sample size of ratings never flags. Older months are consulted only while the live ones
+     * hold fewer than the sample, newest month first.
      */
-    private static boolean sustainedHigh(List<RatedActivity> rated) {
-        if (rated.size() < SUSTAINED_HIGH_SAMPLE) return false;
+    private static boolean sustainedHigh(List<RatedActivity> rated, List<AthleteStatsSnapshots.Month> history) {
         // Ties within a day are arbitrary (no start time on stats rows) — acceptable
-        List<RatedActivity> recent = rated.stream()
+        List<Integer> recent = new ArrayList<>(rated.stream()
             .sorted(Comparator.comparing(RatedActivity::date).reversed())
             .limit(SUSTAINED_HIGH_SAMPLE)
-            .toList();
-        return recent.stream().allMatch(a -> a.rpe() >= SUSTAINED_HIGH_THRESHOLD);
+            .map(RatedActivity::rpe)
+            .toList());
+        for (int i = history.size() - 1; i >= 0 && recent.size() < SUSTAINED_HIGH_SAMPLE; i--) {
+            for (int rpe : history.get(i).recentRpes()) {
+                if (recent.size() == SUSTAINED_HIGH_SAMPLE) break;
+                recent.add(rpe);
+            }
+        }
+        if (recent.size() < SUSTAINED_HIGH_SAMPLE) return false;
+        return recent.stream().allMatch(rpe -> rpe >= SUSTAINED_HIGH_THRESHOLD);
     }
 }
@@ -22,6 +22,7 @@ import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
 import pl.nextsteppro.climbing.infrastructure.security.JwtService;
 import pl.nextsteppro.climbing.infrastructure.security.PasswordPolicyValidator;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 
 import org.jspecify.annotations.Nullable;
@@ -50,6 +51,7 @@ public class UserService {
     private final CommentFileSupport commentFileSupport;
     private final FileStorageService fileStorageService;
     private final PasswordPolicyValidator passwordPolicy;
+    private final UserCacheEvictions userCacheEvictions;
 
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
@@ -61,7 +63,8 @@ public class UserService {
                        UserSeatReleaseService userSeatReleaseService,
                        CommentFileSupport commentFileSupport,
                        FileStorageService fileStorageService,
-                       PasswordPolicyValidator passwordPolicy) {
+                       PasswordPolicyValidator passwordPolicy,
+                       UserCacheEvictions userCacheEvictions) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authMailService = authMailService;
@@ -73,6 +76,7 @@ public class UserService {
         this.commentFileSupport = commentFileSupport;
         this.fileStorageService = fileStorageService;
         this.passwordPolicy = passwordPolicy;
+        this.userCacheEvictions = userCacheEvictions;
     }
 
     @Transactional
@@ -189,6 +193,9 @@ public class UserService {
         //    The DB cascades (ON DELETE CASCADE): cancelled reservations, waitlist entries, logs, stars.
         authTokenRepository.deleteAllByUserId(userId);
         userRepository.delete(user);
+        // 9. Their access token is still valid; without this a cached principal would keep
+        //    authenticating it on every node for the rest of the cache lifetime.
+        userCacheEvictions.evict(userId);
     }
 
     /**
@@ -229,6 +236,7 @@ public class UserService {
 
         user.setPreferredLanguage(language);
         userRepository.save(user);
+        userCacheEvictions.evict(userId);
     }
 
     public void updateNewsletterSubscription(UUID userId, boolean subscribed) {
@@ -19,7 +19,8 @@ public class CacheConfig {
     public CacheManager cacheManager() {
         SimpleCacheManager manager = new SimpleCacheManager();
         manager.setCaches(List.of(
-            // Calendar caches: short TTL (2 min) — real-time booking data
+            // Calendar caches: short TTL (2 min) — real-time booking data. They hold the
+            // viewer-independent CalendarSnapshot, shared by anonymous and signed-in visitors.
             build("calendarMonth", 200, 2),
             build("calendarWeek",  200, 2),
             build("calendarDay",   200, 2),
@@ -0,0 +1,70 @@
+package pl.nextsteppro.climbing.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+
+/**
+ * Token buckets in a node-local Caffeine cache. Correct for one instance; with two, each node
+ * grants the full allowance and a client behind round-robin gets double — use
+ * {@link PostgresRateLimiter} then.
+ *
+ * <p>A bucket left alone for a full {@link #PERIOD} is full again, which is exactly what a missing
+ * one means, so expiring idle entries after that long loses nothing. The size cap is the only
+ * lossy part: under a flood of distinct addresses the oldest buckets are dropped and start over
+ * full, the same trade the fixed-window counter made.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final Cache<String, Bucket> buckets = Caffeine.newBuilder()
+        .expireAfterAccess(PERIOD)
+        .maximumSize(10_000)
+        .build();
+
+    private final Clock clock;
+
+    public InMemoryRateLimiter() {
+        this(Clock.systemUTC());
+    }
+
+    /** Tests pin the clock, so refill during a tight loop cannot make a limit check flaky. */
+    InMemoryRateLimiter(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Decision tryAcquire(String key, int limit) {
+        long now = clock.millis();
+        Bucket bucket = buckets.get(key, k -> new Bucket(limit, now));
+        return bucket.take(limit, now);
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int limit, long now) {
+            this.tokens = limit;
+            this.refilledAt = now;
+        }
+
+        synchronized Decision take(int limit, long now) {
+            // Multiply before dividing: whole seconds then refill in exact quarters, halves and ones
+            // rather than in sums of a rounded per-millisecond rate that fall just short of a token.
+            double refill = (double) Math.max(0, now - refilledAt) * limit / PERIOD.toMillis();
+            tokens = Math.min(limit, tokens + refill);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return Decision.of(true, tokens, limit);
+            }
+            return Decision.of(false, tokens, limit);
+        }
+    }
+}
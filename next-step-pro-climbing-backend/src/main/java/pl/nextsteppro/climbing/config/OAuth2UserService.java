@@ -13,6 +13,7 @@ import pl.nextsteppro.climbing.domain.user.User;
 import pl.nextsteppro.climbing.domain.user.UserRepository;
 import pl.nextsteppro.climbing.domain.user.UserRole;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
 
 import java.util.Map;
 import java.util.Optional;
@@ -28,13 +29,16 @@ public class OAuth2UserService extends DefaultOAuth2UserService {
     private final AdminEmailConfig adminEmailConfig;
     private final AuthMailService authMailService;
     private final AccountConfirmation accountConfirmation;
+    private final UserCacheEvictions userCacheEvictions;
 
     public OAuth2UserService(UserRepository userRepository, AdminEmailConfig adminEmailConfig,
-                             AuthMailService authMailService, AccountConfirmation accountConfirmation) {
+                             AuthMailService authMailService, AccountConfirmation accountConfirmation,
+                             UserCacheEvictions userCacheEvictions) {
         this.userRepository = userRepository;
         this.adminEmailConfig = adminEmailConfig;
         this.authMailService = authMailService;
         this.accountConfirmation = accountConfirmation;
+        this.userCacheEvictions = userCacheEvictions;
     }
 
     @Override
@@ -133,6 +137,8 @@ public class OAuth2UserService extends DefaultOAuth2UserService {
         if (!user.isAdmin() && adminEmailConfig.isAdminEmail(user.getEmail())) {
             user.setRole(UserRole.ADMIN);
             userRepository.save(user);
+            // Tokens issued before this login are still cached as a USER principal, on every node
+            userCacheEvictions.evict(user.getId());
             log.info("AUTO-ADMIN-PROMOTION: {} promoted to ADMIN during OAuth2 login", user.getEmail());
         }
     }
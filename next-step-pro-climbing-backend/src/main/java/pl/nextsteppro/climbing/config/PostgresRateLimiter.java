@@ -0,0 +1,59 @@
+package pl.nextsteppro.climbing.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets shared by every instance, kept in the UNLOGGED {@code rate_limit_buckets} table
+ * (V92). One call of {@code rate_limit_take} per throttled request: it locks the client's row,
+ * refills, spends and writes back in a single round trip, so two nodes serving the same client
+ * queue on that one row and can never both hand out its last token.
+ *
+ * <p>The call runs outside any transaction (the filter sits in front of everything), so the row
+ * lock is held for the length of the function and nothing else — the throttle never waits on a
+ * request's own work.
+ *
+ * <p>If the database cannot answer, the request is let through. The filter is a guard against
+ * floods, not an access control; a 429 for every visitor because a pool was briefly exhausted
+ * would be a self-inflicted outage, and a request that needs the database will fail on its own.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "postgres")
+public class PostgresRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresRateLimiter.class);
+
+    private static final String TAKE = "SELECT allowed, tokens_left FROM rate_limit_take(?, ?, ?)";
+
+    /** Idle this long, a bucket is full — the row carries nothing a fresh one would not. */
+    private static final String DELETE_IDLE =
+        "DELETE FROM rate_limit_buckets WHERE refilled_at < clock_timestamp() - make_interval(secs => ?)";
+
+    private final JdbcTemplate jdbc;
+
+    public PostgresRateLimiter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Decision tryAcquire(String key, int limit) {
+        try {
+            Decision decision = jdbc.queryForObject(TAKE,
+                (rs, row) -> Decision.of(rs.getBoolean("allowed"), rs.getDouble("tokens_left"), limit),
+                key, limit, (int) PERIOD.toSeconds());
+            return decision != null ? decision : Decision.of(true, limit, limit);
+        } catch (DataAccessException e) {
+            log.warn("Rate limit store unavailable, letting {} through: {}", key, e.getMessage());
+            return Decision.of(true, limit, limit);
+        }
+    }
+
+    /** @return how many idle buckets were dropped */
+    public int deleteIdleBuckets() {
+        return jdbc.update(DELETE_IDLE, (double) PERIOD.toSeconds());
+    }
+}
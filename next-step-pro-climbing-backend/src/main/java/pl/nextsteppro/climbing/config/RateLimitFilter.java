@@ -1,7 +1,5 @@
 package pl.nextsteppro.climbing.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,11 +15,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 /**
@@ -33,6 +29,11 @@ import java.util.function.Predicate;
  * site looked wrong: {@code /api/training-calendar} was "in the filter" for months while its
  * heaviest query, mapped on the bare base path, was not. {@code RateLimitCoverageTest} keeps the
  * table honest; this default keeps the gap survivable in the meantime.
+ *
+ * <p>Counting is delegated to a {@link RateLimiter} — node-local by default, shared through
+ * Postgres when more than one instance serves traffic. Every throttled response carries
+ * {@code X-RateLimit-Remaining}, and a 429 carries the {@code Retry-After} the bucket actually
+ * implies rather than a blanket minute.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 1)
@@ -42,7 +43,7 @@ public class RateLimitFilter extends OncePerRequestFilter {
         Locale.of("pl"), Locale.of("en"), Locale.of("es")
     );
 
-    // Rate limits per IP per minute
+    // Rate limits per IP per minute — the bucket size, refilled at this many per minute
     private static final int AUTH_LIMIT = 15;
     private static final int RESERVATION_LIMIT = 20;
     // Reads under /api/reservations/my are polled by the navbar badge and the reservations page,
@@ -91,6 +92,8 @@ public class RateLimitFilter extends OncePerRequestFilter {
     // Authenticated file streams (comment attachments and coach materials alike).
     private static final String COMMENT_FILE_PATH = "/api/training-calendar/comment-files/";
     private static final String MATERIAL_FILE_PATH = "/api/training-calendar/files/";
+    // Either kind again, behind a signed URL: no query per read, but the same bytes off the disk.
+    private static final String SIGNED_FILE_PATH = "/api/training-calendar/signed-files/";
 
     /**
      * One bucket, one limit, one predicate — so a request can no longer be counted into one
@@ -136,24 +139,22 @@ public class RateLimitFilter extends OncePerRequestFilter {
     private static final Rule DEFAULT_RULE =
         new Rule("default", DEFAULT_LIMIT, path -> under(path, "/api"));
 
-    private final Cache<String, AtomicInteger> requestCounts = Caffeine.newBuilder()
-        .expireAfterWrite(Duration.ofMinutes(1))
-        .maximumSize(10_000)
-        .build();
-
     private final MessageSource messageSource;
+    private final RateLimiter rateLimiter;
     private final boolean enabled;
 
     @Autowired
     public RateLimitFilter(MessageSource messageSource,
+                           RateLimiter rateLimiter,
                            @Value("${app.rate-limit.enabled:true}") boolean enabled) {
         this.messageSource = messageSource;
+        this.rateLimiter = rateLimiter;
         this.enabled = enabled;
     }
 
-    /** Test/default wiring: throttling on, as in production. */
+    /** Test/default wiring: throttling on, as in production, with node-local buckets. */
     public RateLimitFilter(MessageSource messageSource) {
-        this(messageSource, true);
+        this(messageSource, new InMemoryRateLimiter(), true);
     }
 
     @Override
@@ -167,19 +168,18 @@ public class RateLimitFilter extends OncePerRequestFilter {
             return;
         }
 
-        String cacheKey = getClientIp(request) + ":" + rule.bucket();
-        AtomicInteger counter = requestCounts.get(cacheKey, k -> new AtomicInteger(0));
-        int count = counter.incrementAndGet();
+        String key = getClientIp(request) + ":" + rule.bucket();
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(key, rule.limit());
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
 
-        if (count > rule.limit()) {
+        if (!decision.allowed()) {
             Locale locale = resolveLocale(request);
             String message = messageSource.getMessage("rate.limit.exceeded", null, locale);
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
             response.setCharacterEncoding("UTF-8");
-            // The window is fixed and one minute long, so 60 is an upper bound: it can send a
-            // well-behaved client back a moment late, never too early.
-            response.setHeader("Retry-After", "60");
+            // When the next token is due — four seconds on a 15/min bucket, not a blanket minute.
+            response.setHeader("Retry-After", String.valueOf(decision.retryAfterSeconds()));
             response.getWriter().write(
                 "{\"code\":\"TOO_MANY_REQUESTS\",\"message\":\"" + escapeJson(message) + "\",\"timestamp\":\"" + Instant.now() + "\"}"
             );
@@ -225,7 +225,8 @@ public class RateLimitFilter extends OncePerRequestFilter {
 
     /** Checked before the training bucket, so a file read never counts against the calendar. */
     private static boolean isPrivateFileRead(String path) {
-        return path.startsWith(COMMENT_FILE_PATH) || path.startsWith(MATERIAL_FILE_PATH);
+        return path.startsWith(COMMENT_FILE_PATH) || path.startsWith(MATERIAL_FILE_PATH)
+            || path.startsWith(SIGNED_FILE_PATH);
     }
 
     private Locale resolveLocale(HttpServletRequest request) {
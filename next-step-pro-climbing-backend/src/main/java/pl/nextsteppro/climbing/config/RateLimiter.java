@@ -0,0 +1,48 @@
+package pl.nextsteppro.climbing.config;
+
+import java.time.Duration;
+
+/**
+ * Where {@link RateLimitFilter} keeps its counts. The filter decides which bucket a request falls
+ * into and what its limit is; an implementation only answers "may this key spend one more?".
+ *
+ * <p>Both implementations are token buckets: a bucket holds at most {@code limit} tokens, one
+ * request spends one, and tokens come back continuously at {@code limit} per {@link #PERIOD}. The
+ * fixed one-minute windows this replaced let a client spend a full allowance in the last second of
+ * one window and another in the first second of the next — twice the limit in two seconds — and
+ * could only ever say "come back in up to a minute". A bucket has no edges to straddle, and it
+ * knows exactly when the next token is due.
+ *
+ * <ul>
+ *   <li>{@link InMemoryRateLimiter} — node-local, the default. Right for a single instance.</li>
+ *   <li>{@link PostgresRateLimiter} — buckets in an UNLOGGED table, shared by every instance
+ *       behind the load balancer ({@code app.rate-limit.store=postgres}).</li>
+ * </ul>
+ */
+public interface RateLimiter {
+
+    /** Time to refill an empty bucket. Every limit in {@link RateLimitFilter} is "per minute". */
+    Duration PERIOD = Duration.ofMinutes(1);
+
+    /** Spends one token from {@code key}'s bucket of size {@code limit}, if there is one to spend. */
+    Decision tryAcquire(String key, int limit);
+
+    /**
+     * @param allowed           whether the request may go through
+     * @param remaining         whole tokens left after this request — what {@code X-RateLimit-Remaining} reports
+     * @param retryAfterSeconds when {@code allowed} is false, seconds until the next token, never below one
+     */
+    record Decision(boolean allowed, int remaining, long retryAfterSeconds) {
+
+        /** Pure arithmetic shared by both stores, so they cannot drift apart on rounding. */
+        static Decision of(boolean allowed, double tokensLeft, int limit) {
+            int remaining = (int) Math.max(0, Math.floor(tokensLeft));
+            if (allowed) {
+                return new Decision(true, remaining, 0);
+            }
+            double secondsPerToken = (double) PERIOD.toSeconds() / limit;
+            long retryAfter = (long) Math.ceil((1.0 - tokensLeft) * secondsPerToken);
+            return new Decision(false, 0, Math.max(1, retryAfter));
+        }
+    }
+}
@@ -71,7 +71,9 @@ public class SecurityConfig {
                         .requestMatchers("/v3/api-docs/**", "/v3/api-docs.yaml").permitAll();
                 }
                 // Health check endpoint (used by Docker healthcheck and deploy verification)
-                auth.requestMatchers("/actuator/health").permitAll();
+                auth.requestMatchers("/actuator/health").permitAll()
+                    // Everything else exposed under /actuator (metrics) is for operators
+                    .requestMatchers("/actuator/**").hasRole("ADMIN");
                 // Authentication endpoints
                 auth.requestMatchers("/api/auth/**").permitAll()
                     // OAuth2 endpoints
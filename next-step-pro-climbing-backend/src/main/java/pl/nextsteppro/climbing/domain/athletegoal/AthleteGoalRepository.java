@@ -1,6 +1,7 @@
 package pl.nextsteppro.climbing.domain.athletegoal;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,4 +16,13 @@ public interface AthleteGoalRepository extends JpaRepository<AthleteGoal, UUID>
 
     /** Trophy chest: full achievement history, newest first. */
     List<AthleteGoal> findByAthleteIdAndAchievedAtIsNotNullOrderByAchievedAtDesc(UUID athleteId);
+
+    /** Coach dashboard: active goals per flagged athlete, one row for each athlete who has any. */
+    @Query("""
+        SELECT new pl.nextsteppro.climbing.domain.athletegoal.OpenGoalSummary(g.athlete.id, COUNT(g), MIN(g.targetDate))
+        FROM AthleteGoal g
+        WHERE g.athlete.athlete = true AND g.achievedAt IS NULL
+        GROUP BY g.athlete.id
+        """)
+    List<OpenGoalSummary> summarizeOpenGoalsOfFlaggedAthletes();
 }
@@ -0,0 +1,7 @@
+package pl.nextsteppro.climbing.domain.athletegoal;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** JPQL constructor projection: per-athlete count of active goals and the nearest target among them. */
+public record OpenGoalSummary(UUID athleteId, long count, LocalDate nearestTargetDate) {}
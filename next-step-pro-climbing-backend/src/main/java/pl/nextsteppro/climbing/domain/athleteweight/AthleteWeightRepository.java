@@ -50,5 +50,14 @@ public interface AthleteWeightRepository extends JpaRepository<AthleteWeight, UU
                                   @Param("from") LocalDate from,
                                   @Param("to") LocalDate to);
 
+    /** Coach dashboard: {@link #findRange} for every flagged athlete at once, grouped by the caller. */
+    @Query("""
+        SELECT w FROM AthleteWeight w
+        WHERE w.athlete.athlete = true AND w.measuredOn BETWEEN :from AND :to
+        ORDER BY w.measuredOn ASC
+        """)
+    List<AthleteWeight> findRangeOfFlaggedAthletes(@Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
     void deleteByAthleteIdAndMeasuredOn(UUID athleteId, LocalDate measuredOn);
 }
@@ -0,0 +1,10 @@
+package pl.nextsteppro.climbing.domain.climbingascent;
+
+import java.util.UUID;
+
+/**
+ * JPQL constructor projection for the coach dashboard: one rock ascent of one athlete, reduced to
+ * the two ordinals a {@link GradeHistogram} counts and the discipline that picks its scale. No
+ * route, no crag, no comment — the roster view adds ascents up, it never lists them.
+ */
+public record AthleteGradeRow(UUID athleteId, AscentDiscipline discipline, ClimbingGrade grade, AscentStyle style) {}
@@ -63,6 +63,20 @@ public interface ClimbingAscentRepository extends JpaRepository<ClimbingAscent,
     List<AscentStatsRow> findStatsRowsByAthleteId(@Param("athleteId") UUID athleteId,
                                                   @Param("terrain") AscentTerrain terrain);
 
+    /**
+     * Coach dashboard: every ascent of every flagged athlete on one terrain from {@code from} on,
+     * in one query for the whole roster. Rock only in practice — the projection needs the
+     * discipline, which mountain entries do not have.
+     */
+    @Query("""
+        SELECT new pl.nextsteppro.climbing.domain.climbingascent.AthleteGradeRow(
+            a.athlete.id, a.discipline, a.grade, a.style)
+        FROM ClimbingAscent a
+        WHERE a.athlete.athlete = true AND a.terrain = :terrain AND a.climbedOn >= :from
+        """)
+    List<AthleteGradeRow> findGradesOfFlaggedAthletes(@Param("terrain") AscentTerrain terrain,
+                                                      @Param("from") LocalDate from);
+
     /**
      * Places the athlete has logged before, across every year — the autocomplete has to suggest
      * a crag from 2019 while they are looking at 2026, so this deliberately ignores the filter.
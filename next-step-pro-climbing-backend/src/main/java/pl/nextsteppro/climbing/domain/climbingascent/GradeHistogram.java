@@ -0,0 +1,180 @@
+package pl.nextsteppro.climbing.domain.climbingascent;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ascent counts by grade and style — the grade pyramid, as numbers.
+ *
+ * <p>Backed by one flat {@code int} table indexed by the two ordinals. Both enums are closed, so
+ * the table <i>is</i> the key space: counting an ascent is an array increment, with no boxing and
+ * no hashing, and two histograms merge by adding the tables cell by cell. The latter is what makes
+ * summing several logbooks — a coach looking at a group — as cheap as summing one.
+ *
+ * <p>The ordinal is only ever an index. Every ordering this class hands out comes from
+ * {@link ClimbingGrade#rank()}, so a grade inserted into the middle of the enum still sorts where
+ * it belongs.
+ *
+ * <p><b>Counting never asks about scales; ordering does.</b> A histogram will happily hold both
+ * {@code 7a} and {@code 7A} — merging a boulderer into a group is not an error. Asking it which of
+ * them is harder is, for the reason {@link ClimbingGrade#hardest} gives, so every method that
+ * orders grades refuses a histogram that spans two scales.
+ *
+ * <p>Mutable and not thread-safe: one per fold, like the builders it replaced.
+ */
+public final class GradeHistogram {
+
+    private static final ClimbingGrade[] GRADES = ClimbingGrade.values();
+    private static final AscentStyle[] STYLES = AscentStyle.values();
+
+    private static final ClimbingGrade[] HARDEST_FIRST = Arrays.stream(GRADES)
+            .sorted(Comparator.comparingInt(ClimbingGrade::rank).reversed())
+            .toArray(ClimbingGrade[]::new);
+
+    /** {@code [grade ordinal * styles + style ordinal]}: one grade's styles sit side by side. */
+    private final int[] counts = new int[GRADES.length * STYLES.length];
+    private int total;
+    private @Nullable GradeScale scale;
+    private boolean mixedScales;
+
+    public void add(ClimbingGrade grade, AscentStyle style) {
+        counts[index(grade, style)]++;
+        total++;
+        noteScale(grade.scale());
+    }
+
+    /** Adds every count of {@code other} into this one. {@code other} is left as it was. */
+    public GradeHistogram merge(GradeHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        if (other.mixedScales) {
+            mixedScales = true;
+        } else if (other.scale != null) {
+            noteScale(other.scale);
+        }
+        return this;
+    }
+
+    public int count(ClimbingGrade grade, AscentStyle style) {
+        return counts[index(grade, style)];
+    }
+
+    /** Every style of one grade — the length of its rung. */
+    public int count(ClimbingGrade grade) {
+        int offset = grade.ordinal() * STYLES.length;
+        int sum = 0;
+        for (int i = 0; i < STYLES.length; i++) {
+            sum += counts[offset + i];
+        }
+        return sum;
+    }
+
+    /** Every grade in one style. */
+    public int count(AscentStyle style) {
+        int sum = 0;
+        for (int i = style.ordinal(); i < counts.length; i += STYLES.length) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /** Every grade with at least one ascent, hardest first — the rungs of the pyramid. */
+    public List<ClimbingGrade> grades() {
+        return top(Integer.MAX_VALUE);
+    }
+
+    /**
+     * The {@code k} hardest grades with at least one ascent, hardest first. "The top ten" of a
+     * logbook, in grades rather than in routes.
+     *
+     * @throws IllegalArgumentException if the histogram spans two scales
+     */
+    public List<ClimbingGrade> top(int k) {
+        requireSingleScale();
+        List<ClimbingGrade> result = new ArrayList<>();
+        for (ClimbingGrade grade : HARDEST_FIRST) {
+            if (result.size() >= k) break;
+            if (count(grade) > 0) {
+                result.add(grade);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The hardest grade climbed in one style, or {@code null} if the style was never used.
+     *
+     * @throws IllegalArgumentException if the histogram spans two scales
+     */
+    public @Nullable ClimbingGrade hardest(AscentStyle style) {
+        requireSingleScale();
+        for (ClimbingGrade grade : HARDEST_FIRST) {
+            if (count(grade, style) > 0) {
+                return grade;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The grade at or below which {@code percent} of the ascents sit, nearest-rank: the median is
+     * {@code percentile(50)}, "what they climb on a good day" something like {@code percentile(90)}.
+     * Always a grade somebody actually climbed, never an interpolation between two.
+     *
+     * @param percent in {@code (0, 100]}
+     * @return {@code null} for an empty histogram
+     * @throws IllegalArgumentException if {@code percent} is out of range, or if the histogram
+     *         spans two scales
+     */
+    public @Nullable ClimbingGrade percentile(double percent) {
+        if (!(percent > 0 && percent <= 100)) {
+            throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percent);
+        }
+        requireSingleScale();
+        if (total == 0) {
+            return null;
+        }
+        long needed = (long) Math.ceil(percent / 100.0 * total);
+        long seen = 0;
+        for (int i = HARDEST_FIRST.length - 1; i >= 0; i--) {
+            seen += count(HARDEST_FIRST[i]);
+            if (seen >= needed) {
+                return HARDEST_FIRST[i];
+            }
+        }
+        // Unreachable: the loop ends having seen the whole total
+        return HARDEST_FIRST[0];
+    }
+
+    private void noteScale(GradeScale added) {
+        if (scale == null) {
+            scale = added;
+        } else if (scale != added) {
+            mixedScales = true;
+        }
+    }
+
+    private void requireSingleScale() {
+        if (mixedScales) {
+            throw new IllegalArgumentException("Cannot order grades across scales");
+        }
+    }
+
+    private static int index(ClimbingGrade grade, AscentStyle style) {
+        return grade.ordinal() * STYLES.length + style.ordinal();
+    }
+}
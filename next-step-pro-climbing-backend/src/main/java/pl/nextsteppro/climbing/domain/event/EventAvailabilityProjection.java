@@ -0,0 +1,15 @@
+package pl.nextsteppro.climbing.domain.event;
+
+import java.util.UUID;
+
+/**
+ * An event's row of the {@code event_availability} projection (see V91). {@code taken} is the
+ * busiest of its day-slots plus the guests registered on the event itself — one booking covers
+ * every day, so the busiest day is what limits the next one.
+ */
+public interface EventAvailabilityProjection {
+    UUID getEventId();
+    int getTaken();
+    int getHeld();
+    int getPending();
+}
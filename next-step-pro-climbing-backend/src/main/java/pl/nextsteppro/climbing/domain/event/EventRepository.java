@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -41,4 +42,12 @@ public interface EventRepository extends JpaRepository<Event, UUID> {
 
     @Query("SELECT e FROM Event e WHERE e.course.id = :courseId")
     List<Event> findByCourseId(UUID courseId);
+
+    /* See TimeSlotRepository.findAvailabilityBySlotIds — the event rows of the same projection. */
+    @Query(value = """
+        SELECT ea.event_id AS eventId, ea.taken AS taken, ea.held AS held, ea.pending AS pending
+        FROM event_availability ea
+        WHERE ea.event_id IN (:eventIds)
+        """, nativeQuery = true)
+    List<EventAvailabilityProjection> findAvailabilityByEventIds(Collection<UUID> eventIds);
 }
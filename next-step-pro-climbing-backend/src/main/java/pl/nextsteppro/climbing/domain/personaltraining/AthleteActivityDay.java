@@ -0,0 +1,13 @@
+package pl.nextsteppro.climbing.domain.personaltraining;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * JPQL constructor projection for the coach dashboard: one activity of one athlete — a completed
+ * training or an attended reservation — reduced to its day and rating. Shared by both sources, like
+ * {@link AthleteActivityCount}. {@code rpe} is null when it was not rated.
+ */
+public record AthleteActivityDay(UUID athleteId, LocalDate date, @Nullable Integer rpe) {}
@@ -99,6 +99,11 @@ public class PersonalTraining {
     @Column(nullable = false)
     private long version;
 
+    // Not the lock above: the calendar's change counter, stamped by the database on every write
+    // to this row or to its comments and materials (V99). Mapped only so queries can filter on it.
+    @Column(name = "change_version", nullable = false, insertable = false, updatable = false)
+    private long changeVersion;
+
     protected PersonalTraining() {}
 
     public PersonalTraining(User athlete, LocalDate trainingDate, @Nullable LocalTime startTime, @Nullable LocalTime endTime,
@@ -14,6 +14,13 @@ public interface PersonalTrainingRepository extends JpaRepository<PersonalTraini
     List<PersonalTraining> findByAthleteIdAndTrainingDateBetweenOrderByTrainingDateAscStartTimeAsc(
         UUID athleteId, LocalDate from, LocalDate to);
 
+    /**
+     * Calendar changes poll: every training of the athlete written since the client's cursor,
+     * whatever its date — one moved out of the viewed range has to be reported as gone from it.
+     */
+    List<PersonalTraining> findByAthleteIdAndChangeVersionGreaterThanOrderByTrainingDateAscStartTimeAsc(
+        UUID athleteId, long changeVersion);
+
     /** Admin user card headline count. TRAINING only — a month of kept calorie limits is not
      * a month of training, the same split {@code TrainingStatsService} makes on the way in. */
     @Query("""
@@ -80,12 +87,25 @@ public interface PersonalTrainingRepository extends JpaRepository<PersonalTraini
         """)
     List<AthleteLastActivity> findLastTrainingActivityPerAthlete();
 
-    /** Athlete statistics: full history of one athlete reduced to (kind, date, endTime, completedAt, rpe). */
+    /** Athlete statistics: one athlete's entries from {@code from} on, reduced to (kind, date, endTime,
+     * completedAt, rpe). Older months come from the per-month snapshots (V98), not from here. */
     @Query("""
         SELECT new pl.nextsteppro.climbing.domain.personaltraining.TrainingStatsRow(
             t.kind, t.trainingDate, t.endTime, t.completedAt, t.rpe)
         FROM PersonalTraining t
-        WHERE t.athlete.id = :athleteId
+        WHERE t.athlete.id = :athleteId AND t.trainingDate >= :from
+        """)
+    List<TrainingStatsRow> findStatsRowsByAthleteId(UUID athleteId, LocalDate from);
+
+    /**
+     * Coach dashboard: every completed training of every flagged athlete from {@code from} on,
+     * in one query for the whole roster. Tasks are left out, as in the athlete statistics.
+     */
+    @Query("""
+        SELECT new pl.nextsteppro.climbing.domain.personaltraining.AthleteActivityDay(t.athlete.id, t.trainingDate, t.rpe)
+        FROM PersonalTraining t
+        WHERE t.athlete.athlete = true AND t.kind = 'TRAINING'
+          AND t.completedAt IS NOT NULL AND t.trainingDate >= :from
         """)
-    List<TrainingStatsRow> findStatsRowsByAthleteId(UUID athleteId);
+    List<AthleteActivityDay> findCompletedTrainingDaysOfFlaggedAthletes(LocalDate from);
 }
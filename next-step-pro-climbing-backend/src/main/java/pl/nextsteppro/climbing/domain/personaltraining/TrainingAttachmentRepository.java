@@ -3,9 +3,11 @@ package pl.nextsteppro.climbing.domain.personaltraining;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface TrainingAttachmentRepository extends JpaRepository<TrainingAttachment, UUID> {
@@ -26,9 +28,11 @@ public interface TrainingAttachmentRepository extends JpaRepository<TrainingAtta
     @Modifying
     void deleteByTemplateId(UUID templateId);
 
-    /** Reference count of a stored file across ALL attachments (training + template) —
-     * a physical file must not be deleted from disk while another row still points at it. */
-    long countByFilename(String filename);
+    /** Which of these stored files ANY attachment (training + template) still points at — a
+     * physical file must not be deleted from disk while a row references it. One query per batch
+     * of names, however many the batch holds. */
+    @Query("SELECT DISTINCT a.filename FROM TrainingAttachment a WHERE a.filename IN :filenames")
+    Set<String> findReferencedFilenames(@Param("filenames") Collection<String> filenames);
 
     /** All uploaded files with their owner (training or template) — admin materials management. */
     @Query("""
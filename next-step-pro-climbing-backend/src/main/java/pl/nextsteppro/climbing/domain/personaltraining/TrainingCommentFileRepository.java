@@ -50,9 +50,9 @@ public interface TrainingCommentFileRepository extends JpaRepository<TrainingCom
         """)
     List<TrainingCommentFile> findExpiredBefore(@Param("now") Instant now);
 
-    /** Every filename the database still knows about — the other half of the orphan sweep. */
-    @Query("SELECT f.filename FROM TrainingCommentFile f")
-    Set<String> findAllFilenames();
+    /** Which of these filenames a row still claims — the other half of the orphan sweep, one page at a time. */
+    @Query("SELECT f.filename FROM TrainingCommentFile f WHERE f.filename IN :filenames")
+    Set<String> findReferencedFilenames(@Param("filenames") Collection<String> filenames);
 
     /**
      * Filenames to unlink before a training is deleted. The rows disappear through the DB cascade
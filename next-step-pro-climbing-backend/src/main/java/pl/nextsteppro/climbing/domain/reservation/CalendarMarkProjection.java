@@ -0,0 +1,13 @@
+package pl.nextsteppro.climbing.domain.reservation;
+
+import java.util.UUID;
+
+/**
+ * One fact about the calendar viewer: a slot or event they are booked on, or a seat held for them
+ * that they have not taken yet. {@code kind} is one of {@code SLOT_BOOKED}, {@code EVENT_BOOKED},
+ * {@code SLOT_INVITE}, {@code EVENT_INVITE}; {@code targetId} is the slot or event it refers to.
+ */
+public interface CalendarMarkProjection {
+    String getKind();
+    UUID getTargetId();
+}
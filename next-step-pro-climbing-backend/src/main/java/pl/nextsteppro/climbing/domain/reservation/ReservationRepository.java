@@ -5,7 +5,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import pl.nextsteppro.climbing.domain.personaltraining.AthleteActivityCount;
+import pl.nextsteppro.climbing.domain.personaltraining.AthleteActivityDay;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -82,24 +84,77 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.user.id = :userId AND (r.timeSlot.date < :today OR (r.timeSlot.date = :today AND r.timeSlot.endTime <= :now)) AND r.status IN ('CONFIRMED', 'CANCELLED', 'CANCELLED_BY_ADMIN')")
     long countPastByUserId(UUID userId, LocalDate today, LocalTime now);
 
-    /** Athlete statistics: attended reservations (confirmed + slot already over) reduced to
-     * (date, eventType, rpe). Same past-predicate as {@link #findPastByUserId}. */
+    /** Athlete statistics: attended reservations (confirmed + slot already over) from {@code from} on,
+     * reduced to (date, eventType, rpe). Same past-predicate as {@link #findPastByUserId}. */
     @Query("""
         SELECT new pl.nextsteppro.climbing.domain.reservation.ReservationStatsRow(ts.date, e.eventType, rr.rpe)
         FROM Reservation r
         JOIN r.timeSlot ts
         LEFT JOIN ts.event e
         LEFT JOIN ReservationRpe rr ON rr.reservation.id = r.id
-        WHERE r.user.id = :userId AND r.status = 'CONFIRMED'
+        WHERE r.user.id = :userId AND r.status = 'CONFIRMED' AND ts.date >= :from
           AND (ts.date < :today OR (ts.date = :today AND ts.endTime <= :now))
         """)
-    List<ReservationStatsRow> findPastConfirmedStatsRows(UUID userId, LocalDate today, LocalTime now);
+    List<ReservationStatsRow> findPastConfirmedStatsRows(UUID userId, LocalDate from, LocalDate today, LocalTime now);
+
+    /** Coach dashboard: {@link #findPastConfirmedStatsRows} for every flagged athlete at once. */
+    @Query("""
+        SELECT new pl.nextsteppro.climbing.domain.personaltraining.AthleteActivityDay(r.user.id, ts.date, rr.rpe)
+        FROM Reservation r
+        JOIN r.timeSlot ts
+        LEFT JOIN ReservationRpe rr ON rr.reservation.id = r.id
+        WHERE r.user.athlete = true AND r.status = 'CONFIRMED' AND ts.date >= :from
+          AND (ts.date < :today OR (ts.date = :today AND ts.endTime <= :now))
+        """)
+    List<AthleteActivityDay> findAttendedDaysOfFlaggedAthletes(LocalDate from, LocalDate today, LocalTime now);
 
     boolean existsByUserIdAndTimeSlotIdAndStatus(UUID userId, UUID timeSlotId, ReservationStatus status);
 
     @Query("SELECT r.timeSlot.id FROM Reservation r WHERE r.user.id = :userId AND r.timeSlot.id IN :slotIds AND r.status = 'CONFIRMED'")
     List<UUID> findUserConfirmedSlotIds(UUID userId, Collection<UUID> slotIds);
 
+    /**
+     * Everything the calendar views need to know about one viewer in a date range, in one round
+     * trip: the slots they booked, the events they are registered on, and the held seats they have
+     * not taken yet. Seat counts are viewer-independent and come from the shared snapshot cache —
+     * this is the only per-user query a month, week or day view makes.
+     *
+     * <p>Events match by overlap rather than by slot date: a multi-day event that started before
+     * the range is still listed in the view, so the viewer's registration on it has to be too.
+     * Pending invites use the same "not yet booked" rule as {@code ReservedSeatRepository}.
+     */
+    @Query(value = """
+        SELECT 'SLOT_BOOKED' AS kind, r.time_slot_id AS targetId
+        FROM reservations r
+        JOIN time_slots ts ON ts.id = r.time_slot_id
+        WHERE r.user_id = :userId AND r.status = 'CONFIRMED' AND ts.date BETWEEN :from AND :to
+        UNION ALL
+        SELECT DISTINCT 'EVENT_BOOKED', e.id
+        FROM reservations r
+        JOIN time_slots ts ON ts.id = r.time_slot_id
+        JOIN events e ON e.id = ts.event_id
+        WHERE r.user_id = :userId AND r.status = 'CONFIRMED'
+          AND e.is_active = true AND e.start_date <= :to AND e.end_date >= :from
+        UNION ALL
+        SELECT 'SLOT_INVITE', rs.time_slot_id
+        FROM reserved_seats rs
+        JOIN time_slots ts ON ts.id = rs.time_slot_id
+        WHERE rs.user_id = :userId AND ts.date BETWEEN :from AND :to
+          AND NOT EXISTS (SELECT 1 FROM reservations r
+                          WHERE r.user_id = :userId AND r.time_slot_id = rs.time_slot_id AND r.status = 'CONFIRMED')
+        UNION ALL
+        SELECT 'EVENT_INVITE', rs.event_id
+        FROM reserved_seats rs
+        JOIN events e ON e.id = rs.event_id
+        WHERE rs.user_id = :userId AND e.is_active = true AND e.start_date <= :to AND e.end_date >= :from
+          AND NOT EXISTS (SELECT 1 FROM reservations r
+                          JOIN time_slots ts ON ts.id = r.time_slot_id
+                          WHERE r.user_id = :userId AND ts.event_id = rs.event_id AND r.status = 'CONFIRMED')
+        """, nativeQuery = true)
+    List<CalendarMarkProjection> findCalendarMarks(@Param("userId") UUID userId,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
     @Query("SELECT r FROM Reservation r WHERE r.user.id = :userId AND r.timeSlot.id IN :slotIds AND r.status = 'CONFIRMED'")
     List<Reservation> findConfirmedByUserIdAndSlotIds(UUID userId, Collection<UUID> slotIds);
 
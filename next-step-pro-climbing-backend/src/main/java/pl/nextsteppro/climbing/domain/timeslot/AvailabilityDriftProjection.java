@@ -0,0 +1,12 @@
+package pl.nextsteppro.climbing.domain.timeslot;
+
+import java.util.UUID;
+
+/**
+ * A projection row the drift repair had to recompute. {@code kind} is {@code SLOT} or
+ * {@code EVENT}; {@code targetId} is the slot or event.
+ */
+public interface AvailabilityDriftProjection {
+    String getKind();
+    UUID getTargetId();
+}
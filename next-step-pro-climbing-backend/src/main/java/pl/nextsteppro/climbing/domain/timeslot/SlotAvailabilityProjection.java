@@ -0,0 +1,16 @@
+package pl.nextsteppro.climbing.domain.timeslot;
+
+import java.util.UUID;
+
+/**
+ * A slot's row of the {@code slot_availability} projection, which database triggers keep in step
+ * with every reservation, guest, waitlist and invitation write (see V91). {@code taken} is
+ * confirmed participants plus guests, {@code held} the invitations not yet booked, {@code pending}
+ * the waitlist offers awaiting confirmation — the same figures the per-table count queries give.
+ */
+public interface SlotAvailabilityProjection {
+    UUID getTimeSlotId();
+    int getTaken();
+    int getHeld();
+    int getPending();
+}
@@ -36,4 +36,26 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlot, UUID> {
 
     @Query("SELECT ts FROM TimeSlot ts WHERE ts.event.id IN :eventIds")
     List<TimeSlot> findByEventIdIn(Collection<UUID> eventIds);
+
+    /* One row per slot from the trigger-maintained projection — replaces the confirmed, guest,
+     * waitlist and invitation aggregates the calendar used to run per view. A slot without a row
+     * reads as empty; the nightly repair adds any that went missing. */
+    @Query(value = """
+        SELECT sa.time_slot_id AS timeSlotId, sa.taken AS taken, sa.held AS held, sa.pending AS pending
+        FROM slot_availability sa
+        WHERE sa.time_slot_id IN (:slotIds)
+        """, nativeQuery = true)
+    List<SlotAvailabilityProjection> findAvailabilityBySlotIds(Collection<UUID> slotIds);
+
+    @Query(value = """
+        SELECT sa.time_slot_id AS timeSlotId, sa.taken AS taken, sa.held AS held, sa.pending AS pending
+        FROM slot_availability sa
+        WHERE sa.time_slot_id = :slotId
+        """, nativeQuery = true)
+    Optional<SlotAvailabilityProjection> findAvailabilityBySlotId(UUID slotId);
+
+    /* Recomputes every slot and event row that disagrees with the live counts, under the same row
+     * lock the triggers take. Writes despite being a SELECT — call it from a read-write transaction. */
+    @Query(value = "SELECT kind AS kind, target_id AS targetId FROM repair_availability_drift()", nativeQuery = true)
+    List<AvailabilityDriftProjection> repairAvailabilityDrift();
 }
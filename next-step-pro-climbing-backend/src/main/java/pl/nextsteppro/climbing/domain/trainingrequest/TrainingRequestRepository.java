@@ -14,8 +14,8 @@ import java.util.UUID;
 public interface TrainingRequestRepository extends JpaRepository<TrainingRequest, UUID> {
 
     /**
-     * Request with the user eagerly fetched — for paths that pass the user to asynchronous
-     * emails (a lazy proxy would initialize only on the mail thread, outside the Hibernate session).
+     * Request with the user eagerly fetched — for paths that mail the user, so rendering the
+     * message does not cost a second query.
      */
     @Query("SELECT tr FROM TrainingRequest tr JOIN FETCH tr.user WHERE tr.id = :id")
     Optional<TrainingRequest> findByIdWithUser(UUID id);
@@ -0,0 +1,29 @@
+package pl.nextsteppro.climbing.domain.user;
+
+import java.util.UUID;
+
+/**
+ * A signed-in user as the authentication layer needs them, and nothing more.
+ *
+ * <p>This is what the JWT filter caches per user instead of the entity. A detached {@link User}
+ * carried the password hash, both OAuth columns, the unsubscribe token and a dozen timestamps on
+ * the heap for as long as the cache held it — and, being an entity, it invited a later caller to
+ * touch a lazy association on it long after its session had closed. A record of five columns
+ * has nothing lazy to touch and costs one narrow query on a miss.
+ *
+ * <p>Anything added here has to be kept fresh: a field that a write can change needs that write
+ * to go through {@code UserCacheEvictions}, or sessions will see the old value for the life of
+ * the cache.
+ */
+public record UserPrincipal(
+    UUID id,
+    String email,
+    UserRole role,
+    boolean athlete,
+    String preferredLanguage
+) {
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+}
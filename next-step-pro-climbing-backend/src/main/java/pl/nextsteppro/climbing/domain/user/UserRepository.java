@@ -12,6 +12,15 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
 
+    /** The authentication filter's cache miss: five columns, no entity. See {@link UserPrincipal}. */
+    @Query("""
+        SELECT new pl.nextsteppro.climbing.domain.user.UserPrincipal(
+            u.id, u.email, u.role, u.athlete, u.preferredLanguage)
+        FROM User u
+        WHERE u.id = :id
+        """)
+    Optional<UserPrincipal> findPrincipalById(UUID id);
+
     Optional<User> findByOauthProviderAndOauthId(String oauthProvider, String oauthId);
 
     /** Resolves the unsubscribe link from a newsletter to its recipient. */
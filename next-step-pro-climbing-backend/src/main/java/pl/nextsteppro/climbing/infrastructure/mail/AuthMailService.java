@@ -3,7 +3,6 @@ package pl.nextsteppro.climbing.infrastructure.mail;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import pl.nextsteppro.climbing.config.AdminEmailConfig;
 import pl.nextsteppro.climbing.config.AppConfig;
@@ -18,21 +17,20 @@ public class AuthMailService {
     private static final Logger log = LoggerFactory.getLogger(AuthMailService.class);
     private static final String ADMIN_LANG = "pl";
 
-    private final MailDispatcher mailDispatcher;
+    private final MailOutbox mailOutbox;
     private final AppConfig appConfig;
     private final AdminEmailConfig adminEmailConfig;
     private final MessageService msg;
     private final String siteUrl;
 
-    public AuthMailService(MailDispatcher mailDispatcher, AppConfig appConfig, AdminEmailConfig adminEmailConfig, MessageService msg) {
-        this.mailDispatcher = mailDispatcher;
+    public AuthMailService(MailOutbox mailOutbox, AppConfig appConfig, AdminEmailConfig adminEmailConfig, MessageService msg) {
+        this.mailOutbox = mailOutbox;
         this.appConfig = appConfig;
         this.adminEmailConfig = adminEmailConfig;
         this.msg = msg;
         this.siteUrl = appConfig.getSiteUrl();
     }
 
-    @Async
     public void sendVerificationEmail(User user, String token) {
         String lang = user.getPreferredLanguage();
         String verificationUrl = buildVerificationUrl(token);
@@ -52,7 +50,6 @@ public class AuthMailService {
      * and the token expires alongside it. So the button confirms the address in one click rather
      * than sending the reader off to ask for a second mail.
      */
-    @Async
     public void sendVerificationReminder(User user, String token) {
         String lang = user.getPreferredLanguage();
         String subject = msg.getForLang("email.verification.reminder.subject", lang);
@@ -61,7 +58,6 @@ public class AuthMailService {
         sendEmail(user.getEmail(), subject, body);
     }
 
-    @Async
     public void sendWelcomeEmail(User user) {
         String lang = user.getPreferredLanguage();
         String subject = msg.getForLang("email.welcome.subject", lang);
@@ -70,7 +66,6 @@ public class AuthMailService {
         sendEmail(user.getEmail(), subject, body);
     }
 
-    @Async
     public void sendPasswordResetEmail(User user, String token) {
         String lang = user.getPreferredLanguage();
         String resetUrl = buildPasswordResetUrl(token);
@@ -80,7 +75,6 @@ public class AuthMailService {
         sendEmail(user.getEmail(), subject, body);
     }
 
-    @Async
     public void sendAccountDeletedByAdminNotification(User user) {
         String lang = user.getPreferredLanguage();
         String subject = msg.getForLang("email.account.deleted.subject", lang);
@@ -90,14 +84,12 @@ public class AuthMailService {
 
     // Notification to the ADMIN when a user deleted their own account.
     // affectedReservations = number of cancelled confirmed reservations (freed seats).
-    @Async
     public void sendAccountSelfDeletedAdminNotification(User user, int affectedReservations) {
         String subject = msg.getForLang("email.admin.account.deleted.subject", ADMIN_LANG, user.getFullName());
         String body = buildAccountSelfDeletedAdminBody(user, affectedReservations);
         sendToAdmins(subject, body);
     }
 
-    @Async
     public void sendPasswordChangedNotification(User user) {
         String lang = user.getPreferredLanguage();
         String subject = msg.getForLang("email.password.changed.subject", lang);
@@ -107,7 +99,7 @@ public class AuthMailService {
     }
 
     private void sendEmail(String to, String subject, String body) {
-        mailDispatcher.sendHtml(to, subject, body);
+        mailOutbox.enqueue(to, subject, body);
     }
 
     private List<String> resolveAdminEmails() {
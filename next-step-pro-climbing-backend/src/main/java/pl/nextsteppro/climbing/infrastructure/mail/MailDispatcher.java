@@ -1,6 +1,7 @@
 package pl.nextsteppro.climbing.infrastructure.mail;
 
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,11 +9,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 import pl.nextsteppro.climbing.config.AppConfig;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Single point of outbound email delivery for the whole application.
  *
@@ -22,8 +31,16 @@ import pl.nextsteppro.climbing.config.AppConfig;
  * {@link #FAILURE_MARKER} marker (easy to alert/grep on) and <strong>never throws</strong> —
  * a mail failure must not break the business transaction that triggered it.
  *
- * <p>For durable, restart-surviving delivery a database-backed outbox would be the next step;
- * in-memory retry is sufficient for the current volume and only covers transient blips.
+ * <p>Transactional mail does not call this class directly: it is queued in {@link MailOutbox},
+ * which survives restarts and keeps its own, longer backoff, and reaches SMTP through
+ * {@link #deliverOnce}. The in-memory retry below is for direct sends and campaigns, where it
+ * only has to cover transient blips.
+ *
+ * <p>Campaigns go through {@link #openCampaign} instead of one {@code send} per recipient: every
+ * single send opens its own SMTP connection, with its own TCP and TLS handshake and login, and a
+ * newsletter to a few thousand subscribers spent most of its time shaking hands. A campaign
+ * hands {@link JavaMailSender#send(MimeMessage...)} a chunk at a time, which delivers the whole
+ * chunk over one connection.
  */
 @Component
 public class MailDispatcher {
@@ -51,6 +68,13 @@ public class MailDispatcher {
         }
     }
 
+    /**
+     * Messages per SMTP connection in a campaign. Large enough that the handshake stops being the
+     * cost, small enough that memory stays flat (the chunk's MIME messages are alive together)
+     * and well under the per-connection message caps providers such as Gmail enforce.
+     */
+    static final int CAMPAIGN_CHUNK_SIZE = 50;
+
     /** Delay before each retry; length + 1 = total attempts. */
     private static final long[] DEFAULT_RETRY_DELAYS_MS = {2_000L, 5_000L};
 
@@ -97,29 +121,31 @@ public class MailDispatcher {
         send(to, subject, body, null, unsubscribeUrl);
     }
 
+    /**
+     * One attempt, no retry, and failures are thrown rather than logged — for {@link MailOutbox},
+     * which counts attempts and backs off in the table and must know whether the message went out.
+     */
+    void deliverOnce(String to, String subject, String body, @Nullable byte[] icsAttachment)
+            throws MessagingException {
+        mailSender.send(buildMessage(to, subject, body, icsAttachment, null));
+    }
+
+    /**
+     * Starts a bulk send. Add every recipient, then close it — close sends the last partial chunk
+     * and logs the totals. Like {@link #sendHtml}, it never throws for a failed delivery.
+     *
+     * @param name what the log lines call this campaign
+     */
+    public Campaign openCampaign(String name) {
+        return new Campaign(name);
+    }
+
     private void send(String to, String subject, String body, @Nullable byte[] icsAttachment,
                       @Nullable String unsubscribeUrl) {
         int maxAttempts = retryDelaysMs.length + 1;
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
-                var message = mailSender.createMimeMessage();
-                var helper = new MimeMessageHelper(message, true, "UTF-8");
-                helper.setTo(to);
-                helper.setSubject(subject);
-                helper.setText(body, true);
-                helper.setFrom(appConfig.getMail().getFrom());
-                helper.addInline("logo", new ByteArrayResource(LOGO_BYTES), "image/png");
-                if (icsAttachment != null) {
-                    helper.addAttachment(ICS_ATTACHMENT_NAME,
-                            new ByteArrayResource(icsAttachment), "text/calendar");
-                }
-                if (unsubscribeUrl != null) {
-                    message.setHeader("List-Unsubscribe", "<" + unsubscribeUrl + ">");
-                    // Declares that the URL above accepts the one-click POST. Without this second
-                    // header Gmail treats the address as mailto-style and does not show the button.
-                    message.setHeader("List-Unsubscribe-Post", "List-Unsubscribe=One-Click");
-                }
-
+                MimeMessage message = buildMessage(to, subject, body, icsAttachment, unsubscribeUrl);
                 mailSender.send(message);
                 if (attempt > 1) {
                     log.info("Email sent to {} on attempt {}/{}", to, attempt, maxAttempts);
@@ -141,6 +167,133 @@ public class MailDispatcher {
         }
     }
 
+    private MimeMessage buildMessage(String to, String subject, String body, @Nullable byte[] icsAttachment,
+                                     @Nullable String unsubscribeUrl) throws MessagingException {
+        var message = mailSender.createMimeMessage();
+        var helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(body, true);
+        helper.setFrom(appConfig.getMail().getFrom());
+        helper.addInline("logo", new ByteArrayResource(LOGO_BYTES), "image/png");
+        if (icsAttachment != null) {
+            helper.addAttachment(ICS_ATTACHMENT_NAME,
+                    new ByteArrayResource(icsAttachment), "text/calendar");
+        }
+        if (unsubscribeUrl != null) {
+            message.setHeader("List-Unsubscribe", "<" + unsubscribeUrl + ">");
+            // Declares that the URL above accepts the one-click POST. Without this second
+            // header Gmail treats the address as mailto-style and does not show the button.
+            message.setHeader("List-Unsubscribe-Post", "List-Unsubscribe=One-Click");
+        }
+        return message;
+    }
+
+    /**
+     * Sends one chunk over one connection and retries only what failed. Spring reports the
+     * messages it could not deliver in {@link MailSendException#getFailedMessages()}; the rest of
+     * the chunk went through and must not be sent twice. When the connection itself fails
+     * nothing was sent, and the whole chunk is retried.
+     *
+     * @return how many of {@code chunk} were finally dropped
+     */
+    private int sendChunk(Map<MimeMessage, String> chunk) {
+        List<MimeMessage> pending = new ArrayList<>(chunk.keySet());
+        int maxAttempts = retryDelaysMs.length + 1;
+        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+            try {
+                mailSender.send(pending.toArray(MimeMessage[]::new));
+                pending = List.of();
+            } catch (MailException e) {
+                pending = stillFailing(pending, e);
+                if (attempt < maxAttempts) {
+                    long delay = retryDelaysMs[attempt - 1];
+                    log.warn("Campaign chunk: {} of {} messages failed (attempt {}/{}), retrying in {} ms",
+                            pending.size(), chunk.size(), attempt, maxAttempts, delay, e);
+                    sleep(delay);
+                } else {
+                    for (MimeMessage message : pending) {
+                        log.error("{}: dropping email to {} after {} failed attempts",
+                                FAILURE_MARKER, chunk.get(message), maxAttempts, e);
+                    }
+                }
+            }
+        }
+        return pending.size();
+    }
+
+    private static List<MimeMessage> stillFailing(List<MimeMessage> attempted, MailException e) {
+        if (!(e instanceof MailSendException sendException) || sendException.getFailedMessages().isEmpty()) {
+            return attempted;
+        }
+        // Keyed by the very MimeMessage instances handed in, so identity is the right match.
+        Set<Object> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        failed.addAll(sendException.getFailedMessages().keySet());
+        return attempted.stream().filter(failed::contains).toList();
+    }
+
+    /**
+     * One bulk send in progress. Collects built messages and ships them a chunk at a time; not
+     * thread-safe, and not meant to be — a campaign is one loop on one thread.
+     */
+    public final class Campaign implements AutoCloseable {
+
+        private final String name;
+        private final long startedAt = System.nanoTime();
+        /** Message to its recipient, for the failure log. Identity: MimeMessage has no equals. */
+        private final Map<MimeMessage, String> chunk = new IdentityHashMap<>();
+        private int delivered;
+        private int dropped;
+
+        private Campaign(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Queues one message; sends the chunk once it is full.
+         *
+         * @param unsubscribeUrl non-null for newsletter mail — see {@link #sendNewsletterHtml}
+         */
+        public void add(String to, String subject, String body, @Nullable String unsubscribeUrl) {
+            try {
+                chunk.put(buildMessage(to, subject, body, null, unsubscribeUrl), to);
+            } catch (MessagingException e) {
+                // A message that cannot be built will not build on retry either.
+                dropped++;
+                log.error("{}: dropping email to {}, message could not be built", FAILURE_MARKER, to, e);
+                return;
+            }
+            if (chunk.size() >= CAMPAIGN_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        public int delivered() {
+            return delivered;
+        }
+
+        public int dropped() {
+            return dropped;
+        }
+
+        /** Sends whatever is left and logs the totals with the campaign's throughput. */
+        @Override
+        public void close() {
+            flush();
+            long elapsedMs = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+            log.info("Campaign {} done: {} delivered, {} dropped in {} ms ({} msg/s)",
+                    name, delivered, dropped, elapsedMs, delivered * 1000L / elapsedMs);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+            int failed = sendChunk(chunk);
+            delivered += chunk.size() - failed;
+            dropped += failed;
+            chunk.clear();
+        }
+    }
+
     private void sleep(long millis) {
         try {
             Thread.sleep(millis);
@@ -0,0 +1,157 @@
+package pl.nextsteppro.climbing.infrastructure.mail;
+
+import jakarta.mail.MessagingException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Durable queue for transactional mail, in the {@code mail_outbox} table (V93).
+ *
+ * <p>{@link #enqueue} is an INSERT on the caller's connection, so it joins the business
+ * transaction: a reservation that commits has its confirmation queued, one that rolls back leaves
+ * no mail behind, and a restart loses nothing. This replaces the {@code @Async} executor, whose
+ * in-memory queue dropped confirmations on restart or overflow and sent them even for work that
+ * was later rolled back.
+ *
+ * <p>{@link #drain} is the worker, called by {@code MailOutboxScheduler}. It claims a batch in one
+ * statement — {@code FOR UPDATE SKIP LOCKED} picks rows no other node is claiming, and the same
+ * UPDATE pushes their {@code next_attempt_at} out by {@link #LEASE} — then sends outside any
+ * transaction. No lock is held during SMTP, and a node that dies mid-batch only delays its rows
+ * until the lease runs out. Delivery is at-least-once: a crash between the send and the DELETE
+ * sends that one message again.
+ *
+ * <p>A failed send is rescheduled with a growing delay ({@link #BACKOFF}); after the last step it
+ * is marked failed and logged with {@link MailDispatcher#FAILURE_MARKER}, as before.
+ */
+@Component
+public class MailOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutbox.class);
+
+    /** How long a claimed row stays invisible to other workers. Far longer than one batch takes. */
+    static final Duration LEASE = Duration.ofMinutes(5);
+
+    /**
+     * Delay after the n-th failed attempt; length + 1 = total attempts. The first steps ride out a
+     * throttled or restarting SMTP relay, the last ones an outage of a few hours.
+     */
+    static final Duration[] BACKOFF = {
+        Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofMinutes(10),
+        Duration.ofHours(1), Duration.ofHours(6)
+    };
+
+    static final int BATCH_SIZE = 20;
+
+    private static final String INSERT = """
+        INSERT INTO mail_outbox (recipient, subject, html_body, ics_attachment)
+        VALUES (?, ?, ?, ?)
+        """;
+
+    private static final String CLAIM = """
+        UPDATE mail_outbox
+           SET attempts = attempts + 1,
+               next_attempt_at = now() + make_interval(secs => ?)
+         WHERE id IN (SELECT id FROM mail_outbox
+                       WHERE failed_at IS NULL AND next_attempt_at <= now()
+                       ORDER BY next_attempt_at
+                       LIMIT ?
+                       FOR UPDATE SKIP LOCKED)
+        RETURNING id, recipient, subject, html_body, ics_attachment, attempts
+        """;
+
+    private static final String RESCHEDULE = """
+        UPDATE mail_outbox SET next_attempt_at = now() + make_interval(secs => ?), last_error = ?
+         WHERE id = ?
+        """;
+
+    private static final String GIVE_UP = "UPDATE mail_outbox SET failed_at = now(), last_error = ? WHERE id = ?";
+
+    private static final String PURGE_FAILED =
+        "DELETE FROM mail_outbox WHERE failed_at < now() - make_interval(days => ?)";
+
+    private static final RowMapper<OutboxMail> ROW = (rs, row) -> new OutboxMail(
+        rs.getLong("id"), rs.getString("recipient"), rs.getString("subject"),
+        rs.getString("html_body"), rs.getBytes("ics_attachment"), rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbc;
+    private final MailDispatcher mailDispatcher;
+
+    public MailOutbox(JdbcTemplate jdbc, MailDispatcher mailDispatcher) {
+        this.jdbc = jdbc;
+        this.mailDispatcher = mailDispatcher;
+    }
+
+    public void enqueue(String to, String subject, String htmlBody) {
+        enqueue(to, subject, htmlBody, null);
+    }
+
+    /** Queues one message in the current transaction, if there is one. */
+    public void enqueue(String to, String subject, String htmlBody, @Nullable byte[] icsAttachment) {
+        // Typed, so a null attachment binds as bytea and not as an untyped NULL
+        jdbc.update(INSERT, to, subject, htmlBody, new SqlParameterValue(Types.BINARY, icsAttachment));
+    }
+
+    /**
+     * Sends everything that is due, a batch at a time, until a batch comes back short.
+     *
+     * @return how many messages went out
+     */
+    public int drain() {
+        int sent = 0;
+        List<OutboxMail> batch;
+        do {
+            batch = jdbc.query(CLAIM, ROW, (double) LEASE.toSeconds(), BATCH_SIZE);
+            for (OutboxMail mail : batch) {
+                if (deliver(mail)) sent++;
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return sent;
+    }
+
+    /** @return how many failed rows older than {@code days} were deleted */
+    public int purgeFailed(int days) {
+        return jdbc.update(PURGE_FAILED, days);
+    }
+
+    private boolean deliver(OutboxMail mail) {
+        try {
+            mailDispatcher.deliverOnce(mail.recipient(), mail.subject(), mail.htmlBody(), mail.icsAttachment());
+        } catch (MessagingException | RuntimeException e) {
+            // Anything but success counts as an attempt, so a message that cannot be built
+            // ends up failed instead of coming back every time its lease runs out.
+            recordFailure(mail, e);
+            return false;
+        }
+        jdbc.update("DELETE FROM mail_outbox WHERE id = ?", mail.id());
+        log.info("Email sent to {}", mail.recipient());
+        return true;
+    }
+
+    private void recordFailure(OutboxMail mail, Exception e) {
+        String error = String.valueOf(e.getMessage());
+        if (mail.attempts() > BACKOFF.length) {
+            jdbc.update(GIVE_UP, error, mail.id());
+            log.error("{}: dropping email to {} after {} failed attempts",
+                MailDispatcher.FAILURE_MARKER, mail.recipient(), mail.attempts(), e);
+            return;
+        }
+        Duration delay = BACKOFF[mail.attempts() - 1];
+        jdbc.update(RESCHEDULE, (double) delay.toSeconds(), error, mail.id());
+        log.warn("Email send to {} failed (attempt {}/{}), retrying in {}",
+            mail.recipient(), mail.attempts(), BACKOFF.length + 1, delay, e);
+    }
+
+    /** One claimed row. {@code attempts} already counts the attempt being made. */
+    record OutboxMail(long id, String recipient, String subject, String htmlBody,
+                      @Nullable byte[] icsAttachment, int attempts) {
+    }
+}
@@ -16,7 +16,9 @@ import pl.nextsteppro.climbing.api.user.UserService;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import jakarta.annotation.PostConstruct;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class MailService {
@@ -29,14 +31,17 @@ public class MailService {
     private static final String ADMIN_LANG = "pl";
 
     private final MailDispatcher mailDispatcher;
+    private final MailOutbox mailOutbox;
     private final AppConfig appConfig;
     private final AdminEmailConfig adminEmailConfig;
     private final MessageService msg;
     private final UserService userService;
     private final String siteUrl;
 
-    public MailService(MailDispatcher mailDispatcher, AppConfig appConfig, AdminEmailConfig adminEmailConfig, MessageService msg, UserService userService) {
+    public MailService(MailDispatcher mailDispatcher, MailOutbox mailOutbox, AppConfig appConfig,
+                       AdminEmailConfig adminEmailConfig, MessageService msg, UserService userService) {
         this.mailDispatcher = mailDispatcher;
+        this.mailOutbox = mailOutbox;
         this.appConfig = appConfig;
         this.adminEmailConfig = adminEmailConfig;
         this.msg = msg;
@@ -53,7 +58,6 @@ public class MailService {
         }
     }
 
-    @Async("mailExecutor")
     public void sendReservationConfirmation(Reservation reservation, @Nullable String displayTitle) {
         User user = reservation.getUser();
         if (!user.isEmailNotificationsEnabled()) return;
@@ -71,7 +75,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, ics);
     }
 
-    @Async("mailExecutor")
     public void sendAdminNotification(Reservation reservation, @Nullable String displayTitle) {
         User user = reservation.getUser();
         TimeSlot slot = reservation.getTimeSlot();
@@ -80,7 +83,6 @@ public class MailService {
         sendToAdmins(subject, body);
     }
 
-    @Async("mailExecutor")
     public void sendCancellationConfirmation(Reservation reservation) {
         User user = reservation.getUser();
         if (!user.isEmailNotificationsEnabled()) return;
@@ -94,7 +96,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendEventReservationConfirmation(User user, Event event, int participants) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -108,14 +109,12 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, ics);
     }
 
-    @Async("mailExecutor")
     public void sendEventAdminNotification(User user, Event event, int participants, @Nullable String comment) {
         String subject = msg.getForLang("email.admin.event.subject", ADMIN_LANG, user.getFullName());
         String body = buildEventAdminNotificationBody(user, event, participants, comment);
         sendToAdmins(subject, body);
     }
 
-    @Async("mailExecutor")
     public void sendAdminCancellationNotification(Reservation reservation) {
         User user = reservation.getUser();
         String lang = user.getPreferredLanguage();
@@ -127,7 +126,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendAdminEventCancellationNotification(User user, Event event) {
         String lang = user.getPreferredLanguage();
         String subject = msg.getForLang("email.admin.event.cancel.subject", lang);
@@ -136,7 +134,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendUserCancellationAdminNotification(Reservation reservation) {
         User user = reservation.getUser();
         TimeSlot slot = reservation.getTimeSlot();
@@ -148,7 +145,6 @@ public class MailService {
         sendToAdmins(subject, body);
     }
 
-    @Async("mailExecutor")
     public void sendUserEventCancellationAdminNotification(User user, Event event) {
         String subject = msg.getForLang("email.user.event.cancel.admin.subject", ADMIN_LANG,
             user.getFullName(), event.getTitle());
@@ -156,7 +152,6 @@ public class MailService {
         sendToAdmins(subject, body);
     }
 
-    @Async("mailExecutor")
     public void sendEventCancellationConfirmation(User user, Event event) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -189,11 +184,12 @@ public class MailService {
 
     /**
      * Sends one admin broadcast/newsletter to every recipient on a single background thread,
-     * sequentially. Runs on {@code mailCampaignExecutor} (not the per-message {@code mailExecutor})
-     * so a large send stays flat in memory — one message is built, dispatched and GC'd per
-     * iteration — and never floods the transactional mail queue, which would reject tasks past its
-     * limit and starve reservation/waitlist confirmations. Retries/backoff and never-throw are
-     * handled downstream by {@link MailDispatcher}, so one bad address cannot abort the campaign.
+     * sequentially. Runs on {@code mailCampaignExecutor} and goes straight to SMTP rather than
+     * through {@link MailOutbox}, so a broadcast to every subscriber never queues ahead of a
+     * reservation confirmation. Messages go out through a
+     * {@link MailDispatcher.Campaign}, one SMTP connection per chunk, so memory stays bounded by
+     * the chunk size. Retries/backoff and never-throw are handled downstream by
+     * {@link MailDispatcher}, so one bad address cannot abort the campaign.
      *
      * @param newsletter true → newsletter styling + per-recipient unsubscribe footer;
      *                   false → plain custom admin mail
@@ -201,37 +197,41 @@ public class MailService {
     @Async("mailCampaignExecutor")
     public void sendBulk(List<User> recipients, String subject, String body, boolean newsletter) {
         log.info("Bulk mail campaign start: {} recipients (newsletter={})", recipients.size(), newsletter);
-        int sent = 0;
-        for (User recipient : recipients) {
-            if (newsletter) {
-                doSendNewsletterMail(recipient, subject, body);
-            } else {
-                doSendCustomAdminMail(recipient.getEmail(), subject, body);
+        // Rendered once — per language for the newsletter footer — not once per recipient; see
+        // MailTemplate. A plain admin mail is the same for everyone.
+        try (var campaign = mailDispatcher.openCampaign(newsletter ? "newsletter" : "admin-mail")) {
+            if (!newsletter) {
+                String htmlBody = buildCustomAdminMailBody(subject, body, null);
+                recipients.forEach(recipient -> campaign.add(recipient.getEmail(), subject, htmlBody, null));
+                return;
+            }
+            Map<String, MailTemplate> bodies = new HashMap<>();
+            for (User recipient : recipients) {
+                MailTemplate template = bodies.computeIfAbsent(recipient.getPreferredLanguage(),
+                    lang -> compileNewsletterBody(lang, subject, body));
+                doSendNewsletterMail(campaign, recipient, subject, template);
             }
-            sent++;
         }
-        log.info("Bulk mail campaign done: {} messages dispatched", sent);
     }
 
-    private void doSendCustomAdminMail(String to, String subject, String body) {
-        String htmlBody = buildCustomAdminMailBody(subject, body, null);
-        sendEmail(to, subject, htmlBody, null);
+    private MailTemplate compileNewsletterBody(String lang, String subject, String body) {
+        String settingsUrl = siteUrl + "/settings";
+        String footerText = msg.getForLang("email.newsletter.footer", lang,
+            MailTemplate.slot(MailTemplate.UNSUBSCRIBE_URL), settingsUrl);
+        return MailTemplate.compile(buildCustomAdminMailBody(subject, body, footerText), MailTemplate.UNSUBSCRIBE_URL);
     }
 
-    private void doSendNewsletterMail(User recipient, String subject, String body) {
-        String lang = recipient.getPreferredLanguage();
+    private void doSendNewsletterMail(MailDispatcher.Campaign campaign, User recipient, String subject,
+                                      MailTemplate template) {
         String unsubscribeToken = userService.newsletterUnsubscribeToken(recipient);
         String unsubscribeUrl = siteUrl + "/api/user/unsubscribe?token=" + unsubscribeToken;
-        String settingsUrl = siteUrl + "/settings";
-        String footerText = msg.getForLang("email.newsletter.footer", lang, unsubscribeUrl, settingsUrl);
-        String htmlBody = buildCustomAdminMailBody(subject, body, footerText);
+        String htmlBody = template.render(Map.of(MailTemplate.UNSUBSCRIBE_URL, unsubscribeUrl));
         // Campaign mail, so it carries the one-click unsubscribe headers as well as the footer.
-        mailDispatcher.sendNewsletterHtml(recipient.getEmail(), subject, htmlBody, unsubscribeUrl);
+        campaign.add(recipient.getEmail(), subject, htmlBody, unsubscribeUrl);
     }
 
     // ---- Training requests ----
 
-    @Async("mailExecutor")
     public void sendTrainingRequestAdminNotification(User user, java.time.LocalDate date, java.time.LocalTime startTime,
                                                      java.time.LocalTime endTime, int participants,
                                                      @Nullable String comment, @Nullable String courseTitle,
@@ -241,7 +241,6 @@ public class MailService {
         sendToAdmins(subject, body);
     }
 
-    @Async("mailExecutor")
     public void sendTrainingRequestRejectedNotification(User user, java.time.LocalDate date, java.time.LocalTime startTime,
                                                         java.time.LocalTime endTime, @Nullable String note) {
         if (!user.isEmailNotificationsEnabled()) return;
@@ -253,7 +252,6 @@ public class MailService {
 
     // ---- Invitations (held seats, sent manually by the admin) ----
 
-    @Async("mailExecutor")
     public void sendSlotInvitationNotification(User user, TimeSlot slot, @Nullable String displayTitle) {
         String lang = user.getPreferredLanguage();
         String title = displayTitle != null ? displayTitle : "Next Step Pro Climbing";
@@ -277,7 +275,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, ics);
     }
 
-    @Async("mailExecutor")
     public void sendEventInvitationNotification(User user, Event event) {
         String lang = user.getPreferredLanguage();
         String googleUrl = CalendarUtils.buildGoogleCalendarUrl(event.getTitle(), event.getStartDate(), event.getEndDate(), event.getStartTime(), event.getEndTime(), event.getLocation());
@@ -439,7 +436,6 @@ public class MailService {
         );
     }
 
-    @Async("mailExecutor")
     public void sendAdminEventParticipantRemovedNotification(User user, Event event) {
         String lang = user.getPreferredLanguage();
         String subject = msg.getForLang("email.admin.event.participant.removed.subject", lang);
@@ -447,7 +443,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendAdminParticipantReductionNotification(User user, TimeSlot slot, int oldParticipants, int newParticipants) {
         if (!user.isEmailNotificationsEnabled()) return;
         String lang = user.getPreferredLanguage();
@@ -457,7 +452,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendAdminEventParticipantReductionNotification(User user, pl.nextsteppro.climbing.domain.event.Event event, int oldParticipants, int newParticipants) {
         if (!user.isEmailNotificationsEnabled()) return;
         String lang = user.getPreferredLanguage();
@@ -467,7 +461,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendReservationUpdateConfirmation(User user, pl.nextsteppro.climbing.domain.timeslot.TimeSlot slot, int oldParticipants, int newParticipants) {
         if (!user.isEmailNotificationsEnabled()) return;
         String lang = user.getPreferredLanguage();
@@ -477,7 +470,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendEventReservationUpdateConfirmation(User user, pl.nextsteppro.climbing.domain.event.Event event, int oldParticipants, int newParticipants) {
         if (!user.isEmailNotificationsEnabled()) return;
         String lang = user.getPreferredLanguage();
@@ -487,7 +479,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendAdminSlotModificationNotification(User user, pl.nextsteppro.climbing.domain.timeslot.TimeSlot slot, java.util.List<FieldChange> changes, @Nullable String displayTitle) {
         if (!user.isEmailNotificationsEnabled()) return;
         String lang = user.getPreferredLanguage();
@@ -496,7 +487,6 @@ public class MailService {
         sendEmail(user.getEmail(), subject, body, null);
     }
 
-    @Async("mailExecutor")
     public void sendAdminEventModificationNotification(User user, Event event, java.util.List<FieldChange> changes) {
         if (!user.isEmailNotificationsEnabled()) return;
         String lang = user.getPreferredLanguage();
@@ -695,7 +685,7 @@ public class MailService {
     }
 
     private void sendEmail(String to, String subject, String body, @Nullable byte[] icsAttachment) {
-        mailDispatcher.sendHtml(to, subject, body, icsAttachment);
+        mailOutbox.enqueue(to, subject, body, icsAttachment);
     }
 
     private String buildReservationConfirmationBody(String lang, User user, TimeSlot slot, int participants, @Nullable String displayTitle, String googleCalendarUrl) {
@@ -0,0 +1,82 @@
+package pl.nextsteppro.climbing.infrastructure.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML body split once into its fixed text and the few slots that differ per recipient.
+ *
+ * <p>Campaign bodies are the same for everyone who reads the same language except for a slot or
+ * two — in practice the unsubscribe link. Building them per recipient redid the whole article
+ * (blocks, escaping, message lookups, {@code formatted}) thousands of times to change one URL.
+ * Instead the body is built once per language with a marker where each slot goes, compiled here,
+ * and every recipient costs one copy of the fixed segments plus the slot values.
+ *
+ * <p>Only the marker names passed to {@link #compile} are slots; any other {@code {{…}}} in the
+ * source — an admin can type anything into an article — is left as text. Renders into one reused
+ * buffer, so an instance belongs to a single thread; campaigns compile their own.
+ */
+final class MailTemplate {
+
+    /** The slot every campaign body has: the recipient's own unsubscribe link. */
+    static final String UNSUBSCRIBE_URL = "unsubscribeUrl";
+
+    private final String[] segments;
+    private final String[] slots;
+    private final StringBuilder buffer;
+
+    private MailTemplate(String[] segments, String[] slots, int fixedLength) {
+        this.segments = segments;
+        this.slots = slots;
+        // Slot values are short (URLs); a little headroom saves the first regrow.
+        this.buffer = new StringBuilder(fixedLength + 256);
+    }
+
+    /** Marker for {@code name} in a source passed to {@link #compile}. */
+    static String slot(String name) {
+        return "{{" + name + "}}";
+    }
+
+    static MailTemplate compile(String source, String... slotNames) {
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int fixedLength = 0;
+        int from = 0;
+        while (true) {
+            int at = -1;
+            String found = null;
+            for (String name : slotNames) {
+                int i = source.indexOf(slot(name), from);
+                if (i >= 0 && (at < 0 || i < at)) {
+                    at = i;
+                    found = name;
+                }
+            }
+            if (found == null) break;
+            segments.add(source.substring(from, at));
+            slots.add(found);
+            fixedLength += at - from;
+            from = at + slot(found).length();
+        }
+        segments.add(source.substring(from));
+        fixedLength += source.length() - from;
+        return new MailTemplate(segments.toArray(String[]::new), slots.toArray(String[]::new), fixedLength);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a slot of the template has no value — a body with a
+     *                                  dead unsubscribe link must not go out
+     */
+    String render(Map<String, String> values) {
+        buffer.setLength(0);
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.get(slots[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for mail template slot " + slots[i]);
+            }
+            buffer.append(segments[i]).append(value);
+        }
+        return buffer.append(segments[slots.length]).toString();
+    }
+}
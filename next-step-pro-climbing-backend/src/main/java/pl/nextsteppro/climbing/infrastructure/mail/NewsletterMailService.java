@@ -13,7 +13,9 @@ import pl.nextsteppro.climbing.domain.news.NewsContentBlock;
 import pl.nextsteppro.climbing.domain.user.User;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class NewsletterMailService {
@@ -37,27 +39,27 @@ public class NewsletterMailService {
     @Async("mailCampaignExecutor")
     public void sendToAll(News news, List<NewsContentBlock> blocks, List<User> subscribers, String baseUrl) {
         log.info("Sending newsletter '{}' to {} subscribers", news.getTitle(), subscribers.size());
-        for (User subscriber : subscribers) {
-            String unsubscribeToken = userService.newsletterUnsubscribeToken(subscriber);
-            String unsubscribeUrl = baseUrl + "/api/user/unsubscribe?token=" + unsubscribeToken;
-            sendToUser(news, blocks, subscriber, baseUrl, unsubscribeUrl);
+        // The article renders the same for every reader of a language; only the unsubscribe
+        // link differs. Blocks once, each language's body once, then a slot fill per subscriber.
+        String blocksHtml = buildBlocksHtml(blocks, baseUrl);
+        Map<String, MailTemplate> bodies = new HashMap<>();
+        try (var campaign = mailDispatcher.openCampaign("news " + news.getId())) {
+            for (User subscriber : subscribers) {
+                String unsubscribeToken = userService.newsletterUnsubscribeToken(subscriber);
+                String unsubscribeUrl = baseUrl + "/api/user/unsubscribe?token=" + unsubscribeToken;
+                MailTemplate body = bodies.computeIfAbsent(subscriber.getPreferredLanguage(),
+                    lang -> MailTemplate.compile(buildBody(news, blocksHtml, baseUrl, lang), MailTemplate.UNSUBSCRIBE_URL));
+                campaign.add(subscriber.getEmail(), news.getTitle(),
+                    body.render(Map.of(MailTemplate.UNSUBSCRIBE_URL, unsubscribeUrl)), unsubscribeUrl);
+            }
         }
-        log.info("Newsletter '{}' sent", news.getTitle());
-    }
-
-    private void sendToUser(News news, List<NewsContentBlock> blocks, User subscriber, String baseUrl, String unsubscribeUrl) {
-        String lang = subscriber.getPreferredLanguage();
-        String subject = news.getTitle();
-        String body = buildBody(news, blocks, subscriber, baseUrl, lang, unsubscribeUrl);
-
-        mailDispatcher.sendNewsletterHtml(subscriber.getEmail(), subject, body, unsubscribeUrl);
     }
 
-    private String buildBody(News news, List<NewsContentBlock> blocks, User subscriber, String baseUrl, String lang, String unsubscribeUrl) {
+    private String buildBody(News news, String blocksHtml, String baseUrl, String lang) {
         String settingsUrl = baseUrl + "/settings";
         String newsUrl = baseUrl + "/news/" + news.getId();
         String thumbnailHtml = buildThumbnailHtml(news);
-        String blocksHtml = buildBlocksHtml(blocks, baseUrl);
+        String unsubscribeUrl = MailTemplate.slot(MailTemplate.UNSUBSCRIBE_URL);
 
         String footerText = msg.getForLang("email.newsletter.footer", lang, unsubscribeUrl, settingsUrl);
 
@@ -2,7 +2,6 @@ package pl.nextsteppro.climbing.infrastructure.mail;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import pl.nextsteppro.climbing.config.AdminEmailConfig;
 import pl.nextsteppro.climbing.config.AppConfig;
@@ -26,22 +25,21 @@ public class WaitlistMailService {
     private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
     private static final String ADMIN_LANG = "pl";
 
-    private final MailDispatcher mailDispatcher;
+    private final MailOutbox mailOutbox;
     private final AppConfig appConfig;
     private final AdminEmailConfig adminEmailConfig;
     private final MessageService msg;
     private final String siteUrl;
 
-    public WaitlistMailService(MailDispatcher mailDispatcher, AppConfig appConfig,
+    public WaitlistMailService(MailOutbox mailOutbox, AppConfig appConfig,
                                AdminEmailConfig adminEmailConfig, MessageService msg) {
-        this.mailDispatcher = mailDispatcher;
+        this.mailOutbox = mailOutbox;
         this.appConfig = appConfig;
         this.adminEmailConfig = adminEmailConfig;
         this.msg = msg;
         this.siteUrl = appConfig.getSiteUrl();
     }
 
-    @Async
     public void sendWaitlistOfferNotification(User user, TimeSlot slot, Instant deadline) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -54,7 +52,6 @@ public class WaitlistMailService {
         sendEmail(user.getEmail(), subject, body);
     }
 
-    @Async
     public void sendWaitlistReservationConfirmed(User user, TimeSlot slot) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -141,7 +138,6 @@ public class WaitlistMailService {
         );
     }
 
-    @Async
     public void sendEventWaitlistOfferNotification(User user, Event event, Instant deadline) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -153,7 +149,6 @@ public class WaitlistMailService {
         sendEmail(user.getEmail(), subject, body);
     }
 
-    @Async
     public void sendEventWaitlistReservationConfirmed(User user, Event event) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -246,7 +241,6 @@ public class WaitlistMailService {
         );
     }
 
-    @Async
     public void sendWaitlistJoinedConfirmation(User user, TimeSlot slot) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -257,7 +251,6 @@ public class WaitlistMailService {
         sendEmail(user.getEmail(), subject, body);
     }
 
-    @Async
     public void sendEventWaitlistJoinedConfirmation(User user, Event event) {
         if (!user.isEmailNotificationsEnabled()) return;
 
@@ -334,14 +327,12 @@ public class WaitlistMailService {
 
     // Admin notifications go through this service, not MailService — injecting MailService
     // into Waitlist/EventWaitlistService would create a cycle (MailService → UserService → WaitlistService).
-    @Async
     public void sendWaitlistAdminNotification(User user, TimeSlot slot) {
         String subject = msg.getForLang("email.admin.waitlist.confirmed.subject", ADMIN_LANG, user.getFullName());
         String body = buildWaitlistAdminBody(user, slot);
         sendToAdmins(subject, body);
     }
 
-    @Async
     public void sendEventWaitlistAdminNotification(User user, Event event) {
         String subject = msg.getForLang("email.admin.event.waitlist.confirmed.subject", ADMIN_LANG, user.getFullName());
         String body = buildEventWaitlistAdminBody(user, event);
@@ -468,6 +459,6 @@ public class WaitlistMailService {
     }
 
     private void sendEmail(String to, String subject, String body, @org.jspecify.annotations.Nullable byte[] icsAttachment) {
-        mailDispatcher.sendHtml(to, subject, body, icsAttachment);
+        mailOutbox.enqueue(to, subject, body, icsAttachment);
     }
 }
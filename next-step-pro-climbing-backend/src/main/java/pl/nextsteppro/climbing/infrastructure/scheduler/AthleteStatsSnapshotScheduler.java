@@ -0,0 +1,25 @@
+package pl.nextsteppro.climbing.infrastructure.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.api.trainingcalendar.AthleteStatsSnapshots;
+
+/**
+ * Nightly check of the athletes' monthly stats snapshots against the tables they are derived from.
+ * The work, and the logging of anything found, lives on {@link AthleteStatsSnapshots}.
+ */
+@Component
+public class AthleteStatsSnapshotScheduler {
+
+    private final AthleteStatsSnapshots snapshots;
+
+    public AthleteStatsSnapshotScheduler(AthleteStatsSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /** Daily at 04:50 — right after the seat-count check, for the same reason. */
+    @Scheduled(cron = "0 50 4 * * *")
+    public void verify() {
+        snapshots.repairDrift();
+    }
+}
@@ -0,0 +1,26 @@
+package pl.nextsteppro.climbing.infrastructure.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.api.calendar.AvailabilityProjectionService;
+
+/**
+ * Nightly check of the calendar's seat-count projection against the tables it is derived from.
+ * The work, and the logging of anything found, lives on {@link AvailabilityProjectionService} —
+ * see there for why it is not a method of this class.
+ */
+@Component
+public class AvailabilityProjectionScheduler {
+
+    private final AvailabilityProjectionService availability;
+
+    public AvailabilityProjectionScheduler(AvailabilityProjectionService availability) {
+        this.availability = availability;
+    }
+
+    /** Daily at 04:45 — after the other nightly jobs, whose deletes it then checks as well. */
+    @Scheduled(cron = "0 45 4 * * *")
+    public void verify() {
+        availability.repairDrift();
+    }
+}
@@ -0,0 +1,44 @@
+package pl.nextsteppro.climbing.infrastructure.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
+
+/**
+ * Drives the image processing queue. Every instance runs it; the claim query makes sure no two of
+ * them pick up the same upload, and {@code fixedDelay} that one instance never runs two drains.
+ */
+@Component
+public class ImageProcessingScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessingScheduler.class);
+
+    /** Finished jobs are kept this long for the status endpoint, then deleted. */
+    private static final int FINISHED_RETENTION_DAYS = 7;
+
+    private final ImageProcessingQueue imageProcessingQueue;
+
+    public ImageProcessingScheduler(ImageProcessingQueue imageProcessingQueue) {
+        this.imageProcessingQueue = imageProcessingQueue;
+    }
+
+    /** Every two seconds: an admin waiting on a fresh photo sees it optimized almost at once. */
+    @Scheduled(fixedDelay = 2_000, initialDelay = 15_000)
+    public void drain() {
+        int processed = imageProcessingQueue.drain();
+        if (processed > 0) {
+            log.debug("Image queue: processed {} uploads", processed);
+        }
+    }
+
+    /** Daily at 4:35 AM, between the 4:25 and 4:45 jobs. */
+    @Scheduled(cron = "0 35 4 * * *")
+    public void purgeFinished() {
+        int purged = imageProcessingQueue.purgeFinished(FINISHED_RETENTION_DAYS);
+        if (purged > 0) {
+            log.info("Image queue: purged {} finished jobs older than {} days", purged, FINISHED_RETENTION_DAYS);
+        }
+    }
+}
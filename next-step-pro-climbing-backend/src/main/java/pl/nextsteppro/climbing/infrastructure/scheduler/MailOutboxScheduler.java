@@ -0,0 +1,47 @@
+package pl.nextsteppro.climbing.infrastructure.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.infrastructure.mail.MailOutbox;
+
+/**
+ * Drives the transactional mail outbox. Every instance runs it; the claim query makes sure no
+ * two of them pick up the same message.
+ */
+@Component
+public class MailOutboxScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxScheduler.class);
+
+    /** Failed messages are kept this long for a look at {@code last_error}, then deleted. */
+    private static final int FAILED_RETENTION_DAYS = 30;
+
+    private final MailOutbox mailOutbox;
+
+    public MailOutboxScheduler(MailOutbox mailOutbox) {
+        this.mailOutbox = mailOutbox;
+    }
+
+    /**
+     * Every few seconds, so a confirmation arrives about as fast as it did from the in-memory
+     * queue. An idle poll is one index probe on an empty partial index.
+     */
+    @Scheduled(fixedDelay = 3_000, initialDelay = 10_000)
+    public void drain() {
+        int sent = mailOutbox.drain();
+        if (sent > 0) {
+            log.debug("Mail outbox: sent {} messages", sent);
+        }
+    }
+
+    /** Daily at 4:25 AM, between the 4:15 and 4:45 jobs. */
+    @Scheduled(cron = "0 25 4 * * *")
+    public void purgeFailed() {
+        int purged = mailOutbox.purgeFailed(FAILED_RETENTION_DAYS);
+        if (purged > 0) {
+            log.info("Mail outbox: purged {} failed messages older than {} days", purged, FAILED_RETENTION_DAYS);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package pl.nextsteppro.climbing.infrastructure.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.config.PostgresRateLimiter;
+
+/**
+ * Keeps the shared rate-limit table the size of the last few minutes' clients rather than of
+ * every address ever seen. Only exists when the buckets live in Postgres.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "postgres")
+public class RateLimitBucketCleanupScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitBucketCleanupScheduler.class);
+
+    private final PostgresRateLimiter rateLimiter;
+
+    public RateLimitBucketCleanupScheduler(PostgresRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /** Every five minutes, at :02, :07, … — off the hourly jobs' minute. */
+    @Scheduled(cron = "0 2/5 * * * *")
+    public void cleanupIdleBuckets() {
+        int deleted = rateLimiter.deleteIdleBuckets();
+        log.debug("Dropped {} idle rate-limit buckets", deleted);
+    }
+}
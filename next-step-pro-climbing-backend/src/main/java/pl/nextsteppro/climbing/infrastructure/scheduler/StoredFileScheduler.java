@@ -0,0 +1,47 @@
+package pl.nextsteppro.climbing.infrastructure.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.Reconciliation;
+
+import java.io.IOException;
+
+/**
+ * Keeps the stored-file index in line with the disk. Every upload and delete updates it; this
+ * catches what did not go through the application — the files already on disk when the index was
+ * introduced, a folder restored from a backup, a file removed by hand — so the storage audit, which
+ * reads only the index, describes the actual volume. Folders whose directory has not changed since
+ * the last pass are not listed, so running it hourly costs a handful of {@code stat} calls.
+ */
+@Component
+public class StoredFileScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(StoredFileScheduler.class);
+
+    private final FileStorageService fileStorageService;
+
+    public StoredFileScheduler(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    /** At startup, so the first audit after a deploy is already complete, then hourly at :40. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 40 * * * *")
+    public void reconcileIndex() {
+        try {
+            Reconciliation result = fileStorageService.reconcileIndex();
+            if (result.changedAnything()) {
+                log.info("Stored-file index: {} folders rescanned, {} files added, {} updated, {} removed",
+                        result.foldersScanned(), result.added(), result.updated(), result.removed());
+            }
+        } catch (IOException | RuntimeException e) {
+            // Never fatal at startup: the index only feeds the audit, and the next run retries
+            log.warn("Stored-file index: reconciling with the storage root failed", e);
+        }
+    }
+}
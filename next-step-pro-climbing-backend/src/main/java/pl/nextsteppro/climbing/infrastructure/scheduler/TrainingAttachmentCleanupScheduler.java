@@ -4,7 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import pl.nextsteppro.climbing.api.trainingcalendar.AttachmentSupport;
 
 import java.time.Duration;
@@ -31,9 +30,12 @@ public class TrainingAttachmentCleanupScheduler {
         this.attachmentSupport = attachmentSupport;
     }
 
-    /** Every 6 hours at :20 (exact hour is not important for cleanup; pairs with the 6h grace). */
+    /**
+     * Every 6 hours at :20 (exact hour is not important for cleanup; pairs with the 6h grace). No
+     * transaction around the sweep: it queries page by page, and a walk over the whole folder must
+     * not pin a pooled connection for its duration.
+     */
     @Scheduled(cron = "0 20 */6 * * *")
-    @Transactional
     public void sweepAbandonedUploads() {
         int deleted = attachmentSupport.sweepOrphanUploads(GRACE);
         if (deleted > 0) {
@@ -1,23 +1,23 @@
 package pl.nextsteppro.climbing.infrastructure.security;
 
-import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserPrincipal;
 
 import java.util.UUID;
 
 /**
  * Record representing a JWT-authenticated user in the SecurityContext.
  */
-public record JwtAuthenticatedUser(User user) {
+public record JwtAuthenticatedUser(UserPrincipal principal) {
 
     public UUID getUserId() {
-        return user.getId();
+        return principal.id();
     }
 
     public String getEmail() {
-        return user.getEmail();
+        return principal.email();
     }
 
     public boolean isAdmin() {
-        return user.isAdmin();
+        return principal.isAdmin();
     }
 }
@@ -14,7 +14,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserPrincipal;
 import pl.nextsteppro.climbing.domain.user.UserRepository;
 
 import java.io.IOException;
@@ -31,21 +31,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
-    private final Cache<UUID, User> userCache;
+    /**
+     * Signed-in users by id, as {@link UserPrincipal}s rather than entities, so an authenticated
+     * request does not read the users table. Held for
+     * the access-token lifetime: every change that must reach a live session (role change,
+     * deletion, forced logout) goes through {@link UserCacheEvictions}, which evicts on all nodes.
+     * It used to be a one-minute cache, a floor on how late a revocation could apply elsewhere.
+     */
+    private final Cache<UUID, UserPrincipal> userCache;
 
     public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
         this.jwtService = jwtService;
         this.userRepository = userRepository;
         this.userCache = Caffeine.newBuilder()
             .maximumSize(1000)
-            .expireAfterWrite(Duration.ofSeconds(60))
+            .expireAfterWrite(Duration.ofMinutes(15))
             .build();
     }
 
+    /** This node only — callers outside the listener want {@link UserCacheEvictions#evict}. */
     public void evictUser(UUID userId) {
         userCache.invalidate(userId);
     }
 
+    /** For a node that may have missed evictions and can no longer tell which. */
+    public void evictAllUsers() {
+        userCache.invalidateAll();
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -59,20 +72,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String jwt = authHeader.substring(BEARER_PREFIX.length());
 
-        if (!jwtService.validateToken(jwt)) {
+        // One verification for the whole request — and, for a token seen before, none at all.
+        VerifiedToken token = jwtService.verify(jwt).orElse(null);
+        if (token == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (!jwtService.isAccessToken(jwt)) {
+        if (!token.isAccessToken()) {
             log.debug("Token is not an access token");
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            UUID userId = jwtService.extractUserId(jwt);
-            User user = userCache.get(userId, id -> userRepository.findById(id).orElse(null));
+            UUID userId = token.userId();
+            UserPrincipal user = userCache.get(userId, id -> userRepository.findPrincipalById(id).orElse(null));
 
             if (user == null) {
                 log.debug("User not found for JWT token");
@@ -82,7 +97,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             JwtAuthenticatedUser jwtUser = new JwtAuthenticatedUser(user);
             List<SimpleGrantedAuthority> authorities = List.of(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
+                new SimpleGrantedAuthority("ROLE_" + user.role().name())
             );
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -93,7 +108,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            log.debug("JWT authentication successful for user: {}", user.getEmail());
+            log.debug("JWT authentication successful for user: {}", user.email());
 
         } catch (Exception e) {
             log.debug("Failed to process JWT token: {}", e.getMessage());
@@ -1,5 +1,8 @@
 package pl.nextsteppro.climbing.infrastructure.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -12,9 +15,11 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -24,16 +29,54 @@ public class JwtService {
     private static final String CLAIM_USER_ID = "userId";
     private static final String CLAIM_EMAIL = "email";
     private static final String CLAIM_ROLE = "role";
-    private static final String TOKEN_TYPE_ACCESS = "access";
-    private static final String TOKEN_TYPE_REFRESH = "refresh";
+    static final String TOKEN_TYPE_ACCESS = "access";
+    static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    /**
+     * Roughly one entry per signed-in browser tab over the access-token lifetime. Past that the
+     * oldest fall out and pay for one more parse — the cap is about memory, never correctness.
+     */
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
 
     private final SecretKey secretKey;
+    private final JwtParser parser;
     private final JwtConfig jwtConfig;
     private final SecureRandom secureRandom = new SecureRandom();
 
+    /**
+     * Access tokens already verified, keyed by their SHA-256 and held until their own {@code exp}.
+     * Every authenticated request presents the same token for fifteen minutes, and each one used
+     * to pay for base64 decoding, JSON parsing and an HMAC check — three times over, once per
+     * question the filter asked. Keying by hash means a forged token can only miss (it hashes to
+     * something else), and a heap dump holds no usable bearer tokens.
+     *
+     * <p>Refresh tokens are not cached: each is presented once, then rotated away.
+     */
+    private final Cache<String, VerifiedToken> verifiedAccessTokens = Caffeine.newBuilder()
+        .maximumSize(VERIFIED_CACHE_SIZE)
+        .expireAfter(new Expiry<String, VerifiedToken>() {
+            @Override
+            public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        })
+        .build();
+
     public JwtService(JwtConfig jwtConfig) {
         this.jwtConfig = jwtConfig;
         this.secretKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        // Immutable and thread-safe; building it per call was pure overhead.
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
     }
 
     public String generateAccessToken(User user) {
@@ -61,6 +104,55 @@ public class JwtService {
             .compact();
     }
 
+    /**
+     * Checks signature and expiry once and hands back every claim the callers ask about, instead
+     * of one full parse per question. Empty for anything that does not verify — the reason is
+     * logged at debug, as in {@link #validateToken}, and never reaches the client.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = hashToken(token);
+        VerifiedToken cached = verifiedAccessTokens.getIfPresent(key);
+        if (cached != null) {
+            // Expiry in the cache is approximate; the token's own exp is not.
+            if (!cached.isExpired(Instant.now())) {
+                return Optional.of(cached);
+            }
+            verifiedAccessTokens.invalidate(key);
+            return Optional.empty();
+        }
+
+        VerifiedToken verified;
+        try {
+            Claims claims = parseToken(token);
+            if (claims.getExpiration() == null) {
+                // Every token this service issues carries exp; one without it would live forever.
+                log.debug("JWT token has no expiry");
+                return Optional.empty();
+            }
+            verified = new VerifiedToken(
+                UUID.fromString(claims.getSubject()),
+                claims.get(CLAIM_EMAIL, String.class),
+                claims.get(CLAIM_ROLE, String.class),
+                claims.get("type", String.class),
+                claims.getExpiration().toInstant());
+        } catch (ExpiredJwtException e) {
+            log.debug("JWT token expired");
+            return Optional.empty();
+        } catch (JwtException | IllegalArgumentException e) {
+            // IllegalArgumentException: a correctly signed token whose subject is not a UUID.
+            log.debug("JWT validation failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        if (verified.isAccessToken()) {
+            verifiedAccessTokens.put(key, verified);
+        }
+        return Optional.of(verified);
+    }
+
     public UUID extractUserId(String token) {
         Claims claims = parseToken(token);
         return UUID.fromString(claims.getSubject());
@@ -104,11 +196,7 @@ public class JwtService {
     }
 
     private Claims parseToken(String token) {
-        return Jwts.parser()
-            .verifyWith(secretKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
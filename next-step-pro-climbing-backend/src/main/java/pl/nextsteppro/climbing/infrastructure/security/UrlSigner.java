@@ -0,0 +1,60 @@
+package pl.nextsteppro.climbing.infrastructure.security;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signatures for URLs the server hands out and later accepts back without a lookup —
+ * a permission checked once, when the URL is issued, and afterwards by arithmetic instead of a
+ * query.
+ *
+ * <p>The key is derived from the JWT secret under a label of its own rather than being the secret
+ * itself: nothing new to provision on the server, and a signature made here can never pass as a
+ * JWT signature, or the other way round.
+ */
+@Component
+public class UrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String KEY_LABEL = "nsp-signed-url-v1";
+
+    private final SecretKeySpec key;
+
+    public UrlSigner(JwtConfig jwtConfig) {
+        SecretKeySpec master = new SecretKeySpec(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.key = new SecretKeySpec(mac(master, KEY_LABEL), ALGORITHM);
+    }
+
+    /** URL-safe Base64, unpadded — goes into a query string as it is. */
+    public String sign(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(key, payload));
+    }
+
+    /** Constant-time, so a forged signature cannot be found a byte at a time by timing replies. */
+    public boolean verify(String payload, String signature) {
+        byte[] given;
+        try {
+            given = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(mac(key, payload), given);
+    }
+
+    private static byte[] mac(SecretKeySpec key, String data) {
+        try {
+            // Mac instances are not thread-safe; a fresh one per call is cheaper than contention
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is a required JDK algorithm", e);
+        }
+    }
+}
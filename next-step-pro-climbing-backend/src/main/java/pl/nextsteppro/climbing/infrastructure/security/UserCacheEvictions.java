@@ -0,0 +1,169 @@
+package pl.nextsteppro.climbing.infrastructure.security;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Drops a user from the principal cache in {@link JwtAuthenticationFilter} on every instance, not
+ * only the one that served the admin's request.
+ *
+ * <p>{@link #evict} sends {@code NOTIFY user_cache_evict, '<userId>'} and every node — this one
+ * included — holds a {@code LISTEN} on a connection of its own. Postgres delivers a notification
+ * only when the sending transaction commits, so a rolled-back role change evicts nobody, and a
+ * committed one cannot be read back stale by a request racing the commit. The local cache is
+ * evicted after commit as well, so a node whose listener is reconnecting is still right about its
+ * own writes.
+ *
+ * <p>This is what lets the cache live for the whole access-token lifetime instead of a minute.
+ * A listener that loses its connection clears the whole cache when it gets one back: whatever
+ * was broadcast in between is gone, and an empty cache is the one state that is never stale.
+ *
+ * <p>The listening connection is opened straight from the driver rather than borrowed from the
+ * pool. It never goes back, and eight pooled connections are sized for request traffic.
+ */
+@Component
+public class UserCacheEvictions implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCacheEvictions.class);
+
+    static final String CHANNEL = "user_cache_evict";
+
+    /** How long one wait for notifications blocks — also how quickly {@link #stop} is noticed. */
+    private static final int POLL_MILLIS = 5_000;
+    private static final long RECONNECT_BACKOFF_MILLIS = 5_000;
+
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final JdbcTemplate jdbc;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    public UserCacheEvictions(JwtAuthenticationFilter jwtAuthenticationFilter,
+                              JdbcTemplate jdbc,
+                              @Value("${spring.datasource.url}") String url,
+                              @Value("${spring.datasource.username}") String username,
+                              @Value("${spring.datasource.password}") String password) {
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.jdbc = jdbc;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * The user's role, existence or session state changed. Call inside the transaction that
+     * changes it; nothing is evicted anywhere unless that transaction commits.
+     */
+    public void evict(UUID userId) {
+        jdbc.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, userId.toString());
+        afterCommit(() -> jwtAuthenticationFilter.evictUser(userId));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("user-cache-listener").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(listenConnection);
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    jwtAuthenticationFilter.evictAllUsers();
+                    log.info("User cache listener reconnected; cleared the local principal cache");
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("User cache listener lost its connection: {}", e.getMessage());
+                // Until it is back, this node hears nothing: drop what it has rather than trust it.
+                jwtAuthenticationFilter.evictAllUsers();
+                reconnecting = true;
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            jwtAuthenticationFilter.evictUser(UUID.fromString(payload));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed user cache eviction: {}", payload);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Shutting down; the listener thread notices either way.
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package pl.nextsteppro.climbing.infrastructure.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The claims of a token whose signature and expiry {@link JwtService#verify} has checked. Holding
+ * one means "this was genuine when verified"; {@link #isExpired} is still worth asking of a cached
+ * one, since a cache hit skips the parser that would otherwise have said so.
+ */
+public record VerifiedToken(UUID userId, String email, String role, String type, Instant expiresAt) {
+
+    public boolean isAccessToken() {
+        return JwtService.TOKEN_TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return JwtService.TOKEN_TYPE_REFRESH.equals(type);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
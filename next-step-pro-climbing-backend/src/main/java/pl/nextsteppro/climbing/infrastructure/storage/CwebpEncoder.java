@@ -0,0 +1,110 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebP through libwebp's {@code cwebp}, run as a separate process.
+ *
+ * <p>Not an ImageIO plugin: the ones that exist bundle a native libwebp built against glibc, while
+ * the runtime image is Alpine (musl), and they register a WebP <i>reader</i> too — which would
+ * silently change every path that relies on WebP uploads not being decoded. A process also keeps
+ * the encode's memory off a ~220 MB heap (the 400 MB container limit × {@code MaxRAMPercentage=55}).
+ * {@code libwebp-tools} in the Dockerfile provides the binary; where it is missing (a dev machine,
+ * CI) the probe fails once, a warning is logged, and everything is served as stored.
+ *
+ * <p>On by default; {@code app.storage.webp.enabled} turns it off. The renditions have URLs of their
+ * own ({@code ?fmt=webp}, listed in the DTOs' WebP srcsets), so the edge caches each one under its
+ * own key and no client is handed a format it did not ask for.
+ *
+ * <p>Quality 80 is cwebp's own default and the usual counterpart of the optimizer's JPEG 0.85.
+ * {@code WebpComparisonHarness} in the tests measures both, bytes and PSNR, over a folder of real
+ * photos — run it before moving {@code app.storage.webp.quality}.
+ */
+@Component
+public class CwebpEncoder implements ImageEncoder {
+    private static final Logger log = LoggerFactory.getLogger(CwebpEncoder.class);
+
+    /** A 1920 px photo takes well under a second; this is for a process that hangs. */
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final boolean enabled;
+    private final String command;
+    private final int quality;
+    private volatile @Nullable Boolean available;
+
+    public CwebpEncoder(@Value("${app.storage.webp.enabled:true}") boolean enabled,
+                        @Value("${app.storage.webp.command:cwebp}") String command,
+                        @Value("${app.storage.webp.quality:80}") int quality) {
+        this.enabled = enabled;
+        this.command = command;
+        this.quality = quality;
+    }
+
+    @Override
+    public String format() {
+        return "webp";
+    }
+
+    @Override
+    public String contentType() {
+        return "image/webp";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        Boolean probed = available;
+        if (probed == null) {
+            probed = enabled && probe();
+            available = probed;
+        }
+        return probed;
+    }
+
+    private boolean probe() {
+        try {
+            run(List.of(command, "-version"));
+            return true;
+        } catch (IOException e) {
+            log.warn("WebP renditions are off: '{}' cannot be run ({})", command, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void encode(Path source, Path output) throws IOException {
+        // Absolute, so a relative storage root can never produce an argument starting with '-'
+        run(List.of(command, "-quiet", "-q", Integer.toString(quality), "-metadata", "none",
+                source.toAbsolutePath().toString(), "-o", output.toAbsolutePath().toString()));
+    }
+
+    private static void run(List<String> commandLine) throws IOException {
+        Process process = new ProcessBuilder(commandLine)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            if (!process.waitFor(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException(commandLine.getFirst() + " timed out after " + TIMEOUT.toSeconds() + " s");
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(commandLine.getFirst() + " interrupted");
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException(commandLine.getFirst() + " exited with " + process.exitValue());
+        }
+    }
+}
@@ -41,6 +41,11 @@ public final class FileSignatures {
             return contentType;
         }
 
+        /** The extension a stored file of this format is named with. */
+        public String canonicalExtension() {
+            return extensions[0];
+        }
+
         public boolean isImage() {
             return this != PDF;
         }
@@ -1,15 +1,33 @@
 package pl.nextsteppro.climbing.infrastructure.storage;
 
 import org.jspecify.annotations.Nullable;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
 
 public interface FileStorageService {
 
     /**
-     * Store a file in the specified folder
+     * How many names an orphan sweep takes from {@link #streamFilenames} at a time: one "which of
+     * these are referenced" query per page, well inside PostgreSQL's bind-parameter limit.
+     */
+    int SWEEP_PAGE_SIZE = 500;
+
+    /** The content type of the WebP rendition, for {@link #renditionSrcset}. */
+    String WEBP = "image/webp";
+
+    /**
+     * Store a file in the specified folder. Images decoded on the way in also get narrower copies
+     * for {@code srcset} (see {@link #findVariants}); the returned name is always the full-size one.
+     * Their renditions are queued ({@link #encodeRenditions}), not written here.
      * @param file the file to store
      * @param folder optional subfolder (e.g., "instructors", "gallery")
      * @return the generated filename
@@ -17,6 +35,43 @@ public interface FileStorageService {
      */
     String store(MultipartFile file, @Nullable String folder) throws IOException;
 
+    /**
+     * Store an image as uploaded — validated like {@link #store}, pixel ceiling included, but not
+     * yet resized — for the callers that leave the resize to {@link ImageProcessingQueue} instead
+     * of doing it inside the request. The name already carries the extension {@link #process}
+     * will keep, so nothing that references the file has to change when it is done.
+     * @return the generated filename
+     */
+    String storeUnprocessed(MultipartFile file, String folder) throws IOException;
+
+    /**
+     * The deferred half of {@link #store} for a file saved by {@link #storeUnprocessed}: optimizes
+     * it in place and writes its width variants. Readers see the raw file until the optimized one
+     * replaces it in a single rename, and the file stops being {@link #isPending pending} after.
+     * @return false if the file is gone — deleted before its turn came
+     */
+    boolean process(String filename, String folder) throws IOException;
+
+    /**
+     * Whether a file saved by {@link #storeUnprocessed} is still the raw upload, about to be
+     * rewritten under its name by {@link #process}. Asked on every public media request, so it is
+     * answered from the filesystem: no query, no pooled connection.
+     */
+    boolean isPending(String filename, String folder);
+
+    /**
+     * Gives up on {@link #process} for a file saved by {@link #storeUnprocessed}: the raw upload is
+     * what stays, so it stops being {@link #isPending pending}. For a job that failed for good.
+     */
+    void keepUnprocessed(String filename, String folder);
+
+    /**
+     * The deferred part of {@link #store}: writes the {@link ImageEncoder} renditions of a stored
+     * image and of each of its variants. Readers get the stored file until a rendition exists.
+     * @return false if the file is gone — deleted before its turn came
+     */
+    boolean encodeRenditions(String filename, String folder) throws IOException;
+
     /**
      * Store a document (PDF or image). Unlike {@link #store}, PDFs are written as-is (no image
      * optimization) and the PDF content type is accepted. Images are still optimized.
@@ -47,13 +102,116 @@ public interface FileStorageService {
                       @Nullable Integer width, @Nullable Integer height) {}
 
     /**
-     * Delete a file from the specified folder
+     * Every stored width of each image, the full-size file included, narrowest first. Images
+     * stored without being decoded (WebP) and files that are not images are absent from the map.
+     * One query for the whole collection — meant for a page of DTOs at a time.
+     */
+    Map<String, List<ImageVariant>> findVariants(String folder, Collection<String> filenames);
+
+    /**
+     * The narrowest stored variant at least {@code minWidth} px wide. Empty when there is none —
+     * the full-size file is then the right one to serve.
+     */
+    OptionalInt findVariantWidth(String filename, String folder, int minWidth);
+
+    /** A variant named by {@link #findVariantWidth}, as {@link #getResource} returns the original. */
+    Resource getVariantResource(String filename, String folder, int width) throws IOException;
+
+    /**
+     * Content types some decoded images are also stored in (see {@link ImageEncoder}), best first.
+     * Empty when no encoder can run here — no rendition URL is then listed or served.
+     */
+    List<String> renditionContentTypes();
+
+    /**
+     * The {@code srcset} of an image's {@code contentType} renditions, for a {@code <picture>}
+     * {@code <source>} of that type: the urls of {@link ImageVariant#srcset} with {@code fmt} set
+     * to the type's subtype. Null when no encoder writes that type here, or the image was stored
+     * without being decoded — there is then no rendition to list.
+     */
+    @Nullable String renditionSrcset(String url, @Nullable List<ImageVariant> variants, String contentType);
+
+    /**
+     * The {@code contentType} rendition of a file, or of its {@code width} variant. Empty when none
+     * was written — an upload older than its encoder, or one the format did not make smaller.
+     */
+    Optional<Resource> findRendition(String filename, String folder, OptionalInt width, String contentType);
+
+    /** One stored width of an image. */
+    record ImageVariant(int width, int height) {
+
+        /**
+         * The {@code srcset} for {@code url}: each width as {@code url?w=N Nw}. Null when there is
+         * nothing to choose between — the client then just uses the url.
+         */
+        public static @Nullable String srcset(String url, @Nullable List<ImageVariant> variants) {
+            if (variants == null || variants.size() < 2) {
+                return null;
+            }
+            StringBuilder srcset = new StringBuilder();
+            for (ImageVariant variant : variants) {
+                if (!srcset.isEmpty()) {
+                    srcset.append(", ");
+                }
+                srcset.append(url).append("?w=").append(variant.width()).append(' ').append(variant.width()).append('w');
+            }
+            return srcset.toString();
+        }
+
+        /**
+         * The same srcset in {@code format}: each width as {@code url?w=N&fmt=F Nw}. Unlike the
+         * plain one it is never left out for a single width — the url itself is not in that format
+         * — so one width is just {@code url?fmt=F}. Null only without variants.
+         */
+        public static @Nullable String srcset(String url, @Nullable List<ImageVariant> variants, String format) {
+            if (variants == null || variants.isEmpty()) {
+                return null;
+            }
+            if (variants.size() == 1) {
+                return url + "?fmt=" + format;
+            }
+            StringBuilder srcset = new StringBuilder();
+            for (ImageVariant variant : variants) {
+                if (!srcset.isEmpty()) {
+                    srcset.append(", ");
+                }
+                srcset.append(url).append("?w=").append(variant.width()).append("&fmt=").append(format)
+                        .append(' ').append(variant.width()).append('w');
+            }
+            return srcset.toString();
+        }
+    }
+
+    /**
+     * Delete a file from the specified folder, with its width variants. A content-addressed file
+     * stored by more than one upload only loses a reference; the last delete removes it, and so
+     * does one that, once committed, leaves no content row referencing the file.
      * @param filename the filename to delete
      * @param folder optional subfolder
      * @throws IOException if file cannot be deleted
      */
     void delete(String filename, @Nullable String folder) throws IOException;
 
+    /** Deletes a file however many references it has left — for files nothing points at any more. */
+    void purge(String filename, String folder) throws IOException;
+
+    /**
+     * Brings the stored-file index in line with the disk: registers files it does not know — those
+     * written before it existed, or restored by hand — refreshes the size and mtime of files
+     * changed in place, and forgets files that are gone. A folder whose directory mtime has not
+     * moved since its last scan is skipped without being listed, so a quiet volume costs one
+     * {@code stat} per folder.
+     */
+    Reconciliation reconcileIndex() throws IOException;
+
+    /** What one {@link #reconcileIndex} pass did: folders listed, index rows added, refreshed and removed. */
+    record Reconciliation(int foldersScanned, int added, int updated, int removed) {
+
+        public boolean changedAnything() {
+            return added + updated + removed > 0;
+        }
+    }
+
     /**
      * Check if a file exists
      * @param filename the filename to check
@@ -71,6 +229,14 @@ public interface FileStorageService {
      */
     InputStream getInputStream(String filename, @Nullable String folder) throws IOException;
 
+    /**
+     * The file as a resource backed by the file itself, for serving over HTTP. Unlike a wrapped
+     * {@link #getInputStream} it knows its length and modification time and can be read from any
+     * offset, which is what Content-Length, validators and Range responses are built from.
+     * @throws IOException if the file does not exist
+     */
+    Resource getResource(String filename, @Nullable String folder) throws IOException;
+
     /**
      * Get the file size in bytes
      * @param filename the filename to check
@@ -82,6 +248,14 @@ public interface FileStorageService {
     /** List filenames of regular files in a folder (empty if the folder does not exist). */
     java.util.List<String> listFilenames(@Nullable String folder);
 
+    /**
+     * The stored files of a folder, read from the directory as the stream is consumed — for sweeps
+     * over folders too large to list into memory. Only names a stored file can have are returned,
+     * and nothing is {@code stat}-ed to find them. Must be closed; empty if the folder does not
+     * exist or cannot be read.
+     */
+    Stream<String> streamFilenames(String folder);
+
     /** Last-modified time in epoch millis, or -1 if the file does not exist. */
     long getLastModifiedMillis(String filename, @Nullable String folder);
 }
@@ -0,0 +1,120 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the memory all image decodes may hold at once. Every decode asks for as many bytes as its
+ * rasters will take and waits until the budget has room; uploads arriving together queue up
+ * instead of each allocating its raster and taking the heap down with them.
+ *
+ * <p>The pixel guard keeps any <i>one</i> image within reach, but nothing bounded how many ran at
+ * once: {@link ImageProcessingQueue} drains the CMS backlog one image at a time, while avatars,
+ * attachments and srcset variants decode on the request thread — and request threads are virtual,
+ * so there is no pool size to stop them either. Ten phones posting a photo into a thread at the
+ * same moment was ten ~16 MB rasters plus their copies on a ~220 MB heap: the 400 MB container
+ * limit × {@code MaxRAMPercentage=55}, both in the Dockerfile.
+ *
+ * <p>Weighted rather than counted: a 200 px avatar and a 1920 px panorama differ by two orders of
+ * magnitude, and a plain "N at a time" is either too strict for the first or too loose for the
+ * second. Permits are KiB, so the budget fits an {@code int}. A decode larger than the whole budget
+ * is clamped to it and runs alone, rather than waiting for room that can never exist. The semaphore
+ * is fair: a large decode is not starved by a stream of small ones slipping past it.
+ *
+ * <p>Waiting is bounded by {@code app.storage.decode.max-wait}. Past it the request gets a 503 and
+ * can be retried — a queue without a limit would only move the failure to the proxy's timeout, with
+ * the upload's temp file held all the while. Queue depth, bytes in use and wait time are published
+ * as {@code image.decode.*} meters ({@code /actuator/metrics}, admins only).
+ */
+@Component
+public class ImageDecodeLimiter {
+
+    /** ARGB; what {@link javax.imageio.ImageReader} allocates for nearly every photo it decodes. */
+    static final int BYTES_PER_PIXEL = 4;
+
+    private final Semaphore permits;
+    private final int budgetKib;
+    private final Duration maxWait;
+    private final Timer waitTimer;
+
+    public ImageDecodeLimiter(@Value("${app.storage.decode.budget:64MB}") DataSize budget,
+                              @Value("${app.storage.decode.max-wait:PT30S}") Duration maxWait,
+                              MeterRegistry meterRegistry) {
+        this.budgetKib = Math.clamp(budget.toKilobytes(), 1, Integer.MAX_VALUE);
+        this.permits = new Semaphore(budgetKib, true);
+        this.maxWait = maxWait;
+        this.waitTimer = Timer.builder("image.decode.wait")
+                .description("Time an image decode waited for memory budget")
+                .register(meterRegistry);
+        Gauge.builder("image.decode.queue", permits, Semaphore::getQueueLength)
+                .description("Image decodes waiting for memory budget")
+                .register(meterRegistry);
+        Gauge.builder("image.decode.memory.used", this, ImageDecodeLimiter::usedBytes)
+                .description("Memory budget held by running image decodes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocks until {@code pixels} fit in the budget next to the decodes already running.
+     *
+     * @param pixels every pixel of every raster the decode will hold at its peak
+     * @return released by {@code close}, on every path — use it in a try-with-resources
+     * @throws ImageProcessingBusyException if there was no room within the max wait
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     */
+    public Permit acquire(long pixels) throws InterruptedIOException {
+        int cost = costKib(pixels);
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(cost, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to decode an image");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new ImageProcessingBusyException(
+                    "No image decode budget for " + cost + " KiB within " + maxWait.toSeconds() + " s");
+        }
+        return new Permit(cost);
+    }
+
+    int costKib(long pixels) {
+        long kib = Math.ceilDiv(Math.max(1, pixels) * BYTES_PER_PIXEL, 1024L);
+        return (int) Math.min(kib, budgetKib);
+    }
+
+    long usedBytes() {
+        return (long) (budgetKib - permits.availablePermits()) * 1024;
+    }
+
+    /** One decode's share of the budget. */
+    public final class Permit implements AutoCloseable {
+        private final int kib;
+        private boolean released;
+
+        private Permit(int kib) {
+            this.kib = kib;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                permits.release(kib);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes a copy of a stored image in a format the JVM cannot produce, served under its own URL
+ * ({@code ?fmt=} with {@link #format}) to clients that pick it from a {@code <picture>} source. The
+ * stored JPEG or PNG stays the file of record and what everyone else gets; a rendition is only ever
+ * an alternative to it.
+ *
+ * <p>An encoder works from file to file. The input is an image the optimizer has already written —
+ * resized, EXIF stripped — so an encoder never sees an upload and never needs a raster on this
+ * heap.
+ */
+public interface ImageEncoder {
+
+    /** Lowercase letters; names the directory the renditions go in, and the file extension. */
+    String format();
+
+    String contentType();
+
+    /** False when whatever does the encoding is missing here; nothing is then written or served. */
+    boolean isAvailable();
+
+    /**
+     * @param output written (replaced); may be left half-written if this throws
+     * @throws IOException if the encoder failed on this input
+     */
+    void encode(Path source, Path output) throws IOException;
+}
@@ -0,0 +1,43 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue.Kind;
+
+/**
+ * The writes into {@code image_jobs} that happen next to the files rather than in the queue:
+ * {@link LocalFileStorageService} queues the renditions of an image it stored, and forgets the
+ * finished job of a file it unlinks. Apart from {@link ImageProcessingQueue} because the queue
+ * calls into the storage service, which therefore cannot depend on it.
+ */
+@Component
+public class ImageJobs {
+
+    private static final String INSERT = """
+        INSERT INTO image_jobs (folder, filename, kind) VALUES (?, ?, ?)
+        ON CONFLICT (folder, filename) DO NOTHING
+        """;
+
+    // A pending job still runs: it finds the file gone, or finds the same name stored again
+    private static final String FORGET_FINISHED =
+        "DELETE FROM image_jobs WHERE folder = ? AND filename = ? AND status <> 'PENDING'";
+
+    private final JdbcTemplate jdbc;
+
+    public ImageJobs(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** In the current transaction if there is one. */
+    void enqueue(String folder, String filename, Kind kind) {
+        jdbc.update(INSERT, folder, filename, kind.name());
+    }
+
+    /**
+     * A content-addressed name comes back when the same bytes are uploaded again, and a finished
+     * job left under it would keep the new upload from being queued.
+     */
+    void forgetFinished(String folder, String filename) {
+        jdbc.update(FORGET_FINISHED, folder, filename);
+    }
+}
@@ -7,17 +7,39 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Iterator;
 
+/**
+ * Resizes and re-encodes uploaded images on their way to disk, in bounded memory.
+ *
+ * <p>The upload is spooled to a temp file first and never held as a byte array. The header is read
+ * from that file, which is enough for the pixel guard and the resize decision. The decode then
+ * asks the reader for a subsampled raster ({@link ImageReadParam#setSourceSubsampling}), so a
+ * 4000 px photo headed for 1920 px is decoded at 2000 px and never exists at full size. The
+ * encoder writes straight into the output file. The reported dimensions are the ones the resize
+ * was told to produce ({@code forceSize}), so nothing is decoded a second time to measure it.
+ *
+ * <p>Before this the pipeline held the upload's bytes, a full-size raster, a second full-size RGB
+ * copy of it, the encoded output, and a re-decode of that output, all at the same moment — several
+ * times the raster of a 10 MB upload on a ~220 MB heap (the 400 MB container limit ×
+ * {@code MaxRAMPercentage=55}, both in the Dockerfile).
+ *
+ * <p>That bounds one image. How many decode at once is {@link ImageDecodeLimiter}'s business: each
+ * decode holds its share of the budget from the raster's allocation until the encoder is done.
+ */
 @Component
 public class ImageOptimizer {
     private static final Logger log = LoggerFactory.getLogger(ImageOptimizer.class);
@@ -29,7 +51,7 @@ public class ImageOptimizer {
     /**
      * Decompression-bomb ceiling, checked against the HEADER before a single pixel is decoded.
      * A 30000×30000 PNG is a few hundred KB on the wire and ~3.6 GB decoded — on a one-core box
-     * with an ~846 MB heap that is a denial of service anyone with an account could trigger.
+     * with a ~220 MB heap that is a denial of service anyone with an account could trigger.
      */
     private static final long MAX_PIXELS = 40_000_000L;
 
@@ -37,6 +59,12 @@ public class ImageOptimizer {
      *  screenshots of a watch or an app, where JPEG artefacts land on small digits and fine text. */
     private static final double ATTACHMENT_QUALITY = 0.9;
 
+    private final ImageDecodeLimiter decodeLimiter;
+
+    public ImageOptimizer(ImageDecodeLimiter decodeLimiter) {
+        this.decodeLimiter = decodeLimiter;
+    }
+
     /**
      * Re-encodes an upload to JPEG unconditionally, which is what strips EXIF — including the GPS
      * coordinates of wherever a photo was taken — and what makes the stored dimensions and format
@@ -49,119 +77,222 @@ public class ImageOptimizer {
      * no way to read back the dimensions the UI needs to reserve space — or a write that throws.
      * PNG could be kept, but then the same upload takes two different code paths for no gain.
      *
-     * <p>Transparency is flattened onto white first: writing an image with an alpha channel as JPEG
+     * <p>Transparency is flattened onto white: writing an image with an alpha channel as JPEG
      * otherwise renders it against black.
+     *
+     * @param output written (replaced) with the JPEG; left untouched if the upload is rejected
      */
-    public OptimizedImage reencodeAsJpeg(InputStream inputStream) throws IOException {
-        byte[] originalBytes = inputStream.readAllBytes();
-        guardPixelCount(originalBytes);
-        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(originalBytes));
-        if (decoded == null) {
-            // Reached when the bytes passed the signature check but no reader could handle them —
-            // a truncated or corrupt file. Storing it would serve a broken image forever.
-            throw new IllegalArgumentException("Image file is damaged or unreadable");
+    public OptimizedImage reencodeAsJpeg(InputStream inputStream, Path output) throws IOException {
+        Path spool = spool(inputStream);
+        try (ImageInputStream iis = ImageIO.createImageInputStream(spool.toFile())) {
+            ImageReader reader = readerFor(iis);
+            if (reader == null) {
+                // Reached when the bytes passed the signature check but no reader could handle
+                // them — a truncated or corrupt file. Storing it would serve a broken image forever.
+                throw new IllegalArgumentException("Image file is damaged or unreadable");
+            }
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                guardPixelCount(width, height);
+                // Only shrink, never enlarge: a small screenshot scaled up comes back blurry and
+                // several times heavier.
+                Dimensions target = Dimensions.fit(width, height, MAX_DIMENSION);
+                encode(reader, width, height, target, "jpg", ATTACHMENT_QUALITY, output);
+                return new OptimizedImage(".jpg", target.width(), target.height());
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            Files.deleteIfExists(spool);
         }
+    }
 
-        BufferedImage opaque = new BufferedImage(decoded.getWidth(), decoded.getHeight(),
-                BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = opaque.createGraphics();
+    /**
+     * Shrinks an image past {@value #MAX_DIMENSION} px or recompresses one past 2 MB, and copies
+     * anything else — including bytes no reader understands, such as WebP — through unchanged.
+     *
+     * @param output written (replaced) with the result
+     */
+    public OptimizedImage optimize(InputStream inputStream, String extension, Path output) throws IOException {
+        Path spool = spool(inputStream);
         try {
-            g.setColor(Color.WHITE);
-            g.fillRect(0, 0, opaque.getWidth(), opaque.getHeight());
-            g.drawImage(decoded, 0, 0, null);
+            long originalSize = Files.size(spool);
+            try (ImageInputStream iis = ImageIO.createImageInputStream(spool.toFile())) {
+                ImageReader reader = readerFor(iis);
+                if (reader == null) {
+                    Files.copy(spool, output, StandardCopyOption.REPLACE_EXISTING);
+                    return new OptimizedImage(extension, null, null);
+                }
+                try {
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+                    guardPixelCount(width, height);
+
+                    boolean needsResize = width > MAX_DIMENSION || height > MAX_DIMENSION;
+                    boolean needsCompression = originalSize > SIZE_THRESHOLD_BYTES;
+                    if (!needsResize && !needsCompression) {
+                        log.debug("Image already optimized ({}×{}, {} KB) — skipping", width, height, originalSize / 1024);
+                        Files.copy(spool, output, StandardCopyOption.REPLACE_EXISTING);
+                        return new OptimizedImage(extension, width, height);
+                    }
+
+                    String outputFormat = outputFormat(extension);
+                    Dimensions target = Dimensions.fit(width, height, MAX_DIMENSION);
+                    encode(reader, width, height, target, outputFormat, OUTPUT_QUALITY, output);
+
+                    log.info("Optimized image: {} KB → {} KB ({}×{} → {}×{}, format: {})",
+                            originalSize / 1024, Files.size(output) / 1024,
+                            width, height, target.width(), target.height(), outputFormat);
+                    return new OptimizedImage("." + outputFormat, target.width(), target.height());
+                } finally {
+                    reader.dispose();
+                }
+            }
         } finally {
-            g.dispose();
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Applies the pixel ceiling to a file that is stored now and optimized later, reading only its
+     * header. A file no reader understands passes: it is never decoded, so it cannot blow up.
+     */
+    public void checkPixelCount(Path file) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(iis);
+            if (reader == null) {
+                return;
+            }
+            try {
+                guardPixelCount(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Writes a copy of an already optimized image scaled to {@code width} px wide, for a
+     * {@code srcset}. Read from the stored file, not the upload: it is at most 1920 px, so each
+     * variant is a cheap subsampled decode rather than another pass over the original.
+     *
+     * @param extension of {@code source}; the variant keeps its format
+     * @return the variant's dimensions, or null if {@code source} cannot be decoded
+     */
+    public @Nullable OptimizedImage writeVariant(Path source, String extension, int width, Path output)
+            throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(source.toFile())) {
+            ImageReader reader = readerFor(iis);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                var target = new Dimensions(width, Math.max(1, (int) Math.round((double) sourceHeight * width / sourceWidth)));
+                String format = outputFormat(extension);
+                encode(reader, sourceWidth, sourceHeight, target, format, OUTPUT_QUALITY, output);
+                return new OptimizedImage("." + format, target.width(), target.height());
+            } finally {
+                reader.dispose();
+            }
         }
+    }
 
-        var baos = new ByteArrayOutputStream();
-        var builder = Thumbnails.of(opaque);
-        if (opaque.getWidth() > MAX_DIMENSION || opaque.getHeight() > MAX_DIMENSION) {
-            builder.size(MAX_DIMENSION, MAX_DIMENSION);
-        } else {
-            // size() scales UP to fill the box, so a small screenshot would come back blurry and
-            // several times heavier. Only shrink; never enlarge.
-            builder.scale(1.0);
+    /**
+     * Decodes at the coarsest subsampling that still leaves at least {@code target} pixels, then
+     * resizes to exactly {@code target}. Subsampling alone would land on a whole fraction of the
+     * source (2000 px, not 1920) and decimates without filtering; the final resize from a raster
+     * at most 2× larger is what keeps edges clean.
+     *
+     * <p>The decode budget is asked for what is actually allocated: the subsampled raster, the
+     * resized one, and the opaque copy when alpha is flattened — not the header's full size, which
+     * never exists here and would make a 4000 px photo queue behind memory it does not use.
+     */
+    private void encode(ImageReader reader, int width, int height, Dimensions target,
+                        String format, double quality, Path output) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, Math.min(width / target.width(), height / target.height()));
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        long decodedPixels = (long) Math.ceilDiv(width, subsampling) * Math.ceilDiv(height, subsampling);
+        long targetPixels = (long) target.width() * target.height();
+        // Alpha is only known once decoded, so a JPEG output always reserves the flattened copy
+        long peakPixels = decodedPixels + ("jpg".equals(format) ? 2 : 1) * targetPixels;
+        try (var permit = decodeLimiter.acquire(peakPixels)) {
+            decodeAndWrite(reader, param, target, format, quality, output);
         }
-        builder.outputQuality(ATTACHMENT_QUALITY)
-                .outputFormat("jpg")
-                .toOutputStream(baos);
-
-        byte[] bytes = baos.toByteArray();
-        BufferedImage written = ImageIO.read(new ByteArrayInputStream(bytes));
-        return new OptimizedImage(new ByteArrayInputStream(bytes), ".jpg",
-                written != null ? written.getWidth() : null,
-                written != null ? written.getHeight() : null);
     }
 
-    public OptimizedImage optimize(InputStream inputStream, String extension) throws IOException {
-        byte[] originalBytes = inputStream.readAllBytes();
-        guardPixelCount(originalBytes);
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(originalBytes));
+    private void decodeAndWrite(ImageReader reader, ImageReadParam param, Dimensions target,
+                                String format, double quality, Path output) throws IOException {
+        BufferedImage decoded = reader.read(0, param);
 
-        if (image == null) {
-            return new OptimizedImage(new ByteArrayInputStream(originalBytes), extension, null, null);
+        BufferedImage source = decoded;
+        if ("jpg".equals(format) && decoded.getColorModel().hasAlpha()) {
+            // Flattened at target size, so the opaque copy is never as large as the decode.
+            source = flattenOntoWhite(Thumbnails.of(decoded)
+                    .forceSize(target.width(), target.height())
+                    .asBufferedImage());
         }
 
-        boolean needsResize = image.getWidth() > MAX_DIMENSION || image.getHeight() > MAX_DIMENSION;
-        boolean needsCompression = originalBytes.length > SIZE_THRESHOLD_BYTES;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            Thumbnails.of(source)
+                    .forceSize(target.width(), target.height())
+                    .outputQuality(quality)
+                    .outputFormat(format)
+                    .toOutputStream(out);
+        }
+    }
 
-        if (!needsResize && !needsCompression) {
-            log.debug("Image already optimized ({}×{}, {} KB) — skipping", image.getWidth(), image.getHeight(), originalBytes.length / 1024);
-            return new OptimizedImage(new ByteArrayInputStream(originalBytes), extension,
-                    image.getWidth(), image.getHeight());
+    private static BufferedImage flattenOntoWhite(BufferedImage image) {
+        BufferedImage opaque = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = opaque.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, opaque.getWidth(), opaque.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
         }
+        return opaque;
+    }
 
-        String outputFormat = outputFormat(extension);
-        var baos = new ByteArrayOutputStream();
+    /**
+     * Copies the upload to a temp file, so the header and the pixels are read from disk with random
+     * access instead of from a byte array. Multipart uploads past the container's threshold are
+     * already on disk; this is one more sequential copy, never a heap-sized buffer.
+     */
+    private static Path spool(InputStream inputStream) throws IOException {
+        Path spool = Files.createTempFile("image-upload-", ".tmp");
+        try (inputStream) {
+            Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
 
-        var builder = Thumbnails.of(image);
-        if (needsResize) {
-            builder.size(MAX_DIMENSION, MAX_DIMENSION);
-        } else {
-            builder.scale(1.0);
+    private static @Nullable ImageReader readerFor(@Nullable ImageInputStream iis) {
+        if (iis == null) {
+            return null;
         }
-        builder.outputQuality(OUTPUT_QUALITY)
-                .outputFormat(outputFormat)
-                .toOutputStream(baos);
-
-        log.info("Optimized image: {} KB → {} KB ({}×{} → max {}px, format: {})",
-                originalBytes.length / 1024, baos.size() / 1024,
-                image.getWidth(), image.getHeight(), MAX_DIMENSION, outputFormat);
-
-        byte[] optimizedBytes = baos.toByteArray();
-        // Read back rather than computing the expected size: Thumbnails' own rounding decides the
-        // final pixels, and these numbers end up in the DB reserving layout space for the image.
-        BufferedImage written = ImageIO.read(new ByteArrayInputStream(optimizedBytes));
-        Integer width = written != null ? written.getWidth() : null;
-        Integer height = written != null ? written.getHeight() : null;
-
-        String newExtension = "." + outputFormat;
-        return new OptimizedImage(new ByteArrayInputStream(optimizedBytes), newExtension, width, height);
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(iis, true, true);
+        return reader;
     }
 
-    /** Reads only the header — {@code getWidth}/{@code getHeight} never decode the raster. */
-    private static void guardPixelCount(byte[] bytes) throws IOException {
-        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
-            if (iis == null) {
-                return;
-            }
-            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
-            if (!readers.hasNext()) {
-                return; // no reader for this format — decoding will fail on its own, harmlessly
-            }
-            ImageReader reader = readers.next();
-            try {
-                reader.setInput(iis);
-                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
-                if (pixels > MAX_PIXELS) {
-                    throw new IllegalArgumentException("Image resolution is too large");
-                }
-            } catch (IOException e) {
-                // Unreadable header: let the normal decode path produce the error instead.
-                log.debug("Could not read image header for the pixel guard: {}", e.getMessage());
-            } finally {
-                reader.dispose();
-            }
+    /** Header dimensions only — {@code getWidth}/{@code getHeight} never decode the raster. */
+    private static void guardPixelCount(int width, int height) {
+        if ((long) width * height > MAX_PIXELS) {
+            throw new IllegalArgumentException("Image resolution is too large");
         }
     }
 
@@ -173,7 +304,20 @@ public class ImageOptimizer {
         };
     }
 
+    /** The box an image is scaled into, aspect kept, never enlarged. */
+    record Dimensions(int width, int height) {
+
+        static Dimensions fit(int width, int height, int maxSide) {
+            if (width <= maxSide && height <= maxSide) {
+                return new Dimensions(width, height);
+            }
+            double scale = (double) maxSide / Math.max(width, height);
+            return new Dimensions(
+                    Math.max(1, (int) Math.round(width * scale)),
+                    Math.max(1, (int) Math.round(height * scale)));
+        }
+    }
+
     /** Dimensions are null when the payload was passed through undecoded (non-force mode). */
-    public record OptimizedImage(InputStream inputStream, String extension,
-                                 @Nullable Integer width, @Nullable Integer height) {}
+    public record OptimizedImage(String extension, @Nullable Integer width, @Nullable Integer height) {}
 }
@@ -0,0 +1,13 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+/**
+ * Thrown when an image could not get decode memory within the wait {@link ImageDecodeLimiter}
+ * allows. Nothing is wrong with the image or the request, and nothing was stored: the same upload
+ * succeeds once the burst it ran into has drained, so this is a 503, not a 4xx.
+ */
+public class ImageProcessingBusyException extends RuntimeException {
+
+    public ImageProcessingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,223 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deferred resize of admin image uploads, in the {@code image_jobs} table (V95).
+ *
+ * <p>The upload request stores the raw file ({@link FileStorageService#storeUnprocessed}) and
+ * calls {@link #enqueue} in its own transaction, so the job exists exactly when the photo or block
+ * row referencing the file does. {@link #drain}, driven by {@code ImageProcessingScheduler}, does
+ * the expensive part — {@link FileStorageService#process} — outside any transaction: no pooled
+ * connection is held while Thumbnailator runs, and no request thread waits for it.
+ *
+ * <p>Bounded by construction: one drain per instance at a time, one image at a time, so the
+ * one-core box never decodes two photos at once however many arrive. The backlog waits in the
+ * table, not in memory, and survives a restart; a job claimed by a node that died comes back when
+ * its {@link #LEASE} runs out. Same claim scheme as {@code MailOutbox}.
+ *
+ * <p>The file is optimized in place, under the name the upload already handed out, so two things
+ * have to know when that happens. {@code FileController} serves a file that is still
+ * {@link FileStorageService#isPending pending} with {@code no-cache} instead of a week in every
+ * browser and at the edge — otherwise whoever opened the page first would keep the raw upload for
+ * that week. That flag is kept by the storage next to the file, not asked of this table: the check
+ * runs on every public media request, and this table costs a pooled connection to read. And the
+ * public DTO caches whose {@code srcset}s come from the folder's variants are cleared once the job
+ * is done, or they would go on listing the upload with no variants until they expired.
+ *
+ * <p>Images {@link FileStorageService#store} optimizes in the request are queued too, for their
+ * {@link ImageEncoder} renditions alone ({@link Kind#RENDITIONS}, V100): an encoder is an external
+ * process per width, four of them per photo, which has no business running inside an upload
+ * request. Those files are final when stored, so they are never pending.
+ */
+@Component
+public class ImageProcessingQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessingQueue.class);
+
+    /** Far longer than one image takes, even a 10 MB PNG. */
+    static final Duration LEASE = Duration.ofMinutes(5);
+
+    /** Delay after the n-th failed attempt; length + 1 = total attempts. Only I/O errors and a busy decoder retry. */
+    static final Duration[] BACKOFF = {Duration.ofSeconds(30), Duration.ofMinutes(5)};
+
+    public enum Status { PENDING, DONE, FAILED }
+
+    /** What a job does: the whole deferred resize, or only the renditions of a stored image. */
+    public enum Kind { OPTIMIZE, RENDITIONS }
+
+    /** What the status endpoint reports for one upload. */
+    public record Job(Status status, int attempts, @Nullable String lastError,
+                      Instant createdAt, @Nullable Instant finishedAt) {}
+
+    private static final String CLAIM = """
+        UPDATE image_jobs
+           SET attempts = attempts + 1,
+               next_attempt_at = now() + make_interval(secs => ?)
+         WHERE id = (SELECT id FROM image_jobs
+                      WHERE status = 'PENDING' AND next_attempt_at <= now()
+                      ORDER BY next_attempt_at
+                      LIMIT 1
+                      FOR UPDATE SKIP LOCKED)
+        RETURNING id, folder, filename, kind, attempts
+        """;
+
+    private static final String FINISH =
+        "UPDATE image_jobs SET status = ?, finished_at = now(), last_error = ? WHERE id = ?";
+
+    private static final String RESCHEDULE = """
+        UPDATE image_jobs SET next_attempt_at = now() + make_interval(secs => ?), last_error = ?
+         WHERE id = ?
+        """;
+
+    private static final String FIND = """
+        SELECT status, attempts, last_error, created_at, finished_at FROM image_jobs
+         WHERE folder = ? AND filename = ?
+        """;
+
+    private static final String PURGE_FINISHED =
+        "DELETE FROM image_jobs WHERE finished_at < now() - make_interval(days => ?)";
+
+    private static final RowMapper<ClaimedJob> CLAIMED = (rs, row) -> new ClaimedJob(
+        rs.getLong("id"), rs.getString("folder"), rs.getString("filename"), Kind.valueOf(rs.getString("kind")),
+        rs.getInt("attempts"));
+
+    private static final RowMapper<Job> JOB = (rs, row) -> new Job(
+        Status.valueOf(rs.getString("status")), rs.getInt("attempts"), rs.getString("last_error"),
+        rs.getTimestamp("created_at").toInstant(), toInstant(rs.getTimestamp("finished_at")));
+
+    /**
+     * The caches holding public DTOs with a {@code srcset} built from a folder's variants (see
+     * {@code CacheConfig}). Only this node's are cleared; another instance's entries run out their
+     * TTL.
+     */
+    private static final Map<String, List<String>> SRCSET_CACHES = Map.of(
+        "news", List.of("newsList", "newsDetail"),
+        "courses", List.of("courseList", "courseDetail"),
+        "instructors", List.of("instructorList"));
+
+    private final JdbcTemplate jdbc;
+    private final ImageJobs imageJobs;
+    private final FileStorageService fileStorageService;
+    private final CacheManager cacheManager;
+
+    public ImageProcessingQueue(JdbcTemplate jdbc, ImageJobs imageJobs, FileStorageService fileStorageService,
+                                CacheManager cacheManager) {
+        this.jdbc = jdbc;
+        this.imageJobs = imageJobs;
+        this.fileStorageService = fileStorageService;
+        this.cacheManager = cacheManager;
+    }
+
+    /** Queues a file saved by {@code storeUnprocessed}, in the current transaction if there is one. */
+    public void enqueue(String folder, String filename) {
+        imageJobs.enqueue(folder, filename, Kind.OPTIMIZE);
+    }
+
+    public Optional<Job> find(String folder, String filename) {
+        return jdbc.query(FIND, JOB, folder, filename).stream().findFirst();
+    }
+
+    /**
+     * Processes due jobs one by one until none is left.
+     *
+     * @return how many images were processed
+     */
+    public int drain() {
+        int processed = 0;
+        List<ClaimedJob> claimed;
+        while (!(claimed = jdbc.query(CLAIM, CLAIMED, (double) LEASE.toSeconds())).isEmpty()) {
+            if (run(claimed.getFirst())) processed++;
+        }
+        return processed;
+    }
+
+    /** @return how many finished jobs older than {@code days} were deleted */
+    public int purgeFinished(int days) {
+        return jdbc.update(PURGE_FINISHED, days);
+    }
+
+    private boolean run(ClaimedJob job) {
+        try {
+            boolean processed = switch (job.kind()) {
+                case OPTIMIZE -> fileStorageService.process(job.filename(), job.folder());
+                case RENDITIONS -> fileStorageService.encodeRenditions(job.filename(), job.folder());
+            };
+            if (!processed) {
+                // Deleted before its turn — nothing left to do, and nothing went wrong
+                log.debug("Image {}/{} was deleted before processing", job.folder(), job.filename());
+            }
+            jdbc.update(FINISH, Status.DONE.name(), null, job.id());
+            if (processed && job.kind() == Kind.OPTIMIZE) {
+                // Renditions are negotiated per request and appear in no srcset
+                evictSrcsetCaches(job.folder());
+            }
+            return true;
+        } catch (IOException e) {
+            retryOrFail(job, e);
+        } catch (ImageProcessingBusyException e) {
+            // Request-time decodes held the budget for the whole wait: a load spike, not this file
+            retryOrFail(job, e);
+        } catch (RuntimeException e) {
+            // A damaged file or a bug — the same input fails the same way on every retry. The raw
+            // upload stays in place and is still served, just unoptimized.
+            fail(job, String.valueOf(e.getMessage()));
+            log.error("Processing image {}/{} failed, serving it as uploaded", job.folder(), job.filename(), e);
+        }
+        return false;
+    }
+
+    private void retryOrFail(ClaimedJob job, Exception e) {
+        String error = String.valueOf(e.getMessage());
+        if (job.attempts() > BACKOFF.length) {
+            fail(job, error);
+            log.error("Processing image {}/{} failed after {} attempts, serving it as uploaded",
+                job.folder(), job.filename(), job.attempts(), e);
+            return;
+        }
+        Duration delay = BACKOFF[job.attempts() - 1];
+        jdbc.update(RESCHEDULE, (double) delay.toSeconds(), error, job.id());
+        log.warn("Processing image {}/{} failed (attempt {}/{}), retrying in {}",
+            job.folder(), job.filename(), job.attempts(), BACKOFF.length + 1, delay, e);
+    }
+
+    private void fail(ClaimedJob job, String error) {
+        jdbc.update(FINISH, Status.FAILED.name(), error, job.id());
+        if (job.kind() == Kind.OPTIMIZE) {
+            // The raw upload is final now: caches may keep it like any other file
+            fileStorageService.keepUnprocessed(job.filename(), job.folder());
+        }
+    }
+
+    private void evictSrcsetCaches(String folder) {
+        for (String name : SRCSET_CACHES.getOrDefault(folder, List.of())) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static @Nullable Instant toInstant(@Nullable Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    /** One claimed row. {@code attempts} already counts the attempt being made. */
+    record ClaimedJob(long id, String folder, String filename, Kind kind, int attempts) {
+    }
+}
@@ -0,0 +1,67 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.ImageVariant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dimensions of every stored width variant, in {@code image_variants} (V94).
+ *
+ * <p>Kept so that building a {@code srcset} costs one indexed query per page of DTOs rather than a
+ * header read per file. Only {@link LocalFileStorageService} writes here, next to the files
+ * themselves; everyone else reads through {@link FileStorageService#findVariants}.
+ */
+@Component
+public class ImageVariantIndex {
+
+    private static final String INSERT =
+        "INSERT INTO image_variants (folder, filename, width, height) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String FIND = """
+        SELECT filename, width, height FROM image_variants
+         WHERE folder = ? AND filename = ANY (?)
+         ORDER BY filename, width
+        """;
+
+    private static final String DELETE = "DELETE FROM image_variants WHERE folder = ? AND filename = ?";
+
+    private final JdbcTemplate jdbc;
+
+    public ImageVariantIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    void record(String folder, String filename, List<ImageVariant> variants) {
+        if (variants.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(variants.size());
+        for (ImageVariant variant : variants) {
+            rows.add(new Object[]{folder, filename, variant.width(), variant.height()});
+        }
+        jdbc.batchUpdate(INSERT, rows);
+    }
+
+    /** Narrowest first; filenames without variants are absent from the map. */
+    Map<String, List<ImageVariant>> find(String folder, Collection<String> filenames) {
+        if (filenames.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, List<ImageVariant>> byFilename = new HashMap<>();
+        jdbc.query(FIND, rs -> {
+            byFilename.computeIfAbsent(rs.getString("filename"), f -> new ArrayList<>())
+                    .add(new ImageVariant(rs.getInt("width"), rs.getInt("height")));
+        }, folder, filenames.toArray(String[]::new));
+        return byFilename;
+    }
+
+    void forget(String folder, String filename) {
+        jdbc.update(DELETE, folder, filename);
+    }
+}
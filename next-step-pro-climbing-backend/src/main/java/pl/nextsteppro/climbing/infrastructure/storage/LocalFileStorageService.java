@@ -4,18 +4,43 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue.Kind;
+import pl.nextsteppro.climbing.infrastructure.storage.StoredFileIndex.FileStat;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class LocalFileStorageService implements FileStorageService {
@@ -49,10 +74,10 @@ public class LocalFileStorageService implements FileStorageService {
             PDF_CONTENT_TYPE
     );
 
-    // Strict filename validation: UUID + allowed extension (images + pdf for documents).
-    // Prevents path traversal attacks by enforcing expected format
+    // Strict filename validation: UUID or SHA-256 (content-addressed) + allowed extension (images +
+    // pdf for documents). Prevents path traversal attacks by enforcing expected format
     private static final Pattern VALID_FILENAME_PATTERN = Pattern.compile(
-            "^[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}\\.(jpg|jpeg|png|webp|pdf)$",
+            "^([a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}|[a-f0-9]{64})\\.(jpg|jpeg|png|webp|pdf)$",
             Pattern.CASE_INSENSITIVE
     );
 
@@ -61,15 +86,90 @@ public class LocalFileStorageService implements FileStorageService {
             "^[a-z]+$"
     );
 
+    /**
+     * Where the optimizer writes before a file gets its final name — the name carries the output
+     * extension, which is only known once the image has been looked at. Inside the root so the
+     * final move is an atomic rename on the same filesystem; the leading dot keeps it out of the
+     * folder namespace (folders are lowercase letters only).
+     */
+    private static final String STAGING_FOLDER = ".staging";
+
+    /**
+     * An empty file at {@code {folder}/.pending/{filename}} for as long as a
+     * {@link #storeUnprocessed} upload waits for {@link #process}. {@link #isPending} sits on every
+     * public media request, where a stat costs nothing and a query on the job table costs a pooled
+     * connection — so the flag lives next to the file rather than only in the queue. Created before
+     * the file is published, removed after the optimized one is; the dot keeps the directory out of
+     * the listings and the sweeps, like the variant directories.
+     */
+    private static final String PENDING_FOLDER = ".pending";
+
+    /**
+     * Folders whose images are of people, uploaded by themselves: never content-addressed. A
+     * public name that is the SHA-256 of the bytes would let anyone holding a photo check whether
+     * it is somebody's avatar, by hashing it and requesting the URL.
+     */
+    private static final Set<String> PERSONAL_FOLDERS = Set.of("avatars");
+
+    /** What every published file gets, whatever mode its staging file was created with. */
+    private static final Set<PosixFilePermission> PUBLISHED_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    /**
+     * Narrower copies written for every decodable image wider than them, stored as
+     * {@code {folder}/{width}/{filename}}. The full-size file, at most 1920 px, is the widest
+     * entry of the {@code srcset} itself. A numeric directory can never collide with a folder
+     * (lowercase letters only), and {@link #listFilenames} lists regular files only, so the
+     * orphan sweeps never see a variant — it goes away with its original in {@link #delete}.
+     */
+    private static final int[] VARIANT_WIDTHS = {320, 640, 1280};
+
+    // Renditions (see ImageEncoder) mirror that layout one level down, under the format's name:
+    // {folder}/{format}/{filename} for the full size, {folder}/{format}/{width}/{filename} for a
+    // variant. Same name as the file they stand in for, so they are found without a lookup, and
+    // like the variants they sit in a directory, out of sight of the sweeps and the index.
+
+    /**
+     * How old a file the index does not know must be before {@link #reconcileIndex} registers it.
+     * An upload publishes its file before registering it in the caller's transaction; a scan that
+     * got there first would count a reference the upload then counts again.
+     */
+    private static final Duration SETTLE_TIME = Duration.ofMinutes(2);
+
     private final Path rootPath;
+    private final Path stagingPath;
     private final ImageOptimizer imageOptimizer;
+    private final ImageVariantIndex variantIndex;
+    private final StoredFileIndex storedFileIndex;
+    private final ImageJobs imageJobs;
+    private final List<ImageEncoder> encoders;
+
+    /**
+     * Names {@link #store}/{@link #storeUnprocessed} uploads by the SHA-256 of their bytes, so the
+     * same image uploaded twice into a folder is written once and referenced twice. Documents,
+     * attachments and {@link #PERSONAL_FOLDERS} keep random names either way: those are people's
+     * own files, with lifetimes of their own, and a name derived from the content would tell
+     * anyone holding the same file that it is here.
+     */
+    private final boolean contentAddressed;
 
     public LocalFileStorageService(@Value("${app.storage.root:/app/uploads}") String rootPath,
-                                   ImageOptimizer imageOptimizer) {
+                                   ImageOptimizer imageOptimizer,
+                                   ImageVariantIndex variantIndex,
+                                   StoredFileIndex storedFileIndex,
+                                   ImageJobs imageJobs,
+                                   List<ImageEncoder> encoders,
+                                   @Value("${app.storage.content-addressed:false}") boolean contentAddressed) {
         this.rootPath = Paths.get(rootPath);
+        this.stagingPath = this.rootPath.resolve(STAGING_FOLDER);
         this.imageOptimizer = imageOptimizer;
+        this.variantIndex = variantIndex;
+        this.storedFileIndex = storedFileIndex;
+        this.imageJobs = imageJobs;
+        this.encoders = List.copyOf(encoders);
+        this.contentAddressed = contentAddressed;
         try {
             Files.createDirectories(this.rootPath);
+            Files.createDirectories(this.stagingPath);
         } catch (IOException e) {
             throw new RuntimeException("Failed to create storage root directory: " + rootPath, e);
         }
@@ -86,33 +186,210 @@ public class LocalFileStorageService implements FileStorageService {
 
         requireSignature(file, extension, ALLOWED_CONTENT_TYPES);
 
-        // Optimize image (resize/compress if needed)
-        var optimized = imageOptimizer.optimize(file.getInputStream(), extension);
-        String finalExtension = optimized.extension();
-        String filename = UUID.randomUUID() + finalExtension;
+        // Validate folder name (strict: only lowercase letters) before any work is done
+        validateFolderName(folder);
 
-        // Validate folder name (strict: only lowercase letters)
-        if (folder != null) {
-            if (folder.isBlank() || !VALID_FOLDER_PATTERN.matcher(folder).matches()) {
-                throw new IllegalArgumentException(
-                        "Invalid folder name. Expected: lowercase letters only (e.g., instructors, gallery)"
-                );
+        String contentHash = isContentAddressed(folder) ? sha256(file) : null;
+        if (contentHash != null) {
+            Optional<String> existing = reuse(folder, contentHash);
+            if (existing.isPresent()) {
+                return existing.get();
             }
         }
 
-        // Determine target path
-        Path targetPath = folder != null
-                ? rootPath.resolve(folder).resolve(filename)
-                : rootPath.resolve(filename);
+        Path staged = stage();
+        try {
+            // Optimize image (resize/compress if needed), written straight to the staging file
+            var optimized = imageOptimizer.optimize(file.getInputStream(), extension, staged);
+            String filename = newName(contentHash) + optimized.extension();
+            // Variants first: once the original is visible under its name, its srcset is complete
+            List<ImageVariant> variants = folder != null && optimized.width() != null && optimized.height() != null
+                    ? writeVariants(staged, optimized.extension(), folder, filename, optimized.width(), optimized.height())
+                    : List.of();
+            FileStat written = FileStat.of(staged);
+            publish(staged, folder, filename);
+            if (folder != null) {
+                variantIndex.record(folder, filename, variants);
+                storedFileIndex.register(folder, filename, contentHash, written);
+                if (!variants.isEmpty() && encoders.stream().anyMatch(ImageEncoder::isAvailable)) {
+                    imageJobs.enqueue(folder, filename, Kind.RENDITIONS);
+                }
+            }
 
-        // Create folder if needed
-        Files.createDirectories(targetPath.getParent());
+            logger.info("Stored file: {} in folder: {}", filename, folder);
+            return filename;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public String storeUnprocessed(MultipartFile file, String folder) throws IOException {
+        validateFile(file);
+        String extension = getFileExtension(file.getOriginalFilename());
+        FileSignatures.Format format = requireSignature(file, extension, ALLOWED_CONTENT_TYPES);
+        validateFolderName(folder);
+
+        String contentHash = isContentAddressed(folder) ? sha256(file) : null;
+        if (contentHash != null) {
+            // Possibly already processed, possibly still queued — either way the right file
+            Optional<String> existing = reuse(folder, contentHash);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        Path staged = stage();
+        try {
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // The one check that cannot wait for the queue: a decompression bomb must be refused
+            // now, not stored and served until its turn comes.
+            imageOptimizer.checkPixelCount(staged);
+            String filename = newName(contentHash) + format.canonicalExtension();
+            FileStat written = FileStat.of(staged);
+            // Marked first: there is no moment at which the raw file can be served as final
+            Path marker = pendingPath(filename, folder);
+            Files.createDirectories(marker.getParent());
+            Files.createFile(marker);
+            try {
+                publish(staged, folder, filename);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(marker);
+                throw e;
+            }
+            storedFileIndex.register(folder, filename, contentHash, written);
+
+            logger.info("Stored unprocessed file: {} in folder: {}", filename, folder);
+            return filename;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public boolean process(String filename, String folder) throws IOException {
+        Path original = getFilePath(filename, folder);
+        if (!Files.exists(original)) {
+            Files.deleteIfExists(pendingPath(filename, folder));
+            return false;
+        }
+        String extension = getFileExtension(filename);
 
-        // Copy file
-        Files.copy(optimized.inputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+        Path staged = stage();
+        try {
+            ImageOptimizer.OptimizedImage optimized;
+            try (InputStream in = Files.newInputStream(original)) {
+                optimized = imageOptimizer.optimize(in, extension, staged);
+            }
+            List<ImageVariant> variants = optimized.width() != null && optimized.height() != null
+                    ? writeVariants(staged, optimized.extension(), folder, filename, optimized.width(), optimized.height())
+                    : List.of();
+            writeRenditions(staged, folder, filename, variants);
+            // Same name: the optimizer keeps the canonical extension storeUnprocessed gave it
+            FileStat written = FileStat.of(staged);
+            publish(staged, folder, filename);
+            variantIndex.record(folder, filename, variants);
+            storedFileIndex.resized(folder, filename, written);
+            Files.deleteIfExists(pendingPath(filename, folder));
+
+            logger.info("Processed file: {} in folder: {}", filename, folder);
+            return true;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
 
-        logger.info("Stored file: {} in folder: {}", filename, folder);
-        return filename;
+    @Override
+    public boolean isPending(String filename, String folder) {
+        validateFilename(filename);
+        validateFolderName(folder);
+        return Files.exists(pendingPath(filename, folder));
+    }
+
+    @Override
+    public void keepUnprocessed(String filename, String folder) {
+        try {
+            Files.deleteIfExists(pendingPath(filename, folder));
+        } catch (IOException e) {
+            // Left in place, the upload is only ever served no-cache — slower, never wrong
+            logger.warn("Failed to unmark file: {}/{} - {}", folder, filename, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean encodeRenditions(String filename, String folder) throws IOException {
+        Path original = getFilePath(filename, folder);
+        if (!Files.exists(original)) {
+            return false;
+        }
+        List<ImageVariant> variants = variantIndex.find(folder, List.of(filename)).getOrDefault(filename, List.of());
+        writeRenditions(original, folder, filename, variants);
+
+        logger.info("Encoded renditions of file: {} in folder: {}", filename, folder);
+        return true;
+    }
+
+    /** @return every width now stored, the full-size one last */
+    private List<ImageVariant> writeVariants(Path original, String extension, String folder, String filename,
+                                             int width, int height) throws IOException {
+        List<ImageVariant> variants = new ArrayList<>();
+        for (int variantWidth : VARIANT_WIDTHS) {
+            if (variantWidth >= width) {
+                break;
+            }
+            Path staged = stage();
+            try {
+                var variant = imageOptimizer.writeVariant(original, extension, variantWidth, staged);
+                if (variant == null || variant.width() == null || variant.height() == null) {
+                    break;
+                }
+                publish(staged, variantPath(filename, folder, variantWidth));
+                variants.add(new ImageVariant(variant.width(), variant.height()));
+            } finally {
+                Files.deleteIfExists(staged);
+            }
+        }
+        variants.add(new ImageVariant(width, height));
+        return variants;
+    }
+
+    /**
+     * A rendition of the full-size image and of each variant, in every available format. Best
+     * effort: an encoder that fails, or produces a file no smaller than what it stands in for (a
+     * flat PNG graphic often does), leaves that size served as stored.
+     *
+     * @param variants as {@link #writeVariants} returned them (and the index holds them), the full
+     *   size last
+     */
+    private void writeRenditions(Path original, String folder, String filename, List<ImageVariant> variants)
+            throws IOException {
+        for (ImageEncoder encoder : encoders) {
+            if (!encoder.isAvailable()) {
+                continue;
+            }
+            for (int i = 0; i < variants.size(); i++) {
+                boolean fullSize = i == variants.size() - 1;
+                Integer width = fullSize ? null : variants.get(i).width();
+                Path source = fullSize ? original : variantPath(filename, folder, width);
+                writeRendition(encoder, source, renditionPath(filename, folder, encoder.format(), width));
+            }
+        }
+    }
+
+    private void writeRendition(ImageEncoder encoder, Path source, Path target) throws IOException {
+        Path staged = stage();
+        try {
+            encoder.encode(source, staged);
+            if (Files.size(staged) < Files.size(source)) {
+                publish(staged, target);
+            }
+        } catch (IOException e) {
+            logger.warn("No {} rendition of {}: {}", encoder.format(), source.getFileName(), e.getMessage());
+        } finally {
+            Files.deleteIfExists(staged);
+        }
     }
 
     @Override
@@ -141,29 +418,33 @@ public class LocalFileStorageService implements FileStorageService {
         FileSignatures.Format format = requireSignature(file, extension, ALLOWED_ATTACHMENT_TYPES);
 
         String filename;
-        InputStream toWrite;
         Integer width = null;
         Integer height = null;
 
-        if (format == FileSignatures.Format.PDF) {
-            // Stored byte for byte — a PDF cannot be re-encoded, so it keeps its own metadata.
-            // Said plainly in the privacy policy rather than quietly assumed.
-            filename = UUID.randomUUID() + ".pdf";
-            toWrite = file.getInputStream();
-        } else {
-            var optimized = imageOptimizer.reencodeAsJpeg(file.getInputStream());
-            filename = UUID.randomUUID() + optimized.extension();
-            toWrite = optimized.inputStream();
-            width = optimized.width();
-            height = optimized.height();
+        Path staged = stage();
+        try {
+            if (format == FileSignatures.Format.PDF) {
+                // Stored byte for byte — a PDF cannot be re-encoded, so it keeps its own metadata.
+                // Said plainly in the privacy policy rather than quietly assumed.
+                filename = UUID.randomUUID() + ".pdf";
+                try (InputStream in = file.getInputStream()) {
+                    Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                var optimized = imageOptimizer.reencodeAsJpeg(file.getInputStream(), staged);
+                filename = UUID.randomUUID() + optimized.extension();
+                width = optimized.width();
+                height = optimized.height();
+            }
+            FileStat written = FileStat.of(staged);
+            publish(staged, folder, filename);
+            storedFileIndex.register(folder, filename, null, written);
+
+            logger.info("Stored attachment: {} in folder: {}", filename, folder);
+            return new StoredFile(filename, contentTypeForExtension(filename), written.sizeBytes(), width, height);
+        } finally {
+            Files.deleteIfExists(staged);
         }
-
-        Path targetPath = rootPath.resolve(folder).resolve(filename);
-        Files.createDirectories(targetPath.getParent());
-        long written = Files.copy(toWrite, targetPath, StandardCopyOption.REPLACE_EXISTING);
-
-        logger.info("Stored attachment: {} in folder: {}", filename, folder);
-        return new StoredFile(filename, contentTypeForExtension(filename), written, width, height);
     }
 
     private StoredFile writeDocument(MultipartFile file, @Nullable String folder) throws IOException {
@@ -171,26 +452,91 @@ public class LocalFileStorageService implements FileStorageService {
         FileSignatures.Format format = requireSignature(file, extension, ALLOWED_DOCUMENT_TYPES);
 
         String filename;
-        InputStream toWrite;
 
-        if (format == FileSignatures.Format.PDF) {
-            // PDFs are stored as-is — the image optimizer only understands images
-            filename = UUID.randomUUID() + ".pdf";
-            toWrite = file.getInputStream();
-        } else {
-            var optimized = imageOptimizer.optimize(file.getInputStream(), extension);
-            filename = UUID.randomUUID() + optimized.extension();
-            toWrite = optimized.inputStream();
+        Path staged = stage();
+        try {
+            if (format == FileSignatures.Format.PDF) {
+                // PDFs are stored as-is — the image optimizer only understands images
+                filename = UUID.randomUUID() + ".pdf";
+                try (InputStream in = file.getInputStream()) {
+                    Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                var optimized = imageOptimizer.optimize(file.getInputStream(), extension, staged);
+                filename = UUID.randomUUID() + optimized.extension();
+            }
+            FileStat written = FileStat.of(staged);
+            publish(staged, folder, filename);
+            if (folder != null) {
+                storedFileIndex.register(folder, filename, null, written);
+            }
+
+            logger.info("Stored document: {} in folder: {}", filename, folder);
+            return new StoredFile(filename, contentTypeForExtension(filename), written.sizeBytes(), null, null);
+        } finally {
+            Files.deleteIfExists(staged);
         }
+    }
 
-        Path targetPath = folder != null
+    /**
+     * A content-addressed hit: one more reference on the file already holding these bytes. A file
+     * removed from disk behind the index's back is dropped from it and stored afresh.
+     */
+    private boolean isContentAddressed(@Nullable String folder) {
+        return contentAddressed && folder != null && !PERSONAL_FOLDERS.contains(folder);
+    }
+
+    private Optional<String> reuse(String folder, String contentHash) {
+        Optional<String> existing = storedFileIndex.acquire(folder, contentHash);
+        if (existing.isPresent() && !Files.exists(rootPath.resolve(folder).resolve(existing.get()))) {
+            storedFileIndex.forget(folder, existing.get());
+            return Optional.empty();
+        }
+        existing.ifPresent(filename ->
+                logger.info("Stored file: {} in folder: {} (same content already stored)", filename, folder));
+        return existing;
+    }
+
+    private static String newName(@Nullable String contentHash) {
+        return contentHash != null ? contentHash : UUID.randomUUID().toString();
+    }
+
+    /** Of the bytes as uploaded, so a hit is known before anything is decoded. */
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required JDK algorithm", e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path stage() throws IOException {
+        return Files.createTempFile(stagingPath, "upload-", ".part");
+    }
+
+    /**
+     * Renames a finished staging file into place. A reader of the folder — the public file
+     * endpoint, the orphan sweeps — sees either no file or the whole file, never a half-written one.
+     */
+    private void publish(Path staged, @Nullable String folder, String filename) throws IOException {
+        publish(staged, folder != null
                 ? rootPath.resolve(folder).resolve(filename)
-                : rootPath.resolve(filename);
-        Files.createDirectories(targetPath.getParent());
-        long written = Files.copy(toWrite, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                : rootPath.resolve(filename));
+    }
 
-        logger.info("Stored document: {} in folder: {}", filename, folder);
-        return new StoredFile(filename, contentTypeForExtension(filename), written, null, null);
+    private void publish(Path staged, Path targetPath) throws IOException {
+        Files.createDirectories(targetPath.getParent());
+        if (staged.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            // createTempFile makes the file 0600, and a rename keeps the mode: set it here rather
+            // than leave readability to whatever umask and user the deployment happens to run with
+            Files.setPosixFilePermissions(staged, PUBLISHED_PERMISSIONS);
+        }
+        Files.move(staged, targetPath, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
@@ -232,7 +578,53 @@ public class LocalFileStorageService implements FileStorageService {
     public void delete(String filename, @Nullable String folder) throws IOException {
         // Prevent directory traversal
         validateFilename(filename);
+        validateFolderName(folder);
 
+        int remaining = folder != null ? storedFileIndex.release(folder, filename) : 0;
+        if (folder == null || remaining == 0) {
+            unlink(filename, folder);
+            return;
+        }
+        logger.info("Kept file: {} in folder: {} — another upload of the same content uses it", filename, folder);
+        // The other upload may have been made for a row that is gone too, and whose owner never
+        // called delete because this caller's row still showed the file: let the rows decide,
+        // once this transaction's own deletes are committed.
+        afterCommit(() -> unlinkIfUnreferenced(filename, folder, remaining));
+    }
+
+    private void unlinkIfUnreferenced(String filename, String folder, int refCount) {
+        try {
+            if (storedFileIndex.forgetIfUnreferenced(folder, filename, refCount)) {
+                unlink(filename, folder);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Still registered or still on disk: the storage audit lists it as an orphan
+            logger.warn("Failed to delete unreferenced file: {}/{} - {}", folder, filename, e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void purge(String filename, String folder) throws IOException {
+        validateFilename(filename);
+        validateFolderName(folder);
+        storedFileIndex.forget(folder, filename);
+        unlink(filename, folder);
+    }
+
+    private void unlink(String filename, @Nullable String folder) throws IOException {
         Path filePath = folder != null
                 ? rootPath.resolve(folder).resolve(filename)
                 : rootPath.resolve(filename);
@@ -241,6 +633,148 @@ public class LocalFileStorageService implements FileStorageService {
             Files.delete(filePath);
             logger.info("Deleted file: {} from folder: {}", filename, folder);
         }
+        if (folder != null) {
+            for (int width : VARIANT_WIDTHS) {
+                Files.deleteIfExists(variantPath(filename, folder, width));
+            }
+            for (ImageEncoder encoder : encoders) {
+                // Available or not: renditions written before it went missing are still on disk
+                Files.deleteIfExists(renditionPath(filename, folder, encoder.format(), null));
+                for (int width : VARIANT_WIDTHS) {
+                    Files.deleteIfExists(renditionPath(filename, folder, encoder.format(), width));
+                }
+            }
+            Files.deleteIfExists(pendingPath(filename, folder));
+            variantIndex.forget(folder, filename);
+            imageJobs.forgetFinished(folder, filename);
+        }
+    }
+
+    @Override
+    public Reconciliation reconcileIndex() throws IOException {
+        Instant settled = Instant.now().minus(SETTLE_TIME);
+        Map<String, Instant> lastScans = storedFileIndex.folderScans();
+        int scanned = 0, added = 0, updated = 0, removed = 0;
+
+        try (var folders = Files.list(rootPath)) {
+            for (Path folderPath : folders.filter(Files::isDirectory).toList()) {
+                String folder = folderPath.getFileName().toString();
+                if (!VALID_FOLDER_PATTERN.matcher(folder).matches()) {
+                    continue; // .staging
+                }
+                // Read before listing: a change made while the listing runs moves it again
+                Instant dirModified = FileStat.of(folderPath).modifiedAt();
+                if (dirModified != null && dirModified.equals(lastScans.get(folder))) {
+                    continue;
+                }
+                scanned++;
+
+                Map<String, FileStat> indexed = storedFileIndex.stats(folder);
+                Map<String, FileStat> changed = new HashMap<>();
+                Set<String> onDisk = new HashSet<>();
+                for (String filename : listFilenames(folder)) {
+                    if (!VALID_FILENAME_PATTERN.matcher(filename).matches()) {
+                        continue;
+                    }
+                    FileStat stat;
+                    try {
+                        stat = FileStat.of(folderPath.resolve(filename));
+                    } catch (NoSuchFileException e) {
+                        continue; // deleted since the listing
+                    }
+                    onDisk.add(filename);
+                    FileStat known = indexed.get(filename);
+                    if (known == null && stat.modifiedAt() != null && stat.modifiedAt().isAfter(settled)) {
+                        // Just published: the upload registering it may not have committed yet
+                        continue;
+                    }
+                    if (!stat.equals(known)) {
+                        changed.put(filename, stat);
+                        if (known == null) {
+                            added++;
+                        } else {
+                            updated++;
+                        }
+                    }
+                }
+                List<String> vanished = indexed.keySet().stream().filter(f -> !onDisk.contains(f)).toList();
+
+                storedFileIndex.scanned(folder, changed);
+                storedFileIndex.forget(folder, vanished);
+                removed += vanished.size();
+                // A directory changed within the settle time may still be changing in the same
+                // timestamp tick, or hold a skipped upload: look at it again next time
+                if (dirModified != null && dirModified.isBefore(settled)) {
+                    storedFileIndex.folderScanned(folder, dirModified);
+                }
+            }
+        }
+        return new Reconciliation(scanned, added, updated, removed);
+    }
+
+    @Override
+    public Map<String, List<ImageVariant>> findVariants(String folder, Collection<String> filenames) {
+        validateFolderName(folder);
+        return variantIndex.find(folder, filenames);
+    }
+
+    @Override
+    public OptionalInt findVariantWidth(String filename, String folder, int minWidth) {
+        getFilePath(filename, folder); // validates both
+        for (int width : VARIANT_WIDTHS) {
+            if (width >= minWidth && Files.exists(variantPath(filename, folder, width))) {
+                return OptionalInt.of(width);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    @Override
+    public Resource getVariantResource(String filename, String folder, int width) throws IOException {
+        getFilePath(filename, folder);
+        return existingResource(variantPath(filename, folder, width), width + "/" + filename);
+    }
+
+    /** Callers validate {@code filename} and {@code folder}; the width is an int, so the path is safe. */
+    private Path variantPath(String filename, String folder, int width) {
+        return rootPath.resolve(folder).resolve(Integer.toString(width)).resolve(filename);
+    }
+
+    @Override
+    public List<String> renditionContentTypes() {
+        return encoders.stream().filter(ImageEncoder::isAvailable).map(ImageEncoder::contentType).toList();
+    }
+
+    @Override
+    public @Nullable String renditionSrcset(String url, @Nullable List<ImageVariant> variants, String contentType) {
+        if (!renditionContentTypes().contains(contentType)) {
+            return null;
+        }
+        // The subtype is what FileController matches fmt against
+        return ImageVariant.srcset(url, variants, contentType.substring(contentType.indexOf('/') + 1));
+    }
+
+    @Override
+    public Optional<Resource> findRendition(String filename, String folder, OptionalInt width, String contentType) {
+        getFilePath(filename, folder);
+        for (ImageEncoder encoder : encoders) {
+            if (encoder.contentType().equals(contentType)) {
+                Path path = renditionPath(filename, folder, encoder.format(),
+                        width.isPresent() ? width.getAsInt() : null);
+                return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Path pendingPath(String filename, String folder) {
+        return rootPath.resolve(folder).resolve(PENDING_FOLDER).resolve(filename);
+    }
+
+    /** The format is an encoder's own constant, never a request value; otherwise as {@link #variantPath}. */
+    private Path renditionPath(String filename, String folder, String format, @Nullable Integer width) {
+        Path formatDir = rootPath.resolve(folder).resolve(format);
+        return (width != null ? formatDir.resolve(Integer.toString(width)) : formatDir).resolve(filename);
     }
 
     @Override
@@ -266,6 +800,19 @@ public class LocalFileStorageService implements FileStorageService {
         return Files.newInputStream(filePath);
     }
 
+    @Override
+    public Resource getResource(String filename, @Nullable String folder) throws IOException {
+        return existingResource(getFilePath(filename, folder), filename);
+    }
+
+    /** NIO-backed: reads go through a {@code FileChannel}, so skipping to a range's start is a seek. */
+    private static Resource existingResource(Path path, String name) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("File not found: " + name);
+        }
+        return new FileSystemResource(path);
+    }
+
     @Override
     public long getFileSize(String filename, @Nullable String folder) {
         Path filePath = getFilePath(filename, folder);
@@ -294,6 +841,25 @@ public class LocalFileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public Stream<String> streamFilenames(String folder) {
+        validateFolderName(folder);
+        Path folderPath = rootPath.resolve(folder);
+        if (!Files.isDirectory(folderPath)) {
+            return Stream.empty();
+        }
+        try {
+            // Filtered by name rather than Files::isRegularFile, which would stat every entry; the
+            // numeric variant directories never match the pattern
+            return Files.list(folderPath)
+                    .map(p -> p.getFileName().toString())
+                    .filter(filename -> VALID_FILENAME_PATTERN.matcher(filename).matches());
+        } catch (IOException e) {
+            logger.warn("Failed to list files in folder {}", folder, e);
+            return Stream.empty();
+        }
+    }
+
     @Override
     public long getLastModifiedMillis(String filename, @Nullable String folder) {
         Path filePath = getFilePath(filename, folder);
@@ -0,0 +1,228 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Every file in the storage root — size, modification time, content hash — and how many stored
+ * uploads point at it, in {@code stored_files} (V96, V97).
+ *
+ * <p>A content-addressed upload ({@code app.storage.content-addressed}) whose bytes are already in
+ * the folder takes one more reference instead of a second copy, and {@link #release} tells
+ * {@link LocalFileStorageService#delete} whether the last one is gone. Callers still decide when a
+ * file is unused by their own rows — a news block synced to a translation shares the filename
+ * without storing anything — so the count is per upload, not per referencing row, and the two
+ * drift apart: of two instructors sharing one photo, the first one deleted never calls delete at
+ * all, because the other still shows it. A count left above zero is therefore checked against
+ * {@link #REFERENCES} once the deleting transaction commits ({@link #forgetIfUnreferenced}), and
+ * the rows decide.
+ *
+ * <p>Only {@link LocalFileStorageService} writes here, next to the files themselves, and its
+ * reconciliation scan corrects what changed on disk behind its back; {@code stored_folders}
+ * remembers each folder's directory mtime at the last scan, so an unchanged folder is not listed
+ * again. The storage audit anti-joins the table against the content tables in SQL.
+ */
+@Component
+public class StoredFileIndex {
+
+    /** Every filename a content table references, with the storage folder it lives in. */
+    public static final String REFERENCES = """
+        WITH refs (folder, filename) AS (
+                  SELECT 'gallery', filename FROM photos
+            UNION SELECT 'news', thumbnail_filename FROM news WHERE thumbnail_filename IS NOT NULL
+            UNION SELECT 'news', image_filename FROM news_content_blocks WHERE image_filename IS NOT NULL
+            UNION SELECT 'courses', thumbnail_filename FROM courses WHERE thumbnail_filename IS NOT NULL
+            UNION SELECT 'courses', image_filename FROM course_content_blocks WHERE image_filename IS NOT NULL
+            UNION SELECT 'instructors', photo_filename FROM instructors WHERE photo_filename IS NOT NULL
+            UNION SELECT 'assets', filename FROM shared_assets
+        )
+        """;
+
+    /** The folders {@link #REFERENCES} covers; documents and attachments have sweeps of their own. */
+    public static final String AUDITED_FOLDERS = "('gallery', 'news', 'courses', 'instructors', 'assets')";
+
+    private static final String ACQUIRE = """
+        UPDATE stored_files SET ref_count = ref_count + 1
+         WHERE (folder, filename) = (SELECT folder, filename FROM stored_files
+                                      WHERE folder = ? AND sha256 = ?
+                                      ORDER BY created_at
+                                      LIMIT 1)
+        RETURNING filename
+        """;
+
+    private static final String REGISTER = """
+        INSERT INTO stored_files (folder, filename, sha256, size_bytes, modified_at) VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (folder, filename)
+        DO UPDATE SET ref_count = stored_files.ref_count + 1,
+                      size_bytes = EXCLUDED.size_bytes, modified_at = EXCLUDED.modified_at
+        """;
+
+    private static final String SCANNED = """
+        INSERT INTO stored_files (folder, filename, size_bytes, modified_at) VALUES (?, ?, ?, ?)
+        ON CONFLICT (folder, filename)
+        DO UPDATE SET size_bytes = EXCLUDED.size_bytes, modified_at = EXCLUDED.modified_at
+        """;
+
+    private static final String RESIZED = """
+        UPDATE stored_files SET size_bytes = ?, modified_at = ? WHERE folder = ? AND filename = ?
+        """;
+
+    private static final String RELEASE = """
+        UPDATE stored_files SET ref_count = ref_count - 1 WHERE folder = ? AND filename = ?
+        RETURNING ref_count
+        """;
+
+    private static final String FORGET = "DELETE FROM stored_files WHERE folder = ? AND filename = ?";
+
+    // The count must still be the one release() left: an upload that acquired the file since has a
+    // row of its own on the way, and its update holds the index row until that row is committed.
+    private static final String FORGET_UNREFERENCED = REFERENCES + """
+        DELETE FROM stored_files f
+         WHERE f.folder = ? AND f.filename = ? AND f.ref_count = ?
+           AND f.folder IN %s
+           AND NOT EXISTS (SELECT 1 FROM refs r WHERE r.folder = f.folder AND r.filename = f.filename)
+        """.formatted(AUDITED_FOLDERS);
+
+    private static final String STATS = "SELECT filename, size_bytes, modified_at FROM stored_files WHERE folder = ?";
+
+    private static final String FOLDER_SCANS = "SELECT folder, dir_modified_at FROM stored_folders";
+
+    private static final String FOLDER_SCANNED = """
+        INSERT INTO stored_folders (folder, dir_modified_at) VALUES (?, ?)
+        ON CONFLICT (folder) DO UPDATE SET dir_modified_at = EXCLUDED.dir_modified_at, scanned_at = now()
+        """;
+
+    /**
+     * Size and modification time of a file, as the index holds them. Timestamps are kept to the
+     * microsecond — what {@code TIMESTAMPTZ} stores — so one read back compares equal to one
+     * taken from the disk.
+     */
+    record FileStat(long sizeBytes, @Nullable Instant modifiedAt) {
+
+        static FileStat of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStat(attributes.size(), attributes.lastModifiedTime().toInstant().truncatedTo(ChronoUnit.MICROS));
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public StoredFileIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Takes one more reference on a file already stored from the same bytes.
+     *
+     * @return its name, or empty if the folder holds no such content
+     */
+    Optional<String> acquire(String folder, String sha256) {
+        return jdbc.queryForList(ACQUIRE, String.class, folder, sha256).stream().findFirst();
+    }
+
+    /** A new file, or — for a content-addressed name stored concurrently — one more reference. */
+    void register(String folder, String filename, @Nullable String sha256, FileStat stat) {
+        jdbc.update(REGISTER, folder, filename, sha256, stat.sizeBytes(), timestamp(stat.modifiedAt()));
+    }
+
+    /**
+     * What a reconciliation scan found on disk: files the index did not know, with one reference
+     * each, and known files whose size or modification time changed. Reference counts of known
+     * files are left alone.
+     */
+    void scanned(String folder, Map<String, FileStat> statsByFilename) {
+        List<Object[]> rows = new ArrayList<>(statsByFilename.size());
+        statsByFilename.forEach((filename, stat) ->
+                rows.add(new Object[]{folder, filename, stat.sizeBytes(), timestamp(stat.modifiedAt())}));
+        jdbc.batchUpdate(SCANNED, rows);
+    }
+
+    /** The image queue optimized the file in place under the same name. */
+    void resized(String folder, String filename, FileStat stat) {
+        jdbc.update(RESIZED, stat.sizeBytes(), timestamp(stat.modifiedAt()), folder, filename);
+    }
+
+    /**
+     * Drops one reference.
+     *
+     * @return the references left; 0 if that was the last one or the file was never registered,
+     *   and the file is then forgotten
+     */
+    int release(String folder, String filename) {
+        List<Integer> remaining = jdbc.queryForList(RELEASE, Integer.class, folder, filename);
+        if (!remaining.isEmpty() && remaining.getFirst() > 0) {
+            return remaining.getFirst();
+        }
+        forget(folder, filename);
+        return 0;
+    }
+
+    /**
+     * Forgets a file {@link #release} left referenced when no content row points at it any more.
+     * Runs after the deleting transaction committed, so it sees the rows that transaction removed
+     * as gone, and commits on its own. Folders outside {@link #AUDITED_FOLDERS} have no rows to
+     * check, and keep their count.
+     *
+     * @param refCount the count {@link #release} returned
+     * @return true if the file was forgotten and may be unlinked
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean forgetIfUnreferenced(String folder, String filename, int refCount) {
+        return jdbc.update(FORGET_UNREFERENCED, folder, filename, refCount) > 0;
+    }
+
+    void forget(String folder, String filename) {
+        jdbc.update(FORGET, folder, filename);
+    }
+
+    /** Files a reconciliation scan no longer found on disk. */
+    void forget(String folder, Collection<String> filenames) {
+        jdbc.batchUpdate(FORGET, filenames.stream().map(filename -> new Object[]{folder, filename}).toList());
+    }
+
+    /** Filename → size and modification time, for every file registered in the folder. */
+    Map<String, FileStat> stats(String folder) {
+        Map<String, FileStat> stats = new HashMap<>();
+        jdbc.query(STATS, rs -> {
+            Timestamp modifiedAt = rs.getTimestamp("modified_at");
+            stats.put(rs.getString("filename"), new FileStat(rs.getLong("size_bytes"),
+                    modifiedAt != null ? modifiedAt.toInstant() : null));
+        }, folder);
+        return stats;
+    }
+
+    /** Folder → modification time of its directory when it was last scanned. */
+    Map<String, Instant> folderScans() {
+        Map<String, Instant> scans = new HashMap<>();
+        jdbc.query(FOLDER_SCANS, rs -> {
+            scans.put(rs.getString("folder"), rs.getTimestamp("dir_modified_at").toInstant());
+        });
+        return scans;
+    }
+
+    /** The folder's listing matched the index when its directory had this modification time. */
+    void folderScanned(String folder, Instant dirModifiedAt) {
+        jdbc.update(FOLDER_SCANNED, folder, Timestamp.from(dirModifiedAt));
+    }
+
+    private static @Nullable Timestamp timestamp(@Nullable Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
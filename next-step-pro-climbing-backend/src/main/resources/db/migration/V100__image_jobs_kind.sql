@@ -0,0 +1,12 @@
+-- Rodzaj zadania w kolejce obrazów (V95).
+--
+-- OPTIMIZE — jak dotąd: surowy plik z storeUnprocessed do zmniejszenia, z wariantami szerokości
+-- i kopiami WebP. RENDITIONS — plik zapisany już zoptymalizowany przez store(), któremu brakuje
+-- tylko kopii WebP. Dotąd store() uruchamiał cwebp w wątku żądania, do czterech procesów na
+-- zdjęcie (pełny rozmiar i każdy wariant), w otwartej transakcji; teraz robi to kolejka.
+--
+-- Przez zadanie RENDITIONS plik nie jest "w trakcie" dla FileController: jego bajty są już
+-- ostateczne, więc może być cache'owany od razu.
+
+ALTER TABLE image_jobs ADD COLUMN kind VARCHAR(16) NOT NULL DEFAULT 'OPTIMIZE'
+    CHECK (kind IN ('OPTIMIZE', 'RENDITIONS'));
@@ -0,0 +1,66 @@
+-- Stała kolejność blokad przy podbijaniu wersji kalendarzy kilku zawodników naraz (V99).
+--
+-- Zmiana slotu albo wydarzenia podbija licznik każdego zawodnika z potwierdzoną rezerwacją lub
+-- trzymanym miejscem, a każde podbicie blokuje wiersz w training_calendar_heads do końca
+-- transakcji. W V99 kolejność wyznaczał UNION, czyli plan zapytania: dwie równoległe edycje
+-- slotów z tymi samymi zawodnikami mogły zablokować A, B i B, A — i czekać na siebie, aż
+-- PostgreSQL przerwie jedną z nich jako deadlock.
+--
+-- Teraz oba triggery zbierają zawodników i oddają ich jednej funkcji, która najpierw blokuje
+-- istniejące wiersze liczników w kolejności athlete_id, a potem podbija je w tej samej kolejności
+-- (nowe wiersze też powstają po kolei). Dwie transakcje dotykające tych samych kalendarzy stają
+-- w kolejce na pierwszym wspólnym wierszu zamiast się zakleszczać.
+
+-- NULL (miejsce bez właściciela) i powtórzenia odpadają tutaj, więc wywołujący nie muszą sortować.
+CREATE FUNCTION bump_training_calendar_versions(p_athletes UUID[]) RETURNS void AS $$
+DECLARE
+    v_athlete UUID;
+BEGIN
+    IF p_athletes IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM 1
+       FROM training_calendar_heads
+      WHERE athlete_id = ANY(p_athletes)
+      ORDER BY athlete_id
+        FOR UPDATE;
+    FOR v_athlete IN
+        SELECT DISTINCT a FROM unnest(p_athletes) a WHERE a IS NOT NULL ORDER BY a
+    LOOP
+        PERFORM bump_training_calendar_version(v_athlete);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_time_slots_change_version() RETURNS trigger AS $$
+BEGIN
+    IF (NEW.date, NEW.start_time, NEW.end_time, NEW.title, NEW.is_blocked, NEW.event_id)
+       IS NOT DISTINCT FROM
+       (OLD.date, OLD.start_time, OLD.end_time, OLD.title, OLD.is_blocked, OLD.event_id) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM bump_training_calendar_versions(ARRAY(
+        SELECT user_id FROM reservations WHERE time_slot_id = NEW.id AND status = 'CONFIRMED'
+        UNION
+        SELECT user_id FROM reserved_seats WHERE time_slot_id = NEW.id));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_events_change_version() RETURNS trigger AS $$
+BEGIN
+    IF (NEW.title, NEW.start_date, NEW.end_date, NEW.start_time, NEW.end_time, NEW.is_active)
+       IS NOT DISTINCT FROM
+       (OLD.title, OLD.start_date, OLD.end_date, OLD.start_time, OLD.end_time, OLD.is_active) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM bump_training_calendar_versions(ARRAY(
+        SELECT r.user_id
+          FROM reservations r
+          JOIN time_slots ts ON ts.id = r.time_slot_id
+         WHERE ts.event_id = NEW.id AND r.status = 'CONFIRMED'
+        UNION
+        SELECT user_id FROM reserved_seats WHERE event_id = NEW.id));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
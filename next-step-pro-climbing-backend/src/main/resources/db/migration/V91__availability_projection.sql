@@ -0,0 +1,285 @@
+-- Utrzymywana projekcja zajętości miejsc: jeden wiersz na slot i jeden na wydarzenie.
+--
+-- Kalendarz liczył zajętość przy każdym niecache'owanym widoku, składając ją z czterech tabel
+-- (reservations, guest_reservations, waitlist, reserved_seats) kilkoma zapytaniami agregującymi.
+-- Teraz te liczby leżą gotowe, a widok czyta jeden wiersz na slot.
+--
+-- Projekcję utrzymują TRIGGERY, nie kod aplikacji. Zapisów zmieniających zajętość jest kilkanaście
+-- (rezerwacje, goście, oferty z kolejki, zaproszenia), do tego masowe DELETE z JPQL i kaskady po
+-- usunięciu użytkownika, slotu czy wydarzenia — żadnego z nich nie da się przeoczyć, bo przechodzą
+-- przez tabele, a nie przez serwisy. Aktualizacja idzie w tej samej transakcji co zapis.
+--
+-- Trigger nie dodaje delty, tylko PRZELICZA wiersz od zera dla jednego slotu/wydarzenia: liczba
+-- "trzymanych" zaproszeń zależy od tego, czy zaproszony ma już potwierdzoną rezerwację, więc
+-- delta musiałaby znać pół logiki zaproszeń. Przeliczenie zaczyna się od zablokowania wiersza
+-- projekcji (FOR UPDATE), a dopiero KOLEJNE polecenie liczy — w READ COMMITTED dostaje ono świeży
+-- snapshot, więc widzi to, co zatwierdziła transakcja, na którą czekało. Bez tej kolejności dwie
+-- równoległe rezerwacje tego samego slotu nadpisałyby sobie nawzajem wynik.
+--
+-- Znaczenie kolumn jest DOKŁADNIE takie jak dotychczasowych zapytań (ReservationRepository,
+-- GuestReservationRepository, WaitlistRepository, ReservedSeatRepository):
+--   taken   -- slot: suma uczestników potwierdzonych rezerwacji + gości slotu;
+--              wydarzenie: najbardziej zajęty z jego slotów + goście zapisani na samo wydarzenie.
+--   held    -- zaproszenia, których adresat nie ma jeszcze potwierdzonej rezerwacji.
+--   pending -- oferty z kolejki czekające na potwierdzenie (PENDING_CONFIRMATION).
+--
+-- Widoki *_live to ta sama definicja liczona na żywo. Z nich korzystają triggery, wypełnienie
+-- początkowe poniżej i nocna weryfikacja (AvailabilityProjectionService) — jedna definicja, więc
+-- projekcja i kontrola nie mogą się rozjechać "w definicji", tylko w danych.
+
+CREATE TABLE slot_availability (
+    time_slot_id UUID PRIMARY KEY REFERENCES time_slots(id) ON DELETE CASCADE,
+    taken        INT NOT NULL DEFAULT 0,
+    held         INT NOT NULL DEFAULT 0,
+    pending      INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE event_availability (
+    event_id UUID PRIMARY KEY REFERENCES events(id) ON DELETE CASCADE,
+    taken    INT NOT NULL DEFAULT 0,
+    held     INT NOT NULL DEFAULT 0,
+    pending  INT NOT NULL DEFAULT 0
+);
+
+-- Skorelowane podzapytania zamiast GROUP BY: filtr "WHERE time_slot_id = X" zostaje wepchnięty do
+-- time_slots, więc trigger liczy jeden slot, a nie całą tabelę.
+CREATE VIEW slot_availability_live AS
+SELECT ts.id       AS time_slot_id,
+       ts.event_id AS event_id,
+       (SELECT COALESCE(SUM(r.participants), 0) FROM reservations r
+         WHERE r.time_slot_id = ts.id AND r.status = 'CONFIRMED')
+     + (SELECT COALESCE(SUM(g.participants), 0) FROM guest_reservations g
+         WHERE g.time_slot_id = ts.id)                                        AS taken,
+       (SELECT COUNT(*) FROM reserved_seats rs
+         WHERE rs.time_slot_id = ts.id
+           AND NOT EXISTS (SELECT 1 FROM reservations r
+                            WHERE r.user_id = rs.user_id AND r.time_slot_id = ts.id
+                              AND r.status = 'CONFIRMED'))                    AS held,
+       (SELECT COUNT(*) FROM waitlist w
+         WHERE w.slot_id = ts.id AND w.status = 'PENDING_CONFIRMATION')       AS pending
+FROM time_slots ts;
+
+CREATE VIEW event_availability_live AS
+SELECT e.id AS event_id,
+       COALESCE((SELECT MAX(sl.taken) FROM slot_availability_live sl WHERE sl.event_id = e.id), 0)
+     + (SELECT COALESCE(SUM(g.participants), 0) FROM guest_reservations g
+         WHERE g.event_id = e.id)                                             AS taken,
+       (SELECT COUNT(*) FROM reserved_seats rs
+         WHERE rs.event_id = e.id
+           AND NOT EXISTS (SELECT 1 FROM reservations r
+                             JOIN time_slots ts ON ts.id = r.time_slot_id
+                            WHERE r.user_id = rs.user_id AND ts.event_id = e.id
+                              AND r.status = 'CONFIRMED'))                    AS held,
+       (SELECT COUNT(*) FROM event_waitlist w
+         WHERE w.event_id = e.id AND w.status = 'PENDING_CONFIRMATION')       AS pending
+FROM events e;
+
+-- Brak wiersza = slot/wydarzenie właśnie znika kaskadą; wtedy nie ma czego przeliczać.
+CREATE FUNCTION refresh_slot_availability(p_slot_id UUID) RETURNS void AS $$
+BEGIN
+    IF p_slot_id IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM 1 FROM slot_availability WHERE time_slot_id = p_slot_id FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+    UPDATE slot_availability sa
+       SET taken = l.taken, held = l.held, pending = l.pending
+      FROM slot_availability_live l
+     WHERE l.time_slot_id = p_slot_id AND sa.time_slot_id = p_slot_id;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION refresh_event_availability(p_event_id UUID) RETURNS void AS $$
+BEGIN
+    IF p_event_id IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM 1 FROM event_availability WHERE event_id = p_event_id FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+    UPDATE event_availability ea
+       SET taken = l.taken, held = l.held, pending = l.pending
+      FROM event_availability_live l
+     WHERE l.event_id = p_event_id AND ea.event_id = p_event_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Slot należący do wydarzenia zmienia też liczby wydarzenia (najbardziej zajęty dzień, zaproszenia
+-- "zużyte" rezerwacją na dowolny dzień). Slot przeliczany jest pierwszy.
+CREATE FUNCTION refresh_slot_and_event_availability(p_slot_id UUID) RETURNS void AS $$
+BEGIN
+    IF p_slot_id IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM refresh_slot_availability(p_slot_id);
+    PERFORM refresh_event_availability((SELECT event_id FROM time_slots WHERE id = p_slot_id));
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION trg_reservations_availability() RETURNS trigger AS $$
+BEGIN
+    -- Edycja komentarza czy znacznika maila nie zmienia zajętości — nie ma po co blokować slotu.
+    IF TG_OP = 'UPDATE'
+       AND NEW.status = OLD.status AND NEW.participants = OLD.participants
+       AND NEW.time_slot_id = OLD.time_slot_id AND NEW.user_id = OLD.user_id THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_slot_and_event_availability(OLD.time_slot_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.time_slot_id <> OLD.time_slot_id) THEN
+        PERFORM refresh_slot_and_event_availability(NEW.time_slot_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservations_availability
+    AFTER INSERT OR UPDATE OR DELETE ON reservations
+    FOR EACH ROW EXECUTE FUNCTION trg_reservations_availability();
+
+-- Gość i zaproszenie siedzą albo na slocie, albo na wydarzeniu — odświeżamy to, co jest ustawione.
+CREATE FUNCTION trg_slot_or_event_target_availability() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_slot_and_event_availability(OLD.time_slot_id);
+        PERFORM refresh_event_availability(OLD.event_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM refresh_slot_and_event_availability(NEW.time_slot_id);
+        PERFORM refresh_event_availability(NEW.event_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER guest_reservations_availability
+    AFTER INSERT OR UPDATE OR DELETE ON guest_reservations
+    FOR EACH ROW EXECUTE FUNCTION trg_slot_or_event_target_availability();
+
+-- notified_at zmienia się przy wysyłce zaproszenia; przeliczenie jest wtedy zbędne, ale tanie.
+CREATE TRIGGER reserved_seats_availability
+    AFTER INSERT OR UPDATE OR DELETE ON reserved_seats
+    FOR EACH ROW EXECUTE FUNCTION trg_slot_or_event_target_availability();
+
+CREATE FUNCTION trg_waitlist_availability() RETURNS trigger AS $$
+BEGIN
+    -- Liczy się tylko PENDING_CONFIRMATION — przesunięcia pozycji w kolejce nic nie zmieniają.
+    IF TG_OP = 'UPDATE' AND NEW.status = OLD.status AND NEW.slot_id = OLD.slot_id THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_slot_availability(OLD.slot_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM refresh_slot_availability(NEW.slot_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER waitlist_availability
+    AFTER INSERT OR UPDATE OR DELETE ON waitlist
+    FOR EACH ROW EXECUTE FUNCTION trg_waitlist_availability();
+
+CREATE FUNCTION trg_event_waitlist_availability() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.status = OLD.status AND NEW.event_id = OLD.event_id THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_event_availability(OLD.event_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM refresh_event_availability(NEW.event_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER event_waitlist_availability
+    AFTER INSERT OR UPDATE OR DELETE ON event_waitlist
+    FOR EACH ROW EXECUTE FUNCTION trg_event_waitlist_availability();
+
+-- Nowy slot dostaje swój wiersz od razu. Przypięcie slotu do wydarzenia (albo odpięcie, albo
+-- usunięcie dnia przy skracaniu wydarzenia) zmienia "najbardziej zajęty dzień" wydarzenia.
+CREATE FUNCTION trg_time_slots_availability() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO slot_availability (time_slot_id) VALUES (NEW.id);
+        PERFORM refresh_event_availability(NEW.event_id);
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.event_id IS DISTINCT FROM OLD.event_id THEN
+            PERFORM refresh_event_availability(OLD.event_id);
+            PERFORM refresh_event_availability(NEW.event_id);
+        END IF;
+    ELSE
+        PERFORM refresh_event_availability(OLD.event_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER time_slots_availability
+    AFTER INSERT OR UPDATE OR DELETE ON time_slots
+    FOR EACH ROW EXECUTE FUNCTION trg_time_slots_availability();
+
+CREATE FUNCTION trg_events_availability() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO event_availability (event_id) VALUES (NEW.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER events_availability
+    AFTER INSERT ON events
+    FOR EACH ROW EXECUTE FUNCTION trg_events_availability();
+
+-- Nocna kontrola (AvailabilityProjectionService): porównuje projekcję z widokami *_live, dopisuje
+-- brakujące wiersze i przelicza rozjechane tą samą procedurą co triggery — z blokadą wiersza, więc
+-- naprawa nie nadpisze zapisu, który zatwierdza się właśnie obok. Zwraca to, co naprawiła; pusty
+-- wynik jest normą, każdy wiersz oznacza ścieżkę zapisu, której triggery nie objęły.
+CREATE FUNCTION repair_availability_drift() RETURNS TABLE (kind TEXT, target_id UUID) AS $$
+DECLARE
+    v_id UUID;
+BEGIN
+    INSERT INTO slot_availability (time_slot_id)
+    SELECT ts.id FROM time_slots ts
+    ON CONFLICT (time_slot_id) DO NOTHING;
+    INSERT INTO event_availability (event_id)
+    SELECT e.id FROM events e
+    ON CONFLICT (event_id) DO NOTHING;
+
+    FOR v_id IN
+        SELECT sa.time_slot_id FROM slot_availability sa
+          JOIN slot_availability_live l ON l.time_slot_id = sa.time_slot_id
+         WHERE (sa.taken, sa.held, sa.pending) IS DISTINCT FROM (l.taken, l.held, l.pending)
+    LOOP
+        PERFORM refresh_slot_availability(v_id);
+        kind := 'SLOT';
+        target_id := v_id;
+        RETURN NEXT;
+    END LOOP;
+
+    FOR v_id IN
+        SELECT ea.event_id FROM event_availability ea
+          JOIN event_availability_live l ON l.event_id = ea.event_id
+         WHERE (ea.taken, ea.held, ea.pending) IS DISTINCT FROM (l.taken, l.held, l.pending)
+    LOOP
+        PERFORM refresh_event_availability(v_id);
+        kind := 'EVENT';
+        target_id := v_id;
+        RETURN NEXT;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Wypełnienie dla istniejących danych.
+INSERT INTO slot_availability (time_slot_id, taken, held, pending)
+SELECT time_slot_id, taken, held, pending FROM slot_availability_live;
+
+INSERT INTO event_availability (event_id, taken, held, pending)
+SELECT event_id, taken, held, pending FROM event_availability_live;
@@ -0,0 +1,62 @@
+-- Wspólne liczniki limitu żądań (RateLimitFilter) dla wielu instancji aplikacji.
+--
+-- Dotąd każda instancja liczyła w swojej pamięci, więc przy dwóch węzłach za load balancerem klient
+-- dostawał podwójny limit. Tu leży jeden "kubełek z żetonami" na (adres IP, grupę ścieżek):
+-- pojemność = limit na minutę, żetony wracają w sposób ciągły (limit na 60 s), żądanie zabiera
+-- jeden. W przeciwieństwie do stałych okien minutowych nie da się przepuścić dwóch pełnych limitów
+-- na styku okien, a z liczby żetonów wprost wynika, za ile sekund przyjdzie następny (Retry-After).
+--
+-- UNLOGGED celowo: to stan ulotny. Po awarii serwera tabela wraca pusta, co znaczy tylko tyle, że
+-- wszyscy dostają pełne kubełki — w zamian zapis nie idzie przez WAL i nie obciąża replikacji przy
+-- każdym żądaniu do API.
+
+CREATE UNLOGGED TABLE rate_limit_buckets (
+    bucket_key  TEXT             PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    refilled_at TIMESTAMPTZ      NOT NULL
+);
+
+-- Kubełek pełny po minucie bezczynności jest nie do odróżnienia od brakującego, więc sprzątanie
+-- (RateLimitBucketCleanupScheduler) kasuje po tym indeksie wszystko, czego dawno nikt nie dotykał.
+CREATE INDEX idx_rate_limit_buckets_refilled_at ON rate_limit_buckets (refilled_at);
+
+-- Jedno wywołanie = jedna podróż do bazy na żądanie. Wiersz jest blokowany (FOR UPDATE), więc
+-- równoległe żądania tego samego klienta na różnych węzłach ustawiają się w kolejce na tym jednym
+-- wierszu, a różni klienci sobie nie przeszkadzają. clock_timestamp(), nie now(): now() to początek
+-- transakcji i w dłuższej transakcji zegar stałby w miejscu. Czas zapisu nigdy się nie cofa
+-- (GREATEST) — żądanie, które czekało na blokadę, mogło odczytać zegar przed swoim poprzednikiem.
+CREATE FUNCTION rate_limit_take(p_key TEXT, p_limit INT, p_period_seconds INT)
+RETURNS TABLE (allowed BOOLEAN, tokens_left DOUBLE PRECISION)
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_now    TIMESTAMPTZ := clock_timestamp();
+    v_tokens DOUBLE PRECISION;
+    v_at     TIMESTAMPTZ;
+BEGIN
+    INSERT INTO rate_limit_buckets (bucket_key, tokens, refilled_at)
+    VALUES (p_key, p_limit, v_now)
+    ON CONFLICT (bucket_key) DO NOTHING;
+
+    SELECT b.tokens, b.refilled_at INTO v_tokens, v_at
+    FROM rate_limit_buckets b
+    WHERE b.bucket_key = p_key
+    FOR UPDATE;
+
+    v_tokens := LEAST(p_limit,
+        v_tokens + GREATEST(0, EXTRACT(EPOCH FROM (v_now - v_at))) * p_limit / p_period_seconds);
+
+    IF v_tokens >= 1 THEN
+        v_tokens := v_tokens - 1;
+        allowed := TRUE;
+    ELSE
+        allowed := FALSE;
+    END IF;
+
+    UPDATE rate_limit_buckets
+    SET tokens = v_tokens, refilled_at = GREATEST(v_at, v_now)
+    WHERE bucket_key = p_key;
+
+    tokens_left := v_tokens;
+    RETURN NEXT;
+END;
+$$;
@@ -0,0 +1,33 @@
+-- Kolejka wychodzących maili transakcyjnych (potwierdzenia rezerwacji, lista oczekujących,
+-- weryfikacja konta itd.).
+--
+-- Dotąd mail szedł przez @Async na puli wątków z kolejką w pamięci: restart albo przepełniona
+-- kolejka gubiły potwierdzenia bez śladu, a mail wychodził nawet wtedy, gdy transakcja, która go
+-- wywołała, została potem wycofana. Teraz wiersz jest zapisywany w tej samej transakcji co zmiana
+-- biznesowa — commit = mail na pewno wyjdzie, rollback = maila nie ma. Wysyłką zajmuje się
+-- MailOutbox (MailOutboxScheduler), który pobiera wiersze przez FOR UPDATE SKIP LOCKED, więc kilka
+-- instancji może opróżniać kolejkę równolegle i żadna nie wyśle tego samego wiersza co inna.
+--
+-- Wysłany wiersz jest kasowany. Wiersz, który wyczerpał próby, zostaje z failed_at i treścią
+-- ostatniego błędu do wglądu i jest sprzątany po 30 dniach.
+
+CREATE TABLE mail_outbox (
+    id              BIGSERIAL    PRIMARY KEY,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         TEXT         NOT NULL,
+    html_body       TEXT         NOT NULL,
+    ics_attachment  BYTEA,
+    attempts        INT          NOT NULL DEFAULT 0,
+    -- Kiedy wiersz można pobrać. Przy pobraniu przesuwane o czas "dzierżawy": jeśli węzeł padnie
+    -- w trakcie wysyłki, wiersz sam wraca do kolejki, gdy dzierżawa wygaśnie.
+    next_attempt_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    last_error      TEXT,
+    failed_at       TIMESTAMPTZ
+);
+
+-- Jedyne zapytanie na gorącej ścieżce: "co jest do wysłania teraz". Częściowy indeks obejmuje
+-- tylko żywe wiersze, więc porzucone maile go nie puchną.
+CREATE INDEX idx_mail_outbox_due ON mail_outbox (next_attempt_at) WHERE failed_at IS NULL;
+
+CREATE INDEX idx_mail_outbox_failed_at ON mail_outbox (failed_at) WHERE failed_at IS NOT NULL;
@@ -0,0 +1,19 @@
+-- Warianty szerokości obrazów publicznych (galeria, aktualności, kursy, instruktorzy, ...).
+--
+-- Dotąd każdy upload zostawiał jeden plik, do 1920 px, i ten sam plik szedł na kafelek 300 px
+-- w telefonie i na zdjęcie tytułowe na desktopie — strona albumu w telefonie ściągała kilka MB,
+-- żeby pokazać miniatury. Teraz LocalFileStorageService przy zapisie robi też kopie o stałych
+-- szerokościach (320/640/1280, tylko mniejsze od oryginału) w podkatalogach {folder}/{szerokość}/,
+-- a tutaj zapisuje wymiary każdej wersji — łącznie z samym oryginałem — żeby DTO mogły zbudować
+-- srcset bez czytania nagłówków plików.
+--
+-- Wiersze znikają razem z plikiem (FileStorageService.delete). Pliki przepuszczone bez dekodowania
+-- (np. WebP, którego JVM nie czyta) nie mają tu wierszy — klient dostaje wtedy samo url.
+
+CREATE TABLE image_variants (
+    folder   VARCHAR(32)  NOT NULL,
+    filename VARCHAR(500) NOT NULL,
+    width    INT          NOT NULL,
+    height   INT          NOT NULL,
+    PRIMARY KEY (folder, filename, width)
+);
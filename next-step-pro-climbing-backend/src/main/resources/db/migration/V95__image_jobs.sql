@@ -0,0 +1,29 @@
+-- Kolejka przetwarzania obrazów wgranych przez admina (galeria, obrazki w aktualnościach, hero).
+--
+-- Dotąd zmiana rozmiaru (Thumbnailator) i warianty szerokości liczyły się w wątku żądania HTTP,
+-- w otwartej transakcji — na jednordzeniowym serwerze to kilka sekund na zdjęcie z zajętym
+-- połączeniem z puli Hikari (8 połączeń). Teraz żądanie zapisuje surowy plik i wiersz tutaj,
+-- w tej samej transakcji co rekord zdjęcia/bloku, i od razu odpowiada. ImageProcessingQueue
+-- (ImageProcessingScheduler) pobiera zadania przez FOR UPDATE SKIP LOCKED, po jednym wątku na
+-- instancję, i przetwarza plik poza transakcją. Kolejka jest w bazie, więc restart niczego nie
+-- gubi: zadanie pobrane przez węzeł, który padł, wraca po wygaśnięciu dzierżawy.
+--
+-- Wiersze DONE i FAILED zostają na potrzeby endpointu statusu i są sprzątane po 7 dniach.
+
+CREATE TABLE image_jobs (
+    id              BIGSERIAL    PRIMARY KEY,
+    folder          VARCHAR(32)  NOT NULL,
+    filename        VARCHAR(500) NOT NULL,
+    -- PENDING -> DONE | FAILED
+    status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    finished_at     TIMESTAMPTZ,
+    last_error      TEXT,
+    CONSTRAINT uq_image_jobs_file UNIQUE (folder, filename)
+);
+
+CREATE INDEX idx_image_jobs_due ON image_jobs (next_attempt_at) WHERE status = 'PENDING';
+
+CREATE INDEX idx_image_jobs_finished_at ON image_jobs (finished_at) WHERE finished_at IS NOT NULL;
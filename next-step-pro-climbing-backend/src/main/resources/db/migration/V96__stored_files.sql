@@ -0,0 +1,30 @@
+-- Rejestr plików zapisanych w katalogu uploads, z licznikiem referencji.
+--
+-- Dotąd każdy upload dostawał losową nazwę (UUID), więc to samo zdjęcie wgrane drugi raz — ta
+-- sama miniaturka do każdej wersji językowej aktualności, ten sam plik w hero desktop i mobile —
+-- leżało na dysku (i w każdym nocnym archiwum nsp-backup.sh) tyle razy, ile je wgrano. W trybie
+-- content-addressed (app.storage.content-addressed) plik z CMS dostaje nazwę od SHA-256
+-- przesłanych bajtów: identyczny upload do tego samego folderu nie zapisuje niczego, tylko
+-- zwiększa ref_count istniejącego wiersza, a delete() kasuje plik dopiero przy zerze.
+--
+-- sha256 to skrót bajtów W POSTACI PRZESŁANEJ (przed optymalizacją), więc trafienie pomija też
+-- dekodowanie i skalowanie. NULL dla plików sprzed tej migracji (rejestrowane przy starcie przez
+-- StoredFileScheduler — ich źródło jest nieznane) oraz dla materiałów treningowych i załączników
+-- komentarzy, które nigdy nie są deduplikowane. Tak samo awatary (PERSONAL_FOLDERS w
+-- LocalFileStorageService): to dane konkretnej osoby, więc zawsze dostają losową nazwę.
+--
+-- Rejestr zastępuje też skanowanie katalogów w audycie (AdminStorageService.runAudit): pliki
+-- osierocone i brakujące wynikają z porównania referencji w treściach z tą tabelą.
+
+CREATE TABLE stored_files (
+    folder     VARCHAR(32)  NOT NULL,
+    filename   VARCHAR(500) NOT NULL,
+    sha256     CHAR(64),
+    size_bytes BIGINT       NOT NULL,
+    ref_count  INT          NOT NULL DEFAULT 1,
+    created_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    PRIMARY KEY (folder, filename)
+);
+
+-- Nie UNIQUE: dwa pliki o tej samej treści mogły powstać zanim tryb został włączony
+CREATE INDEX idx_stored_files_content ON stored_files (folder, sha256) WHERE sha256 IS NOT NULL;
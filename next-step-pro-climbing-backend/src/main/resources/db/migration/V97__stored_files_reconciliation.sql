@@ -0,0 +1,18 @@
+-- Czas modyfikacji plików w rejestrze i znacznik ostatniego skanu każdego folderu.
+--
+-- Od V96 rejestr stored_files jest źródłem prawdy dla audytu, ale pliki dodane lub usunięte
+-- poza aplikacją (przywrócenie z nsp-backup.sh, rsync, ręczne rm) wychodziły na jaw dopiero
+-- przy pełnym przejściu po wszystkich folderach. Teraz każdy wiersz pamięta mtime pliku, a
+-- stored_folders — mtime katalogu z ostatniego skanu. Dodanie, usunięcie lub podmiana pliku
+-- przez rename zmienia mtime katalogu, więc uzgadnianie (StoredFileScheduler) listuje tylko
+-- foldery, których katalog zmienił się od poprzedniego przejścia; reszta to jedno stat().
+--
+-- modified_at jest NULL dla wierszy sprzed tej migracji — pierwsze uzgadnianie je uzupełnia.
+
+ALTER TABLE stored_files ADD COLUMN modified_at TIMESTAMPTZ;
+
+CREATE TABLE stored_folders (
+    folder          VARCHAR(32) PRIMARY KEY,
+    dir_modified_at TIMESTAMPTZ NOT NULL,
+    scanned_at      TIMESTAMPTZ NOT NULL DEFAULT now()
+);
@@ -0,0 +1,309 @@
+-- Miesięczne podsumowania statystyk zawodnika: jeden wiersz na zawodnika i miesiąc z aktywnością.
+--
+-- TrainingStatsService przy każdym otwarciu zakładki statystyk ładował CAŁĄ historię zawodnika —
+-- każdy trening osobisty i każdą odbytą rezerwację — i składał z niej liczby od zera. U kogoś, kto
+-- trenuje od lat, to rośnie bez końca. Teraz serwis czyta wiersze tylko z miesięcy, w które sięgają
+-- okna kroczące (frekwencja i rozkład RPE: 90 dni), a starszą historię z tej tabeli.
+--
+-- Tabelę utrzymują TRIGGERY, tak jak projekcję zajętości (V91) i z tego samego powodu: zaliczenie
+-- i odznaczenie treningu, ocena RPE rezerwacji, anulowanie, przesunięcie slotu przy edycji
+-- wydarzenia, kasowanie kaskadą — wszystko to przechodzi przez tabele, nie zawsze przez jeden
+-- serwis. Trigger nie dodaje delty, tylko przelicza od zera jeden miesiąc jednego zawodnika
+-- (blokada wiersza, potem liczenie w kolejnym poleceniu — jak refresh_slot_availability).
+--
+-- "Rezerwacja minęła" nie wymaga tu żadnego zdarzenia: serwis bierze z tabeli wyłącznie miesiące
+-- zamknięte, a w nich każdy slot już się odbył. Bieżący miesiąc zawsze liczy się na żywo.
+--
+-- Znaczenie kolumn jest DOKŁADNIE takie jak w TrainingStatsService (aktywność = zaliczony trening
+-- TRAINING albo potwierdzona rezerwacja; zadania TASK nie liczą się nigdzie):
+--   day_counts           -- liczba aktywności w każdym dniu miesiąca (indeks 1 = pierwszy dzień)
+--   personal             -- zaliczone treningi osobiste
+--   individual_slot      -- rezerwacje slotów bez wydarzenia (i wszystkich innych typów)
+--   course/training/workshop -- rezerwacje wg typu wydarzenia
+--   rpe_sum, rpe_count   -- oceny RPE z obu źródeł, do średniej z całej historii
+--   unrated_reservations -- rezerwacje bez oceny RPE
+--   recent_rpes          -- do 5 najnowszych ocen miesiąca, od najnowszej (sustainedHigh)
+
+CREATE TABLE athlete_stats_months (
+    athlete_id           UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    month_start          DATE NOT NULL CHECK (EXTRACT(DAY FROM month_start) = 1),
+    day_counts           INT[] NOT NULL DEFAULT '{}',
+    personal             INT NOT NULL DEFAULT 0,
+    individual_slot      INT NOT NULL DEFAULT 0,
+    course               INT NOT NULL DEFAULT 0,
+    training             INT NOT NULL DEFAULT 0,
+    workshop             INT NOT NULL DEFAULT 0,
+    rpe_sum              INT NOT NULL DEFAULT 0,
+    rpe_count            INT NOT NULL DEFAULT 0,
+    unrated_reservations INT NOT NULL DEFAULT 0,
+    recent_rpes          INT[] NOT NULL DEFAULT '{}',
+    PRIMARY KEY (athlete_id, month_start)
+);
+
+-- Jedna definicja liczona na żywo: używają jej triggery, wypełnienie początkowe i nocna kontrola.
+-- Funkcja, nie widok — filtr po zawodniku i miesiącu musi trafić do indeksów obu tabel źródłowych.
+CREATE FUNCTION athlete_stats_month_live(p_athlete UUID, p_month DATE)
+RETURNS TABLE (day_counts INT[], personal INT, individual_slot INT, course INT, training INT,
+               workshop INT, rpe_sum INT, rpe_count INT, unrated_reservations INT, recent_rpes INT[]) AS $$
+    WITH activity AS (
+        SELECT t.training_date AS day, 'PERSONAL' AS bucket, t.rpe AS rpe, false AS unrated
+          FROM personal_trainings t
+         WHERE t.athlete_id = p_athlete AND t.kind = 'TRAINING' AND t.completed_at IS NOT NULL
+           AND t.training_date >= p_month AND t.training_date < (p_month + INTERVAL '1 month')::date
+        UNION ALL
+        SELECT ts.date, COALESCE(e.event_type, 'SLOT'), rr.rpe, rr.rpe IS NULL
+          FROM reservations r
+          JOIN time_slots ts ON ts.id = r.time_slot_id
+          LEFT JOIN events e ON e.id = ts.event_id
+          LEFT JOIN reservation_rpe rr ON rr.reservation_id = r.id
+         WHERE r.user_id = p_athlete AND r.status = 'CONFIRMED'
+           AND ts.date >= p_month AND ts.date < (p_month + INTERVAL '1 month')::date
+    )
+    SELECT ARRAY(SELECT (SELECT COUNT(*) FROM activity a WHERE a.day = g.d::date)::int
+                   FROM generate_series(p_month, (p_month + INTERVAL '1 month - 1 day')::date,
+                                        INTERVAL '1 day') AS g(d)
+                  ORDER BY g.d),
+           (COUNT(*) FILTER (WHERE bucket = 'PERSONAL'))::int,
+           (COUNT(*) FILTER (WHERE bucket NOT IN ('PERSONAL', 'COURSE', 'TRAINING', 'WORKSHOP')))::int,
+           (COUNT(*) FILTER (WHERE bucket = 'COURSE'))::int,
+           (COUNT(*) FILTER (WHERE bucket = 'TRAINING'))::int,
+           (COUNT(*) FILTER (WHERE bucket = 'WORKSHOP'))::int,
+           COALESCE(SUM(rpe), 0)::int,
+           COUNT(rpe)::int,
+           (COUNT(*) FILTER (WHERE unrated))::int,
+           -- Remisy w obrębie dnia są dowolne, tak jak w serwisie (wiersze nie mają godziny)
+           ARRAY(SELECT a.rpe FROM activity a WHERE a.rpe IS NOT NULL ORDER BY a.day DESC LIMIT 5)
+      FROM activity;
+$$ LANGUAGE sql STABLE;
+
+-- Miesiące, w których zawodnik ma jakąkolwiek aktywność — klucze, które tabela powinna zawierać.
+CREATE VIEW athlete_stats_month_keys AS
+SELECT t.athlete_id, date_trunc('month', t.training_date)::date AS month_start
+  FROM personal_trainings t
+ WHERE t.kind = 'TRAINING' AND t.completed_at IS NOT NULL
+UNION
+SELECT r.user_id, date_trunc('month', ts.date)::date
+  FROM reservations r
+  JOIN time_slots ts ON ts.id = r.time_slot_id
+ WHERE r.status = 'CONFIRMED';
+
+-- Pusty miesiąc nie zostaje w tabeli: brak wiersza = brak aktywności.
+-- Brak użytkownika = właśnie znika kaskadą; jego wiersze znikną z nim, a INSERT złamałby FK.
+CREATE FUNCTION refresh_athlete_stats_month(p_athlete UUID, p_day DATE) RETURNS void AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_day)::date;
+BEGIN
+    IF p_athlete IS NULL OR p_day IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM 1 FROM users WHERE id = p_athlete;
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+    INSERT INTO athlete_stats_months (athlete_id, month_start) VALUES (p_athlete, v_month)
+    ON CONFLICT (athlete_id, month_start) DO NOTHING;
+    PERFORM 1 FROM athlete_stats_months
+     WHERE athlete_id = p_athlete AND month_start = v_month FOR UPDATE;
+    UPDATE athlete_stats_months s
+       SET day_counts = l.day_counts, personal = l.personal, individual_slot = l.individual_slot,
+           course = l.course, training = l.training, workshop = l.workshop,
+           rpe_sum = l.rpe_sum, rpe_count = l.rpe_count,
+           unrated_reservations = l.unrated_reservations, recent_rpes = l.recent_rpes
+      FROM athlete_stats_month_live(p_athlete, v_month) l
+     WHERE s.athlete_id = p_athlete AND s.month_start = v_month;
+    DELETE FROM athlete_stats_months
+     WHERE athlete_id = p_athlete AND month_start = v_month
+       AND personal + individual_slot + course + training + workshop = 0;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rezerwacja zna swój miesiąc tylko przez slot. Gdy slot właśnie znika kaskadą, daty już nie ma
+-- skąd wziąć — przeliczane są wtedy wszystkie miesiące zawodnika. Rzadkie i wciąż tanie.
+CREATE FUNCTION refresh_athlete_stats_for_reservation(p_user UUID, p_slot_id UUID) RETURNS void AS $$
+DECLARE
+    v_date  DATE;
+    v_month DATE;
+BEGIN
+    SELECT date INTO v_date FROM time_slots WHERE id = p_slot_id;
+    IF FOUND THEN
+        PERFORM refresh_athlete_stats_month(p_user, v_date);
+        RETURN;
+    END IF;
+    FOR v_month IN SELECT month_start FROM athlete_stats_months WHERE athlete_id = p_user LOOP
+        PERFORM refresh_athlete_stats_month(p_user, v_month);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION trg_personal_trainings_stats() RETURNS trigger AS $$
+DECLARE
+    v_old_counts BOOLEAN := false;
+    v_new_counts BOOLEAN := false;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        v_old_counts := OLD.kind = 'TRAINING' AND OLD.completed_at IS NOT NULL;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        v_new_counts := NEW.kind = 'TRAINING' AND NEW.completed_at IS NOT NULL;
+    END IF;
+    -- Zaplanowany trening i zadanie nie są aktywnością.
+    IF NOT v_old_counts AND NOT v_new_counts THEN
+        RETURN NULL;
+    END IF;
+    IF v_old_counts AND v_new_counts
+       AND NEW.athlete_id = OLD.athlete_id AND NEW.training_date = OLD.training_date THEN
+        -- Edycja tytułu, opisu czy feedbacku niczego nie zmienia; zmiana RPE — tylko ten miesiąc.
+        IF NEW.rpe IS DISTINCT FROM OLD.rpe THEN
+            PERFORM refresh_athlete_stats_month(NEW.athlete_id, NEW.training_date);
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF v_old_counts THEN
+        PERFORM refresh_athlete_stats_month(OLD.athlete_id, OLD.training_date);
+    END IF;
+    IF v_new_counts THEN
+        PERFORM refresh_athlete_stats_month(NEW.athlete_id, NEW.training_date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER personal_trainings_stats
+    AFTER INSERT OR UPDATE OR DELETE ON personal_trainings
+    FOR EACH ROW EXECUTE FUNCTION trg_personal_trainings_stats();
+
+CREATE FUNCTION trg_reservations_stats() RETURNS trigger AS $$
+BEGIN
+    -- Liczba uczestników czy komentarz nie zmieniają statystyk — liczą się wiersze rezerwacji.
+    IF TG_OP = 'UPDATE'
+       AND NEW.status = OLD.status AND NEW.time_slot_id = OLD.time_slot_id AND NEW.user_id = OLD.user_id THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.status = 'CONFIRMED' THEN
+        PERFORM refresh_athlete_stats_for_reservation(OLD.user_id, OLD.time_slot_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.status = 'CONFIRMED' THEN
+        PERFORM refresh_athlete_stats_for_reservation(NEW.user_id, NEW.time_slot_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservations_stats
+    AFTER INSERT OR UPDATE OR DELETE ON reservations
+    FOR EACH ROW EXECUTE FUNCTION trg_reservations_stats();
+
+-- Ocena kasowana kaskadą z rezerwacją nie znajdzie już rezerwacji — tę przeliczył jej własny trigger.
+CREATE FUNCTION trg_reservation_rpe_stats() RETURNS trigger AS $$
+DECLARE
+    v_reservation_id UUID;
+    v_user           UUID;
+    v_slot_id        UUID;
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.rpe = OLD.rpe AND NEW.reservation_id = OLD.reservation_id THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        v_reservation_id := OLD.reservation_id;
+    ELSE
+        v_reservation_id := NEW.reservation_id;
+    END IF;
+    SELECT user_id, time_slot_id INTO v_user, v_slot_id
+      FROM reservations WHERE id = v_reservation_id AND status = 'CONFIRMED';
+    IF FOUND THEN
+        PERFORM refresh_athlete_stats_for_reservation(v_user, v_slot_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservation_rpe_stats
+    AFTER INSERT OR UPDATE OR DELETE ON reservation_rpe
+    FOR EACH ROW EXECUTE FUNCTION trg_reservation_rpe_stats();
+
+-- Przesunięcie slotu (edycja dat wydarzenia) przenosi aktywność do innego dnia, a odpięcie
+-- od wydarzenia (ON DELETE SET NULL) zmienia jej typ.
+CREATE FUNCTION trg_time_slots_stats() RETURNS trigger AS $$
+DECLARE
+    v_user UUID;
+BEGIN
+    IF NEW.date = OLD.date AND NEW.event_id IS NOT DISTINCT FROM OLD.event_id THEN
+        RETURN NULL;
+    END IF;
+    FOR v_user IN SELECT user_id FROM reservations WHERE time_slot_id = NEW.id AND status = 'CONFIRMED' LOOP
+        PERFORM refresh_athlete_stats_month(v_user, OLD.date);
+        IF date_trunc('month', NEW.date) <> date_trunc('month', OLD.date) THEN
+            PERFORM refresh_athlete_stats_month(v_user, NEW.date);
+        END IF;
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER time_slots_stats
+    AFTER UPDATE ON time_slots
+    FOR EACH ROW EXECUTE FUNCTION trg_time_slots_stats();
+
+CREATE FUNCTION trg_events_stats() RETURNS trigger AS $$
+DECLARE
+    v_user  UUID;
+    v_month DATE;
+BEGIN
+    IF NEW.event_type = OLD.event_type THEN
+        RETURN NULL;
+    END IF;
+    FOR v_user, v_month IN
+        SELECT DISTINCT r.user_id, date_trunc('month', ts.date)::date
+          FROM reservations r
+          JOIN time_slots ts ON ts.id = r.time_slot_id
+         WHERE ts.event_id = NEW.id AND r.status = 'CONFIRMED'
+    LOOP
+        PERFORM refresh_athlete_stats_month(v_user, v_month);
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER events_stats
+    AFTER UPDATE ON events
+    FOR EACH ROW EXECUTE FUNCTION trg_events_stats();
+
+-- Nocna kontrola (AthleteStatsSnapshots.repairDrift): porównuje tabelę z definicją na żywo,
+-- dopisuje brakujące miesiące, przelicza rozjechane i usuwa osierocone. Pusty wynik jest normą.
+CREATE FUNCTION repair_athlete_stats_drift() RETURNS TABLE (drifted_athlete UUID, drifted_month DATE) AS $$
+DECLARE
+    v RECORD;
+BEGIN
+    FOR v IN
+        SELECT k.athlete_id, k.month_start
+          FROM (SELECT athlete_id, month_start FROM athlete_stats_month_keys
+                UNION
+                SELECT athlete_id, month_start FROM athlete_stats_months) k
+          LEFT JOIN athlete_stats_months s
+                 ON s.athlete_id = k.athlete_id AND s.month_start = k.month_start
+         CROSS JOIN LATERAL athlete_stats_month_live(k.athlete_id, k.month_start) l
+         WHERE (s.athlete_id IS NULL AND l.personal + l.individual_slot + l.course + l.training + l.workshop > 0)
+            OR (s.athlete_id IS NOT NULL
+                AND (s.day_counts, s.personal, s.individual_slot, s.course, s.training, s.workshop,
+                     s.rpe_sum, s.rpe_count, s.unrated_reservations, s.recent_rpes)
+                    IS DISTINCT FROM
+                    (l.day_counts, l.personal, l.individual_slot, l.course, l.training, l.workshop,
+                     l.rpe_sum, l.rpe_count, l.unrated_reservations, l.recent_rpes))
+    LOOP
+        PERFORM refresh_athlete_stats_month(v.athlete_id, v.month_start);
+        drifted_athlete := v.athlete_id;
+        drifted_month := v.month_start;
+        RETURN NEXT;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Wypełnienie dla istniejących danych.
+INSERT INTO athlete_stats_months (athlete_id, month_start, day_counts, personal, individual_slot,
+                                  course, training, workshop, rpe_sum, rpe_count,
+                                  unrated_reservations, recent_rpes)
+SELECT k.athlete_id, k.month_start, l.day_counts, l.personal, l.individual_slot,
+       l.course, l.training, l.workshop, l.rpe_sum, l.rpe_count,
+       l.unrated_reservations, l.recent_rpes
+  FROM athlete_stats_month_keys k
+ CROSS JOIN LATERAL athlete_stats_month_live(k.athlete_id, k.month_start) l;
@@ -0,0 +1,224 @@
+-- Licznik zmian kalendarza treningowego: jedna rosnąca wersja na zawodnika.
+--
+-- Kalendarz odpytuje zakres (TrainingCalendarService.buildRange) przy każdej zmianie widoku i za
+-- każdym razem składa całość od zera: treningi z materiałami, nakładkę rezerwacji z RPE,
+-- zaproszenia i pasek usunięć. Z wersją klient wysyła kursor z poprzedniej odpowiedzi, a serwer
+-- odpowiada 304, jeśli od tamtej pory nic się nie zmieniło, albo tylko tym, co się zmieniło.
+--
+-- Wersję podbijają TRIGGERY, jak w V91 i V98, i z tego samego powodu: rezerwację anuluje klient,
+-- admin albo kaskada, zaproszenie znika z wydarzeniem — nie wszystko przechodzi przez jeden serwis.
+--
+-- Licznik w wierszu zawodnika, NIE globalna sekwencja. Wartość z sekwencji jest przydzielana przed
+-- commitem, więc transakcja z wersją 7 może stać się widoczna po tej z wersją 8 — klient, który
+-- zdążył zobaczyć 8, nigdy nie dostałby 7. UPDATE wiersza licznika blokuje go do końca transakcji,
+-- więc kolejne wersje jednego zawodnika commitują się po kolei: widoczna wersja N oznacza, że
+-- każda zmiana z wersją <= N też jest już widoczna. Ceną jest szeregowanie zapisów jednego
+-- kalendarza (zawodnik i trener naraz) — krótkie, bo Hibernate zapisuje na końcu transakcji.
+--
+-- Wersję na wierszu nosi tylko personal_trainings: jednostką odpowiedzi jest trening, więc
+-- komentarz (kropka "nieprzeczytane") i materiał (lista załączników) podbijają wersję SWOJEGO
+-- treningu. Usuniętego wiersza nie ma czym oznaczyć — zostaje po nim nagrobek w
+-- training_calendar_removals. Wpis w training_deletions powstaje zawsze w tej samej transakcji co
+-- usunięcie treningu, które już podbiło licznik, więc nie ma własnego triggera.
+--
+-- Czas też zmienia kalendarz (PLANNED -> MISSED, "oceń" po końcu slotu, zaproszenie po starcie) —
+-- tego triggery nie widzą; kursor niesie termin ważności liczony przez serwis.
+
+CREATE TABLE training_calendar_heads (
+    athlete_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    version    BIGINT NOT NULL
+);
+
+-- 0 = jeszcze nieoznaczony; trigger poniżej nadaje wersję przy każdym INSERT/UPDATE.
+ALTER TABLE personal_trainings ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX idx_personal_trainings_athlete_change ON personal_trainings(athlete_id, change_version);
+
+-- Nagrobki usuniętych treningów. Kursor żyje najwyżej kilkanaście minut (serwis), więc doba
+-- zapasu wystarcza; starsze wpisy przycina kolejne usunięcie u tego samego zawodnika.
+CREATE TABLE training_calendar_removals (
+    athlete_id  UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    version     BIGINT NOT NULL,
+    training_id UUID NOT NULL,
+    removed_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (athlete_id, version)
+);
+
+-- Zwraca nową wersję albo 0, gdy nie ma czego liczyć: użytkownik nie jest zawodnikiem (rezerwacje
+-- pozostałych klientów nie trafiają do tabeli) albo właśnie znika kaskadą (INSERT złamałby FK).
+CREATE FUNCTION bump_training_calendar_version(p_athlete UUID) RETURNS BIGINT AS $$
+DECLARE
+    v_version BIGINT;
+BEGIN
+    IF p_athlete IS NULL THEN
+        RETURN 0;
+    END IF;
+    PERFORM 1 FROM users WHERE id = p_athlete AND is_athlete;
+    IF NOT FOUND THEN
+        RETURN 0;
+    END IF;
+    INSERT INTO training_calendar_heads (athlete_id, version) VALUES (p_athlete, 1)
+    ON CONFLICT (athlete_id) DO UPDATE SET version = training_calendar_heads.version + 1
+    RETURNING version INTO v_version;
+    RETURN v_version;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION trg_personal_trainings_change_version() RETURNS trigger AS $$
+BEGIN
+    NEW.change_version := bump_training_calendar_version(NEW.athlete_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER personal_trainings_change_version
+    BEFORE INSERT OR UPDATE ON personal_trainings
+    FOR EACH ROW EXECUTE FUNCTION trg_personal_trainings_change_version();
+
+CREATE FUNCTION trg_personal_trainings_removal() RETURNS trigger AS $$
+DECLARE
+    v_version BIGINT;
+BEGIN
+    v_version := bump_training_calendar_version(OLD.athlete_id);
+    IF v_version > 0 THEN
+        DELETE FROM training_calendar_removals
+         WHERE athlete_id = OLD.athlete_id AND removed_at < now() - INTERVAL '1 day';
+        INSERT INTO training_calendar_removals (athlete_id, version, training_id)
+        VALUES (OLD.athlete_id, v_version, OLD.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER personal_trainings_removal
+    AFTER DELETE ON personal_trainings
+    FOR EACH ROW EXECUTE FUNCTION trg_personal_trainings_removal();
+
+-- Komentarz i materiał "dotykają" swojego treningu; wersję nadaje trigger BEFORE UPDATE powyżej.
+-- Kolumna version (blokada optymistyczna, V73) zostaje nietknięta, więc równoległa edycja
+-- treningu nie dostaje fałszywego konfliktu. Materiał szablonu nie należy do żadnego kalendarza,
+-- a dzieci kasowane kaskadą z treningiem nie znajdą już wiersza — nagrobek powstał wyżej.
+CREATE FUNCTION trg_training_child_change_version() RETURNS trigger AS $$
+DECLARE
+    v_training UUID;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        v_training := OLD.training_id;
+    ELSE
+        v_training := NEW.training_id;
+    END IF;
+    IF v_training IS NOT NULL THEN
+        UPDATE personal_trainings SET change_version = change_version WHERE id = v_training;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER training_comments_change_version
+    AFTER INSERT OR UPDATE OR DELETE ON training_comments
+    FOR EACH ROW EXECUTE FUNCTION trg_training_child_change_version();
+
+CREATE TRIGGER training_attachments_change_version
+    AFTER INSERT OR UPDATE OR DELETE ON training_attachments
+    FOR EACH ROW EXECUTE FUNCTION trg_training_child_change_version();
+
+-- Nakładka pokazuje tylko potwierdzone rezerwacje, a potwierdzona rezerwacja gasi zaproszenie.
+CREATE FUNCTION trg_reservations_change_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND NEW.status = OLD.status AND NEW.time_slot_id IS NOT DISTINCT FROM OLD.time_slot_id
+       AND NEW.user_id = OLD.user_id THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.status = 'CONFIRMED' THEN
+        PERFORM bump_training_calendar_version(OLD.user_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.status = 'CONFIRMED' THEN
+        PERFORM bump_training_calendar_version(NEW.user_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservations_change_version
+    AFTER INSERT OR UPDATE OR DELETE ON reservations
+    FOR EACH ROW EXECUTE FUNCTION trg_reservations_change_version();
+
+-- Ocena kasowana kaskadą z rezerwacją nie znajdzie już rezerwacji — tę podbił jej własny trigger.
+CREATE FUNCTION trg_reservation_rpe_change_version() RETURNS trigger AS $$
+DECLARE
+    v_reservation_id UUID;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        v_reservation_id := OLD.reservation_id;
+    ELSE
+        v_reservation_id := NEW.reservation_id;
+    END IF;
+    PERFORM bump_training_calendar_version(user_id) FROM reservations WHERE id = v_reservation_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservation_rpe_change_version
+    AFTER INSERT OR UPDATE OR DELETE ON reservation_rpe
+    FOR EACH ROW EXECUTE FUNCTION trg_reservation_rpe_change_version();
+
+CREATE FUNCTION trg_reserved_seats_change_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM bump_training_calendar_version(OLD.user_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM bump_training_calendar_version(NEW.user_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reserved_seats_change_version
+    AFTER INSERT OR UPDATE OR DELETE ON reserved_seats
+    FOR EACH ROW EXECUTE FUNCTION trg_reserved_seats_change_version();
+
+-- Termin, godziny, tytuł i blokada slotu są widoczne w nakładce i w zaproszeniach. Zmiana liczby
+-- miejsc czy powodu blokady nie jest — tu kończy się bez szukania kogokolwiek.
+CREATE FUNCTION trg_time_slots_change_version() RETURNS trigger AS $$
+BEGIN
+    IF (NEW.date, NEW.start_time, NEW.end_time, NEW.title, NEW.is_blocked, NEW.event_id)
+       IS NOT DISTINCT FROM
+       (OLD.date, OLD.start_time, OLD.end_time, OLD.title, OLD.is_blocked, OLD.event_id) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM bump_training_calendar_version(u.user_id)
+       FROM (SELECT user_id FROM reservations WHERE time_slot_id = NEW.id AND status = 'CONFIRMED'
+             UNION
+             SELECT user_id FROM reserved_seats WHERE time_slot_id = NEW.id) u;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER time_slots_change_version
+    AFTER UPDATE ON time_slots
+    FOR EACH ROW EXECUTE FUNCTION trg_time_slots_change_version();
+
+-- Tytuł wydarzenia jest tytułem jego slotów bez własnego; daty, godziny i aktywność decydują o
+-- zaproszeniach na całe wydarzenie.
+CREATE FUNCTION trg_events_change_version() RETURNS trigger AS $$
+BEGIN
+    IF (NEW.title, NEW.start_date, NEW.end_date, NEW.start_time, NEW.end_time, NEW.is_active)
+       IS NOT DISTINCT FROM
+       (OLD.title, OLD.start_date, OLD.end_date, OLD.start_time, OLD.end_time, OLD.is_active) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM bump_training_calendar_version(u.user_id)
+       FROM (SELECT r.user_id
+               FROM reservations r
+               JOIN time_slots ts ON ts.id = r.time_slot_id
+              WHERE ts.event_id = NEW.id AND r.status = 'CONFIRMED'
+             UNION
+             SELECT user_id FROM reserved_seats WHERE event_id = NEW.id) u;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER events_change_version
+    AFTER UPDATE ON events
+    FOR EACH ROW EXECUTE FUNCTION trg_events_change_version();
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.api.reservation.EventWaitlistService;
 import pl.nextsteppro.climbing.api.reservation.UserSeatReleaseService;
 import pl.nextsteppro.climbing.api.reservation.WaitlistService;
@@ -28,7 +29,7 @@ import pl.nextsteppro.climbing.domain.waitlist.WaitlistRepository;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
 import pl.nextsteppro.climbing.infrastructure.mail.MailService;
-import pl.nextsteppro.climbing.infrastructure.security.JwtAuthenticationFilter;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -66,7 +67,7 @@ class AdminServiceEditMailCountTest {
     @Mock private AuthTokenRepository authTokenRepository;
     @Mock private MailService mailService;
     @Mock private ActivityLogService activityLogService;
-    @Mock private JwtAuthenticationFilter jwtAuthenticationFilter;
+    @Mock private UserCacheEvictions userCacheEvictions;
     @Mock private MessageService msg;
     @Mock private WaitlistRepository waitlistRepository;
     @Mock private EventWaitlistRepository eventWaitlistRepository;
@@ -77,6 +78,7 @@ class AdminServiceEditMailCountTest {
     @Mock private ReservedSeatRepository reservedSeatRepository;
     @Mock private TrainingRequestRepository trainingRequestRepository;
     @Mock private pl.nextsteppro.climbing.api.trainingcalendar.TrainingCalendarService trainingCalendarService;
+    @Mock private CalendarCacheInvalidator calendarCache;
 
     private AdminService adminService;
 
@@ -101,7 +103,7 @@ class AdminServiceEditMailCountTest {
             authTokenRepository,
             mailService,
             activityLogService,
-            jwtAuthenticationFilter,
+            userCacheEvictions,
             msg,
             waitlistRepository,
             eventWaitlistRepository,
@@ -112,7 +114,8 @@ class AdminServiceEditMailCountTest {
             null, // comment attachments: not exercised here
             reservedSeatRepository,
             trainingRequestRepository,
-            trainingCalendarService
+            trainingCalendarService,
+            calendarCache
         );
 
         adminId = UUID.randomUUID();
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.api.reservation.EventWaitlistService;
 import pl.nextsteppro.climbing.api.reservation.UserSeatReleaseService;
 import pl.nextsteppro.climbing.api.reservation.WaitlistService;
@@ -30,7 +31,7 @@ import pl.nextsteppro.climbing.domain.waitlist.WaitlistRepository;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
 import pl.nextsteppro.climbing.infrastructure.mail.MailService;
-import pl.nextsteppro.climbing.infrastructure.security.JwtAuthenticationFilter;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -69,7 +70,7 @@ class AdminServiceInviteSyncTest {
     @Mock private AuthTokenRepository authTokenRepository;
     @Mock private MailService mailService;
     @Mock private ActivityLogService activityLogService;
-    @Mock private JwtAuthenticationFilter jwtAuthenticationFilter;
+    @Mock private UserCacheEvictions userCacheEvictions;
     @Mock private MessageService msg;
     @Mock private WaitlistRepository waitlistRepository;
     @Mock private EventWaitlistRepository eventWaitlistRepository;
@@ -81,6 +82,7 @@ class AdminServiceInviteSyncTest {
     @Mock private ReservedSeatRepository reservedSeatRepository;
     @Mock private TrainingRequestRepository trainingRequestRepository;
     @Mock private pl.nextsteppro.climbing.api.trainingcalendar.TrainingCalendarService trainingCalendarService;
+    @Mock private CalendarCacheInvalidator calendarCache;
 
     private AdminService adminService;
 
@@ -105,7 +107,7 @@ class AdminServiceInviteSyncTest {
             authTokenRepository,
             mailService,
             activityLogService,
-            jwtAuthenticationFilter,
+            userCacheEvictions,
             msg,
             waitlistRepository,
             eventWaitlistRepository,
@@ -116,7 +118,8 @@ class AdminServiceInviteSyncTest {
             commentFileSupport,
             reservedSeatRepository,
             trainingRequestRepository,
-            trainingCalendarService
+            trainingCalendarService,
+            calendarCache
         );
 
         adminId = UUID.randomUUID();
@@ -359,6 +362,7 @@ class AdminServiceInviteSyncTest {
 
         // Then
         verify(userRepository).save(unverifiedUser);
+        verify(userCacheEvictions).evict(unverifiedUser.getId());
     }
 
     // ========== REGRESSION: admin-side account deletion ==========
@@ -381,7 +385,7 @@ class AdminServiceInviteSyncTest {
         // Then
         verify(userSeatReleaseService).releaseSeatsAndNotifyWaitlists(victimId);
         verify(userRepository).delete(victim);
-        verify(jwtAuthenticationFilter).evictUser(victimId);
+        verify(userCacheEvictions).evict(victimId);
     }
 
     @Test
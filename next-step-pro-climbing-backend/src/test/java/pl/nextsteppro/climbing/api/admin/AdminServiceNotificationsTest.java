@@ -43,7 +43,7 @@ class AdminServiceNotificationsTest {
             null, null, null, reservationRepository, null,
             userRepository, null, null, null, null, null,
             waitlistRepository, eventWaitlistRepository, null, null, null, null, null, null,
-            trainingRequestRepository, trainingCalendarService);
+            trainingRequestRepository, trainingCalendarService, null);
     }
 
     @Test
@@ -14,6 +14,7 @@ import pl.nextsteppro.climbing.domain.gallery.AlbumSummaryProjection;
 import pl.nextsteppro.climbing.domain.gallery.Photo;
 import pl.nextsteppro.climbing.domain.gallery.PhotoRepository;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -46,6 +47,10 @@ class AdminGalleryServiceTest {
     private PhotoRepository photoRepository;
     @Mock
     private FileStorageService fileStorageService;
+
+    @Mock
+    private ImageProcessingQueue imageProcessingQueue;
+
     @Mock
     private MultipartFile mockFile;
 
@@ -62,6 +67,7 @@ class AdminGalleryServiceTest {
             albumRepository,
             photoRepository,
             fileStorageService,
+            imageProcessingQueue,
             BASE_URL
         );
 
@@ -350,7 +356,7 @@ class AdminGalleryServiceTest {
     void shouldUploadPhotoSuccessfully() throws IOException {
         // Given
         when(albumRepository.findById(albumId)).thenReturn(Optional.of(testAlbum));
-        when(fileStorageService.store(mockFile, "gallery")).thenReturn("new-photo.jpg");
+        when(fileStorageService.storeUnprocessed(mockFile, "gallery")).thenReturn("new-photo.jpg");
         when(photoRepository.save(any(Photo.class))).thenAnswer(inv -> {
             Photo photo = inv.getArgument(0);
             setEntityIdViaReflection(photo, UUID.randomUUID());
@@ -372,14 +378,15 @@ class AdminGalleryServiceTest {
         assertEquals("new-photo.jpg", saved.getFilename());
         assertEquals("Test caption", saved.getCaption());
 
-        verify(fileStorageService).store(mockFile, "gallery");
+        verify(fileStorageService).storeUnprocessed(mockFile, "gallery");
+        verify(imageProcessingQueue).enqueue("gallery", "new-photo.jpg");
     }
 
     @Test
     void shouldUploadPhotoWithNullCaption() throws IOException {
         // Given
         when(albumRepository.findById(albumId)).thenReturn(Optional.of(testAlbum));
-        when(fileStorageService.store(mockFile, "gallery")).thenReturn("photo.jpg");
+        when(fileStorageService.storeUnprocessed(mockFile, "gallery")).thenReturn("photo.jpg");
         when(photoRepository.save(any(Photo.class))).thenAnswer(inv -> {
             Photo photo = inv.getArgument(0);
             setEntityIdViaReflection(photo, UUID.randomUUID());
@@ -416,7 +423,7 @@ class AdminGalleryServiceTest {
     void shouldPropagateIOExceptionWhenPhotoStorageFails() throws IOException {
         // Given
         when(albumRepository.findById(albumId)).thenReturn(Optional.of(testAlbum));
-        when(fileStorageService.store(mockFile, "gallery")).thenThrow(new IOException("Storage error"));
+        when(fileStorageService.storeUnprocessed(mockFile, "gallery")).thenThrow(new IOException("Storage error"));
 
         // When & Then
         assertThrows(IOException.class, () -> adminGalleryService.uploadPhoto(albumId, mockFile, null));
@@ -13,6 +13,7 @@ import pl.nextsteppro.climbing.domain.user.User;
 import pl.nextsteppro.climbing.domain.user.UserRepository;
 import pl.nextsteppro.climbing.infrastructure.mail.NewsletterMailService;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -42,6 +43,7 @@ class AdminNewsServiceTest {
     @Mock private NewsRepository newsRepository;
     @Mock private NewsContentBlockRepository blockRepository;
     @Mock private FileStorageService fileStorageService;
+    @Mock private ImageProcessingQueue imageProcessingQueue;
     @Mock private UserRepository userRepository;
     @Mock private NewsletterMailService newsletterMailService;
     @Mock private MultipartFile mockFile;
@@ -56,7 +58,7 @@ class AdminNewsServiceTest {
     @BeforeEach
     void setUp() {
         adminNewsService = new AdminNewsService(
-                newsRepository, blockRepository, fileStorageService,
+                newsRepository, blockRepository, fileStorageService, imageProcessingQueue,
                 userRepository, newsletterMailService, BASE_URL
         );
 
@@ -14,6 +14,7 @@ import pl.nextsteppro.climbing.api.settings.SiteSettingsDtos.LocationActiveState
 import pl.nextsteppro.climbing.domain.settings.SiteSetting;
 import pl.nextsteppro.climbing.domain.settings.SiteSettingsRepository;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue;
 
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +40,8 @@ class AdminSiteSettingsServiceCalendarPromoTest {
     private SiteSettingsRepository siteSettingsRepository;
     @Mock
     private FileStorageService fileStorageService;
+    @Mock
+    private ImageProcessingQueue imageProcessingQueue;
 
     private AdminSiteSettingsService service;
     private Map<String, SiteSetting> store;
@@ -61,7 +64,7 @@ class AdminSiteSettingsServiceCalendarPromoTest {
             return null;
         }).when(siteSettingsRepository).deleteById(anyString());
 
-        service = new AdminSiteSettingsService(siteSettingsRepository, fileStorageService, BASE_URL);
+        service = new AdminSiteSettingsService(siteSettingsRepository, fileStorageService, imageProcessingQueue, BASE_URL);
     }
 
     private static CalendarPromoPresetDto preset(String id, String name) {
@@ -0,0 +1,81 @@
+package pl.nextsteppro.climbing.api.ascent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentTerrain;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AscentStatsCacheTest {
+
+    private final AscentStatsCache cache = new AscentStatsCache();
+    private final UUID athleteId = UUID.randomUUID();
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private AscentStatsDto stats(int total) {
+        builds.incrementAndGet();
+        return new AscentStatsDto(null, total, null, 0, 0, null, 0, null, List.of(), List.of(), null);
+    }
+
+    @Test
+    void shouldBuildEachTerrainAndYearOnce() {
+        cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(1));
+        cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(1));
+        cache.get(athleteId, AscentTerrain.ROCK, null, () -> stats(1));
+        cache.get(athleteId, AscentTerrain.MOUNTAIN, "2026", () -> stats(1));
+
+        assertThat(builds).hasValue(3);
+    }
+
+    @Test
+    void shouldDropEveryYearOfTheAthleteButNobodyElse() {
+        UUID someoneElse = UUID.randomUUID();
+        cache.get(athleteId, AscentTerrain.ROCK, "2025", () -> stats(1));
+        cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(1));
+        cache.get(someoneElse, AscentTerrain.ROCK, "2026", () -> stats(1));
+
+        cache.evict(athleteId);
+
+        assertThat(cache.get(athleteId, AscentTerrain.ROCK, "2025", () -> stats(2)).totalAscents()).isEqualTo(2);
+        assertThat(cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(2)).totalAscents()).isEqualTo(2);
+        assertThat(cache.get(someoneElse, AscentTerrain.ROCK, "2026", () -> stats(2)).totalAscents()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepTheEntryUntilTheWriteCommits() {
+        cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(athleteId);
+        assertThat(cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(2)).totalAscents())
+            .as("a rollback must not have cost anything").isEqualTo(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(2)).totalAscents()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotLetAReadRacingTheEvictionPutOldNumbersBack() {
+        // The read loads its rows before the write commits and stores them after the eviction
+        AscentStatsDto stale = cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> {
+            cache.evict(athleteId);
+            return stats(1);
+        });
+
+        assertThat(stale.totalAscents()).isEqualTo(1);
+        assertThat(cache.get(athleteId, AscentTerrain.ROCK, "2026", () -> stats(2)).totalAscents()).isEqualTo(2);
+    }
+}
@@ -8,6 +8,7 @@ import pl.nextsteppro.climbing.domain.climbingascent.AscentStyle;
 import pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class AscentStatsServiceTest {
 
-    private final AscentStatsService service = new AscentStatsService(null, null);
+    private final AscentStatsService service = new AscentStatsService(null, null, null);
 
     private static AscentStatsRow row(LocalDate day, AscentDiscipline discipline,
                                       ClimbingGrade grade, AscentStyle style) {
@@ -307,4 +308,49 @@ class AscentStatsServiceTest {
             .extracting(AscentDisciplineStatsDto::discipline)
             .containsExactly("BOULDER", "SPORT");
     }
+
+    @Test
+    @DisplayName("a tie on grade keeps the ascent logged first, as the card always showed")
+    void shouldKeepTheFirstAscentOnATie() {
+        List<AscentStatsRow> rows = List.of(
+            row(LocalDate.of(2026, 5, 1), AscentDiscipline.SPORT, ClimbingGrade.FR_7A, AscentStyle.RP,
+                "Jura", "jura", "Pierwsza", null),
+            row(LocalDate.of(2026, 6, 1), AscentDiscipline.SPORT, ClimbingGrade.FR_7A, AscentStyle.RP,
+                "Jura", "jura", "Druga", null));
+
+        var hardest = block(service.buildStats(rows, 2026), AscentDiscipline.SPORT)
+            .orElseThrow().hardestByStyle();
+
+        assertThat(hardest.get("RP").routeName()).isEqualTo("Pierwsza");
+    }
+
+    @Test
+    @DisplayName("a ten-thousand-ascent logbook folds to the same figures as its parts")
+    void shouldFoldALongLogbookConsistently() {
+        ClimbingGrade[] grades = {ClimbingGrade.FR_6A, ClimbingGrade.FR_6C, ClimbingGrade.FR_7A, ClimbingGrade.FR_7C};
+        AscentStyle[] styles = {AscentStyle.RP, AscentStyle.OS, AscentStyle.FLASH};
+        List<AscentStatsRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(row(LocalDate.of(2016 + i % 10, 1 + i % 12, 1), AscentDiscipline.SPORT,
+                grades[i % grades.length], styles[i % styles.length],
+                "Rejon " + i % 7, "rejon " + i % 7, "Droga " + i, 1 + i % 5));
+        }
+
+        AscentStatsDto allTime = service.buildStats(rows, null);
+        AscentStatsDto oneYear = service.buildStats(rows, 2020);
+        AscentDisciplineStatsDto sport = block(allTime, AscentDiscipline.SPORT).orElseThrow();
+
+        assertThat(allTime.totalAscents()).isEqualTo(10_000);
+        assertThat(oneYear.totalAscents()).isEqualTo(1_000);
+        assertThat(sport.pyramid()).extracting(PyramidRowDto::gradeLabel).containsExactly("7c", "7a", "6c", "6a");
+        assertThat(sport.pyramid()).extracting(PyramidRowDto::total).containsOnly(2_500);
+        assertThat(sport.styleDistribution().values().stream().mapToInt(Integer::intValue).sum())
+            .isEqualTo(10_000);
+        assertThat(sport.progressionByYear()).hasSize(10);
+        assertThat(block(oneYear, AscentDiscipline.SPORT).orElseThrow().progressionByYear())
+            .as("all-time whatever year is selected").hasSize(10);
+        assertThat(allTime.areaCount()).isEqualTo(7);
+        assertThat(allTime.topAreas()).hasSize(5);
+        assertThat(allTime.avgQualityStars()).isEqualTo(3.0);
+    }
 }
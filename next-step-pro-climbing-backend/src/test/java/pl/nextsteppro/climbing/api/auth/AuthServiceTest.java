@@ -19,6 +19,7 @@ import pl.nextsteppro.climbing.domain.newsletter.NewsletterConsentLogRepository;
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
 import pl.nextsteppro.climbing.infrastructure.security.JwtService;
+import pl.nextsteppro.climbing.infrastructure.security.VerifiedToken;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -65,6 +66,8 @@ class AuthServiceTest {
     private VerificationLinkIssuer verificationLinkIssuer;
     @Mock
     private pl.nextsteppro.climbing.api.activitylog.ActivityLogService activityLogService;
+    @Mock
+    private pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions userCacheEvictions;
 
     // Real, not a mock: confirming is two writes that must happen together (the flag and the
     // activity entry), and a stubbed-out AccountConfirmation would let this test keep passing
@@ -87,7 +90,8 @@ class AuthServiceTest {
             consentLogRepository,
             passwordPolicy,
             verificationLinkIssuer,
-            accountConfirmation
+            accountConfirmation,
+            userCacheEvictions
         );
 
         testUser = new User("test@example.com", "John", "Doe", "+48123456789", "johndoe");
@@ -442,6 +446,8 @@ class AuthServiceTest {
         // Then
         assertEquals(UserRole.ADMIN, testUser.getRole());
         verify(userRepository, atLeast(1)).save(testUser);
+        // Without this, a token from before the promotion keeps authenticating as USER
+        verify(userCacheEvictions).evict(testUser.getId());
     }
 
     // ========== EMAIL VERIFICATION TESTS ==========
@@ -818,8 +824,7 @@ class AuthServiceTest {
 
         RefreshTokenRequest request = new RefreshTokenRequest(oldRefreshToken);
 
-        when(jwtService.validateToken(oldRefreshToken)).thenReturn(true);
-        when(jwtService.isRefreshToken(oldRefreshToken)).thenReturn(true);
+        when(jwtService.verify(oldRefreshToken)).thenReturn(Optional.of(verified("refresh")));
         when(jwtService.hashToken(oldRefreshToken)).thenReturn(hashedOldToken);
         when(authTokenRepository.findRefreshableToken(eq(hashedOldToken), eq(TokenType.REFRESH_TOKEN), any(Instant.class), any(Instant.class)))
             .thenReturn(Optional.of(storedToken));
@@ -852,8 +857,7 @@ class AuthServiceTest {
 
         RefreshTokenRequest request = new RefreshTokenRequest(oldRefreshToken);
 
-        when(jwtService.validateToken(oldRefreshToken)).thenReturn(true);
-        when(jwtService.isRefreshToken(oldRefreshToken)).thenReturn(true);
+        when(jwtService.verify(oldRefreshToken)).thenReturn(Optional.of(verified("refresh")));
         when(jwtService.hashToken(oldRefreshToken)).thenReturn(hashedOldToken);
         when(authTokenRepository.findRefreshableToken(eq(hashedOldToken), eq(TokenType.REFRESH_TOKEN), any(Instant.class), any(Instant.class)))
             .thenReturn(Optional.of(storedToken));
@@ -878,7 +882,7 @@ class AuthServiceTest {
     void shouldThrowExceptionWhenRefreshTokenIsInvalid() {
         // Given
         RefreshTokenRequest request = new RefreshTokenRequest("invalidToken");
-        when(jwtService.validateToken("invalidToken")).thenReturn(false);
+        when(jwtService.verify("invalidToken")).thenReturn(Optional.empty());
         when(msg.get("auth.refresh.invalid")).thenReturn("Invalid refresh token");
 
         // When & Then
@@ -893,8 +897,7 @@ class AuthServiceTest {
     void shouldThrowExceptionWhenAccessTokenUsedAsRefreshToken() {
         // Given
         RefreshTokenRequest request = new RefreshTokenRequest("accessToken");
-        when(jwtService.validateToken("accessToken")).thenReturn(true);
-        when(jwtService.isRefreshToken("accessToken")).thenReturn(false);
+        when(jwtService.verify("accessToken")).thenReturn(Optional.of(verified("access")));
         when(msg.get("auth.refresh.invalid.type")).thenReturn("Not a refresh token");
 
         // When & Then
@@ -913,8 +916,7 @@ class AuthServiceTest {
 
         RefreshTokenRequest request = new RefreshTokenRequest(refreshToken);
 
-        when(jwtService.validateToken(refreshToken)).thenReturn(true);
-        when(jwtService.isRefreshToken(refreshToken)).thenReturn(true);
+        when(jwtService.verify(refreshToken)).thenReturn(Optional.of(verified("refresh")));
         when(jwtService.hashToken(refreshToken)).thenReturn(hashedToken);
         when(authTokenRepository.findRefreshableToken(eq(hashedToken), eq(TokenType.REFRESH_TOKEN), any(Instant.class), any(Instant.class)))
             .thenReturn(Optional.empty());
@@ -937,8 +939,7 @@ class AuthServiceTest {
 
         RefreshTokenRequest request = new RefreshTokenRequest(oldRefreshToken);
 
-        when(jwtService.validateToken(oldRefreshToken)).thenReturn(true);
-        when(jwtService.isRefreshToken(oldRefreshToken)).thenReturn(true);
+        when(jwtService.verify(oldRefreshToken)).thenReturn(Optional.of(verified("refresh")));
         when(jwtService.hashToken(oldRefreshToken)).thenReturn(hashedOldToken);
         when(authTokenRepository.findRefreshableToken(eq(hashedOldToken), eq(TokenType.REFRESH_TOKEN), any(Instant.class), any(Instant.class)))
             .thenReturn(Optional.of(storedToken));
@@ -962,6 +963,11 @@ class AuthServiceTest {
 
     // ========== HELPER METHODS ==========
 
+    private VerifiedToken verified(String type) {
+        return new VerifiedToken(testUser.getId(), testUser.getEmail(), testUser.getRole().name(), type,
+            Instant.now().plusSeconds(604800));
+    }
+
     private void setUserIdViaReflection(User user, UUID id) {
         try {
             var idField = User.class.getDeclaredField("id");
@@ -0,0 +1,148 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.nextsteppro.climbing.domain.event.Event;
+import pl.nextsteppro.climbing.domain.event.EventAvailabilityProjection;
+import pl.nextsteppro.climbing.domain.event.EventType;
+import pl.nextsteppro.climbing.domain.reservation.GuestReservation;
+import pl.nextsteppro.climbing.domain.reservation.GuestReservationRepository;
+import pl.nextsteppro.climbing.domain.reservation.Reservation;
+import pl.nextsteppro.climbing.domain.reservedseat.ReservedSeat;
+import pl.nextsteppro.climbing.domain.reservedseat.ReservedSeatRepository;
+import pl.nextsteppro.climbing.domain.timeslot.SlotAvailabilityProjection;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserRole;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The seat-count projection over real PostgreSQL (V91). The triggers are the whole feature and a
+ * mocked repository cannot see them: these writes go straight through the repositories, the way a
+ * bulk delete or a cascade would, and the counts still have to follow.
+ */
+class AvailabilityProjectionIntegrationTest extends BaseIntegrationTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired private GuestReservationRepository guestReservationRepository;
+    @Autowired private ReservedSeatRepository reservedSeatRepository;
+    @Autowired private AvailabilityProjectionService availabilityProjectionService;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User climber;
+    private TimeSlot slot;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        guestReservationRepository.deleteAll();
+        reservedSeatRepository.deleteAll();
+        timeSlotRepository.deleteAll();
+        eventRepository.deleteAll();
+        authTokenRepository.deleteAll();
+        userRepository.deleteAll();
+
+        climber = new User("climber@test.local", "Cli", "Mber", "+48123456789", "climber");
+        climber.setRole(UserRole.USER);
+        climber.setEmailVerified(true);
+        climber = userRepository.save(climber);
+
+        slot = timeSlotRepository.save(
+            new TimeSlot(LocalDate.now().plusDays(30), LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        flushAndClear();
+    }
+
+    @Test
+    void shouldCountConfirmedParticipantsAndGuestsAndForgetCancellations() {
+        Reservation reservation = new Reservation(climber, slot);
+        reservation.setParticipants(2);
+        reservation = reservationRepository.save(reservation);
+        guestReservationRepository.save(new GuestReservation(slot, "Znajomy", 3));
+        flushAndClear();
+
+        assertEquals(5, slotAvailability().getTaken());
+
+        reservation = reservationRepository.findById(reservation.getId()).orElseThrow();
+        reservation.cancel();
+        reservationRepository.save(reservation);
+        flushAndClear();
+
+        assertEquals(3, slotAvailability().getTaken());
+    }
+
+    @Test
+    void shouldHoldAnInvitedSeatOnlyUntilTheInviteeBooksIt() {
+        reservedSeatRepository.save(new ReservedSeat(slot, climber));
+        flushAndClear();
+        assertEquals(1, slotAvailability().getHeld());
+
+        reservationRepository.save(new Reservation(climber, slot));
+        flushAndClear();
+
+        SlotAvailabilityProjection availability = slotAvailability();
+        assertEquals(0, availability.getHeld());
+        assertEquals(1, availability.getTaken());
+    }
+
+    @Test
+    void shouldCountTheBusiestDayOfAnEventPlusItsGuests() {
+        LocalDate start = LocalDate.now().plusDays(40);
+        Event event = eventRepository.save(new Event("Kurs", EventType.COURSE, start, start.plusDays(1), 10));
+        TimeSlot dayOne = timeSlotRepository.save(
+            new TimeSlot(event, start, LocalTime.of(9, 0), LocalTime.of(17, 0), 10));
+        TimeSlot dayTwo = timeSlotRepository.save(
+            new TimeSlot(event, start.plusDays(1), LocalTime.of(9, 0), LocalTime.of(17, 0), 10));
+        Reservation first = new Reservation(climber, dayOne);
+        first.setParticipants(2);
+        reservationRepository.save(first);
+        Reservation second = new Reservation(climber, dayTwo);
+        second.setParticipants(2);
+        reservationRepository.save(second);
+        guestReservationRepository.save(new GuestReservation(dayTwo, "Dojazd na drugi dzień", 1));
+        guestReservationRepository.save(new GuestReservation(event, "Grupa", 4));
+        flushAndClear();
+
+        EventAvailabilityProjection availability =
+            eventRepository.findAvailabilityByEventIds(List.of(event.getId())).getFirst();
+        assertEquals(3 + 4, availability.getTaken());
+
+        // Dropping the busier day leaves the other as the limit
+        timeSlotRepository.deleteById(dayTwo.getId());
+        flushAndClear();
+        assertEquals(2 + 4, eventRepository.findAvailabilityByEventIds(List.of(event.getId())).getFirst().getTaken());
+    }
+
+    @Test
+    void shouldRepairARowThatWasWrittenBehindTheTriggersBack() {
+        reservationRepository.save(new Reservation(climber, slot));
+        flushAndClear();
+        jdbc.update("UPDATE slot_availability SET taken = 99 WHERE time_slot_id = ?", slot.getId());
+
+        int repaired = availabilityProjectionService.repairDrift();
+
+        assertEquals(1, repaired);
+        assertEquals(1, slotAvailability().getTaken());
+        assertEquals(0, availabilityProjectionService.repairDrift());
+    }
+
+    private SlotAvailabilityProjection slotAvailability() {
+        return timeSlotRepository.findAvailabilityBySlotId(slot.getId()).orElseThrow();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
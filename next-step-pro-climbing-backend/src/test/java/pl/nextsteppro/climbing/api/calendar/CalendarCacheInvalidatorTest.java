@@ -0,0 +1,154 @@
+package pl.nextsteppro.climbing.api.calendar;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.nextsteppro.climbing.domain.event.Event;
+import pl.nextsteppro.climbing.domain.event.EventType;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The invalidator must drop every entry a write can show up in and nothing else — an over-eager
+ * eviction is only a lost hit, but a missed one serves stale seat counts for the whole TTL.
+ */
+class CalendarCacheInvalidatorTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private CalendarCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(
+            CalendarCacheInvalidator.MONTH, CalendarCacheInvalidator.WEEK, CalendarCacheInvalidator.DAY);
+        invalidator = new CalendarCacheInvalidator(cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldEvictOnlyTheMonthWeekAndDayOfAStandaloneSlot() {
+        LocalDate date = LocalDate.of(2026, 5, 13); // Wednesday
+        cacheMonths(YearMonth.of(2026, 4), YearMonth.of(2026, 5), YearMonth.of(2026, 6));
+        cacheWeeks(LocalDate.of(2026, 5, 4), LocalDate.of(2026, 5, 11), LocalDate.of(2026, 5, 18));
+        cacheDays(date.minusDays(1), date, date.plusDays(1));
+
+        invalidator.evictSlot(new TimeSlot(date, LocalTime.of(10, 0), LocalTime.of(12, 0), 6));
+
+        assertCached(month(), YearMonth.of(2026, 4), YearMonth.of(2026, 6));
+        assertEvicted(month(), YearMonth.of(2026, 5));
+        assertCached(week(), LocalDate.of(2026, 5, 4), LocalDate.of(2026, 5, 18));
+        assertEvicted(week(), LocalDate.of(2026, 5, 11));
+        assertCached(day(), date.minusDays(1), date.plusDays(1));
+        assertEvicted(day(), date);
+    }
+
+    @Test
+    void shouldEvictEveryMonthAMultiDayEventSpans() {
+        Event event = new Event("Warsztaty", EventType.WORKSHOP, LocalDate.of(2026, 7, 30), LocalDate.of(2026, 8, 2), 8);
+        cacheMonths(YearMonth.of(2026, 7), YearMonth.of(2026, 8), YearMonth.of(2026, 9));
+        cacheDays(LocalDate.of(2026, 7, 29), LocalDate.of(2026, 7, 31), LocalDate.of(2026, 8, 3));
+
+        invalidator.evictEvent(event);
+
+        assertEvicted(month(), YearMonth.of(2026, 7), YearMonth.of(2026, 8));
+        assertCached(month(), YearMonth.of(2026, 9));
+        assertEvicted(day(), LocalDate.of(2026, 7, 31));
+        assertCached(day(), LocalDate.of(2026, 7, 29), LocalDate.of(2026, 8, 3));
+    }
+
+    @Test
+    void shouldEvictTheWholeEventRangeForOneOfItsSlots() {
+        // The event's seat count is shown on each day it spans, not only on the slot's own day.
+        Event event = new Event("Kurs", EventType.COURSE, LocalDate.of(2026, 5, 30), LocalDate.of(2026, 6, 1), 8);
+        TimeSlot slot = new TimeSlot(event, LocalDate.of(2026, 6, 1), LocalTime.of(9, 0), LocalTime.of(17, 0), 8);
+        cacheMonths(YearMonth.of(2026, 5), YearMonth.of(2026, 6));
+        cacheDays(LocalDate.of(2026, 5, 30));
+
+        invalidator.evictSlot(slot);
+
+        assertEvicted(month(), YearMonth.of(2026, 5), YearMonth.of(2026, 6));
+        assertEvicted(day(), LocalDate.of(2026, 5, 30));
+    }
+
+    @Test
+    void shouldEvictWeeksKeyedOnAnyDayUpToSixDaysBefore() {
+        LocalDate date = LocalDate.of(2026, 5, 13);
+        cacheWeeks(date.minusDays(7), date.minusDays(6), date, date.plusDays(1));
+
+        invalidator.evictDates(date, date);
+
+        assertEvicted(week(), date.minusDays(6), date);
+        assertCached(week(), date.minusDays(7), date.plusDays(1));
+    }
+
+    @Test
+    void shouldWaitForTheCommitWhenATransactionIsRunning() {
+        LocalDate date = LocalDate.of(2026, 5, 13);
+        cacheDays(date);
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.evictDates(date, date);
+
+        assertCached(day(), date);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEvicted(day(), date);
+    }
+
+    @Test
+    void shouldClearEverythingForAnUnboundedRange() {
+        cacheMonths(YearMonth.of(2020, 1));
+        cacheDays(LocalDate.of(2030, 1, 1));
+
+        invalidator.evictDates(LocalDate.of(2026, 1, 1), LocalDate.of(2028, 1, 1));
+
+        assertEvicted(month(), YearMonth.of(2020, 1));
+        assertEvicted(day(), LocalDate.of(2030, 1, 1));
+    }
+
+    private Cache month() {
+        return cacheManager.getCache(CalendarCacheInvalidator.MONTH);
+    }
+
+    private Cache week() {
+        return cacheManager.getCache(CalendarCacheInvalidator.WEEK);
+    }
+
+    private Cache day() {
+        return cacheManager.getCache(CalendarCacheInvalidator.DAY);
+    }
+
+    private void cacheMonths(YearMonth... keys) {
+        for (YearMonth key : keys) month().put(key, "cached");
+    }
+
+    private void cacheWeeks(LocalDate... keys) {
+        for (LocalDate key : keys) week().put(key, "cached");
+    }
+
+    private void cacheDays(LocalDate... keys) {
+        for (LocalDate key : keys) day().put(key, "cached");
+    }
+
+    private static void assertCached(Cache cache, Object... keys) {
+        for (Object key : keys) assertNotNull(cache.get(key), cache.getName() + " lost " + key);
+    }
+
+    private static void assertEvicted(Cache cache, Object... keys) {
+        for (Object key : keys) assertNull(cache.get(key), cache.getName() + " still holds " + key);
+    }
+}
@@ -6,12 +6,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.nextsteppro.climbing.domain.event.Event;
+import pl.nextsteppro.climbing.domain.event.EventAvailabilityProjection;
 import pl.nextsteppro.climbing.domain.event.EventRepository;
 import pl.nextsteppro.climbing.domain.event.EventType;
-import pl.nextsteppro.climbing.domain.reservation.GuestReservationRepository;
+import pl.nextsteppro.climbing.domain.reservation.CalendarMarkProjection;
 import pl.nextsteppro.climbing.domain.reservation.Reservation;
 import pl.nextsteppro.climbing.domain.reservation.ReservationRepository;
-import pl.nextsteppro.climbing.domain.reservation.SlotParticipantCount;
+import pl.nextsteppro.climbing.domain.timeslot.SlotAvailabilityProjection;
 import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
 import pl.nextsteppro.climbing.domain.timeslot.TimeSlotRepository;
 import pl.nextsteppro.climbing.domain.user.User;
@@ -53,9 +54,6 @@ class CalendarServiceTest {
     @Mock
     private ReservationRepository reservationRepository;
 
-    @Mock
-    private GuestReservationRepository guestReservationRepository;
-
     @Mock
     private EventRepository eventRepository;
 
@@ -77,7 +75,8 @@ class CalendarServiceTest {
 
     @BeforeEach
     void setUp() {
-        calendarService = new CalendarService(timeSlotRepository, reservationRepository, guestReservationRepository, eventRepository, waitlistRepository, eventWaitlistRepository, reservedSeatRepository);
+        CalendarSnapshots snapshots = new CalendarSnapshots(timeSlotRepository, eventRepository);
+        calendarService = new CalendarService(snapshots, timeSlotRepository, reservationRepository, eventRepository, waitlistRepository, eventWaitlistRepository, reservedSeatRepository);
         testUserId = UUID.randomUUID();
 
         // Setup test user
@@ -163,11 +162,8 @@ class CalendarServiceTest {
         when(eventRepository.findActiveEventsBetween(eq(startDate), eq(endDate)))
                 .thenReturn(List.of(testEvent));
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0)));
 
         // When
         MonthViewDto result = calendarService.getMonthView(yearMonth, null);
@@ -180,7 +176,7 @@ class CalendarServiceTest {
 
         // Verify batch loading (no N+1 queries)
         verify(timeSlotRepository, times(1)).findByDateRangeOrdered(any(), any());
-        verify(reservationRepository, times(1)).countConfirmedByTimeSlotIds(any());
+        verify(timeSlotRepository, times(1)).findAvailabilityBySlotIds(any());
     }
 
     @Test
@@ -195,13 +191,10 @@ class CalendarServiceTest {
         when(eventRepository.findActiveEventsBetween(eq(startDate), eq(endDate)))
                 .thenReturn(List.of(testEvent));
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0)));
 
-        when(reservationRepository.findUserConfirmedSlotIds(eq(testUserId), any()))
+        when(reservationRepository.findCalendarMarks(testUserId, startDate, endDate))
                 .thenReturn(List.of());
 
         // When
@@ -211,8 +204,9 @@ class CalendarServiceTest {
         assertNotNull(result);
         assertEquals(yearMonth.toString(), result.yearMonth());
 
-        // Verify user-specific queries called (once for slots, possibly again for events)
-        verify(reservationRepository, atLeastOnce()).findUserConfirmedSlotIds(eq(testUserId), any());
+        // The viewer's layer is one query over the range; the per-id lookups are gone
+        verify(reservationRepository).findCalendarMarks(testUserId, startDate, endDate);
+        verify(reservationRepository, never()).findUserConfirmedSlotIds(any(), any());
     }
 
     @Test
@@ -268,11 +262,8 @@ class CalendarServiceTest {
         when(eventRepository.findActiveEventsBetween(eq(startDate), eq(endDate)))
                 .thenReturn(List.of());
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(standaloneSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(2);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(standaloneSlot.getId(), 2, 0)));
 
         // When
         WeekViewDto result = calendarService.getWeekView(startDate, null);
@@ -284,7 +275,7 @@ class CalendarServiceTest {
         assertEquals(7, result.days().size());
 
         // Verify batch loading
-        verify(reservationRepository, times(1)).countConfirmedByTimeSlotIds(any());
+        verify(timeSlotRepository, times(1)).findAvailabilityBySlotIds(any());
     }
 
     @Test
@@ -298,14 +289,11 @@ class CalendarServiceTest {
         when(eventRepository.findActiveEventsBetween(eq(startDate), eq(endDate)))
                 .thenReturn(List.of());
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0)));
 
-        when(reservationRepository.findUserConfirmedSlotIds(eq(testUserId), any()))
-                .thenReturn(List.of(testSlot.getId()));
+        when(reservationRepository.findCalendarMarks(testUserId, startDate, endDate))
+                .thenReturn(List.of(mark("SLOT_BOOKED", testSlot.getId())));
 
         // When
         WeekViewDto result = calendarService.getWeekView(startDate, testUserId);
@@ -315,7 +303,35 @@ class CalendarServiceTest {
         assertEquals(7, result.days().size());
 
         // Verify user registration status tracked
-        verify(reservationRepository).findUserConfirmedSlotIds(eq(testUserId), any());
+        TimeSlotDto slot = result.days().stream()
+                .flatMap(day -> day.slots().stream())
+                .filter(s -> s.id().equals(testSlot.getId()))
+                .findFirst().orElseThrow();
+        assertTrue(slot.isUserRegistered());
+    }
+
+    @Test
+    void shouldLayTheViewersInvitationOverTheSharedCounts() {
+        // Given: a slot full only because of one held seat — the viewer's own
+        LocalDate date = testSlot.getDate();
+
+        when(timeSlotRepository.findByDateSorted(eq(date))).thenReturn(List.of(testSlot));
+        when(eventRepository.findActiveEventsOnDate(eq(date))).thenReturn(List.of());
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 9, 1)));
+        when(reservationRepository.findCalendarMarks(testUserId, date, date))
+                .thenReturn(List.of(mark("SLOT_INVITE", testSlot.getId())));
+
+        // When: the same shared counts, seen by the public and by the invitee
+        TimeSlotDto publicView = calendarService.getDayView(date, null).slots().get(0);
+        TimeSlotDto inviteeView = calendarService.getDayView(date, testUserId).slots().get(0);
+
+        // Then
+        assertEquals(SlotStatus.FULL, publicView.status());
+        assertFalse(publicView.isReservedForUser());
+        assertEquals(SlotStatus.AVAILABLE, inviteeView.status());
+        assertTrue(inviteeView.isReservedForUser());
+        assertEquals(1, inviteeView.reservedSeats());
     }
 
     // ========== DAY VIEW TESTS ==========
@@ -331,14 +347,11 @@ class CalendarServiceTest {
         when(eventRepository.findActiveEventsOnDate(eq(date)))
                 .thenReturn(List.of(testEvent));
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0)));
 
-        when(timeSlotRepository.findByEventIdIn(any()))
-                .thenReturn(List.of(testSlot));
+        when(eventRepository.findAvailabilityByEventIds(any()))
+                .thenReturn(List.of(eventAvailability(testEvent.getId(), 5, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(date, null);
@@ -360,11 +373,8 @@ class CalendarServiceTest {
         when(eventRepository.findActiveEventsOnDate(eq(date)))
                 .thenReturn(List.of());
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(date, null);
@@ -393,7 +403,7 @@ class CalendarServiceTest {
 
         when(timeSlotRepository.findByDateSorted(eq(today))).thenReturn(List.of(window));
         when(eventRepository.findActiveEventsOnDate(eq(today))).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any())).thenReturn(List.of());
+        when(timeSlotRepository.findAvailabilityBySlotIds(any())).thenReturn(List.of());
 
         // When
         DayViewDto result = calendarService.getDayView(today, null);
@@ -410,7 +420,7 @@ class CalendarServiceTest {
         // Given
         UUID eventId = testEvent.getId();
         when(eventRepository.findById(eq(eventId))).thenReturn(Optional.of(testEvent));
-        when(timeSlotRepository.findByEventIdIn(any())).thenReturn(List.of());
+        when(eventRepository.findAvailabilityByEventIds(any())).thenReturn(List.of());
 
         // When
         EventSummaryDto result = calendarService.getEventSummary(eventId, null);
@@ -430,16 +440,12 @@ class CalendarServiceTest {
         testSlot.setEvent(testEvent);
 
         when(eventRepository.findById(eq(eventId))).thenReturn(Optional.of(testEvent));
-        when(timeSlotRepository.findByEventIdIn(any())).thenReturn(List.of(testSlot));
-
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        // The busiest day-slot's count, as the projection stores it for the event
+        when(eventRepository.findAvailabilityByEventIds(any()))
+                .thenReturn(List.of(eventAvailability(eventId, 5, 0)));
 
-        when(reservationRepository.findUserConfirmedSlotIds(eq(testUserId), any()))
-                .thenReturn(List.of(testSlot.getId()));
+        when(reservationRepository.findCalendarMarks(eq(testUserId), any(), any()))
+                .thenReturn(List.of(mark("EVENT_BOOKED", eventId)));
 
         // When
         EventSummaryDto result = calendarService.getEventSummary(eventId, testUserId);
@@ -469,7 +475,7 @@ class CalendarServiceTest {
         // Given
         UUID slotId = testSlot.getId();
         when(timeSlotRepository.findById(eq(slotId))).thenReturn(Optional.of(testSlot));
-        when(reservationRepository.countConfirmedByTimeSlotId(eq(slotId))).thenReturn(5);
+        when(timeSlotRepository.findAvailabilityBySlotId(eq(slotId))).thenReturn(Optional.of(slotAvailability(slotId, 5, 0)));
 
         // When
         TimeSlotDetailDto result = calendarService.getSlotDetails(slotId, null);
@@ -496,7 +502,7 @@ class CalendarServiceTest {
         }
 
         when(timeSlotRepository.findById(eq(slotId))).thenReturn(Optional.of(testSlot));
-        when(reservationRepository.countConfirmedByTimeSlotId(eq(slotId))).thenReturn(5);
+        when(timeSlotRepository.findAvailabilityBySlotId(eq(slotId))).thenReturn(Optional.of(slotAvailability(slotId, 5, 0)));
         when(reservationRepository.findByUserIdAndTimeSlotId(eq(testUserId), eq(slotId)))
                 .thenReturn(testReservation);
 
@@ -529,14 +535,11 @@ class CalendarServiceTest {
         // Given
         testSlot.block("Maintenance");
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(0);
 
         when(timeSlotRepository.findByDateSorted(any())).thenReturn(List.of(testSlot));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 0, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(testSlot.getDate(), null);
@@ -552,14 +555,11 @@ class CalendarServiceTest {
         // Given
         testSlot.setUnavailable(true);
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(0);
 
         when(timeSlotRepository.findByDateSorted(any())).thenReturn(List.of(testSlot));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 0, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(testSlot.getDate(), null);
@@ -578,7 +578,7 @@ class CalendarServiceTest {
 
         when(timeSlotRepository.findByDateRangeOrdered(any(), any())).thenReturn(List.of(testSlot));
         when(eventRepository.findActiveEventsBetween(any(), any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any())).thenReturn(List.of());
+        when(timeSlotRepository.findAvailabilityBySlotIds(any())).thenReturn(List.of());
 
         // When
         MonthViewDto result = calendarService.getMonthView(yearMonth, null);
@@ -599,14 +599,11 @@ class CalendarServiceTest {
     @Test
     void shouldDetermineStatusAsFull() {
         // Given
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(10); // maxParticipants = 10
 
         when(timeSlotRepository.findByDateSorted(any())).thenReturn(List.of(testSlot));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 10, 0))); // maxParticipants = 10
 
         // When
         DayViewDto result = calendarService.getDayView(testSlot.getDate(), null);
@@ -641,14 +638,11 @@ class CalendarServiceTest {
             throw new RuntimeException(e);
         }
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(pastSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
 
         when(timeSlotRepository.findByDateSorted(eq(pastSlot.getDate()))).thenReturn(List.of(pastSlot));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(pastSlot.getId(), 5, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(pastSlot.getDate(), null);
@@ -686,14 +680,11 @@ class CalendarServiceTest {
             throw new RuntimeException(e);
         }
 
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(nearFutureSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5);
 
         when(timeSlotRepository.findByDateSorted(eq(nearFutureSlot.getDate()))).thenReturn(List.of(nearFutureSlot));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(nearFutureSlot.getId(), 5, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(nearFutureSlot.getDate(), null);
@@ -706,14 +697,11 @@ class CalendarServiceTest {
     @Test
     void shouldDetermineStatusAsAvailable() {
         // Given: future slot with available capacity (testSlot is 2 days ahead, > 12h cutoff)
-        SlotParticipantCount mockCount = mock(SlotParticipantCount.class);
-        when(mockCount.slotId()).thenReturn(testSlot.getId());
-        when(mockCount.countAsInt()).thenReturn(5); // < maxParticipants (10)
 
         when(timeSlotRepository.findByDateSorted(eq(testSlot.getDate()))).thenReturn(List.of(testSlot));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0))); // < maxParticipants (10)
 
         // When
         DayViewDto result = calendarService.getDayView(testSlot.getDate(), null);
@@ -753,16 +741,8 @@ class CalendarServiceTest {
         when(timeSlotRepository.findByDateSorted(any())).thenReturn(List.of(testSlot, slot2));
         when(eventRepository.findActiveEventsOnDate(any())).thenReturn(List.of());
 
-        SlotParticipantCount mockCount1 = mock(SlotParticipantCount.class);
-        when(mockCount1.slotId()).thenReturn(testSlot.getId());
-        when(mockCount1.countAsInt()).thenReturn(5);
-
-        SlotParticipantCount mockCount2 = mock(SlotParticipantCount.class);
-        when(mockCount2.slotId()).thenReturn(slot2.getId());
-        when(mockCount2.countAsInt()).thenReturn(3);
-
-        when(reservationRepository.countConfirmedByTimeSlotIds(any()))
-                .thenReturn(List.of(mockCount1, mockCount2));
+        when(timeSlotRepository.findAvailabilityBySlotIds(any()))
+                .thenReturn(List.of(slotAvailability(testSlot.getId(), 5, 0), slotAvailability(slot2.getId(), 3, 0)));
 
         // When
         DayViewDto result = calendarService.getDayView(testSlot.getDate(), null);
@@ -772,7 +752,7 @@ class CalendarServiceTest {
         assertEquals(2, result.slots().size());
 
         // CRITICAL: Verify only ONE batch query (not N+1)
-        verify(reservationRepository, times(1)).countConfirmedByTimeSlotIds(any());
+        verify(timeSlotRepository, times(1)).findAvailabilityBySlotIds(any());
     }
 
     @Test
@@ -791,6 +771,31 @@ class CalendarServiceTest {
         assertTrue(result.events().isEmpty());
 
         // Verify no unnecessary repository calls
-        verify(reservationRepository, never()).countConfirmedByTimeSlotIds(any());
+        verify(timeSlotRepository, never()).findAvailabilityBySlotIds(any());
+    }
+
+    private static CalendarMarkProjection mark(String kind, UUID targetId) {
+        return new CalendarMarkProjection() {
+            @Override public String getKind() { return kind; }
+            @Override public UUID getTargetId() { return targetId; }
+        };
+    }
+
+    private static SlotAvailabilityProjection slotAvailability(UUID slotId, int taken, int held) {
+        return new SlotAvailabilityProjection() {
+            @Override public UUID getTimeSlotId() { return slotId; }
+            @Override public int getTaken() { return taken; }
+            @Override public int getHeld() { return held; }
+            @Override public int getPending() { return 0; }
+        };
+    }
+
+    private static EventAvailabilityProjection eventAvailability(UUID eventId, int taken, int held) {
+        return new EventAvailabilityProjection() {
+            @Override public UUID getEventId() { return eventId; }
+            @Override public int getTaken() { return taken; }
+            @Override public int getHeld() { return held; }
+            @Override public int getPending() { return 0; }
+        };
     }
 }
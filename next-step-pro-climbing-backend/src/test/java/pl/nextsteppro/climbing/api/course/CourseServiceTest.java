@@ -7,6 +7,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.nextsteppro.climbing.api.course.CourseDtos.*;
 import pl.nextsteppro.climbing.domain.course.*;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 
 import java.time.Instant;
 import java.util.List;
@@ -28,13 +29,16 @@ class CourseServiceTest {
     @Mock
     private CourseContentBlockRepository blockRepository;
 
+    @Mock
+    private FileStorageService fileStorageService;
+
     private CourseService courseService;
 
     private static final String BASE_URL = "https://nextsteppro.pl";
 
     @BeforeEach
     void setUp() {
-        courseService = new CourseService(courseRepository, blockRepository, BASE_URL);
+        courseService = new CourseService(courseRepository, blockRepository, fileStorageService, BASE_URL);
     }
 
     // ========== getAllPublished ==========
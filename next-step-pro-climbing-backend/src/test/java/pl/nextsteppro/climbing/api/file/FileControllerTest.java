@@ -3,16 +3,22 @@ package pl.nextsteppro.climbing.api.file;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +30,9 @@ class FileControllerTest {
     @Mock
     private FileStorageService fileStorageService;
 
+    @TempDir
+    Path dir;
+
     private FileController controller;
 
     @BeforeEach
@@ -36,27 +45,24 @@ class FileControllerTest {
         // Given
         String filename = UUID.randomUUID() + ".jpg";
         byte[] imageContent = "fake jpeg content".getBytes();
-        InputStream inputStream = new ByteArrayInputStream(imageContent);
 
         when(fileStorageService.exists(filename, "instructors")).thenReturn(true);
-        when(fileStorageService.getInputStream(filename, "instructors")).thenReturn(inputStream);
-        when(fileStorageService.getFileSize(filename, "instructors")).thenReturn((long) imageContent.length);
+        when(fileStorageService.getResource(filename, "instructors")).thenReturn(file(filename, imageContent));
 
         // When
-        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename);
+        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertInstanceOf(InputStreamResource.class, response.getBody());
-        assertEquals(imageContent.length, response.getHeaders().getContentLength());
+        assertTrue(response.getBody().isFile());
+        assertEquals(imageContent.length, response.getBody().contentLength());
         assertEquals("image/jpeg", response.getHeaders().getContentType().toString());
         assertTrue(response.getHeaders().getCacheControl().contains("max-age=604800"));
         assertTrue(response.getHeaders().getCacheControl().contains("public"));
 
-        // Verify streaming methods were called (not byte[] load)
-        verify(fileStorageService).getInputStream(filename, "instructors");
-        verify(fileStorageService).getFileSize(filename, "instructors");
+        // The file itself, not a stream over it: Spring serves ranges only from the former
+        verify(fileStorageService).getResource(filename, "instructors");
     }
 
     @Test
@@ -64,22 +70,17 @@ class FileControllerTest {
         // Given
         String filename = UUID.randomUUID() + ".png";
         byte[] imageContent = "fake png content".getBytes();
-        InputStream inputStream = new ByteArrayInputStream(imageContent);
 
         when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
-        when(fileStorageService.getInputStream(filename, "gallery")).thenReturn(inputStream);
-        when(fileStorageService.getFileSize(filename, "gallery")).thenReturn((long) imageContent.length);
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, imageContent));
 
         // When
-        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename);
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("image/png", response.getHeaders().getContentType().toString());
-        assertEquals(imageContent.length, response.getHeaders().getContentLength());
-
-        verify(fileStorageService).getInputStream(filename, "gallery");
-        verify(fileStorageService).getFileSize(filename, "gallery");
+        assertEquals(imageContent.length, response.getBody().contentLength());
     }
 
     @Test
@@ -89,11 +90,11 @@ class FileControllerTest {
         when(fileStorageService.exists(filename, "instructors")).thenReturn(false);
 
         // When
-        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename);
+        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(fileStorageService, never()).getInputStream(any(), any());
+        verify(fileStorageService, never()).getResource(any(), any());
     }
 
     @Test
@@ -101,14 +102,12 @@ class FileControllerTest {
         // Given
         String filename = UUID.randomUUID() + ".webp";
         byte[] imageContent = "fake webp content".getBytes();
-        InputStream inputStream = new ByteArrayInputStream(imageContent);
 
         when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
-        when(fileStorageService.getInputStream(filename, "gallery")).thenReturn(inputStream);
-        when(fileStorageService.getFileSize(filename, "gallery")).thenReturn((long) imageContent.length);
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, imageContent));
 
         // When
-        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename);
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -120,14 +119,12 @@ class FileControllerTest {
         // Given
         String filename = UUID.randomUUID() + ".jpeg";
         byte[] imageContent = "fake jpeg content".getBytes();
-        InputStream inputStream = new ByteArrayInputStream(imageContent);
 
         when(fileStorageService.exists(filename, "instructors")).thenReturn(true);
-        when(fileStorageService.getInputStream(filename, "instructors")).thenReturn(inputStream);
-        when(fileStorageService.getFileSize(filename, "instructors")).thenReturn((long) imageContent.length);
+        when(fileStorageService.getResource(filename, "instructors")).thenReturn(file(filename, imageContent));
 
         // When
-        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename);
+        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -139,14 +136,12 @@ class FileControllerTest {
         // Given
         String filename = UUID.randomUUID() + ".jpg";
         byte[] imageContent = "content".getBytes();
-        InputStream inputStream = new ByteArrayInputStream(imageContent);
 
         when(fileStorageService.exists(filename, "instructors")).thenReturn(true);
-        when(fileStorageService.getInputStream(filename, "instructors")).thenReturn(inputStream);
-        when(fileStorageService.getFileSize(filename, "instructors")).thenReturn((long) imageContent.length);
+        when(fileStorageService.getResource(filename, "instructors")).thenReturn(file(filename, imageContent));
 
         // When
-        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename);
+        ResponseEntity<Resource> response = controller.getInstructorPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -155,19 +150,30 @@ class FileControllerTest {
         assertTrue(cacheControl.contains("public"));
     }
 
+    @Test
+    void shouldNotLetAnyCacheKeepAnUploadTheQueueIsAboutToReplace() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, "raw".getBytes()));
+        when(fileStorageService.isPending(filename, "gallery")).thenReturn(true);
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, null);
+
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+        assertNotNull(response.getHeaders().getETag(), "revalidation stays cheap while nothing changed");
+    }
+
     @Test
     void shouldSetInlineContentDisposition() throws Exception {
         // Given
         String filename = UUID.randomUUID() + ".jpg";
         byte[] imageContent = "content".getBytes();
-        InputStream inputStream = new ByteArrayInputStream(imageContent);
 
         when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
-        when(fileStorageService.getInputStream(filename, "gallery")).thenReturn(inputStream);
-        when(fileStorageService.getFileSize(filename, "gallery")).thenReturn((long) imageContent.length);
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, imageContent));
 
         // When
-        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename);
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -175,4 +181,131 @@ class FileControllerTest {
         assertTrue(contentDisposition.contains("inline"));
         assertTrue(contentDisposition.contains(filename));
     }
+
+    @Test
+    void shouldServeTheRequestedWidthVariant() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+        byte[] variantContent = "640 px".getBytes();
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.findVariantWidth(filename, "gallery", 640)).thenReturn(OptionalInt.of(640));
+        when(fileStorageService.getVariantResource(filename, "gallery", 640))
+                .thenReturn(file("640-" + filename, variantContent));
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, 640, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(variantContent.length, response.getBody().contentLength());
+        verify(fileStorageService, never()).getResource(filename, "gallery");
+    }
+
+    @Test
+    void shouldFallBackToTheOriginalWhenNoVariantIsWideEnough() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+        byte[] imageContent = "original".getBytes();
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.findVariantWidth(filename, "gallery", 1920)).thenReturn(OptionalInt.empty());
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, imageContent));
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, 1920, null);
+
+        assertEquals(imageContent.length, response.getBody().contentLength());
+        verify(fileStorageService, never()).getVariantResource(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void shouldServeTheWebpRenditionOfTheVariantUnderItsOwnUrl() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+        byte[] webp = "smaller".getBytes();
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.findVariantWidth(filename, "gallery", 640)).thenReturn(OptionalInt.of(640));
+        when(fileStorageService.renditionContentTypes()).thenReturn(List.of("image/webp"));
+        when(fileStorageService.findRendition(filename, "gallery", OptionalInt.of(640), "image/webp"))
+                .thenReturn(Optional.of(file("640-webp-" + filename, webp)));
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, 640, "webp");
+
+        assertEquals("image/webp", response.getHeaders().getContentType().toString());
+        assertEquals(webp.length, response.getBody().contentLength());
+        // One body per URL: nothing for the edge to key on but the URL itself
+        assertTrue(response.getHeaders().getVary().isEmpty());
+        assertEquals("max-age=604800, public", response.getHeaders().getCacheControl());
+        assertTrue(response.getHeaders().getContentDisposition().toString().contains(".webp"));
+        verify(fileStorageService, never()).getVariantResource(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void shouldServeTheStoredFileWithoutAFormatAndNeverLookForARendition() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, "jpeg".getBytes()));
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, null);
+
+        assertEquals("image/jpeg", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getVary().isEmpty());
+        verify(fileStorageService, never()).findRendition(anyString(), anyString(), any(), anyString());
+    }
+
+    @Test
+    void shouldServeTheStoredFileBrieflyWhenTheRenditionIsNotWrittenYet() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.renditionContentTypes()).thenReturn(List.of("image/webp"));
+        when(fileStorageService.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp"))
+                .thenReturn(Optional.empty());
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, "jpeg".getBytes()));
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, "webp");
+
+        assertEquals("image/jpeg", response.getHeaders().getContentType().toString());
+        // The queue writes it soon: the WebP url must not hold the JPEG for a week
+        assertEquals("max-age=3600, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void shouldServeTheStoredFileForAFormatNoEncoderWrites() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.renditionContentTypes()).thenReturn(List.of("image/webp"));
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(file(filename, "jpeg".getBytes()));
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, "avif");
+
+        assertEquals("image/jpeg", response.getHeaders().getContentType().toString());
+        verify(fileStorageService, never()).findRendition(anyString(), anyString(), any(), anyString());
+    }
+
+    @Test
+    void shouldSetValidatorsSoRevalidationCanEndInA304() throws Exception {
+        String filename = UUID.randomUUID() + ".jpg";
+        byte[] imageContent = "content".getBytes();
+        Resource stored = file(filename, imageContent);
+        Files.setLastModifiedTime(stored.getFile().toPath(), FileTime.fromMillis(1_700_000_000_000L));
+
+        when(fileStorageService.exists(filename, "gallery")).thenReturn(true);
+        when(fileStorageService.getResource(filename, "gallery")).thenReturn(stored);
+
+        ResponseEntity<Resource> response = controller.getGalleryPhoto(filename, null, null);
+
+        // Spring's HttpEntityMethodProcessor compares these with If-None-Match / If-Modified-Since
+        assertEquals("\"18bcfe56800-7\"", response.getHeaders().getETag());
+        assertEquals(1_700_000_000_000L, response.getHeaders().getLastModified());
+    }
+
+    @Test
+    void shouldGiveADifferentETagOnceTheFileIsReplaced() {
+        // The image queue optimizes in place under the same name; a stale ETag would pin the raw upload
+        assertNotEquals(FileController.eTag(3_000_000, 1_700_000_000_000L),
+                FileController.eTag(400_000, 1_700_000_060_000L));
+    }
+
+    private Resource file(String name, byte[] content) throws IOException {
+        return new FileSystemResource(Files.write(dir.resolve(name), content));
+    }
 }
@@ -9,10 +9,14 @@ import pl.nextsteppro.climbing.api.gallery.GalleryDtos.AlbumSummaryDto;
 import pl.nextsteppro.climbing.domain.gallery.Album;
 import pl.nextsteppro.climbing.domain.gallery.AlbumRepository;
 import pl.nextsteppro.climbing.domain.gallery.AlbumSummaryProjection;
+import pl.nextsteppro.climbing.domain.gallery.Photo;
 import pl.nextsteppro.climbing.domain.gallery.PhotoRepository;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService.ImageVariant;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,13 +31,16 @@ class GalleryServiceTest {
     @Mock
     private PhotoRepository photoRepository;
 
+    @Mock
+    private FileStorageService fileStorageService;
+
     private GalleryService service;
 
     private static final String BASE_URL = "http://localhost:8080";
 
     @BeforeEach
     void setUp() {
-        service = new GalleryService(albumRepository, photoRepository, BASE_URL);
+        service = new GalleryService(albumRepository, photoRepository, fileStorageService, BASE_URL);
     }
 
     @Test
@@ -246,6 +253,23 @@ class GalleryServiceTest {
         assertTrue(result.photos().isEmpty());
     }
 
+    @Test
+    void shouldListEveryStoredWidthOfAPhotoInItsSrcset() {
+        UUID albumId = UUID.randomUUID();
+        Album album = mock(Album.class);
+        when(album.isPublished()).thenReturn(true);
+        when(albumRepository.findById(albumId)).thenReturn(java.util.Optional.of(album));
+        Photo photo = new Photo(album, UUID.randomUUID() + ".jpg");
+        when(photoRepository.findByAlbumIdOrderByDisplayOrderAscCreatedAtAsc(albumId)).thenReturn(List.of(photo));
+        when(fileStorageService.findVariants("gallery", List.of(photo.getFilename()))).thenReturn(Map.of(
+                photo.getFilename(), List.of(new ImageVariant(320, 240), new ImageVariant(1000, 750))));
+
+        var result = service.getAlbum(albumId);
+
+        String url = BASE_URL + "/api/files/gallery/" + photo.getFilename();
+        assertEquals(url + "?w=320 320w, " + url + "?w=1000 1000w", result.photos().get(0).srcset());
+    }
+
     @Test
     void shouldThrowExceptionWhenAlbumNotFound() {
         // Given
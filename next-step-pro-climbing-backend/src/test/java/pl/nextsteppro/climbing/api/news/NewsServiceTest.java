@@ -17,6 +17,7 @@ import pl.nextsteppro.climbing.domain.news.NewsStar;
 import pl.nextsteppro.climbing.domain.news.NewsStarId;
 import pl.nextsteppro.climbing.domain.news.NewsStarRepository;
 import pl.nextsteppro.climbing.domain.news.NewsSummaryProjection;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 
 import java.time.Instant;
 import java.util.List;
@@ -41,13 +42,16 @@ class NewsServiceTest {
     @Mock
     private NewsStarRepository newsStarRepository;
 
+    @Mock
+    private FileStorageService fileStorageService;
+
     private NewsService newsService;
 
     private static final String BASE_URL = "https://nextsteppro.pl";
 
     @BeforeEach
     void setUp() {
-        newsService = new NewsService(newsRepository, blockRepository, newsStarRepository, BASE_URL);
+        newsService = new NewsService(newsRepository, blockRepository, newsStarRepository, fileStorageService, BASE_URL);
     }
 
     // ========== getAllPublished — base (unauthenticated, no filters) ==========
@@ -221,7 +221,7 @@ class OgControllerTest {
                         LocalDate.of(2026, 7, 1), LocalDate.of(2026, 7, 3), courseId, true));
         when(courseService.getPublishedById(courseId))
                 .thenReturn(new CourseDetailDto(courseId, "Kurs lead", "500 zł",
-                        BASE + "/api/files/courses/thumb.jpg", null, null,
+                        BASE + "/api/files/courses/thumb.jpg", null, null, null, null,
                         "pl", UUID.randomUUID(), List.of(), Instant.now()));
 
         // When
@@ -266,17 +266,17 @@ class OgControllerTest {
     }
 
     private NewsDetailDto newsDto(UUID id, String title, String excerpt, String thumbnailUrl) {
-        return new NewsDetailDto(id, title, excerpt, thumbnailUrl, null, null,
+        return new NewsDetailDto(id, title, excerpt, thumbnailUrl, null, null, null, null,
                 List.of(), Instant.now(), null, "pl", UUID.randomUUID());
     }
 
     private CourseDetailDto courseDto(UUID id, String title, String price) {
-        return new CourseDetailDto(id, title, price, null, null, null,
+        return new CourseDetailDto(id, title, price, null, null, null, null, null,
                 "pl", UUID.randomUUID(), List.of(), Instant.now());
     }
 
     private InstructorPublicDto instructorDto(UUID id, String firstName, String lastName, InstructorType type) {
-        return new InstructorPublicDto(id, firstName, lastName, null, null, null,
+        return new InstructorPublicDto(id, firstName, lastName, null, null, null, null, null,
                 "bio", "cert", null, type, null, Instant.now(), "pl", UUID.randomUUID());
     }
 }
@@ -7,6 +7,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.domain.event.Event;
 import pl.nextsteppro.climbing.domain.event.EventRepository;
 import pl.nextsteppro.climbing.domain.event.EventType;
@@ -73,6 +74,8 @@ class EventWaitlistServiceTest {
     private ActivityLogService activityLogService;
     @Mock
     private MessageService msg;
+    @Mock
+    private CalendarCacheInvalidator calendarCache;
 
     private EventWaitlistService eventWaitlistService;
     private User testUser;
@@ -92,7 +95,8 @@ class EventWaitlistServiceTest {
             userRepository,
             waitlistMailService,
             activityLogService,
-            msg
+            msg,
+            calendarCache
         );
 
         userId = UUID.randomUUID();
@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.domain.event.Event;
 import pl.nextsteppro.climbing.domain.event.EventRepository;
 import pl.nextsteppro.climbing.domain.event.EventType;
@@ -71,6 +72,8 @@ class ReservationServiceTest {
     private EventWaitlistService eventWaitlistService;
     @Mock
     private pl.nextsteppro.climbing.domain.reservedseat.ReservedSeatRepository reservedSeatRepository;
+    @Mock
+    private CalendarCacheInvalidator calendarCache;
 
     private ReservationService reservationService;
     private User testUser;
@@ -93,7 +96,8 @@ class ReservationServiceTest {
             msg,
             waitlistService,
             eventWaitlistService,
-            reservedSeatRepository
+            reservedSeatRepository,
+            calendarCache
         );
 
         userId = UUID.randomUUID();
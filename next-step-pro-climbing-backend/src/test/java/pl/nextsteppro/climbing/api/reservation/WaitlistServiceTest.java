@@ -7,6 +7,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
+import pl.nextsteppro.climbing.api.calendar.CalendarCacheInvalidator;
 import pl.nextsteppro.climbing.domain.reservation.GuestReservationRepository;
 import pl.nextsteppro.climbing.domain.reservation.Reservation;
 import pl.nextsteppro.climbing.domain.reservation.ReservationRepository;
@@ -53,6 +54,7 @@ class WaitlistServiceTest {
     @Mock private WaitlistMailService waitlistMailService;
     @Mock private ActivityLogService activityLogService;
     @Mock private MessageService msg;
+    @Mock private CalendarCacheInvalidator calendarCache;
 
     private WaitlistService waitlistService;
 
@@ -60,7 +62,7 @@ class WaitlistServiceTest {
     void setUp() {
         waitlistService = new WaitlistService(
             waitlistRepository, timeSlotRepository, reservationRepository,
-            guestReservationRepository, reservedSeatRepository, userRepository, waitlistMailService, activityLogService, msg);
+            guestReservationRepository, reservedSeatRepository, userRepository, waitlistMailService, activityLogService, msg, calendarCache);
 
         // Default message returns
         lenient().when(msg.get(anyString())).thenAnswer(inv -> inv.getArgument(0));
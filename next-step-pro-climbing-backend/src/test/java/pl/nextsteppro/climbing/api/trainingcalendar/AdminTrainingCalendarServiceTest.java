@@ -31,6 +31,7 @@ class AdminTrainingCalendarServiceTest {
 
     @Mock private TrainingCalendarService core;
     @Mock private TrainingStatsService statsService;
+    @Mock private CoachDashboardService dashboardService;
     @Mock private AthleteGoalService goalService;
     @Mock private AttachmentSupport attachments;
     @Mock private ActivityLogService activityLogService;
@@ -45,7 +46,7 @@ class AdminTrainingCalendarServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new AdminTrainingCalendarService(core, statsService, goalService, attachments, activityLogService, userRepository);
+        service = new AdminTrainingCalendarService(core, statsService, dashboardService, goalService, attachments, activityLogService, userRepository);
 
         adminId = UUID.randomUUID();
         admin = new User("coach@example.com", "Trener", "Główny", "+48111111111", "coach");
@@ -0,0 +1,176 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTraining;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTrainingRepository;
+import pl.nextsteppro.climbing.domain.reservation.Reservation;
+import pl.nextsteppro.climbing.domain.reservation.ReservationRpe;
+import pl.nextsteppro.climbing.domain.reservation.ReservationRpeRepository;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserRole;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The monthly stats snapshots over real PostgreSQL (V98). As with the seat counts, the triggers are
+ * the feature: every write below goes straight through a repository, and the month it lands in
+ * still has to follow.
+ */
+class AthleteStatsSnapshotIntegrationTest extends BaseIntegrationTest {
+
+    // Long closed, so it is read from the snapshots whatever day the suite runs on
+    private static final LocalDate MARCH_DAY = LocalDate.of(2025, 3, 10);
+    private static final LocalDate LIVE_FROM = LocalDate.of(2100, 1, 1);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired private PersonalTrainingRepository personalTrainingRepository;
+    @Autowired private ReservationRpeRepository reservationRpeRepository;
+    @Autowired private AthleteStatsSnapshots snapshots;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User athlete;
+
+    @BeforeEach
+    void setUp() {
+        athlete = new User("athlete@test.local", "Ada", "Wspinaczka", "+48123456789", "ada");
+        athlete.setRole(UserRole.USER);
+        athlete.setEmailVerified(true);
+        athlete = userRepository.save(athlete);
+        flushAndClear();
+    }
+
+    @Test
+    void shouldCountACompletionInItsMonthAndForgetItOnceUncompleted() {
+        PersonalTraining training = personalTrainingRepository.save(new PersonalTraining(
+            athlete, MARCH_DAY, LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true));
+        flushAndClear();
+        assertTrue(months().isEmpty(), "a planned training is not an activity");
+
+        training = personalTrainingRepository.findById(training.getId()).orElseThrow();
+        training.complete(null, 7);
+        personalTrainingRepository.save(training);
+        flushAndClear();
+
+        AthleteStatsSnapshots.Month march = months().getFirst();
+        assertEquals(YearMonth.of(2025, 3), march.month());
+        assertEquals(31, march.dayCounts().length);
+        assertEquals(1, march.dayCounts()[MARCH_DAY.getDayOfMonth() - 1]);
+        assertEquals(1, march.personal());
+        assertEquals(7, march.rpeSum());
+
+        training = personalTrainingRepository.findById(training.getId()).orElseThrow();
+        training.uncomplete();
+        personalTrainingRepository.save(training);
+        flushAndClear();
+
+        assertTrue(months().isEmpty());
+    }
+
+    @Test
+    void shouldFollowAReservationItsRatingAndItsSlotIntoAnotherMonth() {
+        TimeSlot slot = timeSlotRepository.save(new TimeSlot(MARCH_DAY, LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        Reservation reservation = reservationRepository.save(new Reservation(athlete, slot));
+        flushAndClear();
+
+        AthleteStatsSnapshots.Month march = months().getFirst();
+        assertEquals(1, march.individualSlot());
+        assertEquals(1, march.unratedReservations());
+
+        reservationRpeRepository.save(new ReservationRpe(
+            reservationRepository.findById(reservation.getId()).orElseThrow(), 9, null));
+        flushAndClear();
+
+        march = months().getFirst();
+        assertEquals(0, march.unratedReservations());
+        assertArrayEquals(new int[] {9}, march.recentRpes());
+
+        // An edited event moves its slots, bookings and all
+        slot = timeSlotRepository.findById(slot.getId()).orElseThrow();
+        slot.setDate(LocalDate.of(2025, 4, 2));
+        timeSlotRepository.save(slot);
+        flushAndClear();
+
+        List<AthleteStatsSnapshots.Month> months = months();
+        assertEquals(1, months.size());
+        assertEquals(YearMonth.of(2025, 4), months.getFirst().month());
+        assertEquals(9, months.getFirst().rpeSum());
+    }
+
+    @Test
+    void shouldRecountTheMonthWhenASlotIsDeletedWithItsBookings() {
+        // The cascade takes the slot first, so the reservation's trigger can no longer see its date
+        PersonalTraining training = new PersonalTraining(
+            athlete, MARCH_DAY, LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true);
+        training.complete(null, null);
+        personalTrainingRepository.save(training);
+        TimeSlot slot = timeSlotRepository.save(new TimeSlot(MARCH_DAY, LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        reservationRepository.save(new Reservation(athlete, slot));
+        flushAndClear();
+        assertEquals(2, months().getFirst().dayCounts()[MARCH_DAY.getDayOfMonth() - 1]);
+
+        jdbc.update("DELETE FROM time_slots WHERE id = ?", slot.getId());
+
+        AthleteStatsSnapshots.Month march = months().getFirst();
+        assertEquals(1, march.dayCounts()[MARCH_DAY.getDayOfMonth() - 1]);
+        assertEquals(1, march.personal());
+        assertEquals(0, march.individualSlot());
+    }
+
+    @Test
+    void shouldRepairAMonthThatWasWrittenBehindTheTriggersBack() {
+        PersonalTraining training = new PersonalTraining(
+            athlete, MARCH_DAY, LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true);
+        training.complete(null, 6);
+        personalTrainingRepository.save(training);
+        flushAndClear();
+        jdbc.update("UPDATE athlete_stats_months SET personal = 5 WHERE athlete_id = ?", athlete.getId());
+
+        assertEquals(1, snapshots.repairDrift());
+        assertEquals(1, months().getFirst().personal());
+        assertEquals(0, snapshots.repairDrift());
+    }
+
+    @Test
+    void shouldReadOnlyTheLatestMonthsOldestFirst() {
+        for (LocalDate day : List.of(MARCH_DAY.minusMonths(2), MARCH_DAY.minusMonths(1), MARCH_DAY)) {
+            PersonalTraining training = new PersonalTraining(
+                athlete, day, LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true);
+            training.complete(null, null);
+            personalTrainingRepository.save(training);
+        }
+        User flagged = userRepository.findById(athlete.getId()).orElseThrow();
+        flagged.setAthlete(true);
+        userRepository.save(flagged);
+        flushAndClear();
+
+        List<YearMonth> latest = snapshots.findLatestBefore(athlete.getId(), LIVE_FROM, 2).stream()
+            .map(AthleteStatsSnapshots.Month::month).toList();
+        assertEquals(List.of(YearMonth.of(2025, 2), YearMonth.of(2025, 3)), latest);
+        assertEquals(latest, snapshots.findLatestBeforeForFlaggedAthletes(LIVE_FROM, 2).get(athlete.getId())
+            .stream().map(AthleteStatsSnapshots.Month::month).toList());
+        assertEquals(3, months().size());
+    }
+
+    private List<AthleteStatsSnapshots.Month> months() {
+        return snapshots.findBefore(athlete.getId(), LIVE_FROM);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
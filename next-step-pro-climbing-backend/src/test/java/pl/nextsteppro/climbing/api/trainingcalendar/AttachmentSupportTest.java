@@ -13,9 +13,14 @@ import pl.nextsteppro.climbing.domain.personaltraining.TrainingAttachmentReposit
 import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
 import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -27,20 +32,21 @@ class AttachmentSupportTest {
 
     @Mock private TrainingAttachmentRepository attachmentRepository;
     @Mock private FileStorageService fileStorageService;
+    @Mock private PrivateFileUrls privateFileUrls;
     @Mock private MessageService msg;
 
     private AttachmentSupport support;
 
     @BeforeEach
     void setUp() {
-        support = new AttachmentSupport(attachmentRepository, fileStorageService, msg);
+        support = new AttachmentSupport(attachmentRepository, fileStorageService, privateFileUrls, msg);
     }
 
     @Test
     void shouldDeleteUnreferencedFileOlderThanGrace() throws Exception {
         String file = "aaaaaaaa-aaaa-aaaa-aaaa-aaaaaaaaaaaa.pdf";
-        when(fileStorageService.listFilenames("training")).thenReturn(List.of(file));
-        when(attachmentRepository.countByFilename(file)).thenReturn(0L);
+        when(fileStorageService.streamFilenames("training")).thenReturn(Stream.of(file));
+        when(attachmentRepository.findReferencedFilenames(List.of(file))).thenReturn(Set.of());
         when(fileStorageService.getLastModifiedMillis(file, "training"))
             .thenReturn(Instant.now().minus(Duration.ofHours(48)).toEpochMilli());
 
@@ -53,12 +59,13 @@ class AttachmentSupportTest {
     @Test
     void shouldKeepReferencedFile() throws Exception {
         String file = "bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb.pdf";
-        when(fileStorageService.listFilenames("training")).thenReturn(List.of(file));
-        when(attachmentRepository.countByFilename(file)).thenReturn(1L);
+        when(fileStorageService.streamFilenames("training")).thenReturn(Stream.of(file));
+        when(attachmentRepository.findReferencedFilenames(List.of(file))).thenReturn(Set.of(file));
 
         int deleted = support.sweepOrphanUploads(Duration.ofHours(24));
 
         assertEquals(0, deleted);
+        verify(fileStorageService, never()).getLastModifiedMillis(anyString(), anyString());
         verify(fileStorageService, never()).delete(anyString(), anyString());
     }
 
@@ -66,8 +73,8 @@ class AttachmentSupportTest {
     void shouldKeepRecentUnreferencedFileWithinGrace() throws Exception {
         // Protects a just-uploaded file that is not attached yet (form still open)
         String file = "cccccccc-cccc-cccc-cccc-cccccccccccc.pdf";
-        when(fileStorageService.listFilenames("training")).thenReturn(List.of(file));
-        when(attachmentRepository.countByFilename(file)).thenReturn(0L);
+        when(fileStorageService.streamFilenames("training")).thenReturn(Stream.of(file));
+        when(attachmentRepository.findReferencedFilenames(List.of(file))).thenReturn(Set.of());
         when(fileStorageService.getLastModifiedMillis(file, "training"))
             .thenReturn(Instant.now().minus(Duration.ofMinutes(10)).toEpochMilli());
 
@@ -98,19 +105,46 @@ class AttachmentSupportTest {
 
     @Test
     void shouldSkipFileThatThrowsAndKeepSweeping() throws Exception {
-        String bad = "not-a-uuid.txt";
+        String bad = "ffffffff-ffff-ffff-ffff-ffffffffffff.pdf";
         String good = "dddddddd-dddd-dddd-dddd-dddddddddddd.pdf";
-        when(fileStorageService.listFilenames("training")).thenReturn(List.of(bad, good));
-        // bad → count throws (malformed name guard); good → deletable
-        when(attachmentRepository.countByFilename(bad)).thenThrow(new IllegalArgumentException("bad name"));
-        when(attachmentRepository.countByFilename(good)).thenReturn(0L);
-        when(fileStorageService.getLastModifiedMillis(good, "training"))
-            .thenReturn(Instant.now().minus(Duration.ofHours(48)).toEpochMilli());
+        long old = Instant.now().minus(Duration.ofHours(48)).toEpochMilli();
+        when(fileStorageService.streamFilenames("training")).thenReturn(Stream.of(bad, good));
+        when(attachmentRepository.findReferencedFilenames(List.of(bad, good))).thenReturn(Set.of());
+        when(fileStorageService.getLastModifiedMillis(anyString(), eq("training"))).thenReturn(old);
+        // bad → IO error on delete; good → still deleted
+        doThrow(new IOException("disk error")).when(fileStorageService).delete(bad, "training");
 
         int deleted = support.sweepOrphanUploads(Duration.ofHours(24));
 
         assertEquals(1, deleted);
         verify(fileStorageService).delete(good, "training");
-        verify(fileStorageService, never()).delete(eq(bad), anyString());
+    }
+
+    @Test
+    void shouldLookUpReferencesOnePageAtATime() {
+        // Tens of thousands of files: one query per page of names, never one per file
+        List<String> files = IntStream.range(0, FileStorageService.SWEEP_PAGE_SIZE + 1)
+            .mapToObj(i -> UUID.randomUUID() + ".pdf").toList();
+        when(fileStorageService.streamFilenames("training")).thenReturn(files.stream());
+        when(attachmentRepository.findReferencedFilenames(anyList())).thenAnswer(inv -> Set.copyOf(inv.<List<String>>getArgument(0)));
+
+        int deleted = support.sweepOrphanUploads(Duration.ofHours(24));
+
+        assertEquals(0, deleted);
+        verify(attachmentRepository).findReferencedFilenames(files.subList(0, FileStorageService.SWEEP_PAGE_SIZE));
+        verify(attachmentRepository).findReferencedFilenames(List.of(files.getLast()));
+    }
+
+    @Test
+    void shouldDeleteOnlyTheFilesNoAttachmentStillReferences() throws Exception {
+        String shared = "11111111-1111-1111-1111-111111111111.pdf";
+        String own = "22222222-2222-2222-2222-222222222222.pdf";
+        when(attachmentRepository.findReferencedFilenames(List.of(shared, own))).thenReturn(Set.of(shared));
+
+        support.deleteFilesIfUnreferenced(List.of(shared, own, own));
+
+        verify(attachmentRepository, times(1)).findReferencedFilenames(anyCollection());
+        verify(fileStorageService).delete(own, "training");
+        verify(fileStorageService, never()).delete(eq(shared), anyString());
     }
 }
@@ -0,0 +1,57 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CalendarCursor.
+ * Verifies: round trip through the wire format, what invalidates a cursor, unreadable input.
+ */
+class CalendarCursorTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 7, 13);
+    private static final LocalDate TO = LocalDate.of(2026, 7, 19);
+    private static final Instant NOW = Instant.parse("2026-07-15T10:00:00Z");
+    // Nanoseconds, as a JVM clock may hand out; the database keeps microseconds of it
+    private static final Instant SEEN = Instant.parse("2026-07-14T08:30:00.123456789Z");
+
+    @Test
+    void shouldSurviveTheRoundTrip() {
+        CalendarCursor cursor = new CalendarCursor(42, NOW.plusSeconds(900), SEEN, FROM, TO);
+
+        assertEquals(cursor, CalendarCursor.parse(cursor.encode()));
+    }
+
+    @Test
+    void shouldAnswerTheSameRangeAndMarkerUntilItsDeadline() {
+        CalendarCursor cursor = new CalendarCursor(42, NOW.plusSeconds(900), SEEN, FROM, TO);
+
+        assertTrue(cursor.answers(FROM, TO, Instant.parse("2026-07-14T08:30:00.123456Z"), NOW));
+        assertFalse(cursor.answers(FROM, TO, SEEN, NOW.plusSeconds(900)), "expired at its deadline");
+        assertFalse(cursor.answers(FROM, TO.plusDays(7), SEEN, NOW), "another range");
+        assertFalse(cursor.answers(FROM, TO, SEEN.plusSeconds(1), NOW), "the marker moved");
+    }
+
+    @Test
+    void shouldNotEndLaterThanItWasToldTo() {
+        Instant deadline = Instant.parse("2026-07-15T10:14:59.900Z");
+        CalendarCursor cursor = CalendarCursor.parse(new CalendarCursor(1, deadline, SEEN, FROM, TO).encode());
+
+        assertNotNull(cursor);
+        assertFalse(cursor.validUntil().isAfter(deadline));
+    }
+
+    @Test
+    void shouldReadNothingItDidNotWrite() {
+        assertNull(CalendarCursor.parse(null));
+        assertNull(CalendarCursor.parse(""));
+        assertNull(CalendarCursor.parse("42"));
+        assertNull(CalendarCursor.parse("a.b.c.d.e"));
+        assertNull(CalendarCursor.parse("-1.1784109800.0.20647.20653"));
+        assertNull(CalendarCursor.parse("1.1784109800.0.20647.99999999999999"));
+    }
+}
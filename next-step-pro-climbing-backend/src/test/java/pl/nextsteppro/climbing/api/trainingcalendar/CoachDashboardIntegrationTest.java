@@ -0,0 +1,198 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.nextsteppro.climbing.domain.athletegoal.AthleteGoal;
+import pl.nextsteppro.climbing.domain.athletegoal.AthleteGoalRepository;
+import pl.nextsteppro.climbing.domain.athletegoal.GoalHorizon;
+import pl.nextsteppro.climbing.domain.athleteweight.AthleteWeight;
+import pl.nextsteppro.climbing.domain.athleteweight.AthleteWeightRepository;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTraining;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTrainingRepository;
+import pl.nextsteppro.climbing.domain.reservation.Reservation;
+import pl.nextsteppro.climbing.domain.reservation.ReservationRpe;
+import pl.nextsteppro.climbing.domain.reservation.ReservationRpeRepository;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserRole;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The coach overview over real PostgreSQL, held against the detail view. The overview reads every
+ * source once for the whole roster — snapshots, completed trainings, attended bookings, weigh-ins,
+ * open goals — and each of those queries filters on the athlete flag itself; the per-athlete
+ * endpoints read one athlete at a time. The mocked unit test cannot tell whether the two agree on
+ * real rows, so this one seeds two flagged athletes and one unflagged user and compares.
+ */
+class CoachDashboardIntegrationTest extends BaseIntegrationTest {
+
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired private CoachDashboardService dashboardService;
+    @Autowired private TrainingStatsService statsService;
+    @Autowired private AthleteWeightService weightService;
+    @Autowired private AthleteGoalService goalService;
+    @Autowired private PersonalTrainingRepository personalTrainingRepository;
+    @Autowired private ReservationRpeRepository reservationRpeRepository;
+    @Autowired private AthleteWeightRepository weightRepository;
+    @Autowired private AthleteGoalRepository goalRepository;
+
+    private User anna;
+    private User bartek;
+    private User client;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate today = LocalDate.now(WARSAW);
+
+        // Trains this week and last, books a slot, weighs in and has goals: every live source
+        anna = user("anna@test.local", "Anna", true);
+        completedTraining(anna, today, 7);
+        completedTraining(anna, today.minusDays(7), 8);
+        completedTraining(anna, today.minusDays(14), null);
+        // Planned, never completed — not an activity on either side
+        personalTrainingRepository.save(new PersonalTraining(
+            anna, today.minusDays(2), LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true));
+        attendedSlot(anna, today.minusDays(1), 9);
+        attendedSlot(anna, today.minusDays(8), null);
+        weigh(anna, today.minusDays(10), "70.0");
+        weigh(anna, today.minusDays(6), "69.6");
+        weigh(anna, today.minusDays(3), "69.2");
+        weigh(anna, today, "68.5");
+        goalRepository.save(new AthleteGoal(anna, GoalHorizon.SHORT, "Przejść 7a", today.plusMonths(2)));
+        goalRepository.save(new AthleteGoal(anna, GoalHorizon.LONG, "Przejść 8a", today.plusYears(1)));
+        AthleteGoal achieved = new AthleteGoal(anna, GoalHorizon.MEDIUM, "Przejść 6c", today.plusDays(3));
+        achieved.markAchieved(Instant.now());
+        goalRepository.save(achieved);
+
+        // Only history: long before the live window, so the overview has nothing but the snapshots
+        bartek = user("bartek@test.local", "Bartek", true);
+        completedTraining(bartek, today.minusDays(200), 6);
+        completedTraining(bartek, today.minusDays(193), null);
+
+        // Not flagged: the same kinds of rows, none of which may reach the overview
+        client = user("client@test.local", "Adam", false);
+        completedTraining(client, today, 5);
+        completedTraining(client, today.minusDays(200), 5);
+        attendedSlot(client, today.minusDays(1), 6);
+        weigh(client, today, "80.0");
+        goalRepository.save(new AthleteGoal(client, GoalHorizon.SHORT, "Przejść 6a", today.plusMonths(1)));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldListOnlyFlaggedAthletesInRosterOrder() {
+        Set<UUID> seeded = Set.of(anna.getId(), bartek.getId(), client.getId());
+
+        List<UUID> listed = dashboardService.getDashboard().stream()
+            .map(AthleteDashboardDto::athleteId)
+            .filter(seeded::contains)
+            .toList();
+
+        assertEquals(List.of(anna.getId(), bartek.getId()), listed);
+    }
+
+    @Test
+    void shouldShowTheNumbersOfTheDetailViewForEveryAthlete() {
+        LocalDate today = LocalDate.now(WARSAW);
+        Map<UUID, AthleteDashboardDto> rows = new HashMap<>();
+        for (AthleteDashboardDto row : dashboardService.getDashboard()) {
+            rows.put(row.athleteId(), row);
+        }
+
+        for (User athlete : List.of(anna, bartek)) {
+            AthleteDashboardDto row = rows.get(athlete.getId());
+            assertNotNull(row, athlete.getFirstName());
+            String who = athlete.getFirstName() + ": ";
+
+            AthleteStatsDto stats = statsService.getStatsForAthlete(athlete.getId());
+            TreeMap<LocalDate, Integer> heatmap = new TreeMap<>(stats.heatmap());
+            LocalDate thisWeek = today.with(DayOfWeek.MONDAY);
+            assertEquals(heatmap.isEmpty() ? null : heatmap.lastKey(), row.lastActivityDate(), who + "last activity");
+            assertEquals(stats.currentStreakWeeks(), row.currentStreakWeeks(), who + "streak");
+            assertEquals(sum(heatmap, thisWeek, today), row.thisWeekCount(), who + "this week");
+            assertEquals(sum(heatmap, thisWeek.minusWeeks(1), thisWeek.minusDays(1)), row.prevWeekCount(),
+                who + "previous week");
+
+            AthleteWeightSeriesDto weights = weightService.getSeriesForAthlete(athlete.getId(), null);
+            assertSameKg(weights.currentTrendKg(), row.weightTrendKg(), who + "weight trend");
+            assertSameKg(weights.weeklyChangePercent(), row.weeklyChangePercent(), who + "weekly change");
+            assertEquals(weights.rapidLoss(), row.rapidLoss(), who + "rapid loss");
+
+            GoalsDto goals = goalService.getGoalsForAthlete(athlete.getId());
+            assertEquals(goals.active().size(), row.openGoalCount(), who + "open goals");
+            assertEquals(goals.active().stream().map(AthleteGoalDto::targetDate).min(Comparator.naturalOrder())
+                .orElse(null), row.nextGoalTargetDate(), who + "next target");
+        }
+
+        // The seeds have to reach every source, or the comparison above proves nothing
+        AthleteDashboardDto annaRow = rows.get(anna.getId());
+        assertEquals(today, annaRow.lastActivityDate());
+        assertTrue(annaRow.prevWeekCount() + annaRow.thisWeekCount() >= 3);
+        assertNotNull(annaRow.weightTrendKg());
+        assertEquals(2, annaRow.openGoalCount());
+        assertEquals(today.minusDays(193), rows.get(bartek.getId()).lastActivityDate());
+        assertFalse(rows.containsKey(client.getId()));
+    }
+
+    private User user(String email, String firstName, boolean athleteFlag) {
+        User user = new User(email, firstName, "Wspinaczka", "+48123456789", firstName.toLowerCase());
+        user.setRole(UserRole.USER);
+        user.setEmailVerified(true);
+        user.setAthlete(athleteFlag);
+        return userRepository.save(user);
+    }
+
+    private void completedTraining(User athlete, LocalDate day, Integer rpe) {
+        PersonalTraining training = new PersonalTraining(
+            athlete, day, LocalTime.of(7, 0), LocalTime.of(8, 0), "Siła", null, true);
+        training.complete(null, rpe);
+        personalTrainingRepository.save(training);
+    }
+
+    private void attendedSlot(User athlete, LocalDate day, Integer rpe) {
+        TimeSlot slot = timeSlotRepository.save(new TimeSlot(day, LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        Reservation reservation = reservationRepository.save(new Reservation(athlete, slot));
+        if (rpe != null) reservationRpeRepository.save(new ReservationRpe(reservation, rpe, null));
+    }
+
+    private void weigh(User athlete, LocalDate day, String kg) {
+        weightRepository.save(new AthleteWeight(athlete, day, new BigDecimal(kg)));
+    }
+
+    private static int sum(TreeMap<LocalDate, Integer> heatmap, LocalDate from, LocalDate to) {
+        return heatmap.subMap(from, true, to, true).values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static void assertSameKg(BigDecimal expected, BigDecimal actual, String message) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, message);
+        } else {
+            assertEquals(0, expected.compareTo(actual), message + ": " + expected + " vs " + actual);
+        }
+    }
+}
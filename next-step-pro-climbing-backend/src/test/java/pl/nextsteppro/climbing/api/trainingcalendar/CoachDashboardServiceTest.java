@@ -0,0 +1,342 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.nextsteppro.climbing.domain.athletegoal.AthleteGoalRepository;
+import pl.nextsteppro.climbing.domain.athletegoal.OpenGoalSummary;
+import pl.nextsteppro.climbing.domain.athleteweight.AthleteWeight;
+import pl.nextsteppro.climbing.domain.athleteweight.AthleteWeightRepository;
+import pl.nextsteppro.climbing.domain.climbingascent.AscentTerrain;
+import pl.nextsteppro.climbing.domain.climbingascent.AthleteGradeRow;
+import pl.nextsteppro.climbing.domain.climbingascent.ClimbingAscentRepository;
+import pl.nextsteppro.climbing.domain.personaltraining.AthleteActivityDay;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTrainingRepository;
+import pl.nextsteppro.climbing.domain.reservation.ReservationRepository;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static pl.nextsteppro.climbing.domain.climbingascent.AscentDiscipline.BOULDER;
+import static pl.nextsteppro.climbing.domain.climbingascent.AscentDiscipline.SPORT;
+import static pl.nextsteppro.climbing.domain.climbingascent.AscentStyle.FLASH;
+import static pl.nextsteppro.climbing.domain.climbingascent.AscentStyle.OS;
+import static pl.nextsteppro.climbing.domain.climbingascent.AscentStyle.RP;
+import static pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade.FB_7A;
+import static pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade.FR_6A;
+import static pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade.FR_6B;
+import static pl.nextsteppro.climbing.domain.climbingascent.ClimbingGrade.FR_7A;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Unit tests for CoachDashboardService.
+ * Verifies: one query per source whatever the roster size, grouping per athlete, snapshot months
+ * in the streak, week counts and RPE, weight trend, open goals, empty rows, and the roster's grades
+ * merged from per-athlete histograms.
+ */
+@ExtendWith(MockitoExtension.class)
+class CoachDashboardServiceTest {
+
+    // Fixed clock: Wednesday 2026-07-15, 12:00 Warsaw time (this ISO week starts Mon 2026-07-13)
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 7, 15, 12, 0);
+    private static final LocalDate TODAY = NOW.toLocalDate();
+    // Same live boundary as TrainingStatsService: rows from the 1st of April, snapshots before it
+    private static final LocalDate LIVE_FROM = LocalDate.of(2026, 4, 1);
+    // Two trend windows back, so the weekly change has both ends
+    private static final LocalDate WEIGHTS_FROM = LocalDate.of(2026, 7, 2);
+
+    @Mock private UserRepository userRepository;
+    @Mock private PersonalTrainingRepository trainingRepository;
+    @Mock private ReservationRepository reservationRepository;
+    @Mock private AthleteWeightRepository weightRepository;
+    @Mock private AthleteGoalRepository goalRepository;
+    @Mock private AthleteStatsSnapshots snapshots;
+    @Mock private ClimbingAscentRepository ascentRepository;
+
+    private CoachDashboardService service;
+
+    private final List<User> roster = new ArrayList<>();
+    private final List<AthleteActivityDay> trainings = new ArrayList<>();
+    private final List<AthleteActivityDay> reservations = new ArrayList<>();
+    private final List<AthleteWeight> weights = new ArrayList<>();
+    private final List<OpenGoalSummary> goals = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new CoachDashboardService(userRepository, trainingRepository, reservationRepository,
+            weightRepository, goalRepository, snapshots, ascentRepository);
+        lenient().when(userRepository.findAllByAthleteTrueOrderByFirstNameAscLastNameAsc()).thenReturn(roster);
+        lenient().when(snapshots.findLatestBeforeForFlaggedAthletes(LIVE_FROM, 2)).thenReturn(Map.of());
+        lenient().when(trainingRepository.findCompletedTrainingDaysOfFlaggedAthletes(LIVE_FROM)).thenReturn(trainings);
+        lenient().when(reservationRepository.findAttendedDaysOfFlaggedAthletes(LIVE_FROM, TODAY, NOW.toLocalTime()))
+            .thenReturn(reservations);
+        lenient().when(weightRepository.findRangeOfFlaggedAthletes(WEIGHTS_FROM, TODAY)).thenReturn(weights);
+        lenient().when(goalRepository.summarizeOpenGoalsOfFlaggedAthletes()).thenReturn(goals);
+    }
+
+    // ========== query count ==========
+
+    @Test
+    void shouldReadEverySourceOnceWhateverTheRosterSize() {
+        for (int i = 0; i < 25; i++) {
+            User athlete = athlete("Zawodnik" + i);
+            trainings.add(new AthleteActivityDay(athlete.getId(), d(2026, 7, 14), 6));
+        }
+
+        List<AthleteDashboardDto> dashboard = service.buildDashboard(NOW);
+
+        assertEquals(25, dashboard.size());
+        verify(userRepository, times(1)).findAllByAthleteTrueOrderByFirstNameAscLastNameAsc();
+        verify(snapshots, times(1)).findLatestBeforeForFlaggedAthletes(any(), anyInt());
+        verify(trainingRepository, times(1)).findCompletedTrainingDaysOfFlaggedAthletes(any());
+        verify(reservationRepository, times(1)).findAttendedDaysOfFlaggedAthletes(any(), any(), any());
+        verify(weightRepository, times(1)).findRangeOfFlaggedAthletes(any(), any());
+        verify(goalRepository, times(1)).summarizeOpenGoalsOfFlaggedAthletes();
+        verifyNoMoreInteractions(userRepository, snapshots, trainingRepository, reservationRepository,
+            weightRepository, goalRepository);
+    }
+
+    @Test
+    void shouldKeepRosterOrderAndGroupRowsPerAthlete() {
+        User anna = athlete("Anna");
+        User bartek = athlete("Bartek");
+        trainings.add(new AthleteActivityDay(bartek.getId(), d(2026, 7, 13), null));
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 6), null));
+        reservations.add(new AthleteActivityDay(bartek.getId(), d(2026, 7, 14), null));
+
+        List<AthleteDashboardDto> dashboard = service.buildDashboard(NOW);
+
+        assertEquals(anna.getId(), dashboard.get(0).athleteId());
+        assertEquals(0, dashboard.get(0).thisWeekCount());
+        assertEquals(1, dashboard.get(0).prevWeekCount());
+        assertEquals(bartek.getId(), dashboard.get(1).athleteId());
+        assertEquals(2, dashboard.get(1).thisWeekCount());
+        assertEquals(d(2026, 7, 14), dashboard.get(1).lastActivityDate());
+    }
+
+    // ========== activity ==========
+
+    @Test
+    void shouldCountTheStreakAcrossSnapshotMonths() {
+        User anna = athlete("Anna");
+        // Every week from the end of March back to mid-March comes from the snapshot
+        int[] march = new int[31];
+        march[15] = 1;  // Mon 16.03
+        march[23] = 1;  // Tue 24.03
+        march[30] = 1;  // Tue 31.03
+        when(snapshots.findLatestBeforeForFlaggedAthletes(LIVE_FROM, 2)).thenReturn(Map.of(anna.getId(), List.of(
+            new AthleteStatsSnapshots.Month(YearMonth.of(2026, 3), march, 0, 0, 0, 3, 0, 0, 0, 0, new int[0]))));
+        // ...and every week since, up to this one, from live rows
+        for (LocalDate day = d(2026, 4, 7); !day.isAfter(TODAY); day = day.plusWeeks(1)) {
+            trainings.add(new AthleteActivityDay(anna.getId(), day, null));
+        }
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        // Weeks of 16.03 through 13.07: 18 ISO weeks without a gap
+        assertEquals(18, row.currentStreakWeeks());
+        assertEquals(d(2026, 7, 14), row.lastActivityDate());
+    }
+
+    @Test
+    void shouldReadOlderMonthsOnlyForAStreakThatRunsPastTheLatestOnes() {
+        User anna = athlete("Anna");
+        // Every Monday from 5.01: the two months the batch reads are not the start of the streak
+        when(snapshots.findLatestBeforeForFlaggedAthletes(LIVE_FROM, 2)).thenReturn(Map.of(anna.getId(), List.of(
+            month(YearMonth.of(2026, 2), 2, 9, 16, 23),
+            month(YearMonth.of(2026, 3), 2, 9, 16, 23, 30))));
+        when(snapshots.findLatestBefore(anna.getId(), LIVE_FROM, 4)).thenReturn(List.of(
+            month(YearMonth.of(2026, 1), 5, 12, 19, 26),
+            month(YearMonth.of(2026, 2), 2, 9, 16, 23),
+            month(YearMonth.of(2026, 3), 2, 9, 16, 23, 30)));
+        for (LocalDate day = d(2026, 4, 7); !day.isAfter(TODAY); day = day.plusWeeks(1)) {
+            trainings.add(new AthleteActivityDay(anna.getId(), day, null));
+        }
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        // Weeks of 05.01 through 13.07; three months back is all there is, so no fourth read
+        assertEquals(28, row.currentStreakWeeks());
+        verify(snapshots, times(1)).findLatestBefore(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldNotReadOlderMonthsWhenTheStreakBreaksInsideTheLatestOnes() {
+        User anna = athlete("Anna");
+        when(snapshots.findLatestBeforeForFlaggedAthletes(LIVE_FROM, 2)).thenReturn(Map.of(anna.getId(), List.of(
+            month(YearMonth.of(2026, 2), 2),
+            month(YearMonth.of(2026, 3), 30))));
+        for (LocalDate day = d(2026, 4, 7); !day.isAfter(TODAY); day = day.plusWeeks(1)) {
+            trainings.add(new AthleteActivityDay(anna.getId(), day, null));
+        }
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        // Weeks of 30.03 through 13.07; the empty week of 23.03 is inside what was read
+        assertEquals(16, row.currentStreakWeeks());
+        verify(snapshots, never()).findLatestBefore(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldAverageOnlyThisWeeksRatedSessions() {
+        User anna = athlete("Anna");
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 10), 9));  // last week
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 13), 6));
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 14), 7));
+        reservations.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 15), 8));
+        reservations.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 15), null));
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        assertEquals(4, row.thisWeekCount());
+        assertEquals(1, row.prevWeekCount());
+        assertEquals(7.0, row.thisWeekAvgRpe());
+    }
+
+    @Test
+    void shouldRoundTheAverageRpeToOneDecimal() {
+        User anna = athlete("Anna");
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 13), 6));
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 14), 6));
+        trainings.add(new AthleteActivityDay(anna.getId(), d(2026, 7, 15), 7));
+
+        assertEquals(6.3, service.buildDashboard(NOW).getFirst().thisWeekAvgRpe());
+    }
+
+    // ========== weight & goals ==========
+
+    @Test
+    void shouldReportTheWeightTrendAndFlagRapidLoss() {
+        User anna = athlete("Anna");
+        weights.add(new AthleteWeight(anna, d(2026, 7, 8), new BigDecimal("60.0")));
+        weights.add(new AthleteWeight(anna, d(2026, 7, 15), new BigDecimal("59.0")));
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        assertEquals(0, new BigDecimal("59.0").compareTo(row.weightTrendKg()));
+        assertEquals(0, new BigDecimal("-1.7").compareTo(row.weeklyChangePercent()));
+        assertTrue(row.rapidLoss());
+    }
+
+    @Test
+    void shouldReportOpenGoalsWithTheNearestTargetDate() {
+        User anna = athlete("Anna");
+        goals.add(new OpenGoalSummary(anna.getId(), 3, d(2026, 9, 1)));
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        assertEquals(3, row.openGoalCount());
+        assertEquals(d(2026, 9, 1), row.nextGoalTargetDate());
+    }
+
+    @Test
+    void shouldReturnAnEmptyRowForAnAthleteWithNothingRecorded() {
+        User anna = athlete("Anna");
+
+        AthleteDashboardDto row = service.buildDashboard(NOW).getFirst();
+
+        assertEquals(anna.getId(), row.athleteId());
+        assertNull(row.lastActivityDate());
+        assertEquals(0, row.currentStreakWeeks());
+        assertEquals(0, row.thisWeekCount());
+        assertNull(row.thisWeekAvgRpe());
+        assertNull(row.weightTrendKg());
+        assertNull(row.weeklyChangePercent());
+        assertFalse(row.rapidLoss());
+        assertEquals(0, row.openGoalCount());
+        assertNull(row.nextGoalTargetDate());
+    }
+
+    // ========== roster grades ==========
+
+    @Test
+    void shouldMergeEveryAthletesPyramidIntoTheRosters() {
+        User anna = athlete("Anna");
+        User bartek = athlete("Bartek");
+        List<AthleteGradeRow> ascents = List.of(
+            new AthleteGradeRow(bartek.getId(), SPORT, FR_6A, OS),
+            new AthleteGradeRow(anna.getId(), SPORT, FR_7A, RP),
+            new AthleteGradeRow(anna.getId(), SPORT, FR_6B, FLASH),
+            new AthleteGradeRow(bartek.getId(), SPORT, FR_6B, RP),
+            new AthleteGradeRow(bartek.getId(), SPORT, FR_6A, RP));
+        when(ascentRepository.findGradesOfFlaggedAthletes(AscentTerrain.ROCK, d(2025, 7, 16))).thenReturn(ascents);
+
+        List<RosterGradesDto> blocks = service.buildRosterGrades(TODAY);
+
+        assertEquals(1, blocks.size());
+        RosterGradesDto sport = blocks.getFirst();
+        assertEquals("SPORT", sport.discipline());
+        assertEquals(5, sport.ascentCount());
+        assertEquals(List.of("7a", "6b", "6a"), sport.pyramid().stream().map(RosterGradeRungDto::gradeLabel).toList());
+        assertEquals(List.of(1, 2, 2), sport.pyramid().stream().map(RosterGradeRungDto::total).toList());
+        assertEquals("6b", sport.medianGradeLabel());
+        // Roster order, each with their own figures
+        assertEquals(anna.getId(), sport.athletes().get(0).athleteId());
+        assertEquals("7a", sport.athletes().get(0).hardestGradeLabel());
+        assertEquals(bartek.getId(), sport.athletes().get(1).athleteId());
+        assertEquals(3, sport.athletes().get(1).ascentCount());
+        assertEquals("6a", sport.athletes().get(1).medianGradeLabel());
+        verify(ascentRepository, times(1)).findGradesOfFlaggedAthletes(any(), any());
+    }
+
+    @Test
+    void shouldKeepEachDisciplineInItsOwnBlock() {
+        User anna = athlete("Anna");
+        User bartek = athlete("Bartek");
+        when(ascentRepository.findGradesOfFlaggedAthletes(any(), any())).thenReturn(List.of(
+            new AthleteGradeRow(anna.getId(), BOULDER, FB_7A, FLASH),
+            new AthleteGradeRow(bartek.getId(), SPORT, FR_7A, RP)));
+
+        List<RosterGradesDto> blocks = service.buildRosterGrades(TODAY);
+
+        // 7a and 7A are never one rung — ordering them would throw, merging them is not asked
+        assertEquals(List.of("SPORT", "BOULDER"), blocks.stream().map(RosterGradesDto::discipline).toList());
+        assertEquals(List.of(bartek.getId()),
+            blocks.get(0).athletes().stream().map(AthleteGradesDto::athleteId).toList());
+        assertEquals(List.of(anna.getId()),
+            blocks.get(1).athletes().stream().map(AthleteGradesDto::athleteId).toList());
+    }
+
+    @Test
+    void shouldReturnNoBlocksWhenNobodyClimbed() {
+        athlete("Anna");
+        when(ascentRepository.findGradesOfFlaggedAthletes(any(), any())).thenReturn(List.of());
+
+        assertTrue(service.buildRosterGrades(TODAY).isEmpty());
+    }
+
+    // ========== helpers ==========
+
+    private User athlete(String firstName) {
+        User user = new User(firstName.toLowerCase() + "@example.com", firstName, "Wspinacz",
+            "+48123456789", firstName.toLowerCase());
+        user.setAthlete(true);
+        setField(user, "id", UUID.randomUUID());
+        roster.add(user);
+        return user;
+    }
+
+    private static AthleteStatsSnapshots.Month month(YearMonth month, int... activeDays) {
+        int[] dayCounts = new int[month.lengthOfMonth()];
+        for (int day : activeDays) dayCounts[day - 1] = 1;
+        return new AthleteStatsSnapshots.Month(month, dayCounts, activeDays.length, 0, 0, 0, 0, 0, 0, 0, new int[0]);
+    }
+
+    private static LocalDate d(int year, int month, int day) {
+        return LocalDate.of(year, month, day);
+    }
+}
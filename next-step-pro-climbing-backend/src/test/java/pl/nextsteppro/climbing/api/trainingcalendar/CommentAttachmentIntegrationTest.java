@@ -14,6 +14,7 @@ import pl.nextsteppro.climbing.infrastructure.storage.TestImages;
 import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -97,7 +98,7 @@ class CommentAttachmentIntegrationTest extends BaseIntegrationTest {
         // Read back from the stored bytes, not echoed from the request
         assertEquals(400, file.width());
         assertEquals(300, file.height());
-        assertTrue(file.url().startsWith("/api/training-calendar/comment-files/"));
+        assertTrue(file.url().startsWith("/api/training-calendar/signed-files/comments/"));
         assertTrue(file.canDelete());
 
         long days = ChronoUnit.DAYS.between(Instant.now(), file.expiresAt());
@@ -226,12 +227,12 @@ class CommentAttachmentIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    void shouldLetTheCoachReadWhatTheAthleteAttached() {
+    void shouldLetTheCoachReadWhatTheAthleteAttached() throws IOException {
         UUID fileId = attachAsAthlete();
 
         CommentFileStream stream = trainingCalendarService.openCommentFile(coach.getId(), true, fileId);
         assertEquals("image/jpeg", stream.mimeType());
-        assertTrue(stream.size() > 0);
+        assertTrue(stream.file().contentLength() > 0);
     }
 
     @Test
@@ -148,8 +148,9 @@ class CommentFileRetentionIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void shouldNotSweepAFileThatWasJustWritten() throws IOException {
-        // The known filenames are read before the folder is listed, so an upload landing between
-        // the two looks orphaned — deleting what somebody just sent is far worse than waiting.
+        // A page of the folder is listed before its names are looked up, so an upload whose row
+        // commits between the two looks orphaned — deleting what somebody just sent is far worse
+        // than waiting.
         Path fresh = writeStrayFile();
 
         assertEquals(0, retention.deleteOrphans());
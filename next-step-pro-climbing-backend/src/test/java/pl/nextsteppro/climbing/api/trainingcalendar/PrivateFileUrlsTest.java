@@ -0,0 +1,133 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import pl.nextsteppro.climbing.infrastructure.i18n.MessageService;
+import pl.nextsteppro.climbing.infrastructure.security.JwtConfig;
+import pl.nextsteppro.climbing.infrastructure.security.UrlSigner;
+import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrivateFileUrlsTest {
+
+    private static final String FILE = "aaaaaaaa-aaaa-aaaa-aaaa-aaaaaaaaaaaa.pdf";
+    private static final Instant NOW = Instant.parse("2026-03-02T10:10:00Z");
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @Mock private FileStorageService fileStorageService;
+    @Mock private MessageService msg;
+
+    private UrlSigner signer;
+    private final UUID viewerId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret("test-secret-key-that-is-at-least-32-characters-long");
+        signer = new UrlSigner(jwtConfig);
+        lenient().when(msg.get(anyString())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private PrivateFileUrls at(Instant instant) {
+        return new PrivateFileUrls(signer, fileStorageService, msg, TTL, Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    /** Opens a URL the way the controller receives it: path variables and decoded query params. */
+    private CommentFileStream open(PrivateFileUrls urls, String url, UUID viewer) {
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build();
+        String name = uri.getQueryParams().getFirst("name");
+        return urls.open(uri.getPathSegments().get(3), uri.getPathSegments().get(4),
+            Long.parseLong(uri.getQueryParams().getFirst("exp")),
+            name == null ? null : URLDecoder.decode(name, StandardCharsets.UTF_8),
+            uri.getQueryParams().getFirst("sig"), viewer);
+    }
+
+    @Test
+    void shouldOpenAUrlForTheViewerItWasIssuedTo() throws IOException {
+        when(fileStorageService.getResource(FILE, "training")).thenReturn(new ByteArrayResource(new byte[]{1}));
+        PrivateFileUrls urls = at(NOW);
+
+        String url = urls.sign(PrivateFileUrls.Kind.MATERIALS, FILE, "Plan treningowy.pdf", viewerId);
+        CommentFileStream stream = open(urls, url, viewerId);
+
+        assertTrue(url.startsWith("/api/training-calendar/signed-files/materials/" + FILE + "?exp="));
+        assertEquals("application/pdf", stream.mimeType());
+        assertEquals("Plan treningowy.pdf", stream.fileName());
+    }
+
+    @Test
+    void shouldRefuseAUrlIssuedToSomebodyElse() {
+        PrivateFileUrls urls = at(NOW);
+        String url = urls.sign(PrivateFileUrls.Kind.MATERIALS, FILE, "plan.pdf", viewerId);
+
+        assertThrows(AccessDeniedException.class, () -> open(urls, url, UUID.randomUUID()));
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void shouldRefuseAUrlWithAnyPartAltered() {
+        PrivateFileUrls urls = at(NOW);
+        String url = urls.sign(PrivateFileUrls.Kind.COMMENTS, FILE, "plan.pdf", viewerId);
+
+        // Same file under the other folder, a different download name, a later expiry
+        assertThrows(AccessDeniedException.class,
+            () -> open(urls, url.replace("/comments/", "/materials/"), viewerId));
+        assertThrows(AccessDeniedException.class,
+            () -> open(urls, url.replace("name=plan.pdf", "name=plan.exe"), viewerId));
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build();
+        long exp = Long.parseLong(uri.getQueryParams().getFirst("exp"));
+        assertThrows(AccessDeniedException.class, () -> urls.open("comments", FILE, exp + 3600, "plan.pdf",
+            uri.getQueryParams().getFirst("sig"), viewerId));
+        assertThrows(AccessDeniedException.class,
+            () -> urls.open("comments", FILE, exp, "plan.pdf", "not base64 at all!", viewerId));
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void shouldRefuseAUrlOnceItHasExpired() {
+        String url = at(NOW).sign(PrivateFileUrls.Kind.MATERIALS, FILE, null, viewerId);
+
+        assertThrows(AccessDeniedException.class, () -> open(at(NOW.plus(TTL).plusSeconds(1)), url, viewerId));
+    }
+
+    @Test
+    void shouldHandOutTheSameUrlWithinAWindowAndKeepItValidForAtLeastHalfTheLifetime() throws IOException {
+        when(fileStorageService.getResource(FILE, "training")).thenReturn(new ByteArrayResource(new byte[]{1}));
+        String first = at(NOW).sign(PrivateFileUrls.Kind.MATERIALS, FILE, "plan.pdf", viewerId);
+
+        // A reload a few minutes later must not bust the client's cache of the file
+        assertEquals(first, at(NOW.plusSeconds(300)).sign(PrivateFileUrls.Kind.MATERIALS, FILE, "plan.pdf", viewerId));
+        assertDoesNotThrow(() -> open(at(NOW.plus(TTL.dividedBy(2))), first, viewerId));
+    }
+
+    @Test
+    void shouldReportAFileSweptSinceTheUrlWasIssuedAsNotFound() throws IOException {
+        when(fileStorageService.getResource(FILE, "commentfiles")).thenThrow(new NoSuchFileException(FILE));
+        PrivateFileUrls urls = at(NOW);
+        String url = urls.sign(PrivateFileUrls.Kind.COMMENTS, FILE, null, viewerId);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> open(urls, url, viewerId));
+        assertEquals("training.comment.file.not.found", e.getMessage());
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.util.UriComponentsBuilder;
 import pl.nextsteppro.climbing.domain.personaltraining.PersonalTrainingRepository;
 import pl.nextsteppro.climbing.domain.personaltraining.TrainingAttachmentRepository;
 import pl.nextsteppro.climbing.domain.personaltraining.TrainingCommentRepository;
@@ -12,6 +14,9 @@ import pl.nextsteppro.climbing.domain.user.UserRole;
 import pl.nextsteppro.climbing.infrastructure.storage.TestImages;
 import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
 
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -34,6 +39,7 @@ class PrivateMaterialAccessIntegrationTest extends BaseIntegrationTest {
     @Autowired private PersonalTrainingRepository personalTrainingRepository;
     @Autowired private TrainingCommentRepository trainingCommentRepository;
     @Autowired private TrainingAttachmentRepository attachmentRepository;
+    @Autowired private PrivateFileUrls privateFileUrls;
 
     private User athlete;
     private User otherAthlete;
@@ -88,12 +94,12 @@ class PrivateMaterialAccessIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    void shouldStreamAMaterialToItsOwnAthlete() {
+    void shouldStreamAMaterialToItsOwnAthlete() throws IOException {
         UUID materialId = materialIdOf(trainingWithMaterial(athlete));
 
         CommentFileStream stream = trainingCalendarService.openMaterial(athlete.getId(), false, materialId);
         assertEquals("application/pdf", stream.mimeType());
-        assertTrue(stream.size() > 0);
+        assertTrue(stream.file().contentLength() > 0);
     }
 
     @Test
@@ -130,13 +136,43 @@ class PrivateMaterialAccessIntegrationTest extends BaseIntegrationTest {
     }
 
     @Test
-    void shouldAddressMaterialsByRowRatherThanByFilename() {
-        UUID trainingId = trainingWithMaterial(athlete);
+    void shouldHandTheCoachAMaterialUrlThatOpensOnlyForThem() throws IOException {
+        trainingWithMaterial(athlete);
         var training = adminTrainingCalendarService.getRangeForAthlete(
             coach.getId(), athlete.getId(), LocalDate.now(), LocalDate.now().plusDays(3)).trainings();
 
+        // The stored filename is in this URL, unlike the by-id one — what makes it safe to pass on
+        // is that it is bound to the coach and runs out, not that the name is hard to guess.
         String url = training.getFirst().attachments().getFirst().url();
         assertNotNull(url);
+        assertTrue(url.startsWith("/api/training-calendar/signed-files/materials/"));
+        var uri = UriComponentsBuilder.fromUriString(url).build();
+        String filename = uri.getPathSegments().getLast();
+        long exp = Long.parseLong(uri.getQueryParams().getFirst("exp"));
+        String name = URLDecoder.decode(uri.getQueryParams().getFirst("name"), StandardCharsets.UTF_8);
+        String sig = uri.getQueryParams().getFirst("sig");
+
+        CommentFileStream stream = privateFileUrls.open("materials", filename, exp, name, sig, coach.getId());
+        assertEquals("application/pdf", stream.mimeType());
+        assertEquals("plan.pdf", stream.fileName());
+        assertTrue(stream.file().contentLength() > 0);
+        assertThrows(AccessDeniedException.class,
+            () -> privateFileUrls.open("materials", filename, exp, name, sig, otherAthlete.getId()));
+    }
+
+    @Test
+    void shouldStillAddressMaterialsByRowWhereNoViewerIsKnown() {
+        UUID trainingId = trainingWithMaterial(athlete);
+
+        // The admin write paths do not carry the coach's id, so they keep the guarded by-id URL
+        var dto = trainingCalendarService.updateAsAdmin(trainingId, new CreatePersonalTrainingRequest(
+            LocalDate.now().plusDays(1), null, null, "Sesja", null,
+            List.of(new AttachmentRequest(
+                pl.nextsteppro.climbing.domain.personaltraining.AttachmentKind.FILE,
+                null, attachmentRepository.findByTrainingIdOrderByPositionAsc(trainingId).getFirst().getFilename(),
+                "plan.pdf", "application/pdf", 100L, "Plan"))));
+
+        String url = dto.attachments().getFirst().url();
         assertTrue(url.startsWith("/api/training-calendar/files/"),
             "Materials must be addressed by attachment id, not by the stored filename");
         assertFalse(url.contains(".pdf"));
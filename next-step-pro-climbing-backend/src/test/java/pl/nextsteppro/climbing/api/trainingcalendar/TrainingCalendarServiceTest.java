@@ -46,7 +46,7 @@ import static org.mockito.Mockito.*;
 /**
  * Unit tests for TrainingCalendarService.
  * Verifies: athlete guard, ownership guard, time validation, completion, status derivation,
- * unread counters (coach activity counts, own does not), seen-marker upsert.
+ * unread counters (coach activity counts, own does not), seen-marker upsert, changes poll.
  */
 @ExtendWith(MockitoExtension.class)
 class TrainingCalendarServiceTest {
@@ -66,7 +66,9 @@ class TrainingCalendarServiceTest {
     @Mock private pl.nextsteppro.climbing.domain.reservation.ReservationRpeRepository reservationRpeRepository;
     @Mock private ReservedSeatRepository reservedSeatRepository;
     @Mock private UserRepository userRepository;
+    @Mock private TrainingCalendarVersions versions;
     @Mock private pl.nextsteppro.climbing.infrastructure.storage.FileStorageService fileStorageService;
+    @Mock private PrivateFileUrls privateFileUrls;
     @Mock private MessageService msg;
 
     private TrainingCalendarService service;
@@ -76,13 +78,13 @@ class TrainingCalendarServiceTest {
 
     @BeforeEach
     void setUp() {
-        AttachmentSupport attachmentSupport = new AttachmentSupport(attachmentRepository, fileStorageService, msg);
+        AttachmentSupport attachmentSupport = new AttachmentSupport(attachmentRepository, fileStorageService, privateFileUrls, msg);
         CommentFileSupport commentFileSupport = new CommentFileSupport(
-            commentFileRepository, commentRepository, fileStorageService, msg);
+            commentFileRepository, commentRepository, fileStorageService, privateFileUrls, msg);
         service = new TrainingCalendarService(
             trainingRepository, commentRepository, readRepository, deletionRepository,
             reservationRepository, reservationRpeRepository, reservedSeatRepository, userRepository,
-            attachmentSupport, commentFileSupport, msg);
+            versions, attachmentSupport, commentFileSupport, msg);
 
         lenient().when(msg.get(anyString())).thenAnswer(inv -> inv.getArgument(0));
         lenient().when(msg.get(anyString(), any())).thenAnswer(inv -> inv.getArgument(0));
@@ -412,6 +414,133 @@ class TrainingCalendarServiceTest {
         assertNull(range.invitations().get(0).eventId());
     }
 
+    // ========== changes poll (V99) ==========
+
+    @Test
+    void shouldAnswerTheWholeRangeWithACursorWhenPolledWithoutOne() {
+        // Given
+        LocalDate from = LocalDate.now(WARSAW).plusDays(1);
+        LocalDate to = from.plusDays(6);
+        when(versions.head(athleteId)).thenReturn(5L);
+        PersonalTraining planned = buildTraining(athlete, true, from.plusDays(1));
+        setField(planned, "id", UUID.randomUUID());
+        when(trainingRepository.findByAthleteIdAndTrainingDateBetweenOrderByTrainingDateAscStartTimeAsc(athleteId, from, to))
+            .thenReturn(List.of(planned));
+
+        // When
+        CalendarChangesDto changes = service.getMyChanges(athleteId, from, to, null).orElseThrow();
+
+        // Then
+        assertTrue(changes.full());
+        assertEquals(List.of(planned.getId()), changes.trainings().stream().map(PersonalTrainingDto::id).toList());
+        assertTrue(changes.removedTrainingIds().isEmpty());
+        CalendarCursor cursor = CalendarCursor.parse(changes.cursor());
+        assertNotNull(cursor);
+        assertEquals(5, cursor.version());
+        assertEquals(from, cursor.from());
+        assertEquals(to, cursor.to());
+    }
+
+    @Test
+    void shouldAnswerNothingWhenTheCounterHasNotMoved() {
+        LocalDate from = LocalDate.now(WARSAW);
+        LocalDate to = from.plusDays(6);
+        when(versions.head(athleteId)).thenReturn(5L);
+
+        assertTrue(service.getMyChanges(athleteId, from, to, cursor(5, from, to, Instant.EPOCH)).isEmpty());
+        // The whole point: an idle poll reads the counter and the marker, not the calendar
+        verifyNoInteractions(trainingRepository, commentRepository, reservationRepository,
+            reservedSeatRepository, deletionRepository);
+    }
+
+    @Test
+    void shouldSendOnlyTheTrainingsWrittenSinceTheCursorAndWhatLeftTheRange() {
+        // Given: one training edited inside the range, one moved out of it, one deleted
+        LocalDate from = LocalDate.now(WARSAW);
+        LocalDate to = from.plusDays(6);
+        when(versions.head(athleteId)).thenReturn(8L);
+        PersonalTraining edited = buildTraining(athlete, true, from.plusDays(2));
+        setField(edited, "id", UUID.randomUUID());
+        PersonalTraining movedAway = buildTraining(athlete, true, to.plusDays(3));
+        setField(movedAway, "id", UUID.randomUUID());
+        UUID deletedId = UUID.randomUUID();
+        when(trainingRepository.findByAthleteIdAndChangeVersionGreaterThanOrderByTrainingDateAscStartTimeAsc(athleteId, 5L))
+            .thenReturn(List.of(edited, movedAway));
+        when(versions.removedSince(athleteId, 5L)).thenReturn(List.of(deletedId));
+
+        // When
+        CalendarChangesDto changes = service.getMyChanges(athleteId, from, to, cursor(5, from, to, Instant.EPOCH))
+            .orElseThrow();
+
+        // Then
+        assertFalse(changes.full());
+        assertEquals(List.of(edited.getId()), changes.trainings().stream().map(PersonalTrainingDto::id).toList());
+        assertEquals(List.of(movedAway.getId(), deletedId), changes.removedTrainingIds());
+        assertEquals(8, CalendarCursor.parse(changes.cursor()).version());
+        verify(trainingRepository, never())
+            .findByAthleteIdAndTrainingDateBetweenOrderByTrainingDateAscStartTimeAsc(any(), any(), any());
+    }
+
+    @Test
+    void shouldAnswerTheWholeRangeOnceTheReadMarkerMoved() {
+        // Every unread dot in the range was computed against the old marker
+        LocalDate from = LocalDate.now(WARSAW);
+        LocalDate to = from.plusDays(6);
+        when(versions.head(athleteId)).thenReturn(5L);
+        when(readRepository.findByUserIdAndAthleteId(athleteId, athleteId))
+            .thenReturn(Optional.of(readWithSeenAt(Instant.now())));
+
+        CalendarChangesDto changes = service.getMyChanges(athleteId, from, to, cursor(5, from, to, Instant.EPOCH))
+            .orElseThrow();
+
+        assertTrue(changes.full());
+    }
+
+    @Test
+    void shouldAnswerTheWholeRangeForACursorOfAnotherRangeOrAnUnreadableOne() {
+        LocalDate from = LocalDate.now(WARSAW);
+        LocalDate to = from.plusDays(6);
+        when(versions.head(athleteId)).thenReturn(5L);
+
+        assertTrue(service.getMyChanges(athleteId, from, to,
+            cursor(5, from.minusDays(7), to.minusDays(7), Instant.EPOCH)).orElseThrow().full());
+        assertTrue(service.getMyChanges(athleteId, from, to, "5.abc").orElseThrow().full());
+    }
+
+    @Test
+    void shouldRejectAnInvalidRangeOnTheChangesPollToo() {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        assertThrows(IllegalArgumentException.class,
+            () -> service.getMyChanges(athleteId, from, from.plusDays(100), null));
+    }
+
+    @Test
+    void shouldEndTheCursorWhenTheClockFirstChangesTheRange() {
+        LocalDateTime now = LocalDateTime.of(2026, 7, 15, 12, 0);
+        LocalDate today = now.toLocalDate();
+        PersonalTraining planned = buildTraining(athlete, false, today);  // ends 19:30
+        PersonalTraining done = buildTraining(athlete, false, today);
+        done.complete(null, 6);
+        PersonalTraining alreadyMissed = buildTraining(athlete, false, today.minusDays(1));
+        LocalDateTime tomorrow = now.plusDays(1);
+
+        // A completed plan never turns MISSED and a missed one already has
+        assertEquals(LocalDateTime.of(2026, 7, 15, 19, 30), TrainingCalendarService.validUntil(
+            tomorrow, now, List.of(done, alreadyMissed, planned), List.of(), List.of()));
+        // A slot invitation lapses at its start, a whole-event one at the end of the day
+        InvitationOverlayDto slotInvite = new InvitationOverlayDto(
+            UUID.randomUUID(), null, today, LocalTime.of(14, 0), LocalTime.of(16, 0), "Kurs");
+        InvitationOverlayDto eventInvite = new InvitationOverlayDto(
+            null, UUID.randomUUID(), today, null, null, "Obóz");
+        assertEquals(LocalDateTime.of(2026, 7, 15, 14, 0), TrainingCalendarService.validUntil(
+            tomorrow, now, List.of(planned), List.of(), List.of(slotInvite, eventInvite)));
+        assertEquals(LocalDateTime.of(2026, 7, 16, 0, 0), TrainingCalendarService.validUntil(
+            tomorrow.plusDays(1), now, List.of(), List.of(), List.of(eventInvite)));
+        // And never later than the limit
+        assertEquals(now.plusMinutes(15), TrainingCalendarService.validUntil(
+            now.plusMinutes(15), now, List.of(planned), List.of(), List.of(slotInvite)));
+    }
+
     // ========== reservation overlay "new" flag ==========
 
     @Test
@@ -1445,6 +1574,11 @@ class TrainingCalendarServiceTest {
         return reservation;
     }
 
+    // Far from expiry, so only what each test changes decides the answer
+    private static String cursor(long version, LocalDate from, LocalDate to, Instant seenAt) {
+        return new CalendarCursor(version, Instant.now().plusSeconds(600), seenAt, from, to).encode();
+    }
+
     private static TrainingCalendarRead readWithSeenAt(Instant seenAt) {
         TrainingCalendarRead read = new TrainingCalendarRead(UUID.randomUUID(), UUID.randomUUID());
         setField(read, "seenAt", seenAt);
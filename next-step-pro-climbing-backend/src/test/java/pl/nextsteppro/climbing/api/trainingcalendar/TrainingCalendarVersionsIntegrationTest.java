@@ -0,0 +1,180 @@
+package pl.nextsteppro.climbing.api.trainingcalendar;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTraining;
+import pl.nextsteppro.climbing.domain.personaltraining.PersonalTrainingRepository;
+import pl.nextsteppro.climbing.domain.personaltraining.TrainingAttachment;
+import pl.nextsteppro.climbing.domain.personaltraining.TrainingAttachmentRepository;
+import pl.nextsteppro.climbing.domain.personaltraining.TrainingComment;
+import pl.nextsteppro.climbing.domain.personaltraining.TrainingCommentRepository;
+import pl.nextsteppro.climbing.domain.reservation.Reservation;
+import pl.nextsteppro.climbing.domain.reservedseat.ReservedSeat;
+import pl.nextsteppro.climbing.domain.reservedseat.ReservedSeatRepository;
+import pl.nextsteppro.climbing.domain.timeslot.TimeSlot;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserRole;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The calendar's change counter over real PostgreSQL (V99). Like the stats snapshots, the triggers
+ * are the feature: every write below goes straight through a repository, and the counter — and
+ * the version on the training it touched — still has to move.
+ */
+class TrainingCalendarVersionsIntegrationTest extends BaseIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 14);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired private PersonalTrainingRepository personalTrainingRepository;
+    @Autowired private TrainingCommentRepository commentRepository;
+    @Autowired private TrainingAttachmentRepository attachmentRepository;
+    @Autowired private ReservedSeatRepository reservedSeatRepository;
+    @Autowired private TrainingCalendarVersions versions;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User athlete;
+
+    @BeforeEach
+    void setUp() {
+        athlete = user("athlete@test.local", "+48123456789", "ada");
+        athlete.setAthlete(true);
+        athlete = userRepository.save(athlete);
+        flushAndClear();
+    }
+
+    @Test
+    void shouldStampATrainingOnEveryWriteToItOrToWhatIsShownWithIt() {
+        PersonalTraining training = personalTrainingRepository.save(new PersonalTraining(
+            athlete, DAY, LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true));
+        flushAndClear();
+        long created = versions.head(athlete.getId());
+        assertTrue(created > 0);
+        assertEquals(created, changeVersion(training.getId()));
+
+        training = personalTrainingRepository.findById(training.getId()).orElseThrow();
+        training.update(DAY, LocalTime.of(18, 0), LocalTime.of(20, 0), "Siła", null, null, true);
+        personalTrainingRepository.save(training);
+        flushAndClear();
+        long edited = versions.head(athlete.getId());
+        assertTrue(edited > created);
+        assertEquals(edited, changeVersion(training.getId()));
+
+        training = personalTrainingRepository.findById(training.getId()).orElseThrow();
+        commentRepository.save(new TrainingComment(training, athlete, false, "Jak poszło?"));
+        flushAndClear();
+        long commented = versions.head(athlete.getId());
+        assertTrue(commented > edited, "a comment moves the unread dot");
+        assertEquals(commented, changeVersion(training.getId()));
+
+        training = personalTrainingRepository.findById(training.getId()).orElseThrow();
+        attachmentRepository.save(TrainingAttachment.link(training, "https://example.com/plan", null, 0));
+        flushAndClear();
+        long attached = versions.head(athlete.getId());
+        assertTrue(attached > commented, "a material is part of the training's row");
+        assertEquals(attached, changeVersion(training.getId()));
+    }
+
+    @Test
+    void shouldLeaveATombstoneForADeletedTraining() {
+        PersonalTraining kept = personalTrainingRepository.save(new PersonalTraining(
+            athlete, DAY, LocalTime.of(17, 0), LocalTime.of(19, 0), "Siła", null, true));
+        PersonalTraining deleted = personalTrainingRepository.save(new PersonalTraining(
+            athlete, DAY.plusDays(1), LocalTime.of(17, 0), LocalTime.of(19, 0), "Wytrzymałość", null, true));
+        flushAndClear();
+        long before = versions.head(athlete.getId());
+
+        personalTrainingRepository.deleteById(deleted.getId());
+        flushAndClear();
+
+        assertTrue(versions.head(athlete.getId()) > before);
+        assertEquals(List.of(deleted.getId()), versions.removedSince(athlete.getId(), before));
+        assertEquals(List.of(), versions.removedSince(athlete.getId(), versions.head(athlete.getId())));
+        assertTrue(changeVersion(kept.getId()) <= before, "the training left alone keeps its version");
+    }
+
+    @Test
+    void shouldMoveTheCounterForBookingsAndHeldSeats() {
+        TimeSlot slot = timeSlotRepository.save(new TimeSlot(DAY, LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        reservedSeatRepository.save(new ReservedSeat(slot, athlete));
+        flushAndClear();
+        long invited = versions.head(athlete.getId());
+        assertTrue(invited > 0, "a held seat shows up as an invitation");
+
+        reservationRepository.save(new Reservation(athlete, slot));
+        flushAndClear();
+        long booked = versions.head(athlete.getId());
+        assertTrue(booked > invited);
+
+        // A moved slot changes the overlay of everybody booked on it
+        slot = timeSlotRepository.findById(slot.getId()).orElseThrow();
+        slot.setDate(DAY.plusDays(1));
+        timeSlotRepository.save(slot);
+        flushAndClear();
+        assertTrue(versions.head(athlete.getId()) > booked);
+    }
+
+    @Test
+    void shouldMoveEveryCounterOnTheSlotOnceWhenItMoves() {
+        User other = user("other@test.local", "+48111222333", "ola");
+        other.setAthlete(true);
+        other = userRepository.save(other);
+        TimeSlot slot = timeSlotRepository.save(new TimeSlot(DAY, LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        reservationRepository.save(new Reservation(athlete, slot));
+        reservedSeatRepository.save(new ReservedSeat(slot, other));
+        flushAndClear();
+        long athleteBefore = versions.head(athlete.getId());
+        long otherBefore = versions.head(other.getId());
+
+        // One booked, one holding a seat: both heads locked in athlete_id order (V101), each bumped once
+        slot = timeSlotRepository.findById(slot.getId()).orElseThrow();
+        slot.setDate(DAY.plusDays(1));
+        timeSlotRepository.save(slot);
+        flushAndClear();
+
+        assertEquals(athleteBefore + 1, versions.head(athlete.getId()));
+        assertEquals(otherBefore + 1, versions.head(other.getId()));
+    }
+
+    @Test
+    void shouldKeepNoCounterForSomebodyWithoutACalendar() {
+        User client = userRepository.save(user("client@test.local", "+48987654321", "klient"));
+        TimeSlot slot = timeSlotRepository.save(new TimeSlot(DAY, LocalTime.of(10, 0), LocalTime.of(12, 0), 8));
+        reservationRepository.save(new Reservation(client, slot));
+        flushAndClear();
+
+        assertEquals(0, versions.head(client.getId()));
+        assertEquals(0, jdbc.queryForObject(
+            "SELECT COUNT(*) FROM training_calendar_heads WHERE athlete_id = ?", Integer.class, client.getId()));
+    }
+
+    private long changeVersion(UUID trainingId) {
+        return jdbc.queryForObject(
+            "SELECT change_version FROM personal_trainings WHERE id = ?", Long.class, trainingId);
+    }
+
+    private static User user(String email, String phone, String nickname) {
+        User user = new User(email, "Ada", "Wspinaczka", phone, nickname);
+        user.setRole(UserRole.USER);
+        user.setEmailVerified(true);
+        return user;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
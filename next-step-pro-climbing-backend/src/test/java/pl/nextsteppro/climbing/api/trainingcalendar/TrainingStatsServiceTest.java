@@ -16,7 +16,11 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +32,9 @@ import static org.mockito.Mockito.*;
  * Verifies: streak semantics (grace week, gaps, year boundary), month trend and average
  * windows, derived missed/attendance, both-sources totals and heatmap, type buckets,
  * RPE windows, empty state, athlete guard.
+ *
+ * <p>Rows dated before {@link #LIVE_FROM} reach the service the way they do in production: folded
+ * into monthly snapshots, as the V98 triggers store them. Most tests below straddle that line.
  */
 @ExtendWith(MockitoExtension.class)
 class TrainingStatsServiceTest {
@@ -36,19 +43,65 @@ class TrainingStatsServiceTest {
     private static final LocalDateTime NOW = LocalDateTime.of(2026, 7, 15, 12, 0);
     private static final LocalDate TODAY = NOW.toLocalDate();
     private static final Instant DONE = Instant.parse("2026-07-01T10:00:00Z");
+    // The 90-day windows start on 2026-04-17, so rows are read from the 1st of April
+    private static final LocalDate LIVE_FROM = LocalDate.of(2026, 4, 1);
 
     @Mock private PersonalTrainingRepository trainingRepository;
     @Mock private ReservationRepository reservationRepository;
     @Mock private TrainingCalendarService calendarService;
+    @Mock private AthleteStatsSnapshots snapshots;
 
     private TrainingStatsService service;
 
     private UUID athleteId;
+    private final List<TrainingStatsRow> olderTrainings = new ArrayList<>();
+    private final List<ReservationStatsRow> olderReservations = new ArrayList<>();
 
     @BeforeEach
     void setUp() {
-        service = new TrainingStatsService(trainingRepository, reservationRepository, calendarService);
+        service = new TrainingStatsService(trainingRepository, reservationRepository, calendarService, snapshots);
         athleteId = UUID.randomUUID();
+        lenient().when(snapshots.findBefore(athleteId, LIVE_FROM)).thenAnswer(inv -> snapshotsOfOlderRows());
+    }
+
+    // ========== live rows vs monthly snapshots (V98) ==========
+
+    @Test
+    void shouldReadRowsFromTheMonthTheWidestWindowStartsIn() {
+        assertEquals(LIVE_FROM, TrainingStatsService.liveFrom(TODAY));
+        // 90 days back from 1 March is 2 December: the whole of December is read as rows
+        assertEquals(d(2025, 12, 1), TrainingStatsService.liveFrom(d(2026, 3, 1)));
+        assertEquals(d(2026, 4, 1), TrainingStatsService.liveFrom(d(2026, 6, 29)));
+    }
+
+    @Test
+    void shouldCombineSnapshotsAndRowsInEveryAllTimeNumber() {
+        givenTrainings(completedRpe(d(2025, 11, 3), 6), completed(d(2026, 7, 10)));
+        givenReservations(ratedReservation(d(2026, 2, 5), 8), reservation(d(2026, 2, 6), EventType.COURSE),
+            reservation(d(2026, 7, 1)));
+
+        AthleteStatsDto stats = service.buildStats(athleteId, NOW);
+
+        assertEquals(5, stats.totalCount());
+        assertEquals(d(2025, 11, 3), stats.firstActivityDate());
+        assertEquals(2, stats.byType().personal());
+        assertEquals(2, stats.byType().individualSlot());
+        assertEquals(1, stats.byType().course());
+        assertEquals(7.0, stats.avgRpeOverall());
+        assertNull(stats.avgRpeLast30Days(), "windows are never filled from snapshots");
+        assertEquals(2, stats.unratedActivitiesCount());
+    }
+
+    @Test
+    void shouldReachIntoOlderMonthsForSustainedHighOnlyWhenRecentRatingsAreFew() {
+        // Two ratings in the live months, three more in February — newest five are all >= 9
+        givenTrainings(
+            completedRpe(d(2026, 7, 14), 9), completedRpe(d(2026, 7, 12), 10),
+            completedRpe(d(2026, 2, 20), 9), completedRpe(d(2026, 2, 10), 10), completedRpe(d(2026, 2, 3), 9),
+            completedRpe(d(2026, 1, 5), 2)); // sixth newest, ignored
+        givenReservations();
+
+        assertTrue(service.buildStats(athleteId, NOW).sustainedHighRpe());
     }
 
     // ========== tasks are counted apart from every training number (V77) ==========
@@ -545,7 +598,7 @@ class TrainingStatsServiceTest {
 
         // When / Then
         assertThrows(IllegalStateException.class, () -> service.getMyStats(userId));
-        verify(trainingRepository, never()).findStatsRowsByAthleteId(any());
+        verify(trainingRepository, never()).findStatsRowsByAthleteId(any(), any());
     }
 
     @Test
@@ -557,18 +610,75 @@ class TrainingStatsServiceTest {
 
         // When / Then
         assertThrows(IllegalArgumentException.class, () -> service.getStatsForAthlete(unknownId));
-        verify(trainingRepository, never()).findStatsRowsByAthleteId(any());
+        verify(trainingRepository, never()).findStatsRowsByAthleteId(any(), any());
     }
 
     // ========== helpers ==========
 
     private void givenTrainings(TrainingStatsRow... rows) {
-        when(trainingRepository.findStatsRowsByAthleteId(athleteId)).thenReturn(List.of(rows));
+        List<TrainingStatsRow> live = new ArrayList<>();
+        for (TrainingStatsRow row : rows) {
+            (row.date().isBefore(LIVE_FROM) ? olderTrainings : live).add(row);
+        }
+        when(trainingRepository.findStatsRowsByAthleteId(athleteId, LIVE_FROM)).thenReturn(live);
     }
 
     private void givenReservations(ReservationStatsRow... rows) {
-        when(reservationRepository.findPastConfirmedStatsRows(eq(athleteId), any(), any()))
-            .thenReturn(List.of(rows));
+        List<ReservationStatsRow> live = new ArrayList<>();
+        for (ReservationStatsRow row : rows) {
+            (row.date().isBefore(LIVE_FROM) ? olderReservations : live).add(row);
+        }
+        when(reservationRepository.findPastConfirmedStatsRows(eq(athleteId), eq(LIVE_FROM), eq(TODAY), any()))
+            .thenReturn(live);
+    }
+
+    /** The older rows as V98 stores them: completed trainings and attended reservations, per month. */
+    private List<AthleteStatsSnapshots.Month> snapshotsOfOlderRows() {
+        TreeMap<YearMonth, List<Activity>> byMonth = new TreeMap<>();
+        for (TrainingStatsRow t : olderTrainings) {
+            if (t.kind() == TrainingKind.TRAINING && t.isCompleted()) {
+                byMonth.computeIfAbsent(YearMonth.from(t.date()), m -> new ArrayList<>())
+                    .add(new Activity(t.date(), "PERSONAL", t.rpe()));
+            }
+        }
+        for (ReservationStatsRow r : olderReservations) {
+            byMonth.computeIfAbsent(YearMonth.from(r.date()), m -> new ArrayList<>())
+                .add(new Activity(r.date(), r.eventType() == null ? "SLOT" : r.eventType().name(), r.rpe()));
+        }
+        List<AthleteStatsSnapshots.Month> months = new ArrayList<>();
+        byMonth.forEach((month, activities) -> {
+            int[] days = new int[month.lengthOfMonth()];
+            int rpeSum = 0;
+            int rpeCount = 0;
+            for (Activity a : activities) {
+                days[a.date().getDayOfMonth() - 1]++;
+                if (a.rpe() != null) {
+                    rpeSum += a.rpe();
+                    rpeCount++;
+                }
+            }
+            int[] recentRpes = activities.stream()
+                .filter(a -> a.rpe() != null)
+                .sorted(Comparator.comparing(Activity::date).reversed())
+                .limit(5)
+                .mapToInt(Activity::rpe)
+                .toArray();
+            months.add(new AthleteStatsSnapshots.Month(month, days,
+                count(activities, "PERSONAL"),
+                (int) activities.stream().filter(a -> !List.of("PERSONAL", "COURSE", "TRAINING", "WORKSHOP")
+                    .contains(a.bucket())).count(),
+                count(activities, "COURSE"), count(activities, "TRAINING"), count(activities, "WORKSHOP"),
+                rpeSum, rpeCount,
+                (int) activities.stream().filter(a -> !a.bucket().equals("PERSONAL") && a.rpe() == null).count(),
+                recentRpes));
+        });
+        return months;
+    }
+
+    private record Activity(LocalDate date, String bucket, Integer rpe) {}
+
+    private static int count(List<Activity> activities, String bucket) {
+        return (int) activities.stream().filter(a -> a.bucket().equals(bucket)).count();
     }
 
     private static LocalDate d(int year, int month, int day) {
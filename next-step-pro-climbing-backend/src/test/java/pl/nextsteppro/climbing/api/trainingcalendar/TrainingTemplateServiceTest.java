@@ -18,6 +18,7 @@ import pl.nextsteppro.climbing.infrastructure.storage.FileStorageService;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,13 +36,14 @@ class TrainingTemplateServiceTest {
     @Mock private TrainingTemplateRepository templateRepository;
     @Mock private TrainingAttachmentRepository attachmentRepository;
     @Mock private FileStorageService fileStorageService;
+    @Mock private PrivateFileUrls privateFileUrls;
     @Mock private MessageService msg;
 
     private TrainingTemplateService service;
 
     @BeforeEach
     void setUp() {
-        AttachmentSupport attachments = new AttachmentSupport(attachmentRepository, fileStorageService, msg);
+        AttachmentSupport attachments = new AttachmentSupport(attachmentRepository, fileStorageService, privateFileUrls, msg);
         service = new TrainingTemplateService(templateRepository, attachments, msg);
         lenient().when(msg.get(anyString())).thenAnswer(inv -> inv.getArgument(0));
     }
@@ -115,8 +117,8 @@ class TrainingTemplateServiceTest {
         when(templateRepository.findById(templateId)).thenReturn(Optional.of(template));
         when(attachmentRepository.findByTemplateIdOrderByPositionAsc(templateId)).thenReturn(List.of(
             TrainingAttachment.file(template, "11111111-1111-1111-1111-111111111111.pdf", "a.pdf", "application/pdf", 1L, null, 0)));
-        // No other row references the file → count 0 → delete from disk
-        when(attachmentRepository.countByFilename(anyString())).thenReturn(0L);
+        // No other row references the file → delete from disk
+        when(attachmentRepository.findReferencedFilenames(anyCollection())).thenReturn(Set.of());
 
         service.delete(templateId);
 
@@ -133,7 +135,8 @@ class TrainingTemplateServiceTest {
         when(attachmentRepository.findByTemplateIdOrderByPositionAsc(templateId)).thenReturn(List.of(
             TrainingAttachment.file(template, "22222222-2222-2222-2222-222222222222.pdf", "a.pdf", "application/pdf", 1L, null, 0)));
         // A training still references the same physical file → must NOT be deleted
-        when(attachmentRepository.countByFilename("22222222-2222-2222-2222-222222222222.pdf")).thenReturn(1L);
+        when(attachmentRepository.findReferencedFilenames(List.of("22222222-2222-2222-2222-222222222222.pdf")))
+            .thenReturn(Set.of("22222222-2222-2222-2222-222222222222.pdf"));
 
         service.delete(templateId);
 
@@ -68,6 +68,8 @@ class UserServiceTest {
     private pl.nextsteppro.climbing.infrastructure.storage.FileStorageService fileStorageService;
     @Mock
     private pl.nextsteppro.climbing.infrastructure.security.PasswordPolicyValidator passwordPolicy;
+    @Mock
+    private pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions userCacheEvictions;
 
     private UserService userService;
     private User testUser;
@@ -86,7 +88,8 @@ class UserServiceTest {
             userSeatReleaseService,
             commentFileSupport,
             fileStorageService,
-            passwordPolicy
+            passwordPolicy,
+            userCacheEvictions
         );
 
         userId = UUID.randomUUID();
@@ -257,6 +260,8 @@ class UserServiceTest {
         verify(userSeatReleaseService).releaseSeatsAndNotifyWaitlists(userId);
         verify(authTokenRepository).deleteAllByUserId(userId);
         verify(userRepository).delete(testUser);
+        // The still-valid access token must stop authenticating on every node, not in 15 minutes.
+        verify(userCacheEvictions).evict(userId);
     }
 
     @Test
@@ -398,6 +403,8 @@ class UserServiceTest {
         // Then
         assertEquals("en", testUser.getPreferredLanguage());
         verify(userRepository).save(testUser);
+        // The language is part of the cached principal
+        verify(userCacheEvictions).evict(userId);
     }
 
     @Test
@@ -0,0 +1,110 @@
+package pl.nextsteppro.climbing.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Token-bucket arithmetic, on a clock the test moves by hand. The Postgres store does the same
+ * sums in SQL (V92) and shares {@link RateLimiter.Decision#of} for the rounding.
+ */
+class InMemoryRateLimiterTest {
+
+    private final TestClock clock = new TestClock();
+    private final InMemoryRateLimiter limiter = new InMemoryRateLimiter(clock);
+
+    @Test
+    void shouldAllowAFullBurstAndRefuseTheNextRequest() {
+        for (int i = 0; i < 15; i++) {
+            RateLimiter.Decision decision = limiter.tryAcquire("ip:auth", 15);
+            assertTrue(decision.allowed(), "request " + i + " fits the bucket");
+            assertEquals(14 - i, decision.remaining());
+        }
+        RateLimiter.Decision refused = limiter.tryAcquire("ip:auth", 15);
+        assertFalse(refused.allowed());
+        assertEquals(4, refused.retryAfterSeconds());
+    }
+
+    @Test
+    void shouldGiveATokenBackOnceItsShareOfTheMinuteHasPassed() {
+        drain("ip:auth", 15);
+
+        clock.advance(Duration.ofSeconds(3));
+        RateLimiter.Decision stillEarly = limiter.tryAcquire("ip:auth", 15);
+        assertFalse(stillEarly.allowed());
+        assertEquals(1, stillEarly.retryAfterSeconds(), "three of the four seconds are already served");
+
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(limiter.tryAcquire("ip:auth", 15).allowed());
+        assertFalse(limiter.tryAcquire("ip:auth", 15).allowed(), "one token back, not a fresh window");
+    }
+
+    /**
+     * The fixed-window hole: a full allowance at 0:59 and another at 1:00. A bucket drained a
+     * second ago has one second's worth of tokens, whatever the wall clock says about minutes.
+     */
+    @Test
+    void shouldNotHandOutASecondBurstAtAMinuteBoundary() {
+        clock.set(Instant.parse("2026-05-13T10:00:59Z"));
+        drain("ip:calendar", 60);
+
+        clock.set(Instant.parse("2026-05-13T10:01:00Z"));
+        assertTrue(limiter.tryAcquire("ip:calendar", 60).allowed());
+        assertFalse(limiter.tryAcquire("ip:calendar", 60).allowed());
+    }
+
+    @Test
+    void shouldNeverRefillPastTheLimit() {
+        limiter.tryAcquire("ip:auth", 15);
+        clock.advance(Duration.ofHours(1));
+
+        assertEquals(14, limiter.tryAcquire("ip:auth", 15).remaining());
+    }
+
+    @Test
+    void shouldKeepKeysIndependent() {
+        drain("a:auth", 15);
+
+        assertTrue(limiter.tryAcquire("b:auth", 15).allowed());
+    }
+
+    private void drain(String key, int limit) {
+        for (int i = 0; i < limit; i++) {
+            assertTrue(limiter.tryAcquire(key, limit).allowed());
+        }
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-05-13T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
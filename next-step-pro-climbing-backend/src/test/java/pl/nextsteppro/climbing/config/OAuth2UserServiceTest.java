@@ -9,17 +9,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
 import pl.nextsteppro.climbing.api.activitylog.ActivityLogService;
 import pl.nextsteppro.climbing.api.auth.AccountConfirmation;
 import pl.nextsteppro.climbing.domain.user.User;
 import pl.nextsteppro.climbing.domain.user.UserRepository;
 import pl.nextsteppro.climbing.infrastructure.mail.AuthMailService;
+import pl.nextsteppro.climbing.infrastructure.security.UserCacheEvictions;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -51,6 +54,8 @@ class OAuth2UserServiceTest {
     private AuthMailService authMailService;
     @Mock
     private ActivityLogService activityLogService;
+    @Mock
+    private UserCacheEvictions userCacheEvictions;
 
     private OAuth2UserService service;
 
@@ -59,7 +64,7 @@ class OAuth2UserServiceTest {
         // Real AccountConfirmation over a mocked log: it is what marks the account confirmed, so
         // stubbing it out would hide the very behaviour these tests assert on.
         service = new OAuth2UserService(userRepository, adminEmailConfig, authMailService,
-            new AccountConfirmation(activityLogService));
+            new AccountConfirmation(activityLogService), userCacheEvictions);
     }
 
     // ---- linking to an existing account ----
@@ -193,6 +198,19 @@ class OAuth2UserServiceTest {
         assertEquals("linked@example.com", ((CustomOAuth2User) result).getUser().getEmail());
     }
 
+    @Test
+    void shouldEvictTheCachedPrincipalOfAnAccountPromotedToAdmin() {
+        User linked = new User("owner@example.com", "Own", "Er", "+48444444444", "owner");
+        ReflectionTestUtils.setField(linked, "id", UUID.randomUUID());
+        when(userRepository.findByOauthProviderAndOauthId("google", "sub-owner")).thenReturn(Optional.of(linked));
+        when(adminEmailConfig.isAdminEmail("owner@example.com")).thenReturn(true);
+
+        process(oauthUser("owner@example.com", true, "sub-owner"));
+
+        assertTrue(linked.isAdmin());
+        verify(userCacheEvictions).evict(linked.getId());
+    }
+
     // ---- helpers ----
 
     /**
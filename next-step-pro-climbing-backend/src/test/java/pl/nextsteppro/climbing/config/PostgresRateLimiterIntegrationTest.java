@@ -0,0 +1,68 @@
+package pl.nextsteppro.climbing.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The shared store over real PostgreSQL (V92). The bucket arithmetic lives in
+ * {@code rate_limit_take}, so only a real database can say whether it agrees with the in-memory
+ * store. Built by hand: the bean only exists with {@code app.rate-limit.store=postgres}.
+ */
+class PostgresRateLimiterIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired private JdbcTemplate jdbc;
+
+    private PostgresRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM rate_limit_buckets");
+        limiter = new PostgresRateLimiter(jdbc);
+    }
+
+    @Test
+    void shouldAllowAFullBurstAndThenSayWhenTheNextTokenIsDue() {
+        for (int i = 0; i < 15; i++) {
+            RateLimiter.Decision decision = limiter.tryAcquire("203.0.113.7:auth", 15);
+            assertTrue(decision.allowed(), "request " + i + " fits the bucket");
+            assertEquals(14 - i, decision.remaining());
+        }
+
+        RateLimiter.Decision refused = limiter.tryAcquire("203.0.113.7:auth", 15);
+
+        assertFalse(refused.allowed());
+        assertEquals(0, refused.remaining());
+        // Four seconds per token on a 15/min bucket, less whatever the loop above took.
+        assertTrue(refused.retryAfterSeconds() >= 1 && refused.retryAfterSeconds() <= 4,
+            "Retry-After was " + refused.retryAfterSeconds());
+    }
+
+    @Test
+    void shouldRefillFromTheStoredTimestamp() {
+        limiter.tryAcquire("203.0.113.8:auth", 15);
+        // As if the bucket had been drained a minute ago by another node.
+        jdbc.update("UPDATE rate_limit_buckets SET tokens = 0, refilled_at = clock_timestamp() - interval '1 minute'"
+            + " WHERE bucket_key = ?", "203.0.113.8:auth");
+
+        RateLimiter.Decision decision = limiter.tryAcquire("203.0.113.8:auth", 15);
+
+        assertTrue(decision.allowed());
+        assertEquals(14, decision.remaining(), "a minute refills the bucket, and no further");
+    }
+
+    @Test
+    void shouldDropOnlyBucketsIdleForLongerThanAPeriod() {
+        limiter.tryAcquire("fresh:auth", 15);
+        limiter.tryAcquire("stale:auth", 15);
+        jdbc.update("UPDATE rate_limit_buckets SET refilled_at = clock_timestamp() - interval '5 minutes'"
+            + " WHERE bucket_key = ?", "stale:auth");
+
+        assertEquals(1, limiter.deleteIdleBuckets());
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM rate_limit_buckets", Integer.class));
+    }
+}
@@ -9,6 +9,9 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +28,10 @@ class RateLimitFilterTest {
         messageSource.addMessage("rate.limit.exceeded", Locale.of("pl"), "Zbyt wiele żądań. Spróbuj ponownie za minutę.");
         messageSource.addMessage("rate.limit.exceeded", Locale.of("en"), "Too many requests. Please try again in a minute.");
         messageSource.addMessage("rate.limit.exceeded", Locale.of("es"), "Demasiadas solicitudes. Inténtalo de nuevo en un minuto.");
-        filter = new RateLimitFilter(messageSource);
+        // A stopped clock: buckets refill continuously, and a slow run must not earn a token back
+        // halfway through a "the 16th request is refused" loop.
+        Clock stopped = Clock.fixed(Instant.parse("2026-05-13T10:00:00Z"), ZoneOffset.UTC);
+        filter = new RateLimitFilter(messageSource, new InMemoryRateLimiter(stopped), true);
     }
 
     @Test
@@ -240,7 +246,7 @@ class RateLimitFilterTest {
     /** Load tests drive every request from one address; measuring the filter is not the point. */
     @Test
     void shouldNotThrottleAnythingWhenDisabled() throws Exception {
-        RateLimitFilter disabled = new RateLimitFilter(messageSource, false);
+        RateLimitFilter disabled = new RateLimitFilter(messageSource, new InMemoryRateLimiter(), false);
         for (int i = 0; i < 50; i++) {
             MockHttpServletResponse response = new MockHttpServletResponse();
             disabled.doFilterInternal(createAuthRequest("en"), response, new MockFilterChain());
@@ -248,12 +254,38 @@ class RateLimitFilterTest {
         }
     }
 
+    /**
+     * The next token on a 15/min bucket is four seconds away. The fixed window could only ever say
+     * "a minute", which sent well-behaved clients away far longer than the limit asked for.
+     */
     @Test
-    void shouldTellTheClientWhenToComeBack() throws Exception {
+    void shouldTellTheClientWhenTheNextTokenIsDue() throws Exception {
         MockHttpServletResponse response = exhaustRateLimit(createAuthRequest("en"));
 
         assertEquals(429, response.getStatus());
-        assertEquals("60", response.getHeader("Retry-After"));
+        assertEquals("4", response.getHeader("Retry-After"));
+        assertEquals("0", response.getHeader("X-RateLimit-Remaining"));
+    }
+
+    @Test
+    void shouldReportTheRemainingAllowanceOnEveryThrottledResponse() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilterInternal(createAuthRequest("en"), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilterInternal(createAuthRequest("en"), second, new MockFilterChain());
+
+        assertEquals("14", first.getHeader("X-RateLimit-Remaining"));
+        assertEquals("13", second.getHeader("X-RateLimit-Remaining"));
+        assertNull(second.getHeader("Retry-After"));
+    }
+
+    /** Outside the API nothing is counted, so there is no allowance to report either. */
+    @Test
+    void shouldNotReportAnAllowanceForUnthrottledPaths() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternal(get("/actuator/health", "192.168.1.66"), response, new MockFilterChain());
+
+        assertNull(response.getHeader("X-RateLimit-Remaining"));
     }
 
     private MockHttpServletRequest get(String path, String remoteAddr) {
@@ -0,0 +1,87 @@
+package pl.nextsteppro.climbing.domain.climbingascent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradeHistogramTest {
+
+    private static GradeHistogram of(Object... gradeAndStyle) {
+        GradeHistogram histogram = new GradeHistogram();
+        for (int i = 0; i < gradeAndStyle.length; i += 2) {
+            histogram.add((ClimbingGrade) gradeAndStyle[i], (AscentStyle) gradeAndStyle[i + 1]);
+        }
+        return histogram;
+    }
+
+    @Test
+    void shouldCountByGradeByStyleAndByBoth() {
+        GradeHistogram histogram = of(
+            ClimbingGrade.FR_6A, AscentStyle.OS,
+            ClimbingGrade.FR_6A, AscentStyle.RP,
+            ClimbingGrade.FR_7A, AscentStyle.RP);
+
+        assertEquals(3, histogram.total());
+        assertEquals(2, histogram.count(ClimbingGrade.FR_6A));
+        assertEquals(2, histogram.count(AscentStyle.RP));
+        assertEquals(1, histogram.count(ClimbingGrade.FR_6A, AscentStyle.OS));
+        assertEquals(0, histogram.count(ClimbingGrade.FR_7A, AscentStyle.OS));
+    }
+
+    @Test
+    void shouldOrderByRankNotByHowTheEnumIsDeclared() {
+        GradeHistogram histogram = of(
+            ClimbingGrade.FR_5A, AscentStyle.RP,
+            ClimbingGrade.FR_8A, AscentStyle.RP,
+            ClimbingGrade.FR_6C_PLUS, AscentStyle.OS);
+
+        assertEquals(List.of(ClimbingGrade.FR_8A, ClimbingGrade.FR_6C_PLUS, ClimbingGrade.FR_5A),
+            histogram.grades());
+        assertEquals(List.of(ClimbingGrade.FR_8A, ClimbingGrade.FR_6C_PLUS), histogram.top(2));
+        assertEquals(ClimbingGrade.FR_6C_PLUS, histogram.hardest(AscentStyle.OS));
+        assertNull(histogram.hardest(AscentStyle.FLASH));
+    }
+
+    @Test
+    void shouldTakeNearestRankPercentilesFromGradesActuallyClimbed() {
+        GradeHistogram histogram = of(
+            ClimbingGrade.FR_6A, AscentStyle.RP,
+            ClimbingGrade.FR_6A, AscentStyle.RP,
+            ClimbingGrade.FR_6B, AscentStyle.RP,
+            ClimbingGrade.FR_7A, AscentStyle.RP);
+
+        assertEquals(ClimbingGrade.FR_6A, histogram.percentile(50));
+        assertEquals(ClimbingGrade.FR_6B, histogram.percentile(75));
+        assertEquals(ClimbingGrade.FR_7A, histogram.percentile(90));
+        assertEquals(ClimbingGrade.FR_7A, histogram.percentile(100));
+        assertNull(new GradeHistogram().percentile(50));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+
+    @Test
+    void shouldMergeCellByCellAndLeaveTheOtherAlone() {
+        GradeHistogram first = of(ClimbingGrade.FR_6A, AscentStyle.RP);
+        GradeHistogram second = of(ClimbingGrade.FR_6A, AscentStyle.RP, ClimbingGrade.FR_7A, AscentStyle.OS);
+
+        first.merge(second);
+
+        assertEquals(3, first.total());
+        assertEquals(2, first.count(ClimbingGrade.FR_6A, AscentStyle.RP));
+        assertEquals(ClimbingGrade.FR_7A, first.top(1).getFirst());
+        assertEquals(2, second.total());
+    }
+
+    @Test
+    void shouldCountAcrossScalesButRefuseToOrderThem() {
+        GradeHistogram group = of(ClimbingGrade.FR_7A, AscentStyle.RP)
+            .merge(of(ClimbingGrade.FB_7A, AscentStyle.FLASH));
+
+        assertEquals(2, group.total());
+        assertThrows(IllegalArgumentException.class, group::grades);
+        assertThrows(IllegalArgumentException.class, () -> group.percentile(50));
+        assertThrows(IllegalArgumentException.class, () -> group.hardest(AscentStyle.RP));
+    }
+}
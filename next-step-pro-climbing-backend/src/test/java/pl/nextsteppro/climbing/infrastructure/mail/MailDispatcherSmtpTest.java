@@ -0,0 +1,88 @@
+package pl.nextsteppro.climbing.infrastructure.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.nextsteppro.climbing.config.AppConfig;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link MailDispatcher} against a real SMTP server (GreenMail, in-process). The mocked sender in
+ * {@link MailDispatcherTest} cannot tell one connection per message from one per chunk; this one
+ * actually speaks SMTP, checks every campaign message arrives intact, and logs how long the
+ * per-message path and the campaign path take for the same recipients — the before/after figure
+ * for batching. Timing is only logged: on a shared CI runner it is too noisy to assert.
+ */
+@DisplayName("MailDispatcher over SMTP")
+class MailDispatcherSmtpTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcherSmtpTest.class);
+    private static final int RECIPIENTS = 200;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        var mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        var appConfig = new AppConfig();
+        appConfig.getMail().setFrom("noreply@nextsteppro.pl");
+
+        dispatcher = new MailDispatcher(mailSender, appConfig, new long[]{0L, 0L});
+    }
+
+    @Test
+    @DisplayName("a campaign delivers every message, unsubscribe headers included")
+    void shouldDeliverEveryCampaignMessage() throws Exception {
+        MailDispatcher.Campaign campaign = dispatcher.openCampaign("smtp-test");
+        for (int i = 0; i < RECIPIENTS; i++) {
+            campaign.add(recipient(i), "Newsletter", "<p>Body</p>", "https://nextsteppro.pl/unsubscribe?token=abc");
+        }
+        campaign.close();
+
+        assertEquals(RECIPIENTS, campaign.delivered());
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(RECIPIENTS, received.length);
+        assertArrayEquals(new String[]{"<https://nextsteppro.pl/unsubscribe?token=abc>"},
+                received[RECIPIENTS - 1].getHeader("List-Unsubscribe"));
+    }
+
+    @Test
+    @DisplayName("logs per-message vs campaign throughput for the same recipients")
+    void shouldMeasureCampaignThroughputAgainstPerMessageSends() {
+        long perMessageStart = System.nanoTime();
+        for (int i = 0; i < RECIPIENTS; i++) {
+            dispatcher.sendHtml(recipient(i), "Subject", "<p>Body</p>");
+        }
+        long perMessageMs = (System.nanoTime() - perMessageStart) / 1_000_000;
+
+        long campaignStart = System.nanoTime();
+        try (var campaign = dispatcher.openCampaign("smtp-benchmark")) {
+            for (int i = 0; i < RECIPIENTS; i++) {
+                campaign.add(recipient(i), "Subject", "<p>Body</p>", null);
+            }
+        }
+        long campaignMs = (System.nanoTime() - campaignStart) / 1_000_000;
+
+        assertEquals(2 * RECIPIENTS, greenMail.getReceivedMessages().length);
+        log.info("{} messages: per-message {} ms, campaign {} ms", RECIPIENTS, perMessageMs, campaignMs);
+    }
+
+    private static String recipient(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -12,7 +12,12 @@ import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import pl.nextsteppro.climbing.config.AppConfig;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
@@ -107,4 +112,80 @@ class MailDispatcherTest {
         // 1 initial attempt + 2 retries
         verify(mailSender, times(3)).send(any(MimeMessage.class));
     }
+
+    // ============================================================
+    // Campaigns
+    // ============================================================
+
+    @Test
+    @DisplayName("a campaign ships one connection per full chunk and the rest on close")
+    void shouldSendCampaignInChunks() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        doAnswer(inv -> chunkSizes.add(sentMessages(inv.getArguments()).size()))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        try (var campaign = dispatcher.openCampaign("test")) {
+            for (int i = 0; i < 120; i++) {
+                campaign.add("user" + i + "@example.com", "Subject", "<p>Body</p>", null);
+            }
+            assertEquals(List.of(50, 50), chunkSizes);
+        }
+
+        assertEquals(List.of(50, 50, 20), chunkSizes);
+        verify(mailSender, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    @DisplayName("only the messages SMTP rejected are retried — the rest of the chunk is not sent twice")
+    void shouldRetryOnlyTheFailedMessagesOfAChunk() {
+        List<List<MimeMessage>> calls = new ArrayList<>();
+        doAnswer(inv -> {
+            List<MimeMessage> sent = sentMessages(inv.getArguments());
+            calls.add(sent);
+            if (calls.size() == 1) {
+                throw new MailSendException(Map.of(sent.get(1), new Exception("452 mailbox busy")));
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        MailDispatcher.Campaign campaign = dispatcher.openCampaign("test");
+        campaign.add("a@example.com", "Subject", "<p>Body</p>", null);
+        campaign.add("b@example.com", "Subject", "<p>Body</p>", null);
+        campaign.add("c@example.com", "Subject", "<p>Body</p>", null);
+        campaign.close();
+
+        assertEquals(2, calls.size());
+        assertEquals(List.of(calls.getFirst().get(1)), calls.get(1));
+        assertEquals(3, campaign.delivered());
+        assertEquals(0, campaign.dropped());
+    }
+
+    @Test
+    @DisplayName("a chunk whose connection keeps failing is dropped whole without throwing")
+    void shouldDropTheChunkAfterExhaustingRetries() {
+        doThrow(new MailSendException("connection refused"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        MailDispatcher.Campaign campaign = dispatcher.openCampaign("test");
+        campaign.add("a@example.com", "Subject", "<p>Body</p>", null);
+        campaign.add("b@example.com", "Subject", "<p>Body</p>", null);
+        assertDoesNotThrow(campaign::close);
+
+        verify(mailSender, times(3)).send(any(MimeMessage[].class));
+        assertEquals(0, campaign.delivered());
+        assertEquals(2, campaign.dropped());
+    }
+
+    /** Varargs reach an answer either expanded or as the array, depending on the Mockito version. */
+    private static List<MimeMessage> sentMessages(Object[] arguments) {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (Object argument : arguments) {
+            if (argument instanceof MimeMessage[] array) {
+                messages.addAll(List.of(array));
+            } else {
+                messages.add((MimeMessage) argument);
+            }
+        }
+        return messages;
+    }
 }
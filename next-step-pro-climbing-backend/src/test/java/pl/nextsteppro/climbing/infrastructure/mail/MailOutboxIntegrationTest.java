@@ -0,0 +1,93 @@
+package pl.nextsteppro.climbing.infrastructure.mail;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The outbox over real PostgreSQL (V93): claiming, the backoff written back after a failure and
+ * the point where a message is given up. The test transaction stands in for the business one —
+ * {@code now()} does not move inside it, so a rescheduled row stays out of reach of the next
+ * drain exactly as it would until its delay passes.
+ */
+class MailOutboxIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired private MailOutbox mailOutbox;
+    @Autowired private JavaMailSender mailSender;
+    @Autowired private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM mail_outbox");
+        reset(mailSender);
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> new MimeMessage((Session) null));
+    }
+
+    @Test
+    void shouldSendAQueuedMessageAndForgetIt() {
+        mailOutbox.enqueue("climber@test.local", "Potwierdzenie", "<p>Body</p>", new byte[]{1, 2, 3});
+
+        assertEquals(1, mailOutbox.drain());
+
+        verify(mailSender).send(any(MimeMessage.class));
+        assertEquals(0, count());
+    }
+
+    @Test
+    void shouldBackOffAfterAFailureInsteadOfRetryingAtOnce() {
+        doThrow(new MailSendException("421 try later")).when(mailSender).send(any(MimeMessage.class));
+        mailOutbox.enqueue("climber@test.local", "Potwierdzenie", "<p>Body</p>");
+
+        assertEquals(0, mailOutbox.drain());
+        assertEquals(0, mailOutbox.drain());
+
+        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        Map<String, Object> row = jdbc.queryForMap(
+            "SELECT attempts, last_error, failed_at, next_attempt_at > now() AS deferred FROM mail_outbox");
+        assertEquals(1, row.get("attempts"));
+        assertEquals("421 try later", row.get("last_error"));
+        assertNull(row.get("failed_at"));
+        assertEquals(true, row.get("deferred"));
+    }
+
+    @Test
+    void shouldGiveUpAfterTheLastAttempt() {
+        doThrow(new MailSendException("550 no such user")).when(mailSender).send(any(MimeMessage.class));
+        mailOutbox.enqueue("gone@test.local", "Potwierdzenie", "<p>Body</p>");
+        jdbc.update("UPDATE mail_outbox SET attempts = ?", MailOutbox.BACKOFF.length);
+
+        mailOutbox.drain();
+
+        assertNotNull(jdbc.queryForObject("SELECT failed_at FROM mail_outbox", Object.class));
+        jdbc.update("UPDATE mail_outbox SET next_attempt_at = now() - interval '1 day'");
+        assertEquals(0, mailOutbox.drain());
+        verify(mailSender, times(1)).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void shouldPurgeOnlyFailedMessagesPastRetention() {
+        mailOutbox.enqueue("pending@test.local", "A", "<p>A</p>");
+        mailOutbox.enqueue("old@test.local", "B", "<p>B</p>");
+        jdbc.update("UPDATE mail_outbox SET failed_at = now() - interval '31 days' WHERE recipient = 'old@test.local'");
+
+        assertEquals(1, mailOutbox.purgeFailed(30));
+        assertEquals(1, count());
+    }
+
+    private int count() {
+        Integer count = jdbc.queryForObject("SELECT count(*) FROM mail_outbox", Integer.class);
+        return count != null ? count : 0;
+    }
+}
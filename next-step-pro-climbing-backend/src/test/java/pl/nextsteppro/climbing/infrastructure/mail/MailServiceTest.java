@@ -40,6 +40,7 @@ import static org.mockito.Mockito.*;
 class MailServiceTest {
 
     @Mock private JavaMailSender mailSender;
+    @Mock private MailOutbox mailOutbox;
     @Mock private AppConfig appConfig;
     @Mock private AdminEmailConfig adminEmailConfig;
     @Mock private MessageService msg;
@@ -68,10 +69,10 @@ class MailServiceTest {
         lenient().when(userService.newsletterUnsubscribeToken(any()))
                 .thenReturn("test-unsubscribe-token");
 
-        // Wrap the mocked JavaMailSender in a real dispatcher with near-zero backoff,
-        // so the existing verify(mailSender).send(...) expectations still hold.
+        // Transactional mail is only queued — verified on the outbox. Campaigns still go straight
+        // to SMTP, so the mocked JavaMailSender sits in a real dispatcher with near-zero backoff.
         MailDispatcher mailDispatcher = new MailDispatcher(mailSender, appConfig, new long[]{0L, 0L});
-        mailService = new MailService(mailDispatcher, appConfig, adminEmailConfig, msg, userService);
+        mailService = new MailService(mailDispatcher, mailOutbox, appConfig, adminEmailConfig, msg, userService);
     }
 
     // ============================================================
@@ -88,7 +89,7 @@ class MailServiceTest {
         mailService.sendReservationConfirmation(reservation, "Slot Title");
 
         // Then: no email sent at all
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(mailOutbox, never()).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     @Test
@@ -101,7 +102,7 @@ class MailServiceTest {
         mailService.sendReservationConfirmation(reservation, "Slot Title");
 
         // Then: email sent once
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailOutbox).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     // ============================================================
@@ -118,7 +119,7 @@ class MailServiceTest {
         mailService.sendCancellationConfirmation(reservation);
 
         // Then
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(mailOutbox, never()).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     @Test
@@ -131,7 +132,7 @@ class MailServiceTest {
         mailService.sendCancellationConfirmation(reservation);
 
         // Then
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailOutbox).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     // ============================================================
@@ -150,7 +151,7 @@ class MailServiceTest {
         mailService.sendAdminNotification(reservation, "Slot Title");
 
         // Then: one email per admin
-        verify(mailSender, times(2)).send(any(MimeMessage.class));
+        verify(mailOutbox, times(2)).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     @Test
@@ -164,7 +165,7 @@ class MailServiceTest {
         mailService.sendAdminNotification(reservation, "Slot Title");
 
         // Then: email sent once to MAIL_FROM fallback
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailOutbox).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     @Test
@@ -177,7 +178,7 @@ class MailServiceTest {
 
         // When / Then: no exception, no email sent
         mailService.sendAdminNotification(reservation, "Slot Title");
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(mailOutbox, never()).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     @Test
@@ -190,7 +191,7 @@ class MailServiceTest {
 
         // When / Then: no exception, no email sent
         mailService.sendAdminNotification(reservation, "Slot Title");
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(mailOutbox, never()).enqueue(anyString(), anyString(), anyString(), any());
     }
 
     // ============================================================
@@ -209,7 +210,7 @@ class MailServiceTest {
         mailService.sendBulk(List.of(subscriber), "Newsletter Subject", "<p>Content</p>", true);
 
         // Then
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailSender).send(any(MimeMessage[].class));
     }
 
     @Test
@@ -224,7 +225,7 @@ class MailServiceTest {
         mailService.sendBulk(List.of(subscriber), "Newsletter", "<p>Content</p>", true);
 
         // Then
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailSender).send(any(MimeMessage[].class));
     }
 
     // ============================================================
@@ -238,7 +239,7 @@ class MailServiceTest {
         mailService.sendBulk(List.of(recipient), "Custom Subject", "<p>HTML body</p>", false);
 
         // Then
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailSender).send(any(MimeMessage[].class));
     }
 
     // ============================================================
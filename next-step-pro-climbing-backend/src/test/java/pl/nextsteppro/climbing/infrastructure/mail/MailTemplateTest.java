@@ -0,0 +1,52 @@
+package pl.nextsteppro.climbing.infrastructure.mail;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("MailTemplate Tests")
+class MailTemplateTest {
+
+    @Test
+    @DisplayName("fills every occurrence of a slot, in order")
+    void shouldFillEverySlotOccurrence() {
+        MailTemplate template = MailTemplate.compile(
+            "<a href=\"{{url}}\">{{name}}</a> — <a href=\"{{url}}\">x</a>", "url", "name");
+
+        String html = template.render(Map.of("url", "https://a/1", "name", "Jan"));
+
+        assertEquals("<a href=\"https://a/1\">Jan</a> — <a href=\"https://a/1\">x</a>", html);
+    }
+
+    @Test
+    @DisplayName("renders recipients independently despite the reused buffer")
+    void shouldNotLeakOneRecipientIntoTheNext() {
+        MailTemplate template = MailTemplate.compile("<p>{{unsubscribeUrl}}</p>", MailTemplate.UNSUBSCRIBE_URL);
+
+        String first = template.render(Map.of(MailTemplate.UNSUBSCRIBE_URL, "https://a/long-token-1"));
+        String second = template.render(Map.of(MailTemplate.UNSUBSCRIBE_URL, "https://a/2"));
+
+        assertEquals("<p>https://a/long-token-1</p>", first);
+        assertEquals("<p>https://a/2</p>", second);
+    }
+
+    @Test
+    @DisplayName("leaves undeclared markers typed by an admin as text")
+    void shouldKeepUndeclaredMarkersAsText() {
+        MailTemplate template = MailTemplate.compile("{{promo}} {{unsubscribeUrl}}", MailTemplate.UNSUBSCRIBE_URL);
+
+        assertEquals("{{promo}} https://a/1", template.render(Map.of(MailTemplate.UNSUBSCRIBE_URL, "https://a/1")));
+    }
+
+    @Test
+    @DisplayName("refuses to render with a slot left empty")
+    void shouldRejectAMissingSlotValue() {
+        MailTemplate template = MailTemplate.compile("<p>{{unsubscribeUrl}}</p>", MailTemplate.UNSUBSCRIBE_URL);
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+}
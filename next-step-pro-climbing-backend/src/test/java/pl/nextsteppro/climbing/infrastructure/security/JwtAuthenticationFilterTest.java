@@ -12,13 +12,16 @@ import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import pl.nextsteppro.climbing.domain.user.UserRole;
 import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.domain.user.UserPrincipal;
+import pl.nextsteppro.climbing.domain.user.UserRole;
 import pl.nextsteppro.climbing.domain.user.UserRepository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -69,7 +72,7 @@ class JwtAuthenticationFilterTest {
 
         assertNull(currentAuth());
         verify(filterChain).doFilter(any(), any());
-        verify(jwtService, never()).validateToken(anyString());
+        verify(jwtService, never()).verify(anyString());
     }
 
     @Test
@@ -77,12 +80,12 @@ class JwtAuthenticationFilterTest {
         doFilter(request("Basic dXNlcjpwYXNz"));
 
         assertNull(currentAuth());
-        verify(jwtService, never()).validateToken(anyString());
+        verify(jwtService, never()).verify(anyString());
     }
 
     @Test
     void shouldNotAuthenticateWhenTokenIsInvalid() throws Exception {
-        when(jwtService.validateToken("bad.token")).thenReturn(false);
+        when(jwtService.verify("bad.token")).thenReturn(Optional.empty());
 
         doFilter(request("Bearer bad.token"));
 
@@ -95,8 +98,7 @@ class JwtAuthenticationFilterTest {
     void shouldNotAuthenticateWhenTokenIsARefreshToken() throws Exception {
         // A refresh token is valid but must never buy access to the API — it only buys a new
         // access token at /api/auth/refresh.
-        when(jwtService.validateToken("refresh.token")).thenReturn(true);
-        when(jwtService.isAccessToken("refresh.token")).thenReturn(false);
+        when(jwtService.verify("refresh.token")).thenReturn(Optional.of(verifiedToken("refresh")));
 
         doFilter(request("Bearer refresh.token"));
 
@@ -107,7 +109,7 @@ class JwtAuthenticationFilterTest {
     void shouldNotAuthenticateWhenUserNoLongerExists() throws Exception {
         // A token outliving its user (deleted account) must not authenticate anyone.
         stubValidAccessToken("good.token");
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.empty());
 
         doFilter(request("Bearer good.token"));
 
@@ -117,7 +119,7 @@ class JwtAuthenticationFilterTest {
     @Test
     void shouldAuthenticateWithUserRoleWhenTokenIsValid() throws Exception {
         stubValidAccessToken("good.token");
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(principal()));
 
         doFilter(request("Bearer good.token"));
 
@@ -131,7 +133,7 @@ class JwtAuthenticationFilterTest {
     void shouldGrantAdminAuthorityWhenUserIsAdmin() throws Exception {
         user.setRole(UserRole.ADMIN);
         stubValidAccessToken("admin.token");
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(principal()));
 
         doFilter(request("Bearer admin.token"));
 
@@ -139,10 +141,27 @@ class JwtAuthenticationFilterTest {
             .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
     }
 
+    /** The principal is a projection: the filter never loads, nor caches, the entity. */
+    @Test
+    void shouldAuthenticateFromTheNarrowPrincipalProjection() throws Exception {
+        user.setAthlete(true);
+        user.setPreferredLanguage("es");
+        stubValidAccessToken("good.token");
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(principal()));
+
+        doFilter(request("Bearer good.token"));
+
+        JwtAuthenticatedUser jwtUser = (JwtAuthenticatedUser) currentAuth().getPrincipal();
+        assertEquals(userId, jwtUser.getUserId());
+        assertTrue(jwtUser.isAthlete());
+        assertEquals("es", jwtUser.getPreferredLanguage());
+        verify(userRepository, never()).findById(any());
+    }
+
     @Test
     void shouldReadUserFromCacheOnRepeatedRequests() throws Exception {
         stubValidAccessToken("good.token");
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(principal()));
 
         doFilter(request("Bearer good.token"));
         SecurityContextHolder.clearContext();
@@ -156,11 +175,11 @@ class JwtAuthenticationFilterTest {
     @Test
     void shouldReloadUserAfterEvictionWhenForceLoggedOutOrDeleted() throws Exception {
         stubValidAccessToken("good.token");
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(principal()));
 
         doFilter(request("Bearer good.token"));
-        // forceLogout and deleteUser both call this; without it a revoked session would keep
-        // working for up to the 60 s cache TTL.
+        // UserCacheEvictions calls this on every node for forceLogout, deleteUser and role
+        // changes; without it a revoked session would keep working for the whole cache TTL.
         filter.evictUser(userId);
         SecurityContextHolder.clearContext();
         doFilter(request("Bearer good.token"));
@@ -169,10 +188,23 @@ class JwtAuthenticationFilterTest {
     }
 
     @Test
-    void shouldNotAuthenticateWhenExtractingTheUserIdBlowsUp() throws Exception {
-        when(jwtService.validateToken("weird.token")).thenReturn(true);
-        when(jwtService.isAccessToken("weird.token")).thenReturn(true);
-        when(jwtService.extractUserId("weird.token")).thenThrow(new IllegalArgumentException("boom"));
+    void shouldReloadEveryUserAfterTheWholeCacheIsDropped() throws Exception {
+        stubValidAccessToken("good.token");
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(principal()));
+
+        doFilter(request("Bearer good.token"));
+        // What a node does when its eviction listener reconnects and cannot know what it missed.
+        filter.evictAllUsers();
+        SecurityContextHolder.clearContext();
+        doFilter(request("Bearer good.token"));
+
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    @Test
+    void shouldNotAuthenticateWhenLoadingTheUserBlowsUp() throws Exception {
+        stubValidAccessToken("weird.token");
+        when(userRepository.findPrincipalById(userId)).thenThrow(new IllegalStateException("boom"));
 
         doFilter(request("Bearer weird.token"));
 
@@ -184,9 +216,16 @@ class JwtAuthenticationFilterTest {
     // ---- helpers ----
 
     private void stubValidAccessToken(String token) {
-        when(jwtService.validateToken(token)).thenReturn(true);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractUserId(token)).thenReturn(userId);
+        when(jwtService.verify(token)).thenReturn(Optional.of(verifiedToken("access")));
+    }
+
+    private UserPrincipal principal() {
+        return new UserPrincipal(userId, user.getEmail(), user.getRole(), user.isAthlete(), user.getPreferredLanguage());
+    }
+
+    private VerifiedToken verifiedToken(String type) {
+        return new VerifiedToken(userId, user.getEmail(), user.getRole().name(), type,
+            Instant.now().plusSeconds(900));
     }
 
     private MockHttpServletRequest request(String authHeader) {
@@ -245,6 +245,84 @@ class JwtServiceTest {
         assertThrows(Exception.class, () -> jwtService.validateToken(""));
     }
 
+    // ========== SINGLE-PARSE VERIFICATION TESTS ==========
+
+    @Test
+    void shouldVerifyAnAccessTokenIntoAllItsClaimsAtOnce() {
+        // Given
+        String token = jwtService.generateAccessToken(testUser);
+
+        // When
+        VerifiedToken verified = jwtService.verify(token).orElseThrow();
+
+        // Then
+        assertEquals(testUser.getId(), verified.userId());
+        assertEquals("test@example.com", verified.email());
+        assertEquals("USER", verified.role());
+        assertTrue(verified.isAccessToken());
+        assertFalse(verified.isRefreshToken());
+        assertTrue(verified.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void shouldAnswerARepeatedTokenFromTheVerifiedCache() {
+        // Given
+        String token = jwtService.generateAccessToken(testUser);
+
+        // When
+        VerifiedToken first = jwtService.verify(token).orElseThrow();
+        VerifiedToken second = jwtService.verify(token).orElseThrow();
+
+        // Then: the very same record — the second call never reached the parser
+        assertSame(first, second);
+    }
+
+    @Test
+    void shouldVerifyARefreshTokenWithoutCachingIt() {
+        // Given
+        String token = jwtService.generateRefreshToken(testUser);
+
+        // When
+        VerifiedToken first = jwtService.verify(token).orElseThrow();
+        VerifiedToken second = jwtService.verify(token).orElseThrow();
+
+        // Then: equal claims, but parsed afresh each time
+        assertTrue(first.isRefreshToken());
+        assertEquals(first, second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void shouldNotVerifyATamperedTokenEvenAfterTheGenuineOneWasCached() {
+        // Given
+        String token = jwtService.generateAccessToken(testUser);
+        jwtService.verify(token);
+        String tamperedToken = token.substring(0, token.length() - 10) + "tampered123";
+
+        // When & Then: a different token hashes to a different key, so it is parsed and rejected
+        assertTrue(jwtService.verify(tamperedToken).isEmpty());
+    }
+
+    @Test
+    void shouldNotVerifyMalformedExpiredOrEmptyTokens() {
+        JwtConfig shortLivedConfig = new JwtConfig();
+        shortLivedConfig.setSecret("test-secret-key-minimum-32-characters-long-for-security");
+        shortLivedConfig.setAccessTokenExpirationMs(1);
+        shortLivedConfig.setRefreshTokenExpirationMs(1);
+        shortLivedConfig.setIssuer("nextsteppro.pl");
+        JwtService shortLivedService = new JwtService(shortLivedConfig);
+        String expired = shortLivedService.generateAccessToken(testUser);
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        assertTrue(jwtService.verify("not.a.valid.jwt.token").isEmpty());
+        assertTrue(shortLivedService.verify(expired).isEmpty());
+        assertTrue(jwtService.verify("").isEmpty());
+    }
+
     // ========== TOKEN TYPE DETECTION TESTS ==========
 
     @Test
@@ -0,0 +1,83 @@
+package pl.nextsteppro.climbing.infrastructure.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.nextsteppro.climbing.domain.user.User;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The eviction has to arrive over {@code LISTEN/NOTIFY}, which only a real database can show.
+ * Not transactional, unlike the rest of the suite: Postgres holds a notification until its
+ * transaction commits, and a rolled-back test transaction would never send it.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserCacheEvictionsIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired private JwtAuthenticationFilter filter;
+    @Autowired private JwtService jwtService;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User user;
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() {
+        authTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = new User("listener@test.local", "Lis", "Tener", "+48123456789", "listener");
+        user.setEmailVerified(true);
+        user = userRepository.save(user);
+        accessToken = jwtService.generateAccessToken(user);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldStopAuthenticatingADeletedUserOnceAnotherNodeBroadcastsTheEviction() throws Exception {
+        assertNotNull(authenticate(), "first request loads and caches the principal");
+
+        // Another node deletes the account: the row goes, and all this node gets is the NOTIFY.
+        jdbc.update("DELETE FROM users WHERE id = ?", user.getId());
+        assertNotNull(authenticate(), "still cached here until the broadcast arrives");
+        jdbc.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+            UserCacheEvictions.CHANNEL, user.getId().toString());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (authenticate() == null) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        fail("the listener never evicted the deleted user");
+    }
+
+    private Authentication authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/me");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,26 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CwebpEncoderTest {
+
+    @Test
+    void shouldBeUnavailableWhereTheBinaryCannotBeRun() {
+        // A dev machine or CI without libwebp-tools: the originals are served, nothing fails
+        assertFalse(new CwebpEncoder(true, "/nonexistent/cwebp", 80).isAvailable());
+    }
+
+    @Test
+    void shouldBeUnavailableWhenSwitchedOff() {
+        assertFalse(new CwebpEncoder(false, "cwebp", 80).isAvailable());
+    }
+
+    @Test
+    void shouldDescribeWebp() {
+        CwebpEncoder encoder = new CwebpEncoder(false, "cwebp", 80);
+        assertEquals("webp", encoder.format());
+        assertEquals("image/webp", encoder.contentType());
+    }
+}
@@ -0,0 +1,90 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDecodeLimiterTest {
+
+    /** 1 MiB of ARGB. */
+    private static final long MIB_OF_PIXELS = 256 * 1024;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ImageDecodeLimiter limiter(int budgetMb, Duration maxWait) {
+        return new ImageDecodeLimiter(DataSize.ofMegabytes(budgetMb), maxWait, registry);
+    }
+
+    @Test
+    void shouldRunDecodesSideBySideWhileTheyFitTheBudget() throws Exception {
+        ImageDecodeLimiter limiter = limiter(4, Duration.ZERO);
+
+        try (var first = limiter.acquire(2 * MIB_OF_PIXELS); var second = limiter.acquire(2 * MIB_OF_PIXELS)) {
+            assertEquals(4L * 1024 * 1024, registry.get("image.decode.memory.used").gauge().value());
+        }
+        assertEquals(0, registry.get("image.decode.memory.used").gauge().value());
+    }
+
+    @Test
+    void shouldRefuseWithBusyOnceTheWaitRunsOut() throws Exception {
+        ImageDecodeLimiter limiter = limiter(4, Duration.ofMillis(50));
+
+        try (var held = limiter.acquire(3 * MIB_OF_PIXELS)) {
+            assertThrows(ImageProcessingBusyException.class, () -> limiter.acquire(2 * MIB_OF_PIXELS));
+        }
+        assertEquals(2, registry.get("image.decode.wait").timer().count());
+    }
+
+    @Test
+    void shouldQueueADecodeUntilTheOneAheadReleasesItsMemory() throws Exception {
+        ImageDecodeLimiter limiter = limiter(4, Duration.ofSeconds(10));
+        var held = limiter.acquire(3 * MIB_OF_PIXELS);
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+            try (var permit = limiter.acquire(2 * MIB_OF_PIXELS)) {
+                // decoded
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("image.decode.queue").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, registry.get("image.decode.queue").gauge().value());
+        assertFalse(waiting.isDone());
+
+        held.close();
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(0, registry.get("image.decode.queue").gauge().value());
+    }
+
+    @Test
+    void shouldLetAnImageLargerThanTheWholeBudgetRunAlone() throws Exception {
+        ImageDecodeLimiter limiter = limiter(4, Duration.ZERO);
+
+        // Clamped to the budget: it waits for an idle decoder instead of for ever
+        try (var huge = limiter.acquire(100 * MIB_OF_PIXELS)) {
+            assertThrows(ImageProcessingBusyException.class, () -> limiter.acquire(1));
+        }
+        assertDoesNotThrow(() -> limiter.acquire(100 * MIB_OF_PIXELS).close());
+    }
+
+    @Test
+    void shouldReleaseAPermitOnlyOnce() throws Exception {
+        ImageDecodeLimiter limiter = limiter(4, Duration.ZERO);
+        var permit = limiter.acquire(2 * MIB_OF_PIXELS);
+        permit.close();
+        permit.close();
+
+        try (var full = limiter.acquire(4 * MIB_OF_PIXELS)) {
+            assertThrows(ImageProcessingBusyException.class, () -> limiter.acquire(1));
+        }
+    }
+}
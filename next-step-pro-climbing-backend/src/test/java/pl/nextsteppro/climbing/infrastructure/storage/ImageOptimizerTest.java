@@ -1,44 +1,70 @@
 package pl.nextsteppro.climbing.infrastructure.storage;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class ImageOptimizerTest {
 
-    private final ImageOptimizer optimizer = new ImageOptimizer();
+    private final ImageOptimizer optimizer = TestImages.optimizer();
+
+    @TempDir
+    Path tempDir;
 
     @Test
     void shouldSkipSmallImage() throws IOException {
         byte[] imageBytes = createTestImage(800, 600);
-        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".jpg");
+        Path output = tempDir.resolve("out");
+        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".jpg", output);
 
         assertEquals(".jpg", result.extension());
-        assertNotNull(result.inputStream());
+        assertArrayEquals(imageBytes, Files.readAllBytes(output));
+        assertEquals(800, result.width());
+        assertEquals(600, result.height());
     }
 
     @Test
     void shouldResizeLargeImage() throws IOException {
         byte[] imageBytes = createTestImage(4000, 3000);
-        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".jpg");
+        Path output = tempDir.resolve("out");
+        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".jpg", output);
 
         assertEquals(".jpg", result.extension());
-        BufferedImage output = ImageIO.read(result.inputStream());
-        assertNotNull(output);
-        assertTrue(output.getWidth() <= 1920);
-        assertTrue(output.getHeight() <= 1920);
+        BufferedImage written = ImageIO.read(output.toFile());
+        assertNotNull(written);
+        assertTrue(written.getWidth() <= 1920);
+        assertTrue(written.getHeight() <= 1920);
+    }
+
+    @Test
+    void shouldReportTheDimensionsItWroteWithoutReadingThemBack() throws IOException {
+        // 4001×2999 subsamples by 2 to 2000×1499 — the reported size must still be the resize
+        // target, not the subsampled raster.
+        byte[] imageBytes = createTestImage(4001, 2999);
+        Path output = tempDir.resolve("out");
+        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".jpg", output);
+
+        BufferedImage written = ImageIO.read(output.toFile());
+        assertEquals(written.getWidth(), result.width());
+        assertEquals(written.getHeight(), result.height());
+        assertEquals(1920, result.width());
     }
 
     @Test
     void shouldPreservePngExtension() throws IOException {
         byte[] imageBytes = createTestImage(3000, 2000, "png");
-        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".png");
+        var result = optimizer.optimize(new ByteArrayInputStream(imageBytes), ".png", tempDir.resolve("out"));
 
         assertEquals(".png", result.extension());
     }
@@ -46,10 +72,59 @@ class ImageOptimizerTest {
     @Test
     void shouldPassThroughNonImageData() throws IOException {
         byte[] garbage = "not an image".getBytes();
-        var result = optimizer.optimize(new ByteArrayInputStream(garbage), ".jpg");
+        Path output = tempDir.resolve("out");
+        var result = optimizer.optimize(new ByteArrayInputStream(garbage), ".jpg", output);
+
+        assertEquals(".jpg", result.extension());
+        assertArrayEquals(garbage, Files.readAllBytes(output));
+        assertNull(result.width());
+    }
+
+    @Test
+    void shouldFlattenTransparencyWhenReencodingAsJpeg() throws IOException {
+        var transparent = new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB);
+        var baos = new ByteArrayOutputStream();
+        ImageIO.write(transparent, "png", baos);
+        Path output = tempDir.resolve("out");
+
+        var result = optimizer.reencodeAsJpeg(new ByteArrayInputStream(baos.toByteArray()), output);
 
         assertEquals(".jpg", result.extension());
-        assertNotNull(result.inputStream());
+        BufferedImage written = ImageIO.read(output.toFile());
+        // White, not the black an alpha channel written as JPEG would turn into
+        assertTrue((written.getRGB(20, 15) & 0xFF) > 240);
+    }
+
+    @Test
+    void shouldRejectAnUnreadableAttachmentWithoutWritingIt() {
+        Path output = tempDir.resolve("out");
+
+        assertThrows(IllegalArgumentException.class, () ->
+                optimizer.reencodeAsJpeg(new ByteArrayInputStream("not an image".getBytes()), output));
+        assertFalse(Files.exists(output));
+    }
+
+    /**
+     * The allocation benchmark for one upload: bytes this thread allocates while a 4000×3000 photo
+     * goes through the optimizer. A full-size ARGB raster of it is 48 MB — the old pipeline held
+     * two of those plus the upload and the output at once; the subsampled decode never allocates
+     * even one. Allocation is an upper bound on what the upload can add to peak heap.
+     */
+    @Test
+    void shouldAllocateLessThanOneFullSizeRasterPerUpload() throws IOException {
+        var threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "needs HotSpot allocation counters");
+        var counters = (com.sun.management.ThreadMXBean) threads;
+        byte[] imageBytes = createTestImage(4000, 3000);
+        long thread = Thread.currentThread().threadId();
+
+        long before = counters.getThreadAllocatedBytes(thread);
+        optimizer.optimize(new ByteArrayInputStream(imageBytes), ".jpg", tempDir.resolve("out"));
+        long allocated = counters.getThreadAllocatedBytes(thread) - before;
+
+        long raster = 4000L * 3000 * 4;
+        assertTrue(allocated < raster, "allocated " + allocated / 1024 + " KB for a 4000x3000 upload, "
+                + "one full-size raster is " + raster / 1024 + " KB");
     }
 
     private byte[] createTestImage(int width, int height) throws IOException {
@@ -0,0 +1,121 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import pl.nextsteppro.climbing.infrastructure.storage.ImageProcessingQueue.Status;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The deferred resize over real PostgreSQL (V95) and the real storage root: an upload is stored
+ * as it came, the drain optimizes it in place under the same name, and the job row tells the
+ * status endpoint what happened — and, until it is done, that the file must not be cached.
+ */
+class ImageProcessingQueueIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired private ImageProcessingQueue imageProcessingQueue;
+    @Autowired private FileStorageService fileStorageService;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM image_jobs");
+    }
+
+    @Test
+    void shouldOptimizeAQueuedUploadInPlace() throws IOException {
+        var upload = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(3000, 2000));
+        String filename = fileStorageService.storeUnprocessed(upload, "gallery");
+        imageProcessingQueue.enqueue("gallery", filename);
+        assertEquals(3000, widthOf(filename));
+        assertEquals(Status.PENDING, imageProcessingQueue.find("gallery", filename).orElseThrow().status());
+        assertTrue(fileStorageService.isPending(filename, "gallery"));
+
+        assertEquals(1, imageProcessingQueue.drain());
+
+        assertFalse(fileStorageService.isPending(filename, "gallery"));
+        assertEquals(1920, widthOf(filename));
+        assertEquals(OptionalInt.of(640), fileStorageService.findVariantWidth(filename, "gallery", 600));
+        var job = imageProcessingQueue.find("gallery", filename).orElseThrow();
+        assertEquals(Status.DONE, job.status());
+        assertNotNull(job.finishedAt());
+        assertEquals(List.of(320, 640, 1280, 1920), fileStorageService
+                .findVariants("gallery", List.of(filename)).get(filename).stream()
+                .map(FileStorageService.ImageVariant::width).toList());
+        fileStorageService.delete(filename, "gallery");
+    }
+
+    @Test
+    void shouldDropCachedNewsOnceItsImageHasVariants() throws IOException {
+        var newsDetail = cacheManager.getCache("newsDetail");
+        var newsList = cacheManager.getCache("newsList");
+        UUID newsId = UUID.randomUUID();
+        newsDetail.put(newsId, "detail listing the raw upload without a srcset");
+        newsList.put("0-10-pl", "list listing the raw upload without a srcset");
+        var upload = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+        String filename = fileStorageService.storeUnprocessed(upload, "news");
+        imageProcessingQueue.enqueue("news", filename);
+
+        assertEquals(1, imageProcessingQueue.drain());
+
+        assertNull(newsDetail.get(newsId));
+        assertNull(newsList.get("0-10-pl"));
+        fileStorageService.delete(filename, "news");
+    }
+
+    @Test
+    void shouldRunARenditionsJobWithoutHoldingBackCachingOfTheStoredFile() throws IOException {
+        // Queued by store() where an encoder runs; none does in the test profile, so by hand
+        var upload = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+        String filename = fileStorageService.store(upload, "gallery");
+        jdbc.update("INSERT INTO image_jobs (folder, filename, kind) VALUES ('gallery', ?, 'RENDITIONS')", filename);
+        assertFalse(fileStorageService.isPending(filename, "gallery"), "stored optimized, its bytes are final");
+
+        assertEquals(1, imageProcessingQueue.drain());
+
+        assertEquals(Status.DONE, imageProcessingQueue.find("gallery", filename).orElseThrow().status());
+        assertEquals(1000, widthOf(filename));
+        fileStorageService.delete(filename, "gallery");
+    }
+
+    @Test
+    void shouldFinishAJobWhoseFileWasDeletedFirst() {
+        String filename = UUID.randomUUID() + ".jpg";
+        imageProcessingQueue.enqueue("gallery", filename);
+
+        assertEquals(1, imageProcessingQueue.drain());
+
+        assertEquals(Status.DONE, imageProcessingQueue.find("gallery", filename).orElseThrow().status());
+    }
+
+    @Test
+    void shouldPurgeOnlyFinishedJobsPastRetention() {
+        imageProcessingQueue.enqueue("gallery", "a.jpg");
+        imageProcessingQueue.enqueue("gallery", "b.jpg");
+        jdbc.update("UPDATE image_jobs SET status = 'DONE', finished_at = now() - interval '8 days' WHERE filename = 'b.jpg'");
+
+        assertEquals(1, imageProcessingQueue.purgeFinished(7));
+        assertTrue(imageProcessingQueue.find("gallery", "a.jpg").isPresent());
+    }
+
+    private int widthOf(String filename) throws IOException {
+        try (InputStream in = fileStorageService.getInputStream(filename, "gallery")) {
+            BufferedImage image = ImageIO.read(in);
+            return image.getWidth();
+        }
+    }
+}
@@ -6,14 +6,30 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
+import pl.nextsteppro.climbing.infrastructure.storage.StoredFileIndex.FileStat;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
 
 class LocalFileStorageServiceTest {
 
@@ -21,10 +37,17 @@ class LocalFileStorageServiceTest {
     Path tempDir;
 
     private LocalFileStorageService service;
+    private ImageVariantIndex variantIndex;
+    private StoredFileIndex storedFileIndex;
+    private ImageJobs imageJobs;
 
     @BeforeEach
     void setUp() {
-        service = new LocalFileStorageService(tempDir.toString(), new ImageOptimizer());
+        variantIndex = mock(ImageVariantIndex.class);
+        storedFileIndex = mock(StoredFileIndex.class);
+        imageJobs = mock(ImageJobs.class);
+        service = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(), variantIndex,
+                storedFileIndex, imageJobs, List.of(), false);
     }
 
     @AfterEach
@@ -180,6 +203,20 @@ class LocalFileStorageServiceTest {
         assertEquals(content.length, size);
     }
 
+    @Test
+    void shouldExposeTheStoredFileAsAResource() throws IOException {
+        byte[] content = TestImages.jpeg();
+        MultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", content);
+        String filename = service.store(file, "gallery");
+
+        var resource = service.getResource(filename, "gallery");
+
+        assertTrue(resource.isFile(), "file-backed, so Spring can serve ranges from it");
+        assertEquals(content.length, resource.contentLength());
+        assertEquals(service.getLastModifiedMillis(filename, "gallery"), resource.lastModified());
+        assertThrows(IOException.class, () -> service.getResource(UUID.randomUUID() + ".jpg", "gallery"));
+    }
+
     @Test
     void shouldReturnNegativeOneForNonExistentFileSize() {
         // Given
@@ -244,6 +281,350 @@ class LocalFileStorageServiceTest {
         assertFalse(service.exists(filename, "gallery"));
     }
 
+    @Test
+    void shouldPublishFilesReadableByEveryoneWhateverTheStagingMode() throws IOException {
+        assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"), "needs POSIX permissions");
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+
+        String filename = service.store(file, "gallery");
+
+        Set<PosixFilePermission> expected = PosixFilePermissions.fromString("rw-r--r--");
+        assertEquals(expected, Files.getPosixFilePermissions(tempDir.resolve("gallery").resolve(filename)));
+        assertEquals(expected, Files.getPosixFilePermissions(tempDir.resolve("gallery").resolve("320").resolve(filename)));
+    }
+
+    @Test
+    void shouldWriteAndRecordNarrowerVariantsOfAnImage() throws IOException {
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+
+        String filename = service.store(file, "gallery");
+
+        assertEquals(OptionalInt.of(320), service.findVariantWidth(filename, "gallery", 1));
+        assertEquals(OptionalInt.of(640), service.findVariantWidth(filename, "gallery", 321));
+        // No 1280 copy of a 1000 px image: nothing is scaled up, the original is served instead
+        assertEquals(OptionalInt.empty(), service.findVariantWidth(filename, "gallery", 641));
+        assertTrue(service.getVariantResource(filename, "gallery", 320).contentLength() > 0);
+        verify(variantIndex).record("gallery", filename, List.of(
+                new FileStorageService.ImageVariant(320, 160),
+                new FileStorageService.ImageVariant(640, 320),
+                new FileStorageService.ImageVariant(1000, 500)));
+    }
+
+    @Test
+    void shouldDeleteVariantsWithTheOriginal() throws IOException {
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+        String filename = service.store(file, "gallery");
+
+        service.delete(filename, "gallery");
+
+        assertThrows(IOException.class, () -> service.getVariantResource(filename, "gallery", 320));
+        assertEquals(List.of(), service.listFilenames("gallery"));
+        verify(variantIndex).forget("gallery", filename);
+    }
+
+    @Test
+    void shouldKeepAnUnprocessedUploadPendingUntilItIsProcessed() throws IOException {
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(3000, 2000));
+
+        String filename = service.storeUnprocessed(file, "gallery");
+
+        assertTrue(service.isPending(filename, "gallery"));
+        assertEquals(List.of(filename), service.listFilenames("gallery"), "the marker is not a stored file");
+        assertTrue(service.process(filename, "gallery"));
+        assertFalse(service.isPending(filename, "gallery"));
+    }
+
+    @Test
+    void shouldStopBeingPendingOnceTheQueueGivesUpOrTheFileIsDeleted() throws IOException {
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+        String kept = service.storeUnprocessed(file, "gallery");
+        String deleted = service.storeUnprocessed(file, "news");
+
+        service.keepUnprocessed(kept, "gallery");
+        service.delete(deleted, "news");
+
+        assertFalse(service.isPending(kept, "gallery"));
+        assertFalse(service.isPending(deleted, "news"));
+        assertFalse(service.isPending(service.store(file, "instructors"), "instructors"), "stored final");
+    }
+
+    /** Stands in for cwebp: writes a tenth of the source's size, or fails the way a crashed process does. */
+    private static ImageEncoder fakeEncoder(boolean available, boolean fails) {
+        return new ImageEncoder() {
+            @Override public String format() { return "webp"; }
+            @Override public String contentType() { return "image/webp"; }
+            @Override public boolean isAvailable() { return available; }
+            @Override public void encode(Path source, Path output) throws IOException {
+                if (fails) {
+                    throw new IOException("cwebp exited with 1");
+                }
+                Files.write(output, new byte[(int) (Files.size(source) / 10)]);
+            }
+        };
+    }
+
+    private LocalFileStorageService withEncoder(ImageEncoder encoder) {
+        return new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(), variantIndex,
+                storedFileIndex, imageJobs, List.of(encoder), false);
+    }
+
+    /** Stores a 1000×500 JPEG and runs the renditions job the upload queued for it. */
+    private String storeAndEncode(LocalFileStorageService storage, MultipartFile file, String folder) throws IOException {
+        String filename = storage.store(file, folder);
+        verify(imageJobs).enqueue(folder, filename, ImageProcessingQueue.Kind.RENDITIONS);
+        when(variantIndex.find(folder, List.of(filename))).thenReturn(Map.of(filename, List.of(
+                new FileStorageService.ImageVariant(320, 160),
+                new FileStorageService.ImageVariant(640, 320),
+                new FileStorageService.ImageVariant(1000, 500))));
+        assertTrue(storage.encodeRenditions(filename, folder));
+        return filename;
+    }
+
+    @Test
+    void shouldQueueRenditionsInsteadOfEncodingInTheUpload() throws IOException {
+        var withWebp = withEncoder(fakeEncoder(true, false));
+
+        String filename = withWebp.store(
+                new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500)), "gallery");
+
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp").isEmpty());
+        verify(imageJobs).enqueue("gallery", filename, ImageProcessingQueue.Kind.RENDITIONS);
+    }
+
+    @Test
+    void shouldFinishARenditionsJobWhoseFileWasDeletedFirst() throws IOException {
+        var withWebp = withEncoder(fakeEncoder(true, false));
+
+        assertFalse(withWebp.encodeRenditions(UUID.randomUUID() + ".jpg", "gallery"));
+    }
+
+    @Test
+    void shouldWriteARenditionOfTheImageAndOfEachVariant() throws IOException {
+        var withWebp = withEncoder(fakeEncoder(true, false));
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+
+        String filename = storeAndEncode(withWebp, file, "gallery");
+
+        assertEquals(List.of("image/webp"), withWebp.renditionContentTypes());
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp").isPresent());
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.of(320), "image/webp").isPresent());
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.of(640), "image/webp").isPresent());
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.empty(), "image/avif").isEmpty());
+        // Renditions live in a directory, like the variants: the folder still holds one stored file
+        assertEquals(List.of(filename), withWebp.listFilenames("gallery"));
+    }
+
+    @Test
+    void shouldListTheRenditionsUnderTheirOwnUrlsOnlyWhereAnEncoderRuns() {
+        List<FileStorageService.ImageVariant> widths = List.of(
+                new FileStorageService.ImageVariant(320, 160),
+                new FileStorageService.ImageVariant(1000, 500));
+        String url = "https://example.test/api/files/gallery/photo.jpg";
+        var withWebp = withEncoder(fakeEncoder(true, false));
+
+        assertEquals(url + "?w=320&fmt=webp 320w, " + url + "?w=1000&fmt=webp 1000w",
+                withWebp.renditionSrcset(url, widths, FileStorageService.WEBP));
+        // One width is still listed: the plain url is the JPEG, not the WebP
+        assertEquals(url + "?fmt=webp", withWebp.renditionSrcset(url, widths.subList(0, 1), FileStorageService.WEBP));
+        assertNull(withWebp.renditionSrcset(url, null, FileStorageService.WEBP));
+        assertNull(withWebp.renditionSrcset(url, widths, "image/avif"));
+        assertNull(withEncoder(fakeEncoder(false, false)).renditionSrcset(url, widths, FileStorageService.WEBP));
+    }
+
+    @Test
+    void shouldDeleteRenditionsWithTheOriginal() throws IOException {
+        var withWebp = withEncoder(fakeEncoder(true, false));
+        String filename = storeAndEncode(withWebp,
+                new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500)), "gallery");
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp").isPresent());
+
+        withWebp.delete(filename, "gallery");
+
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp").isEmpty());
+        assertTrue(withWebp.findRendition(filename, "gallery", OptionalInt.of(320), "image/webp").isEmpty());
+    }
+
+    @Test
+    void shouldStoreTheImageWhenTheEncoderFailsOrIsMissing() throws IOException {
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500));
+
+        var failing = withEncoder(fakeEncoder(true, true));
+        String filename = storeAndEncode(failing, file, "gallery");
+        assertTrue(failing.exists(filename, "gallery"));
+        assertTrue(failing.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp").isEmpty());
+
+        var missing = withEncoder(fakeEncoder(false, false));
+        assertEquals(List.of(), missing.renditionContentTypes());
+        String other = missing.store(file, "news");
+        assertTrue(missing.findRendition(other, "news", OptionalInt.empty(), "image/webp").isEmpty());
+        verify(imageJobs, never()).enqueue(eq("news"), anyString(), any());
+    }
+
+    @Test
+    void shouldNotKeepARenditionThatIsNoSmallerThanTheImage() throws IOException {
+        ImageEncoder copying = new ImageEncoder() {
+            @Override public String format() { return "webp"; }
+            @Override public String contentType() { return "image/webp"; }
+            @Override public boolean isAvailable() { return true; }
+            @Override public void encode(Path source, Path output) throws IOException {
+                Files.copy(source, output, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            }
+        };
+        var withCopying = withEncoder(copying);
+
+        String filename = storeAndEncode(withCopying,
+                new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500)), "gallery");
+
+        assertTrue(withCopying.findRendition(filename, "gallery", OptionalInt.empty(), "image/webp").isEmpty());
+    }
+
+    @Test
+    void shouldNameAContentAddressedUploadByTheHashOfItsBytes() throws Exception {
+        var contentAddressed = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(), variantIndex,
+                storedFileIndex, imageJobs, List.of(), true);
+        byte[] content = TestImages.jpeg();
+
+        String filename = contentAddressed.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", content), "news");
+
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals(hash + ".jpg", filename);
+        verify(storedFileIndex).register("news", filename, hash, FileStat.of(tempDir.resolve("news").resolve(filename)));
+    }
+
+    @Test
+    void shouldKeepRandomNamesForAvatarsEvenWhenContentAddressed() throws IOException {
+        var contentAddressed = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(), variantIndex,
+                storedFileIndex, imageJobs, List.of(), true);
+
+        String filename = contentAddressed.store(new MockMultipartFile("file", "me.jpg", "image/jpeg", TestImages.jpeg()), "avatars");
+
+        assertDoesNotThrow(() -> UUID.fromString(filename.substring(0, filename.lastIndexOf('.'))));
+        verify(storedFileIndex, never()).acquire(anyString(), anyString());
+        verify(storedFileIndex).register(eq("avatars"), eq(filename), isNull(), any(FileStat.class));
+    }
+
+    @Test
+    void shouldReuseAFileHoldingTheSameBytesWithoutWritingAgain() throws IOException {
+        var contentAddressed = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(), variantIndex,
+                storedFileIndex, imageJobs, List.of(), true);
+        String stored = contentAddressed.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", TestImages.jpeg()), "news");
+        when(storedFileIndex.acquire(eq("news"), anyString())).thenReturn(Optional.of(stored));
+
+        String again = contentAddressed.store(new MockMultipartFile("file", "b.jpg", "image/jpeg", TestImages.jpeg()), "news");
+
+        assertEquals(stored, again);
+        assertEquals(List.of(stored), service.listFilenames("news"));
+        verify(storedFileIndex, times(1)).register(eq("news"), eq(stored), anyString(), any(FileStat.class));
+    }
+
+    @Test
+    void shouldKeepAFileAnotherUploadStillReferences() throws IOException {
+        String filename = service.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", TestImages.jpeg()), "news");
+        when(storedFileIndex.release("news", filename)).thenReturn(1);
+
+        service.delete(filename, "news");
+
+        assertTrue(service.exists(filename, "news"));
+        verify(storedFileIndex).forgetIfUnreferenced("news", filename, 1);
+    }
+
+    @Test
+    void shouldUnlinkASharedFileNoRowReferencesAnyMore() throws IOException {
+        // The other upload's row went without a delete call: its owner saw this one still using it
+        String filename = service.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", TestImages.jpeg(1000, 500)), "news");
+        when(storedFileIndex.release("news", filename)).thenReturn(1);
+        when(storedFileIndex.forgetIfUnreferenced("news", filename, 1)).thenReturn(true);
+
+        service.delete(filename, "news");
+
+        assertFalse(service.exists(filename, "news"));
+        assertFalse(Files.exists(tempDir.resolve("news").resolve("320").resolve(filename)));
+        verify(variantIndex).forget("news", filename);
+    }
+
+    @Test
+    void shouldPurgeAFileWhateverItsReferenceCount() throws IOException {
+        String filename = service.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", TestImages.jpeg()), "news");
+
+        service.purge(filename, "news");
+
+        assertFalse(service.exists(filename, "news"));
+        verify(storedFileIndex).forget("news", filename);
+        verify(storedFileIndex, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void shouldStreamOnlyStoredFileNamesPastVariantDirectoriesAndStrayFiles() throws IOException {
+        String filename = service.store(new MockMultipartFile("file", "photo.jpg", "image/jpeg", TestImages.jpeg(1000, 500)), "gallery");
+        Files.writeString(tempDir.resolve("gallery").resolve("notes.txt"), "not ours");
+
+        try (var filenames = service.streamFilenames("gallery")) {
+            assertEquals(List.of(filename), filenames.toList());
+        }
+        try (var filenames = service.streamFilenames("missing")) {
+            assertEquals(List.of(), filenames.toList());
+        }
+    }
+
+    @Test
+    void shouldReconcileTheIndexWithWhatChangedOnDisk() throws IOException {
+        Path news = Files.createDirectories(tempDir.resolve("news"));
+        String kept = writeSettled(news, UUID.randomUUID() + ".jpg", TestImages.jpeg());
+        String rewritten = writeSettled(news, UUID.randomUUID() + ".jpg", TestImages.jpeg());
+        String restored = writeSettled(news, UUID.randomUUID() + ".png", TestImages.png());
+        String gone = UUID.randomUUID() + ".jpg";
+        Instant dirModified = settle(news);
+        FileStat keptStat = FileStat.of(news.resolve(kept));
+        when(storedFileIndex.stats("news")).thenReturn(Map.of(
+                kept, keptStat,
+                rewritten, new FileStat(1, keptStat.modifiedAt()),
+                gone, keptStat));
+
+        var result = service.reconcileIndex();
+
+        assertEquals(new FileStorageService.Reconciliation(1, 1, 1, 1), result);
+        verify(storedFileIndex).scanned("news", Map.of(
+                rewritten, FileStat.of(news.resolve(rewritten)),
+                restored, FileStat.of(news.resolve(restored))));
+        verify(storedFileIndex).forget("news", List.of(gone));
+        verify(storedFileIndex).folderScanned("news", dirModified);
+    }
+
+    @Test
+    void shouldNotListAFolderWhoseDirectoryHasNotChangedSinceTheLastScan() throws IOException {
+        Path news = Files.createDirectories(tempDir.resolve("news"));
+        writeSettled(news, UUID.randomUUID() + ".jpg", TestImages.jpeg());
+        when(storedFileIndex.folderScans()).thenReturn(Map.of("news", settle(news)));
+
+        assertEquals(new FileStorageService.Reconciliation(0, 0, 0, 0), service.reconcileIndex());
+
+        verify(storedFileIndex, never()).stats(anyString());
+    }
+
+    @Test
+    void shouldLeaveAJustPublishedFileToTheUploadRegisteringIt() throws IOException {
+        Path news = Files.createDirectories(tempDir.resolve("news"));
+        Files.write(news.resolve(UUID.randomUUID() + ".jpg"), TestImages.jpeg());
+
+        assertEquals(new FileStorageService.Reconciliation(1, 0, 0, 0), service.reconcileIndex());
+
+        verify(storedFileIndex).scanned("news", Map.of());
+        // The directory changed just now: the next pass lists it again and registers the file then
+        verify(storedFileIndex, never()).folderScanned(anyString(), any());
+    }
+
+    private static String writeSettled(Path folder, String filename, byte[] content) throws IOException {
+        settle(Files.write(folder.resolve(filename), content));
+        return filename;
+    }
+
+    /** Backdates a file or directory past the settle time; returns its new mtime. */
+    private static Instant settle(Path path) throws IOException {
+        Instant anHourAgo = Instant.now().minus(Duration.ofHours(1)).truncatedTo(ChronoUnit.MICROS);
+        Files.setLastModifiedTime(path, FileTime.from(anHourAgo));
+        return anHourAgo;
+    }
+
     @Test
     void shouldNotThrowWhenDeletingNonExistentFile() {
         // Given
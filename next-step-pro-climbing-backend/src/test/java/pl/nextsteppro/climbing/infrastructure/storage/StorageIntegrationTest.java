@@ -8,8 +8,10 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 /**
  * Integration test for file storage flow:
@@ -25,7 +27,8 @@ class StorageIntegrationTest {
     @Test
     void shouldHandleCompleteFileLifecycle() throws IOException {
         // Given
-        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString(), new ImageOptimizer());
+        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(),
+                mock(ImageVariantIndex.class), mock(StoredFileIndex.class), mock(ImageJobs.class), List.of(), false);
         byte[] originalContent = TestImages.jpeg();
         MultipartFile file = new MockMultipartFile(
                 "photo",
@@ -68,7 +71,8 @@ class StorageIntegrationTest {
     @Test
     void shouldHandleMultipleFilesInDifferentFolders() throws IOException {
         // Given
-        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString(), new ImageOptimizer());
+        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(),
+                mock(ImageVariantIndex.class), mock(StoredFileIndex.class), mock(ImageJobs.class), List.of(), false);
 
         byte[] instructorPhoto = TestImages.jpeg();
         byte[] galleryPhoto1 = TestImages.png();
@@ -116,7 +120,8 @@ class StorageIntegrationTest {
     @Test
     void shouldStreamLargeFileWithoutLoadingIntoMemory() throws IOException {
         // Given: Simulate large file (5MB)
-        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString(), new ImageOptimizer());
+        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString(), TestImages.optimizer(),
+                mock(ImageVariantIndex.class), mock(StoredFileIndex.class), mock(ImageJobs.class), List.of(), false);
         // A real 3000x2000 JPEG: it has to be a decodable image now that the signature is checked,
         // and it is large enough to exercise the resize path on the way in.
         byte[] largeContent = TestImages.jpeg(3000, 2000);
@@ -0,0 +1,145 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.nextsteppro.climbing.api.admin.instructor.AdminInstructorService;
+import pl.nextsteppro.climbing.api.admin.storage.AdminStorageDtos.MissingFileDto;
+import pl.nextsteppro.climbing.api.admin.storage.AdminStorageDtos.OrphanedFileDto;
+import pl.nextsteppro.climbing.api.admin.storage.AdminStorageService;
+import pl.nextsteppro.climbing.domain.instructor.Instructor;
+import pl.nextsteppro.climbing.domain.instructor.InstructorRepository;
+import pl.nextsteppro.climbing.integration.BaseIntegrationTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Content-addressed storage, reconciliation and the index-based audit over real PostgreSQL (V96, V97) and the real
+ * storage root, where the test profile runs with {@code app.storage.content-addressed} on.
+ */
+class StoredFileIndexIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired private FileStorageService fileStorageService;
+    @Autowired private AdminStorageService adminStorageService;
+    @Autowired private AdminInstructorService adminInstructorService;
+    @Autowired private InstructorRepository instructorRepository;
+    @Autowired private JdbcTemplate jdbc;
+    @Value("${app.storage.root}") private Path storageRoot;
+
+    @BeforeEach
+    void setUp() {
+        // Startup reconciliation registers whatever earlier runs left in the shared test root
+        jdbc.update("DELETE FROM stored_files");
+        jdbc.update("DELETE FROM stored_folders");
+    }
+
+    @Test
+    void shouldStoreTheSameUploadOnceAndDeleteItWithTheLastReference() throws IOException {
+        byte[] content = TestImages.jpeg(800, 600);
+
+        String first = fileStorageService.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", content), "news");
+        String second = fileStorageService.store(new MockMultipartFile("file", "b.jpg", "image/jpeg", content), "news");
+
+        assertEquals(first, second);
+        assertEquals(2, refCount("news", first));
+
+        fileStorageService.delete(first, "news");
+        assertTrue(fileStorageService.exists(first, "news"), "the other upload still uses it");
+        assertEquals(1, refCount("news", first));
+
+        fileStorageService.delete(first, "news");
+        assertFalse(fileStorageService.exists(first, "news"));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM stored_files WHERE filename = ?", Integer.class, first));
+    }
+
+    @Test
+    void shouldKeepTheSameBytesApartInDifferentFolders() throws IOException {
+        byte[] content = TestImages.png(64, 64);
+
+        String news = fileStorageService.store(new MockMultipartFile("file", "a.png", "image/png", content), "news");
+        String courses = fileStorageService.store(new MockMultipartFile("file", "a.png", "image/png", content), "courses");
+
+        assertEquals(news, courses);
+        assertEquals(1, refCount("news", news));
+        assertEquals(1, refCount("courses", courses));
+        fileStorageService.delete(news, "news");
+        assertTrue(fileStorageService.exists(courses, "courses"));
+        fileStorageService.delete(courses, "courses");
+    }
+
+    @Test
+    void shouldReportAndPurgeAStoredFileNothingReferences() throws IOException {
+        String filename = fileStorageService.store(
+                new MockMultipartFile("file", "a.jpg", "image/jpeg", TestImages.jpeg(320, 200)), "assets");
+
+        var audit = adminStorageService.runAudit();
+
+        assertTrue(audit.orphanedFiles().stream().map(OrphanedFileDto::filename).toList().contains(filename));
+        assertEquals(1, audit.totalFilesOnDisk());
+
+        assertEquals(1, adminStorageService.deleteOrphanedFiles());
+        assertFalse(fileStorageService.exists(filename, "assets"));
+        assertTrue(adminStorageService.runAudit().orphanedFiles().isEmpty());
+    }
+
+    @Test
+    void shouldReportAFileRemovedBehindTheIndexBackAsMissingOnceReconciled() throws IOException {
+        String filename = fileStorageService.store(
+                new MockMultipartFile("file", "a.jpg", "image/jpeg", TestImages.jpeg(320, 200)), "instructors");
+        Instructor instructor = new Instructor("Jan", "Test");
+        instructor.setPhotoFilename(filename);
+        instructorRepository.saveAndFlush(instructor);
+        assertTrue(adminStorageService.runAudit().missingFiles().isEmpty());
+
+        Files.delete(storageRoot.resolve("instructors").resolve(filename));
+        var result = fileStorageService.reconcileIndex();
+
+        assertEquals(1, result.removed());
+        assertEquals(List.of(new MissingFileDto("instructors", filename)), adminStorageService.runAudit().missingFiles());
+    }
+
+    /**
+     * Two owners of one file, deleted through the service that checks its own rows: the first
+     * delete never reaches the storage (the other instructor still shows the photo), so the count
+     * of uploads stays at two while one row is left. Committed for real — the recheck against the
+     * rows runs after the deleting transaction commits.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldDeleteASharedPhotoWithTheLastInstructorShowingIt() throws IOException {
+        byte[] content = TestImages.jpeg(400, 300);
+        Instructor first = instructorRepository.save(new Instructor("Jan", "Pierwszy"));
+        Instructor second = instructorRepository.save(new Instructor("Anna", "Druga"));
+        try {
+            adminInstructorService.uploadPhoto(first.getId(), new MockMultipartFile("file", "a.jpg", "image/jpeg", content));
+            adminInstructorService.uploadPhoto(second.getId(), new MockMultipartFile("file", "b.jpg", "image/jpeg", content));
+            String filename = instructorRepository.findById(first.getId()).orElseThrow().getPhotoFilename();
+            assertEquals(2, refCount("instructors", filename));
+
+            adminInstructorService.deleteInstructor(first.getId());
+            assertTrue(fileStorageService.exists(filename, "instructors"), "the second instructor still shows it");
+
+            adminInstructorService.deleteInstructor(second.getId());
+            assertFalse(fileStorageService.exists(filename, "instructors"));
+            assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM stored_files WHERE folder = 'instructors' AND filename = ?",
+                    Integer.class, filename));
+        } finally {
+            instructorRepository.deleteAllById(List.of(first.getId(), second.getId()));
+        }
+    }
+
+    private int refCount(String folder, String filename) {
+        return jdbc.queryForObject("SELECT ref_count FROM stored_files WHERE folder = ? AND filename = ?",
+                Integer.class, folder, filename);
+    }
+}
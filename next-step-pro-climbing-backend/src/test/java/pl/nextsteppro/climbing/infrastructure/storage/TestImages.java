@@ -1,5 +1,8 @@
 package pl.nextsteppro.climbing.infrastructure.storage;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
 import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -7,6 +10,7 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.time.Duration;
 
 /**
  * Real image bytes for storage tests.
@@ -50,6 +54,15 @@ public final class TestImages {
         return header;
     }
 
+    /**
+     * What those bytes go through in tests that build the storage by hand: the production decode
+     * budget, its meters going nowhere.
+     */
+    public static ImageOptimizer optimizer() {
+        return new ImageOptimizer(new ImageDecodeLimiter(DataSize.ofMegabytes(64), Duration.ofSeconds(30),
+                new SimpleMeterRegistry()));
+    }
+
     public static byte[] pdf() {
         return "%PDF-1.4\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n".getBytes();
     }
@@ -0,0 +1,127 @@
+package pl.nextsteppro.climbing.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes and quality of the WebP renditions against the JPEG/PNG they stand in for, over a folder
+ * of real photos — the numbers behind {@code app.storage.webp.quality}. Not part of the suite: it
+ * needs sample images and libwebp's tools, and only runs when pointed at a folder:
+ *
+ * <pre>IMAGE_SAMPLES=~/photos/sample ./gradlew test --tests '*WebpComparisonHarness'</pre>
+ *
+ * <p>Each sample goes through {@link ImageOptimizer#optimize} first, as an upload would, so the
+ * baseline is the file clients get today. PSNR is of the decoded rendition against that file:
+ * what the switch costs on top of the loss already taken. Above ~40 dB the difference is not
+ * visible on a photo. {@code CWEBP}/{@code DWEBP} override the binaries taken from the PATH.
+ */
+@EnabledIfEnvironmentVariable(named = "IMAGE_SAMPLES", matches = ".+")
+class WebpComparisonHarness {
+
+    private static final int[] QUALITIES = {70, 75, 80, 85, 90};
+
+    @TempDir
+    Path work;
+
+    @Test
+    void compareWebpWithTheStoredImages() throws IOException {
+        Path samples = Path.of(System.getenv("IMAGE_SAMPLES"));
+        String cwebp = System.getenv().getOrDefault("CWEBP", "cwebp");
+        String dwebp = System.getenv().getOrDefault("DWEBP", "dwebp");
+        List<Path> images;
+        try (var files = Files.list(samples)) {
+            images = files.filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).matches(".*\\.(jpe?g|png)"))
+                    .sorted().toList();
+        }
+        assertFalse(images.isEmpty(), "No .jpg/.jpeg/.png files in " + samples);
+        assertTrue(new CwebpEncoder(true, cwebp, 80).isAvailable(), cwebp + " cannot be run");
+
+        ImageOptimizer optimizer = TestImages.optimizer();
+        long storedTotal = 0;
+        long[] webpTotals = new long[QUALITIES.length];
+        double[] psnrTotals = new double[QUALITIES.length];
+
+        StringBuilder header = new StringBuilder(String.format("%-40s %11s %9s", "sample", "size", "stored"));
+        for (int quality : QUALITIES) {
+            header.append(String.format(" | q%-2d %7s %5s %6s", quality, "KB", "%", "dB"));
+        }
+        System.out.println(header);
+
+        for (Path image : images) {
+            String name = image.getFileName().toString();
+            Path stored = work.resolve("stored");
+            try (InputStream in = Files.newInputStream(image)) {
+                optimizer.optimize(in, name.substring(name.lastIndexOf('.')), stored);
+            }
+            BufferedImage reference = ImageIO.read(stored.toFile());
+            long storedBytes = Files.size(stored);
+            storedTotal += storedBytes;
+
+            StringBuilder row = new StringBuilder(String.format("%-40.40s %5dx%-5d %7d KB", name,
+                    reference.getWidth(), reference.getHeight(), storedBytes / 1024));
+            for (int i = 0; i < QUALITIES.length; i++) {
+                Path webp = work.resolve("q" + QUALITIES[i] + ".webp");
+                Path decoded = work.resolve("q" + QUALITIES[i] + ".png");
+                new CwebpEncoder(true, cwebp, QUALITIES[i]).encode(stored, webp);
+                run(dwebp, "-quiet", webp.toString(), "-png", "-o", decoded.toString());
+                long webpBytes = Files.size(webp);
+                double psnr = psnr(reference, ImageIO.read(decoded.toFile()));
+                webpTotals[i] += webpBytes;
+                psnrTotals[i] += psnr;
+                row.append(String.format(" |     %7d %4d%% %6.2f", webpBytes / 1024, 100 * webpBytes / storedBytes, psnr));
+            }
+            System.out.println(row);
+        }
+
+        StringBuilder total = new StringBuilder(String.format("%-40s %11s %7d KB", images.size() + " samples", "",
+                storedTotal / 1024));
+        for (int i = 0; i < QUALITIES.length; i++) {
+            total.append(String.format(" |     %7d %4d%% %6.2f", webpTotals[i] / 1024,
+                    100 * webpTotals[i] / storedTotal, psnrTotals[i] / images.size()));
+        }
+        System.out.println(total);
+    }
+
+    /** Over the RGB channels; alpha is ignored, as a rendition keeps it as it was. */
+    private static double psnr(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        double squaredError = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int a = expected.getRGB(x, y);
+                int b = actual.getRGB(x, y);
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int diff = ((a >> shift) & 0xff) - ((b >> shift) & 0xff);
+                    squaredError += diff * diff;
+                }
+            }
+        }
+        double mse = squaredError / (3.0 * expected.getWidth() * expected.getHeight());
+        return mse == 0 ? Double.POSITIVE_INFINITY : 10 * Math.log10(255.0 * 255.0 / mse);
+    }
+
+    private static void run(String... command) throws IOException {
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        try {
+            assertTrue(process.waitFor(60, TimeUnit.SECONDS), command[0] + " timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        assertEquals(0, process.exitValue(), command[0] + " failed");
+    }
+}